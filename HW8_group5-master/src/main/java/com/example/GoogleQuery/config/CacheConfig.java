@@ -1,25 +1,40 @@
 package com.example.GoogleQuery.config;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.caffeine.CaffeineCache;
 import org.springframework.cache.support.SimpleCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
+import java.time.Duration;
 import java.util.Arrays;
 
 /**
  * CacheConfig - 快取配置
  * 使用 Spring Cache 來提升搜尋效能
  * 
- * 注意：這是使用 ConcurrentHashMap 的簡單實作
- * 生產環境建議使用 Redis 或 EhCache
+ * 每個快取區域都是一個 Caffeine 快取：
+ * - 以 maximumSize 限制項目數量，超過時依 W-TinyLFU（近期與頻率）淘汰
+ * - 以 expireAfterWrite 設定過期時間
+ * - 開啟 recordStats，命中 / 未命中 / 淘汰次數會自動註冊到 actuator 的
+ *   cache.gets、cache.evictions 等指標（/actuator/metrics、/actuator/caches）
+ *
+ * 熱門查詢由 QueryWarmingService 定期在過期前重新計算（需要 @EnableScheduling）
  */
 @Configuration
 @EnableCaching  // 啟用 Spring Cache
+@EnableScheduling  // 啟用熱門查詢的定期預熱
 public class CacheConfig {
-    
+
+    // 快取區域名稱（@Cacheable / @CacheEvict 使用）
+    public static final String SEARCH_RESULTS = "searchResults";
+    public static final String COMPARISONS = "comparisons";
+    public static final String RECOMMENDATIONS = "recommendations";
+    public static final String GOOGLE_RESULTS = "googleResults";
+
     /**
      * 配置快取管理器
      * @return CacheManager
@@ -31,49 +46,35 @@ public class CacheConfig {
         // 定義快取區域
         cacheManager.setCaches(Arrays.asList(
             // 搜尋結果快取（10 分鐘過期）
-            new ConcurrentMapCache("searchResults"),
-            
-            // 咖啡廳資料快取（長期）
-            new ConcurrentMapCache("cafes"),
-            
-            // 關鍵字快取（長期）
-            new ConcurrentMapCache("keywords"),
-            
-            // 篩選器選項快取（長期）
-            new ConcurrentMapCache("filters"),
+            buildCache(SEARCH_RESULTS, 1000, Duration.ofMinutes(10)),
             
             // 比較結果快取（5 分鐘過期）
-            new ConcurrentMapCache("comparisons"),
+            buildCache(COMPARISONS, 500, Duration.ofMinutes(5)),
             
             // 推薦結果快取（30 分鐘過期）
-            new ConcurrentMapCache("recommendations")
+            buildCache(RECOMMENDATIONS, 200, Duration.ofMinutes(30)),
+
+            // 混合搜尋的 Google 結果快取（30 分鐘過期，同一個查詢翻頁時不重新呼叫 Google）
+            buildCache(GOOGLE_RESULTS, 200, Duration.ofMinutes(30))
         ));
         
         return cacheManager;
     }
-    
+
     /**
-     * 自訂快取鍵生成器（可選）
-     * 用於自訂如何生成快取的 key
+     * 建立有大小上限與過期時間的快取
+     * @param name 快取名稱
+     * @param maximumSize 最多保留的項目數量
+     * @param ttl 寫入後多久過期
+     * @return 快取
      */
-    /*
-    @Bean
-    public KeyGenerator customKeyGenerator() {
-        return (target, method, params) -> {
-            StringBuilder key = new StringBuilder();
-            key.append(target.getClass().getSimpleName()).append("_");
-            key.append(method.getName()).append("_");
-            
-            for (Object param : params) {
-                if (param != null) {
-                    key.append(param.toString()).append("_");
-                }
-            }
-            
-            return key.toString();
-        };
+    static CaffeineCache buildCache(String name, long maximumSize, Duration ttl) {
+        return new CaffeineCache(name, Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build());
     }
-    */
 }
 
 /**
@@ -96,36 +97,34 @@ public class CacheConfig {
  *     public void clearSearchCache() {
  *         // 清除搜尋快取
  *     }
- *     
- *     @CachePut(value = "cafes", key = "#cafe.id")
- *     public Cafe updateCafe(Cafe cafe) {
- *         // 更新咖啡廳資料
- *         return cafe;
- *     }
  * }
  * 
  * 
  * 快取策略說明：
  * 
  * 1. searchResults：搜尋結果快取
- *    - 快取鍵：搜尋關鍵字
- *    - 過期時間：10 分鐘
+ *    - 快取鍵：搜尋引擎的世代、查詢的標準形式（SearchService.prepareQuery 解析一次後沿用）、
+ *      排序後的篩選條件與分頁參數，意思相同的查詢共用同一筆快取
+ *    - 上限：1000 筆，過期時間：10 分鐘
  *    - 適用於：頻繁搜尋相同關鍵字
+ *    - 清除時機：SearchService.reloadData
  * 
- * 2. cafes：咖啡廳資料快取
- *    - 快取鍵：咖啡廳 ID
- *    - 過期時間：長期（直到手動清除）
- *    - 適用於：咖啡廳基本資料不常變動
- * 
- * 3. filters：篩選器選項快取
- *    - 快取鍵：篩選器類型（districts/features）
- *    - 過期時間：長期
- *    - 適用於：地區、功能列表不常變動
+ * 2. comparisons：比較結果快取
+ *    - 快取鍵：咖啡廳 ID 列表
+ *    - 上限：500 筆，過期時間：5 分鐘
+ *    - 清除時機：SearchService.reloadData
  * 
- * 4. recommendations：推薦結果快取
+ * 3. recommendations：推薦結果快取
  *    - 快取鍵：推薦類型和參數
- *    - 過期時間：30 分鐘
+ *    - 上限：200 筆，過期時間：30 分鐘
  *    - 適用於：熱門推薦不需要即時更新
+ *    - 清除時機：SearchService.reloadData、RankingService 更新 baseline score
+ * 
+ * 4. googleResults：混合搜尋的 Google 結果快取
+ *    - 快取鍵：搜尋引擎的世代、查詢的標準形式與排序後的篩選條件（不含分頁參數）
+ *    - 上限：200 筆，過期時間：30 分鐘
+ *    - 適用於：混合搜尋翻頁時重複使用同一組 Google 結果（不重新搜尋、不重新抓取網頁）
+ *    - 清除時機：SearchService.reloadData
  * 
  * 
  * 如何清除快取：
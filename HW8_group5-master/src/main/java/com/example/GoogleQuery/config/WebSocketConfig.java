@@ -0,0 +1,35 @@
+package com.example.GoogleQuery.config;
+
+import com.example.GoogleQuery.controller.LiveSearchHandler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+/**
+ * WebSocketConfig - WebSocket 相關配置
+ * 註冊邊打字邊搜尋的 WebSocket 端點（ws://host/ws/search）
+ */
+@Configuration
+@EnableWebSocket
+public class WebSocketConfig implements WebSocketConfigurer {
+
+    @Autowired
+    private LiveSearchHandler liveSearchHandler;
+
+    // 允許建立連線的來源（逗號分隔，可使用 https://*.example.com 形式的 pattern）
+    // WebSocket 不受瀏覽器同源政策限制，未列出的來源一律拒絕，避免跨站 WebSocket 劫持
+    @Value("${live-search.allowed-origins:http://localhost:8080}")
+    private String[] allowedOrigins;
+
+    /**
+     * 註冊 WebSocket 處理器
+     */
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(liveSearchHandler, "/ws/search")
+                .setAllowedOriginPatterns(allowedOrigins);
+    }
+}
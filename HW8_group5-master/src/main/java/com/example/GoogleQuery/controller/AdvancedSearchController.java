@@ -1,7 +1,6 @@
 package com.example.GoogleQuery.controller;
 
 import com.example.GoogleQuery.service.*;
-import com.example.GoogleQuery.model.SearchResult;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
@@ -23,6 +22,8 @@ import java.util.*;
 @RequestMapping("/api/v2")
 public class AdvancedSearchController {
     
+    private static final int MAX_PAGE_SIZE = 100;   // 分頁時每頁最多筆數
+    
     @Autowired
     private SearchService searchService;
     
@@ -44,27 +45,34 @@ public class AdvancedSearchController {
     /**
      * 執行混合搜尋
      * GET /api/v2/hybrid-search?q=keyword&google=true
+     * GET /api/v2/hybrid-search?q=keyword&offset=20&limit=10（分頁）
+     * 
+     * 回應中 total 為合併後的結果總數（本地 + Google），resultCount 為這一頁的筆數；
+     * 有指定分頁時另外回傳 offset、limit、hasMore
      * 
      * @param q 搜尋關鍵字
      * @param google 是否包含 Google 結果（默認 true）
+     * @param offset 起始位置（可選，預設 0）
+     * @param limit 每頁數量（可選，未提供時返回全部結果）
      * @return 混合搜尋結果
      */
     @GetMapping("/hybrid-search")
     public Map<String, Object> hybridSearch(
             @RequestParam String q,
-            @RequestParam(defaultValue = "true") boolean google) {
+            @RequestParam(defaultValue = "true") boolean google,
+            @RequestParam(required = false) Integer offset,
+            @RequestParam(required = false) Integer limit) {
         
         Map<String, Object> response = new HashMap<>();
         
         try {
-            ArrayList<SearchResult> results = 
-                    hybridSearchService.hybridSearch(q, google);
+            HybridSearchService.CascadeResult cascade = hybridSearchService.cascadeSearch(
+                    q, null, null, google, resolveOffset(offset), resolveLimit(limit));
             
             response.put("success", true);
             response.put("keyword", q);
             response.put("includeGoogle", google);
-            response.put("resultCount", results.size());
-            response.put("results", results);
+            putCascade(response, cascade, limit);
             response.put("timestamp", new Date());
             
         } catch (Exception e) {
@@ -77,12 +85,15 @@ public class AdvancedSearchController {
     
     /**
      * 執行混合高級搜尋（含篩選）
-     * GET /api/v2/hybrid-search/advanced?q=keyword&districts=...&features=...&google=true
+     * GET /api/v2/hybrid-search/advanced?q=keyword&districts=...&features=...&google=true&offset=0&limit=10
+     * 分頁參數與回應欄位同 /hybrid-search
      * 
      * @param q 搜尋關鍵字
      * @param districts 地區列表（逗號分隔）
      * @param features 功能列表（逗號分隔）
      * @param google 是否包含 Google 結果
+     * @param offset 起始位置（可選，預設 0）
+     * @param limit 每頁數量（可選，未提供時返回全部結果）
      * @return 篩選後的搜尋結果
      */
     @GetMapping("/hybrid-search/advanced")
@@ -90,7 +101,9 @@ public class AdvancedSearchController {
             @RequestParam(required = false) String q,
             @RequestParam(required = false) String districts,
             @RequestParam(required = false) String features,
-            @RequestParam(defaultValue = "true") boolean google) {
+            @RequestParam(defaultValue = "true") boolean google,
+            @RequestParam(required = false) Integer offset,
+            @RequestParam(required = false) Integer limit) {
         
         Map<String, Object> response = new HashMap<>();
         
@@ -98,8 +111,8 @@ public class AdvancedSearchController {
             List<String> districtList = parseCommaSeparatedList(districts);
             List<String> featureList = parseCommaSeparatedList(features);
             
-            ArrayList<SearchResult> results = 
-                    hybridSearchService.hybridAdvancedSearch(q, districtList, featureList, google);
+            HybridSearchService.CascadeResult cascade = hybridSearchService.cascadeSearch(
+                    q, districtList, featureList, google, resolveOffset(offset), resolveLimit(limit));
             
             response.put("success", true);
             response.put("keyword", q);
@@ -108,8 +121,7 @@ public class AdvancedSearchController {
                 put("features", featureList);
                 put("includeGoogle", google);
             }});
-            response.put("resultCount", results.size());
-            response.put("results", results);
+            putCascade(response, cascade, limit);
             response.put("timestamp", new Date());
             
         } catch (Exception e) {
@@ -120,6 +132,40 @@ public class AdvancedSearchController {
         return response;
     }
     
+    /**
+     * 將混合搜尋的一頁結果放入回應（分頁欄位只在有指定分頁時回傳）
+     */
+    private void putCascade(Map<String, Object> response, HybridSearchService.CascadeResult cascade,
+                            Integer requestedLimit) {
+        response.put("total", cascade.total());
+        response.put("resultCount", cascade.results().size());
+        response.put("localTotal", cascade.localTotal());
+        response.put("results", cascade.results());
+        response.put("stageMillis", cascade.stageMillis());
+        if (requestedLimit != null || cascade.offset() > 0) {
+            response.put("offset", cascade.offset());
+            response.put("limit", resolveLimit(requestedLimit));
+            response.put("hasMore", cascade.hasMore());
+        }
+    }
+    
+    /**
+     * 解析起始位置（負數視為 0）
+     */
+    private int resolveOffset(Integer offset) {
+        return offset != null ? Math.max(0, offset) : 0;
+    }
+    
+    /**
+     * 解析每頁數量（未提供時返回全部結果，最多 MAX_PAGE_SIZE 筆）
+     */
+    private int resolveLimit(Integer limit) {
+        if (limit == null) {
+            return Integer.MAX_VALUE;
+        }
+        return Math.max(0, Math.min(limit, MAX_PAGE_SIZE));
+    }
+    
     /**
      * =====================================================
      * Stage 4: 語意分析搜尋
@@ -1,5 +1,6 @@
 package com.example.GoogleQuery.controller;
 
+import com.example.GoogleQuery.model.SearchHit;
 import com.example.GoogleQuery.model.SearchResult;
 import com.example.GoogleQuery.service.FavoriteService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -29,7 +30,7 @@ public class FavoriteController {
     /**
      * 取得收藏咖啡廳的詳細資訊
      * POST /api/favorites/details
-     * Body: {"cafeIds": ["cafe_001", "cafe_002", "cafe_003"]}
+     * Body: {"cafeIds": ["cafe_001", "cafe_002", "cafe_003"], "fields": "id,name"}（fields 可選）
      * 
      * 前端從 LocalStorage 取得收藏的咖啡廳 ID 列表
      * 後端根據 ID 返回完整的咖啡廳資訊
@@ -56,11 +57,12 @@ public class FavoriteController {
             
             // 取得咖啡廳詳細資訊
             List<SearchResult> favorites = favoriteService.getFavoriteDetails(cafeIds);
+            String fields = (String) requestData.get("fields");
             
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("total", favorites.size());
-            response.put("favorites", favorites);
+            response.put("favorites", SearchHit.toResponse(favorites, fields));
             
             return ResponseEntity.ok(response);
             
@@ -162,12 +164,14 @@ public class FavoriteController {
      * 
      * @param cafeIds 已收藏的咖啡廳 ID（逗號分隔）
      * @param limit 推薦數量（預設 5）
+     * @param fields 回傳欄位（逗號分隔，可選）
      * @return 推薦的咖啡廳列表
      */
     @GetMapping("/recommendations")
     public ResponseEntity<Map<String, Object>> getRecommendations(
             @RequestParam(required = false) String cafeIds,
-            @RequestParam(defaultValue = "5") int limit) {
+            @RequestParam(defaultValue = "5") int limit,
+            @RequestParam(required = false) String fields) {
         
         try {
             List<String> favoriteIds = List.of();
@@ -181,7 +185,7 @@ public class FavoriteController {
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("total", recommendations.size());
-            response.put("recommendations", recommendations);
+            response.put("recommendations", SearchHit.toResponse(recommendations, fields));
             
             return ResponseEntity.ok(response);
             
@@ -0,0 +1,173 @@
+package com.example.GoogleQuery.controller;
+
+import com.example.GoogleQuery.service.SearchService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * LiveSearchHandler - 邊打字邊搜尋的 WebSocket 處理器
+ * 前端保持一條連線，每次按鍵送出 {"seq": 3, "query": "不限", "limit": 5, "fields": "id,name"}，
+ * 伺服器回傳 {"seq": 3, "query": "不限", "suggestions": [...], "results": [...]}
+ * （suggestions、results 與上一次相同時省略，前端沿用上一次的內容）
+ *
+ * 同一條連線有新的輸入時，還在排隊的舊請求直接取消，計算中的舊請求不送出結果
+ * 所有連線共用的執行緒池佇列有上限（live-search.queue-capacity），
+ * 佇列已滿時回傳 {"seq": 3, "busy": true, "error": "..."}，前端可在下一次輸入時重送
+ */
+@Component
+public class LiveSearchHandler extends TextWebSocketHandler {
+
+    private static final int DEFAULT_LIMIT = 5;          // 預設預覽結果數量
+    private static final int MAX_LIMIT = 20;             // 最多預覽結果數量
+    private static final int SEND_TIME_LIMIT = 5000;     // 送出訊息的最長時間（毫秒）
+    private static final int BUFFER_SIZE_LIMIT = 512 * 1024; // 等待送出的訊息最多佔用的位元組
+
+    @Autowired
+    private SearchService searchService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final Map<String, LiveSearchSession> sessions = new ConcurrentHashMap<>();
+    private final Map<String, WebSocketSession> senders = new ConcurrentHashMap<>();
+
+    @Value("${live-search.queue-capacity:256}")
+    private int queueCapacity;          // 等待計算的請求上限（所有連線合計）
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void init() {
+        int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+            runnable -> {
+                Thread thread = new Thread(runnable, "live-search");
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        sessions.put(session.getId(), new LiveSearchSession());
+        // WebSocketSession 不能同時由多個執行緒送出訊息
+        senders.put(session.getId(),
+            new ConcurrentWebSocketSessionDecorator(session, SEND_TIME_LIMIT, BUFFER_SIZE_LIMIT));
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) throws IOException {
+        LiveSearchSession live = sessions.get(session.getId());
+        WebSocketSession sender = senders.get(session.getId());
+        if (live == null || sender == null) {
+            return;
+        }
+
+        JsonNode request;
+        try {
+            request = objectMapper.readTree(message.getPayload());
+        } catch (IOException e) {
+            send(sender, Map.of("error", "訊息格式錯誤: " + e.getMessage()));
+            return;
+        }
+
+        Object seq = request.has("seq") ? objectMapper.treeToValue(request.get("seq"), Object.class) : null;
+        String query = request.path("query").asText("");
+        int limit = Math.max(0, Math.min(request.path("limit").asInt(DEFAULT_LIMIT), MAX_LIMIT));
+        String fields = request.hasNonNull("fields") ? request.get("fields").asText() : null;
+
+        long version = live.begin();
+        Runnable task = () -> {
+            try {
+                synchronized (live) {
+                    Map<String, Object> response = live.update(version, searchService, seq, query, limit, fields);
+                    if (response != null) {
+                        send(sender, response);
+                    }
+                }
+            } catch (Exception e) {
+                Map<String, Object> error = new HashMap<>();
+                error.put("seq", seq);
+                error.put("error", "搜尋失敗: " + e.getMessage());
+                send(sender, error);
+            }
+        };
+
+        Future<?> future = submit(task);
+        if (future == null) {
+            Map<String, Object> busy = new HashMap<>();
+            busy.put("seq", seq);
+            busy.put("busy", true);
+            busy.put("error", "伺服器忙碌中，請稍後再試");
+            send(sender, busy);
+            return;
+        }
+        live.replacePending(future);
+    }
+
+    /**
+     * 送出工作；佇列已滿時先清除已取消的舊請求再試一次
+     * @return 工作的 Future；仍然滿載時返回 null
+     */
+    private Future<?> submit(Runnable task) {
+        try {
+            return executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            // 被新輸入取代的請求已取消，但仍佔用佇列位置
+            executor.purge();
+            try {
+                return executor.submit(task);
+            } catch (RejectedExecutionException again) {
+                return null;
+            }
+        }
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        LiveSearchSession live = sessions.remove(session.getId());
+        senders.remove(session.getId());
+        if (live != null) {
+            live.close();
+        }
+    }
+
+    private void send(WebSocketSession sender, Map<String, Object> payload) {
+        try {
+            if (sender.isOpen()) {
+                sender.sendMessage(new TextMessage(objectMapper.writeValueAsString(payload)));
+            }
+        } catch (Exception e) {
+            System.err.println("[LiveSearch] 送出訊息失敗: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 取得目前連線數量
+     * @return 連線數量
+     */
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.GoogleQuery.controller;
+
+import com.example.GoogleQuery.model.SearchHit;
+import com.example.GoogleQuery.model.SearchResult;
+import com.example.GoogleQuery.service.SearchService;
+
+import java.util.*;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * LiveSearchSession - 單一 WebSocket 連線的邊打字邊搜尋狀態
+ * 每收到一次輸入就遞增版本號；計算前、送出前都確認版本仍是最新，
+ * 被新輸入取代的請求不計算也不送出
+ * 只回傳與上一次送出內容不同的部分（建議詞或結果沒有改變時省略該欄位）
+ */
+class LiveSearchSession {
+
+    private final AtomicLong latest = new AtomicLong();                 // 最新一次輸入的版本號
+    private final AtomicReference<Future<?>> pending = new AtomicReference<>(); // 排隊或計算中的請求
+    private List<String> lastSuggestions;    // 上一次送出的建議詞
+    private List<String> lastResultKeys;     // 上一次送出的結果（網址 + 分數）
+
+    /**
+     * 開始一次新的輸入（之前的輸入都變成過期）
+     * @return 這次輸入的版本號
+     */
+    long begin() {
+        return latest.incrementAndGet();
+    }
+
+    /**
+     * 檢查版本是否已被新的輸入取代
+     * @param version 版本號
+     * @return true 如果已過期
+     */
+    boolean isStale(long version) {
+        return version != latest.get();
+    }
+
+    /**
+     * 設定這次輸入的背景工作，並取消還在排隊的前一個工作
+     * 不中斷計算中的工作（計算很短，且中斷送出中的執行緒可能關閉連線），由版本號檢查略過
+     * @param task 這次輸入的背景工作
+     */
+    void replacePending(Future<?> task) {
+        Future<?> previous = pending.getAndSet(task);
+        if (previous != null) {
+            previous.cancel(false);
+        }
+    }
+
+    /**
+     * 取消所有未完成的工作（連線關閉時）
+     */
+    void close() {
+        latest.incrementAndGet();
+        replacePending(null);
+    }
+
+    /**
+     * 計算建議詞與預覽結果，並與上一次送出的內容比較
+     * 呼叫端需在持有此物件的鎖時送出回傳的訊息，確保送出順序與差異比較一致
+     * @param version 版本號
+     * @param searchService 搜尋服務
+     * @param seq 前端送來的序號（原樣回傳，可為 null）
+     * @param query 目前的輸入
+     * @param limit 預覽結果數量
+     * @param fields 回傳欄位（可為 null）
+     * @return 要送出的訊息；已過期時返回 null
+     */
+    synchronized Map<String, Object> update(long version, SearchService searchService,
+                                            Object seq, String query, int limit, String fields) {
+        if (isStale(version)) {
+            return null;
+        }
+
+        List<String> suggestions = searchService.getSearchSuggestions(query);
+        if (isStale(version)) {
+            return null;
+        }
+        List<SearchResult> results = searchService.preview(query, limit);
+        if (isStale(version)) {
+            return null;
+        }
+
+        // 確定要送出後才更新「上一次送出的內容」
+        List<String> resultKeys = new ArrayList<>();
+        for (SearchResult result : results) {
+            resultKeys.add(result.getUrl() + "@" + result.getScore());
+        }
+
+        Map<String, Object> message = new LinkedHashMap<>();
+        message.put("seq", seq);
+        message.put("query", query);
+        if (!suggestions.equals(lastSuggestions)) {
+            message.put("suggestions", suggestions);
+            lastSuggestions = suggestions;
+        }
+        if (!resultKeys.equals(lastResultKeys)) {
+            message.put("results", SearchHit.toResponse(results, fields));
+            lastResultKeys = resultKeys;
+        }
+        return message;
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.GoogleQuery.controller;
 
+import com.example.GoogleQuery.model.SearchHit;
 import com.example.GoogleQuery.model.SearchResult;
 import com.example.GoogleQuery.service.RecommendationService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -30,11 +31,13 @@ public class RecommendationController {
      * GET /api/recommendations/top?limit=10
      * 
      * @param limit 返回數量（預設 10）
+     * @param fields 回傳欄位（逗號分隔，可選）
      * @return 熱門推薦咖啡廳列表
      */
     @GetMapping("/top")
     public ResponseEntity<Map<String, Object>> getTopRecommendations(
-            @RequestParam(defaultValue = "10") int limit) {
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(required = false) String fields) {
         
         try {
             if (limit <= 0 || limit > 30) {
@@ -51,7 +54,7 @@ public class RecommendationController {
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("total", recommendations.size());
-            response.put("recommendations", recommendations);
+            response.put("recommendations", SearchHit.toResponse(recommendations, fields));
             response.put("criteriaUsed", "baseline_score");
             
             return ResponseEntity.ok(response);
@@ -72,12 +75,14 @@ public class RecommendationController {
      * 
      * @param district 行政區名稱
      * @param limit 返回數量（預設 5）
+     * @param fields 回傳欄位（逗號分隔，可選）
      * @return 該地區的推薦咖啡廳列表
      */
     @GetMapping("/by-district")
     public ResponseEntity<Map<String, Object>> getRecommendationsByDistrict(
             @RequestParam String district,
-            @RequestParam(defaultValue = "5") int limit) {
+            @RequestParam(defaultValue = "5") int limit,
+            @RequestParam(required = false) String fields) {
         
         try {
             ArrayList<SearchResult> recommendations = 
@@ -87,7 +92,7 @@ public class RecommendationController {
             response.put("success", true);
             response.put("district", district);
             response.put("total", recommendations.size());
-            response.put("recommendations", recommendations);
+            response.put("recommendations", SearchHit.toResponse(recommendations, fields));
             
             return ResponseEntity.ok(response);
             
@@ -107,12 +112,14 @@ public class RecommendationController {
      * 
      * @param feature 功能特性（如：不限時、有插座、CP值高、有wifi）
      * @param limit 返回數量（預設 5）
+     * @param fields 回傳欄位（逗號分隔，可選）
      * @return 符合該特性的推薦咖啡廳列表
      */
     @GetMapping("/by-feature")
     public ResponseEntity<Map<String, Object>> getRecommendationsByFeature(
             @RequestParam String feature,
-            @RequestParam(defaultValue = "5") int limit) {
+            @RequestParam(defaultValue = "5") int limit,
+            @RequestParam(required = false) String fields) {
         
         try {
             ArrayList<SearchResult> recommendations = 
@@ -122,7 +129,7 @@ public class RecommendationController {
             response.put("success", true);
             response.put("feature", feature);
             response.put("total", recommendations.size());
-            response.put("recommendations", recommendations);
+            response.put("recommendations", SearchHit.toResponse(recommendations, fields));
             
             return ResponseEntity.ok(response);
             
@@ -139,7 +146,7 @@ public class RecommendationController {
     /**
      * 綜合推薦（結合多個條件）
      * POST /api/recommendations/combined
-     * Body: { "districts": ["大安區"], "features": ["不限時", "有插座"], "limit": 5 }
+     * Body: { "districts": ["大安區"], "features": ["不限時", "有插座"], "limit": 5, "fields": "id,name,score" }
      * 
      * @param requestBody 推薦條件
      * @return 綜合推薦結果
@@ -159,6 +166,8 @@ public class RecommendationController {
                 ? (Integer) requestBody.get("limit") 
                 : 10;
             
+            String fields = (String) requestBody.get("fields");
+            
             ArrayList<SearchResult> recommendations = 
                 recommendationService.getCombinedRecommendations(
                     districts, features, limit
@@ -171,7 +180,7 @@ public class RecommendationController {
                 put("features", features);
             }});
             response.put("total", recommendations.size());
-            response.put("recommendations", recommendations);
+            response.put("recommendations", SearchHit.toResponse(recommendations, fields));
             
             return ResponseEntity.ok(response);
             
@@ -190,11 +199,13 @@ public class RecommendationController {
      * GET /api/recommendations/random?count=3
      * 
      * @param count 返回數量（預設 3）
+     * @param fields 回傳欄位（逗號分隔，可選）
      * @return 隨機推薦的咖啡廳列表
      */
     @GetMapping("/random")
     public ResponseEntity<Map<String, Object>> getRandomRecommendations(
-            @RequestParam(defaultValue = "3") int count) {
+            @RequestParam(defaultValue = "3") int count,
+            @RequestParam(required = false) String fields) {
         
         try {
             if (count <= 0 || count > 10) {
@@ -211,7 +222,7 @@ public class RecommendationController {
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("total", recommendations.size());
-            response.put("recommendations", recommendations);
+            response.put("recommendations", SearchHit.toResponse(recommendations, fields));
             response.put("type", "random");
             
             return ResponseEntity.ok(response);
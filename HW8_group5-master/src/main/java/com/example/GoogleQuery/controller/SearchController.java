@@ -1,9 +1,13 @@
 package com.example.GoogleQuery.controller;
 
+import com.example.GoogleQuery.model.SearchHit;
+import com.example.GoogleQuery.model.SearchPage;
 import com.example.GoogleQuery.model.SearchResult;
+import com.example.GoogleQuery.service.QueryWarmingService;
 import com.example.GoogleQuery.service.SearchService;
 import com.example.GoogleQuery.service.RecommendationService;
 import com.example.GoogleQuery.service.RelevanceValidator;
+import com.example.GoogleQuery.util.ParsedQuery;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -23,6 +27,9 @@ import java.util.Map;
 @RequestMapping("/api")
 public class SearchController {
 
+    private static final int MAX_PAGE_SIZE = 100;   // 分頁時每頁最多筆數
+    private static final int DEFAULT_PREVIEW_SIZE = 5; // 邊打字邊預覽的預設筆數
+
     @Autowired
     private SearchService searchService;
     
@@ -32,16 +39,27 @@ public class SearchController {
     @Autowired
     private RelevanceValidator relevanceValidator;
 
+    @Autowired
+    private QueryWarmingService queryWarmingService;
+
     /**
      * 基本搜尋 API
      * GET /api/search?q=不限時
+     * GET /api/search?q=不限時&offset=20&limit=10（分頁）
+     * GET /api/search?q=不限時&fields=id,name,score（只回傳指定欄位）
      * 
      * @param q 搜尋關鍵字
+     * @param offset 起始位置（可選，預設 0）
+     * @param limit 每頁數量（可選，未提供時返回全部結果）
+     * @param fields 回傳欄位（逗號分隔，可選，未提供時回傳全部精簡欄位）
      * @return 搜尋結果列表
      */
     @GetMapping("/search")
     public ResponseEntity<Map<String, Object>> search(@RequestParam(value = "q", required = false) String q,
-                                                       @RequestParam(value = "keyword", required = false) String keyword) {
+                                                       @RequestParam(value = "keyword", required = false) String keyword,
+                                                       @RequestParam(value = "offset", required = false) Integer offset,
+                                                       @RequestParam(value = "limit", required = false) Integer limit,
+                                                       @RequestParam(value = "fields", required = false) String fields) {
         try {
             // 支援前端的 q 參數和 keyword 參數（向後兼容）
             String searchKeyword = (q != null) ? q : keyword;
@@ -71,11 +89,14 @@ public class SearchController {
                 return ResponseEntity.ok(response);
             }
             
-            // 呼叫 SearchService 進行搜尋
-            ArrayList<SearchResult> results = searchService.search(searchKeyword);
+            // 呼叫 SearchService 進行搜尋（只選出這一頁的結果）
+            // 查詢只正規化、解析一次，搜尋、熱門查詢與自動完成的記錄都使用同一個結果
+            ParsedQuery query = searchService.prepareQuery(searchKeyword);
+            SearchPage page = searchService.search(query, resolveOffset(offset), resolveLimit(limit));
+            queryWarmingService.recordSearch(query, resolveOffset(offset), resolveLimit(limit));
+            searchService.recordQuery(query);
             
-            response.put("total", results.size());
-            response.put("results", results);
+            putPage(response, page, limit, fields);
             
             return ResponseEntity.ok(response);
             
@@ -93,17 +114,27 @@ public class SearchController {
     /**
      * 進階搜尋 API（支援地區和功能篩選）
      * GET /api/search/advanced?keyword=咖啡&districts=大安區,中山區&features=不限時,有插座
+     * GET /api/search/advanced?keyword=咖啡&districts=大安區&offset=0&limit=10（分頁）
+     * GET /api/search/advanced?keyword=咖啡&facets=true（同時回傳各地區、功能的符合數量）
      * 
      * @param keyword 搜尋關鍵字（可選，為空時搜尋全部）
      * @param districts 地區列表（逗號分隔，可選）
      * @param features 功能列表（逗號分隔，可選）
+     * @param offset 起始位置（可選，預設 0）
+     * @param limit 每頁數量（可選，未提供時返回全部結果）
+     * @param fields 回傳欄位（逗號分隔，可選）
+     * @param facets 是否回傳分面統計（可選，預設 false）
      * @return 搜尋結果列表
      */
     @GetMapping("/search/advanced")
     public ResponseEntity<Map<String, Object>> advancedSearch(
             @RequestParam(required = false, defaultValue = "") String keyword,
             @RequestParam(required = false) String districts,
-            @RequestParam(required = false) String features) {
+            @RequestParam(required = false) String features,
+            @RequestParam(required = false) Integer offset,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false, defaultValue = "false") boolean facets) {
         
         try {
             // 解析地區列表
@@ -118,9 +149,13 @@ public class SearchController {
                 featureList = List.of(features.split(","));
             }
             
-            // 呼叫進階搜尋（支援空關鍵字）
-            ArrayList<SearchResult> results = searchService.advancedSearch(
-                keyword, districtList, featureList
+            // 呼叫進階搜尋（支援空關鍵字，只選出這一頁的結果；查詢只正規化、解析一次）
+            ParsedQuery query = searchService.prepareQuery(keyword);
+            SearchPage page = searchService.advancedSearch(
+                query, districtList, featureList, resolveOffset(offset), resolveLimit(limit), facets
+            );
+            queryWarmingService.recordAdvancedSearch(
+                query, districtList, featureList, resolveOffset(offset), resolveLimit(limit), facets
             );
             
             // 建立回應
@@ -131,8 +166,10 @@ public class SearchController {
             filters.put("districts", districtList);
             filters.put("features", featureList);
             response.put("filters", filters);
-            response.put("total", results.size());
-            response.put("results", results);
+            putPage(response, page, limit, fields);
+            if (page.getFacets() != null) {
+                response.put("facets", page.getFacets());
+            }
             
             return ResponseEntity.ok(response);
             
@@ -152,11 +189,13 @@ public class SearchController {
      * GET /api/search/recommendations?limit=10
      * 
      * @param limit 返回數量（預設 10）
+     * @param fields 回傳欄位（逗號分隔，可選）
      * @return 熱門推薦咖啡廳列表
      */
     @GetMapping(value = {"/recommendations", "/search/recommendations"})
     public ResponseEntity<Map<String, Object>> getRecommendations(
-            @RequestParam(defaultValue = "10") int limit) {
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(required = false) String fields) {
         
         try {
             ArrayList<SearchResult> recommendations = 
@@ -165,7 +204,7 @@ public class SearchController {
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("total", recommendations.size());
-            response.put("recommendations", recommendations);
+            response.put("recommendations", SearchHit.toResponse(recommendations, fields));
             
             return ResponseEntity.ok(response);
             
@@ -184,11 +223,13 @@ public class SearchController {
      * GET /api/search/cafe/cafe_001
      * 
      * @param cafeId 咖啡廳 ID
+     * @param fields 回傳欄位（逗號分隔，可選）
      * @return 咖啡廳詳細資訊
      */
     @GetMapping("/search/cafe/{cafeId}")
     public ResponseEntity<Map<String, Object>> getCafeDetails(
-            @PathVariable String cafeId) {
+            @PathVariable String cafeId,
+            @RequestParam(required = false) String fields) {
         
         try {
             SearchResult cafe = searchService.getCafeById(cafeId);
@@ -204,7 +245,7 @@ public class SearchController {
             
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
-            response.put("cafe", cafe);
+            response.put("cafe", SearchHit.toResponse(cafe, fields));
             
             return ResponseEntity.ok(response);
             
@@ -261,10 +302,11 @@ public class SearchController {
 
     /**
      * 搜尋建議（自動完成）
-     * GET /api/search/suggestions?q=不限
+     * GET /api/search/suggestions?query=不限
+     * 從關鍵字、咖啡廳名稱與 Hashtag 中找出包含輸入文字的詞，依權重與熱門程度排序
      * 
      * @param query 查詢字串
-     * @return 建議關鍵字列表
+     * @return 建議列表
      */
     @GetMapping("/search/suggestions")
     public ResponseEntity<Map<String, Object>> getSuggestions(
@@ -290,6 +332,75 @@ public class SearchController {
         }
     }
 
+    /**
+     * 邊打字邊預覽搜尋結果
+     * GET /api/search/preview?query=不限&limit=5
+     * 以包含輸入文字的關鍵字、咖啡廳名稱、Hashtag 快速估分，不執行完整搜尋
+     * 
+     * @param query 查詢字串
+     * @param limit 數量（可選，預設 5，最多 MAX_PAGE_SIZE 筆）
+     * @param fields 回傳欄位（逗號分隔，可選）
+     * @return 預覽結果
+     */
+    @GetMapping("/search/preview")
+    public ResponseEntity<Map<String, Object>> getPreview(
+            @RequestParam String query,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String fields) {
+        
+        try {
+            int size = limit != null ? resolveLimit(limit) : DEFAULT_PREVIEW_SIZE;
+            List<SearchResult> results = searchService.preview(query, size);
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("query", query);
+            response.put("results", SearchHit.toResponse(results, fields));
+            
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("error", "取得預覽失敗: " + e.getMessage());
+            
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                                 .body(errorResponse);
+        }
+    }
+
+    /**
+     * 將分頁結果寫入回應
+     * total 為符合條件的總數；有指定 limit 時另外回傳分頁資訊
+     * 結果以 SearchHit 精簡格式回傳（可用 fields 只選擇部分欄位）
+     */
+    private void putPage(Map<String, Object> response, SearchPage page, Integer requestedLimit, String fields) {
+        response.put("total", page.getTotal());
+        response.put("results", SearchHit.toResponse(page.getResults(), fields));
+        if (requestedLimit != null || page.getOffset() > 0) {
+            response.put("offset", page.getOffset());
+            response.put("limit", page.getLimit());
+            response.put("hasMore", page.hasMore());
+        }
+    }
+
+    /**
+     * 解析起始位置（負數視為 0）
+     */
+    private int resolveOffset(Integer offset) {
+        return offset != null ? Math.max(0, offset) : 0;
+    }
+
+    /**
+     * 解析每頁數量（未提供時返回全部結果，最多 MAX_PAGE_SIZE 筆）
+     */
+    private int resolveLimit(Integer limit) {
+        if (limit == null) {
+            return Integer.MAX_VALUE;
+        }
+        return Math.max(0, Math.min(limit, MAX_PAGE_SIZE));
+    }
+
     /**
      * 健康檢查端點
      * GET /api/search/health
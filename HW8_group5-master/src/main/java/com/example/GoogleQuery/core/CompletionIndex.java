@@ -0,0 +1,476 @@
+package com.example.GoogleQuery.core;
+
+import com.example.GoogleQuery.model.Keyword;
+import com.example.GoogleQuery.model.WebPage;
+import com.example.GoogleQuery.util.QueryCanonicalizer;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * CompletionIndex - 自動完成索引（關鍵字、咖啡廳名稱、Hashtag）
+ * 將每個詞（NFKC + 小寫）的所有後綴依字典順序排列，只記錄 (詞, 起始位置) 兩個 int；
+ * 一個前綴對應排序後後綴中的一段連續範圍，以二分搜尋找出，
+ * 因此「輸入的文字出現在詞中任何位置」都能找到（與原本的 contains 比對結果相同）
+ *
+ * 每個前綴的範圍會被快取；使用者多輸入一個字時，只在上一個前綴的範圍內二分搜尋
+ * 每個前綴命中的候選詞依固定分數（基本權重 + 開頭加分）排序後快取，
+ * 之後的按鍵只需從頭讀取到前 k 名確定為止（快取屬於這個索引，語料快照更新時一併換新）
+ * 每個詞也記錄對應的網站 postings（關鍵字出現的網站、有該 Hashtag 的網站、名稱本身），
+ * 用於邊打字邊預覽搜尋結果
+ * 建立後不再修改（範圍快取除外，可同時讀寫），多個執行緒可以同時查詢
+ */
+public class CompletionIndex {
+
+    public static final String KEYWORD = "keyword";
+    public static final String HASHTAG = "hashtag";
+    public static final String CAFE = "cafe";
+
+    static final double PREFIX_BONUS = 5.0;      // 詞以輸入開頭時的加分（優先於出現在詞中間）
+    static final double CAFE_WEIGHT = 1.0;       // 咖啡廳名稱的基本權重
+    static final int MAX_EXPANSIONS = 50;        // 預覽時最多展開的候選詞數量
+    private static final int MAX_CACHED_RANGES = 10000;
+    private static final long MAX_CACHED_CANDIDATES = 1_000_000; // 候選詞快取最多保存的候選詞總數
+
+    private final Suggestion[] entries;          // 不重複的詞
+    private final String[] folded;               // entry -> NFKC + 小寫後的詞
+    private final int[] suffixEntry;             // 排序後的後綴 -> entry
+    private final int[] suffixOffset;            // 排序後的後綴 -> 在詞中的起始位置
+    private final int[][] postingDocs;           // entry -> 網站編號（由小到大）
+    private final int[][] postingFreqs;          // entry -> 對應的出現次數
+    private final int docCount;                  // 網站數量
+    private final Map<String, Integer> entryIds; // NFKC + 小寫後的詞 -> entry
+    private final Cache<String, int[]> ranges =  // 前綴 -> 後綴範圍 [from, to)
+        Caffeine.newBuilder().maximumSize(MAX_CACHED_RANGES).build();
+    private final Cache<String, Candidates> candidates = // 前綴 -> 依固定分數排序的候選詞
+        Caffeine.newBuilder()
+            .maximumWeight(MAX_CACHED_CANDIDATES)
+            .weigher((String prefix, Candidates list) -> list.entries.length + 1)
+            .build();
+
+    /**
+     * Suggestion - 一個候選詞
+     */
+    public static class Suggestion {
+        private final String term;     // 顯示的詞
+        private final String key;      // NFKC + 小寫後的詞（熱門程度等以此為鍵）
+        private final String type;     // keyword / hashtag / cafe
+        private final double weight;   // 基本權重（關鍵字權重、Hashtag 出現的咖啡廳數等）
+
+        Suggestion(String term, String key, String type, double weight) {
+            this.term = term;
+            this.key = key;
+            this.type = type;
+            this.weight = weight;
+        }
+
+        public String getTerm() {
+            return term;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public double getWeight() {
+            return weight;
+        }
+    }
+
+    /**
+     * 建構子：從網站（名稱、Hashtag、標籤）與關鍵字字典建立索引
+     * 關鍵字的 postings 另外建立一個倒排索引取得
+     * @param pages 網站列表
+     * @param keywords 關鍵字列表
+     */
+    public CompletionIndex(List<WebPage> pages, List<Keyword> keywords) {
+        this(pages, keywords, new InvertedIndex(pages, keywords));
+    }
+
+    /**
+     * 建構子：從網站（名稱、Hashtag、標籤）與關鍵字字典建立索引
+     * 同一個詞出現在多個來源時只保留一筆（關鍵字 > Hashtag > 咖啡廳名稱），postings 則合併
+     * @param pages 網站列表（順序即 docId，需與倒排索引相同）
+     * @param keywords 關鍵字列表
+     * @param index 依相同網站與關鍵字建立的倒排索引（取得關鍵字出現的網站）
+     */
+    public CompletionIndex(List<WebPage> pages, List<Keyword> keywords, InvertedIndex index) {
+        Map<String, Suggestion> byTerm = new LinkedHashMap<>();
+        Map<String, TreeMap<Integer, Integer>> docsByTerm = new HashMap<>();
+        this.docCount = pages != null ? pages.size() : 0;
+
+        if (keywords != null) {
+            for (Keyword keyword : keywords) {
+                add(byTerm, keyword.name, KEYWORD, keyword.getOriginalWeight());
+                InvertedIndex.PostingList list = index.getPostings(keyword.name);
+                if (list != null && keyword.name != null) {
+                    TreeMap<Integer, Integer> docs = postings(docsByTerm, keyword.name);
+                    for (int i = 0; i < list.size(); i++) {
+                        docs.put(list.docIdAt(i), list.frequencyAt(i));
+                    }
+                }
+            }
+        }
+
+        Map<String, Integer> hashtagCounts = new LinkedHashMap<>();
+        if (pages != null) {
+            for (int docId = 0; docId < pages.size(); docId++) {
+                WebPage page = pages.get(docId);
+                Set<String> pageTags = new LinkedHashSet<>(page.getTags());
+                if (page.getHashtags() != null) {
+                    for (String tag : page.getHashtags().split("[#\\s]+")) {
+                        pageTags.add(tag);
+                    }
+                }
+                for (String tag : pageTags) {
+                    if (!tag.trim().isEmpty()) {
+                        hashtagCounts.merge(tag.trim(), 1, Integer::sum);
+                        postings(docsByTerm, tag).merge(docId, 1, Integer::sum);
+                    }
+                }
+            }
+            for (Map.Entry<String, Integer> entry : hashtagCounts.entrySet()) {
+                add(byTerm, entry.getKey(), HASHTAG, Math.log1p(entry.getValue()));
+            }
+            for (int docId = 0; docId < pages.size(); docId++) {
+                String name = pages.get(docId).getName();
+                add(byTerm, name, CAFE, CAFE_WEIGHT);
+                if (name != null && !name.trim().isEmpty()) {
+                    postings(docsByTerm, name).merge(docId, 1, Integer::sum);
+                }
+            }
+        }
+
+        this.entries = byTerm.values().toArray(new Suggestion[0]);
+        this.folded = byTerm.keySet().toArray(new String[0]);
+        this.entryIds = new HashMap<>();
+        for (int e = 0; e < folded.length; e++) {
+            entryIds.put(folded[e], e);
+        }
+
+        this.postingDocs = new int[folded.length][];
+        this.postingFreqs = new int[folded.length][];
+        for (int e = 0; e < folded.length; e++) {
+            TreeMap<Integer, Integer> docs = docsByTerm.getOrDefault(folded[e], new TreeMap<>());
+            postingDocs[e] = new int[docs.size()];
+            postingFreqs[e] = new int[docs.size()];
+            int i = 0;
+            for (Map.Entry<Integer, Integer> doc : docs.entrySet()) {
+                postingDocs[e][i] = doc.getKey();
+                postingFreqs[e][i] = doc.getValue();
+                i++;
+            }
+        }
+
+        // 建立並排序所有後綴
+        List<int[]> suffixes = new ArrayList<>();
+        for (int e = 0; e < folded.length; e++) {
+            for (int offset = 0; offset < folded[e].length(); offset++) {
+                suffixes.add(new int[]{ e, offset });
+            }
+        }
+        suffixes.sort((a, b) -> compareSuffixes(a[0], a[1], b[0], b[1]));
+
+        this.suffixEntry = new int[suffixes.size()];
+        this.suffixOffset = new int[suffixes.size()];
+        for (int i = 0; i < suffixes.size(); i++) {
+            suffixEntry[i] = suffixes.get(i)[0];
+            suffixOffset[i] = suffixes.get(i)[1];
+        }
+    }
+
+    private static void add(Map<String, Suggestion> byTerm, String term, String type, double weight) {
+        if (term == null || term.trim().isEmpty()) {
+            return;
+        }
+        String key = QueryCanonicalizer.fold(term.trim());
+        byTerm.putIfAbsent(key, new Suggestion(term.trim(), key, type, weight));
+    }
+
+    private static TreeMap<Integer, Integer> postings(Map<String, TreeMap<Integer, Integer>> docsByTerm, String term) {
+        return docsByTerm.computeIfAbsent(QueryCanonicalizer.fold(term.trim()), t -> new TreeMap<>());
+    }
+
+    private int compareSuffixes(int e1, int o1, int e2, int o2) {
+        String t1 = folded[e1];
+        String t2 = folded[e2];
+        int n = Math.min(t1.length() - o1, t2.length() - o2);
+        for (int i = 0; i < n; i++) {
+            int c = t1.charAt(o1 + i) - t2.charAt(o2 + i);
+            if (c != 0) return c;
+        }
+        return (t1.length() - o1) - (t2.length() - o2);
+    }
+
+    /**
+     * 比較第 s 個後綴的前 prefix.length() 個字元與 prefix（後綴以 prefix 開頭時為 0）
+     */
+    private int compareToPrefix(int s, String prefix) {
+        String term = folded[suffixEntry[s]];
+        int offset = suffixOffset[s];
+        for (int i = 0; i < prefix.length(); i++) {
+            if (offset + i >= term.length()) return -1;
+            int c = term.charAt(offset + i) - prefix.charAt(i);
+            if (c != 0) return c;
+        }
+        return 0;
+    }
+
+    /**
+     * 找出以 prefix 開頭的後綴範圍
+     * 優先使用快取；少一個字的前綴已在快取中時，只在它的範圍內搜尋
+     * @param prefix 已 fold 的前綴（非空）
+     * @return 後綴範圍 [from, to)
+     */
+    int[] range(String prefix) {
+        int[] cached = ranges.getIfPresent(prefix);
+        if (cached != null) {
+            return cached;
+        }
+
+        int[] parent = prefix.length() > 1 ? ranges.getIfPresent(prefix.substring(0, prefix.length() - 1)) : null;
+        int from = parent != null ? parent[0] : 0;
+        int to = parent != null ? parent[1] : suffixEntry.length;
+
+        int[] range = { bound(prefix, from, to, false), bound(prefix, from, to, true) };
+        ranges.put(prefix, range);
+        return range;
+    }
+
+    /**
+     * 二分搜尋：upper 為 false 時找第一個 >= prefix 的後綴，為 true 時找第一個 > prefix 的後綴
+     */
+    private int bound(String prefix, int from, int to, boolean upper) {
+        int lo = from;
+        int hi = to;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            int cmp = compareToPrefix(mid, prefix);
+            if (cmp < 0 || (upper && cmp == 0)) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * 取得包含輸入文字的前 k 個候選詞
+     * 分數 = 基本權重 + 額外分數（例如熱門程度）+ 詞以輸入開頭時的加分
+     * @param input 使用者輸入
+     * @param k 數量
+     * @param extraScore 每個候選詞的額外分數
+     * @param filter 只保留符合條件的候選詞（null 表示不篩選）
+     * @return 依分數由高到低的候選詞
+     */
+    public List<Suggestion> complete(String input, int k, ToDoubleFunction<Suggestion> extraScore,
+                                     Predicate<Suggestion> filter) {
+        return complete(input, k, extraScore, extraScore != null ? Double.POSITIVE_INFINITY : 0.0, filter);
+    }
+
+    /**
+     * 取得包含輸入文字的前 k 個候選詞（額外分數有上界）
+     * 候選詞依固定分數由高到低讀取，固定分數 + maxExtra 已低於目前第 k 名時提前結束，
+     * 結果與讀取全部候選詞相同
+     * @param input 使用者輸入
+     * @param k 數量
+     * @param extraScore 每個候選詞的額外分數
+     * @param maxExtra 額外分數的上界
+     * @param filter 只保留符合條件的候選詞（null 表示不篩選）
+     * @return 依分數由高到低的候選詞
+     */
+    public List<Suggestion> complete(String input, int k, ToDoubleFunction<Suggestion> extraScore,
+                                     double maxExtra, Predicate<Suggestion> filter) {
+        Candidates matched = candidates(QueryCanonicalizer.fold(input).trim());
+        if (matched.entries.length == 0 || k <= 0) {
+            return new ArrayList<>();
+        }
+
+        TopK<Candidate> topK = new TopK<>(Math.min(k, matched.entries.length), CANDIDATE_ORDER);
+        for (int i = 0; i < matched.entries.length; i++) {
+            if (topK.isFull() && matched.scores[i] + maxExtra < topK.last().score) {
+                break;
+            }
+            Suggestion suggestion = entries[matched.entries[i]];
+            if (filter != null && !filter.test(suggestion)) {
+                continue;
+            }
+            double extra = extraScore != null ? extraScore.applyAsDouble(suggestion) : 0.0;
+            topK.offer(new Candidate(matched.entries[i], matched.scores[i] + extra));
+        }
+
+        List<Suggestion> results = new ArrayList<>();
+        for (Candidate candidate : topK.toSortedList()) {
+            results.add(entries[candidate.entry]);
+        }
+        return results;
+    }
+
+    /**
+     * 檢查詞是否在索引中（完全相同，不是部分比對）
+     * @param term 詞（會經過 NFKC + 小寫）
+     * @return true 如果是索引中的詞
+     */
+    public boolean contains(String term) {
+        return entryIds.containsKey(QueryCanonicalizer.fold(term).trim());
+    }
+
+    /**
+     * Candidates - 一個前綴命中的候選詞，依固定分數由高到低（同分時依 entry）
+     */
+    private static final class Candidates {
+        static final Candidates EMPTY = new Candidates(new int[0], new double[0]);
+
+        final int[] entries;        // 候選詞編號
+        final double[] scores;      // 固定分數（基本權重 + 開頭加分）
+
+        Candidates(int[] entries, double[] scores) {
+            this.entries = entries;
+            this.scores = scores;
+        }
+    }
+
+    /**
+     * 取得包含 prefix 的候選詞（優先使用快取）
+     * 同一個詞可能有多個後綴命中，詞以 prefix 開頭時給予加分
+     * @param prefix 已 fold 的輸入
+     * @return 依固定分數排序的候選詞
+     */
+    private Candidates candidates(String prefix) {
+        if (prefix.isEmpty()) {
+            return Candidates.EMPTY;
+        }
+        Candidates cached = candidates.getIfPresent(prefix);
+        if (cached != null) {
+            return cached;
+        }
+
+        // 以 (entry, 是否不在開頭) 排序後，每個 entry 的第一筆即可判斷是否有後綴從開頭命中
+        int[] range = range(prefix);
+        long[] hits = new long[range[1] - range[0]];
+        for (int s = range[0]; s < range[1]; s++) {
+            hits[s - range[0]] = ((long) suffixEntry[s] << 1) | (suffixOffset[s] == 0 ? 0 : 1);
+        }
+        Arrays.sort(hits);
+
+        List<Candidate> sorted = new ArrayList<>();
+        for (int i = 0; i < hits.length; i++) {
+            int entry = (int) (hits[i] >>> 1);
+            if (i > 0 && (int) (hits[i - 1] >>> 1) == entry) {
+                continue;
+            }
+            double bonus = (hits[i] & 1) == 0 ? PREFIX_BONUS : 0.0;
+            sorted.add(new Candidate(entry, entries[entry].weight + bonus));
+        }
+        sorted.sort(CANDIDATE_ORDER);
+
+        int[] ids = new int[sorted.size()];
+        double[] scores = new double[sorted.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = sorted.get(i).entry;
+            scores[i] = sorted.get(i).score;
+        }
+        Candidates result = new Candidates(ids, scores);
+        candidates.put(prefix, result);
+        return result;
+    }
+
+    /**
+     * 邊打字邊預覽：以包含輸入文字的詞展開 postings，計算每個網站的第一階段分數
+     * 輸入以空白分成多個詞時，每個詞各自展開（最後一個詞可能還沒打完，同樣以前綴比對），
+     * 只保留符合所有詞的網站，分數為各詞分數的總和；索引中完全找不到的詞不參與篩選
+     * @param input 使用者輸入
+     * @return 每個 docId 的分數（未命中為 0）
+     */
+    public double[] previewScores(String input) {
+        double[] scores = new double[docCount];
+        String[] tokens = QueryCanonicalizer.fold(input).trim().split("\\s+");
+        if (tokens.length == 1) {
+            expand(tokens[0], scores);
+            return scores;
+        }
+
+        int[] hits = new int[docCount];
+        int matchedTokens = 0;
+        double[] tokenScores = new double[docCount];
+        for (String token : tokens) {
+            Arrays.fill(tokenScores, 0.0);
+            if (!expand(token, tokenScores)) {
+                continue;
+            }
+            matchedTokens++;
+            for (int docId = 0; docId < docCount; docId++) {
+                if (tokenScores[docId] > 0) {
+                    scores[docId] += tokenScores[docId];
+                    hits[docId]++;
+                }
+            }
+        }
+
+        for (int docId = 0; docId < docCount; docId++) {
+            if (hits[docId] < matchedTokens) {
+                scores[docId] = 0.0;
+            }
+        }
+        return scores;
+    }
+
+    /**
+     * 將單一個詞展開成包含它的候選詞，並把候選詞的 postings 累加到分數上
+     * 只展開權重最高的 MAX_EXPANSIONS 個詞；每個詞對有它的網站加上
+     * (基本權重 + 開頭加分) × (1 + log 出現次數)，不掃描網站內容也不做完整排名
+     * @param token 已 fold 的詞
+     * @param scores 要累加的分數
+     * @return true 如果有任何候選詞
+     */
+    private boolean expand(String token, double[] scores) {
+        Candidates matched = candidates(token);
+        if (matched.entries.length == 0) {
+            return false;
+        }
+
+        // 候選詞已依固定分數排序，前 MAX_EXPANSIONS 個即為權重最高的詞
+        for (int c = 0; c < matched.entries.length && c < MAX_EXPANSIONS; c++) {
+            int[] docs = postingDocs[matched.entries[c]];
+            int[] freqs = postingFreqs[matched.entries[c]];
+            for (int i = 0; i < docs.length; i++) {
+                scores[docs[i]] += matched.scores[c] * (1.0 + Math.log(freqs[i]));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 候選順序：分數高者優先；同分時依建立索引的順序（關鍵字、Hashtag、咖啡廳名稱）
+     */
+    private static final Comparator<Candidate> CANDIDATE_ORDER = (a, b) -> {
+        int cmp = Double.compare(b.score, a.score);
+        return cmp != 0 ? cmp : Integer.compare(a.entry, b.entry);
+    };
+
+    private static class Candidate {
+        final int entry;        // 候選詞編號
+        final double score;     // 排序分數
+
+        Candidate(int entry, double score) {
+            this.entry = entry;
+            this.score = score;
+        }
+    }
+
+    /**
+     * 取得索引中的詞數量
+     * @return 詞數量
+     */
+    public int size() {
+        return entries.length;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.GoogleQuery.core;
+
+import com.example.GoogleQuery.util.QueryCanonicalizer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * CompletionPopularity - 自動完成的熱門程度
+ * 記錄每個詞被搜尋的次數（定期減半），由服務層持有並傳給 SearchEngine，
+ * 重新載入資料替換搜尋引擎後，觀察到的熱門程度仍然保留
+ *
+ * 執行緒安全：次數以 AtomicLong 累加，可同時記錄與查詢
+ */
+public class CompletionPopularity {
+
+    private final Map<String, AtomicLong> counts = new ConcurrentHashMap<>(); // 詞（fold 後）-> 被搜尋次數
+    private final LongAccumulator max = new LongAccumulator(Long::max, 0);    // 被搜尋次數的上界（自動完成提前結束用）
+
+    /**
+     * 將詞的被搜尋次數加一
+     * @param term 詞（已 fold）
+     */
+    public void increment(String term) {
+        long count = counts.computeIfAbsent(term, t -> new AtomicLong()).incrementAndGet();
+        max.accumulate(count);
+    }
+
+    /**
+     * 將所有詞的被搜尋次數減半（較久以前的熱門詞逐漸淘汰，歸零的詞移除）
+     */
+    public void decay() {
+        counts.entrySet().removeIf(entry -> entry.getValue().updateAndGet(c -> c / 2) == 0);
+
+        // 重新計算上界；期間新增的次數在遞增後才更新上界，因此不會被遺漏
+        max.reset();
+        for (AtomicLong count : counts.values()) {
+            max.accumulate(count.get());
+        }
+    }
+
+    /**
+     * 取得詞被搜尋的次數（已減半衰減）
+     * @param term 詞
+     * @return 次數
+     */
+    public long get(String term) {
+        AtomicLong count = counts.get(QueryCanonicalizer.fold(term).trim());
+        return count != null ? count.get() : 0;
+    }
+
+    /**
+     * 候選詞的熱門程度分數（次數取 log1p）
+     */
+    double score(CompletionIndex.Suggestion suggestion) {
+        AtomicLong count = counts.get(suggestion.getKey());
+        return count != null ? Math.log1p(count.get()) : 0.0;
+    }
+
+    /**
+     * 熱門程度分數的上界
+     */
+    double maxScore() {
+        return Math.log1p(max.get());
+    }
+}
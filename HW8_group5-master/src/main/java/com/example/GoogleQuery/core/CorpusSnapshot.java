@@ -0,0 +1,103 @@
+package com.example.GoogleQuery.core;
+
+import java.util.*;
+import com.example.GoogleQuery.model.*;
+import com.example.GoogleQuery.filter.AttributeIndex;
+
+/**
+ * CorpusSnapshot - 搜尋語料的不可變快照
+ * 包含某一時間點的網站列表、關鍵字字典與對應的倒排索引、位置索引、名稱索引、屬性索引、自動完成索引
+ * 建立後不再修改，多個查詢執行緒可以同時讀取而不需要加鎖
+ * SearchEngine 在頁面或關鍵字變動時建立新的快照並整個替換（copy-on-write）
+ */
+public final class CorpusSnapshot {
+
+    private final List<WebPage> pages;        // 快照中的網站（順序即 docId）
+    private final List<Keyword> keywords;     // 快照中的關鍵字字典
+    private final InvertedIndex index;        // 依此快照建立的倒排索引
+    private final PositionalIndex positions;  // 詞的出現位置（片語、鄰近條件使用，docId 與倒排索引相同）
+    private final NameIndex nameIndex;        // 名稱 n-gram 索引（docId 與倒排索引相同）
+    private final AttributeIndex attributes;  // 地區、功能、標籤的 bitset 索引（bit 位置即 docId）
+    private final CompletionIndex completions; // 關鍵字、咖啡廳名稱、Hashtag 的自動完成索引
+
+    /**
+     * 建構子：複製網站與關鍵字列表並建立倒排索引、位置索引、名稱索引、屬性索引與自動完成索引
+     * @param pages 網站列表
+     * @param keywords 關鍵字列表
+     */
+    public CorpusSnapshot(List<WebPage> pages, List<Keyword> keywords) {
+        this.pages = Collections.unmodifiableList(
+            pages != null ? new ArrayList<>(pages) : new ArrayList<>());
+        this.keywords = Collections.unmodifiableList(
+            keywords != null ? new ArrayList<>(keywords) : new ArrayList<>());
+        this.index = new InvertedIndex(this.pages, this.keywords);
+        this.positions = new PositionalIndex(this.pages);
+        this.nameIndex = new NameIndex(this.pages);
+        this.attributes = new AttributeIndex(this.pages);
+        this.completions = new CompletionIndex(this.pages, this.keywords, this.index);
+    }
+
+    /**
+     * 取得快照中的網站（唯讀）
+     * @return 網站列表
+     */
+    public List<WebPage> getPages() {
+        return pages;
+    }
+
+    /**
+     * 取得快照中的關鍵字字典（唯讀）
+     * @return 關鍵字列表
+     */
+    public List<Keyword> getKeywords() {
+        return keywords;
+    }
+
+    /**
+     * 取得倒排索引
+     * @return 倒排索引
+     */
+    public InvertedIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * 取得位置索引
+     * @return 位置索引
+     */
+    public PositionalIndex getPositions() {
+        return positions;
+    }
+
+    /**
+     * 取得名稱索引
+     * @return 名稱索引
+     */
+    public NameIndex getNameIndex() {
+        return nameIndex;
+    }
+
+    /**
+     * 取得地區、功能、標籤的屬性索引
+     * @return 屬性索引
+     */
+    public AttributeIndex getAttributes() {
+        return attributes;
+    }
+
+    /**
+     * 取得自動完成索引
+     * @return 自動完成索引
+     */
+    public CompletionIndex getCompletions() {
+        return completions;
+    }
+
+    /**
+     * 取得網站數量
+     * @return 網站數量
+     */
+    public int size() {
+        return pages.size();
+    }
+}
@@ -1,6 +1,8 @@
 package com.example.GoogleQuery.core;
 
 import com.example.GoogleQuery.model.Keyword;
+import com.example.GoogleQuery.util.TextAnalyzer;
+import com.example.GoogleQuery.util.TokenStream;
 import java.util.*;
 import java.util.regex.Pattern;
 
@@ -42,6 +44,25 @@ public class HashtagGenerator {
      */
     public String generate(String content, ArrayList<Keyword> keywords, 
                           String userQuery, int topN, int userTopN) {
+        return generateFromNormalized(TextAnalyzer.normalize(content), keywords, userQuery, topN, userTopN);
+    }
+
+    /**
+     * 生成 Hashtags（使用網頁快取的分析結果，不再重新轉換大小寫）
+     * @param stream 網站內容的分析結果
+     * @param keywords 所有 domain keywords
+     * @param userQuery 使用者查詢
+     * @param topN 從網站內容取前 N 個關鍵字
+     * @param userTopN 從使用者查詢取前 N 個詞
+     * @return Hashtag 字串
+     */
+    public String generate(TokenStream stream, ArrayList<Keyword> keywords,
+                          String userQuery, int topN, int userTopN) {
+        return generateFromNormalized(stream.getText(), keywords, userQuery, topN, userTopN);
+    }
+
+    private String generateFromNormalized(String lowerContent, ArrayList<Keyword> keywords,
+                                          String userQuery, int topN, int userTopN) {
         
         Set<String> hashtagSet = new LinkedHashSet<>(); // 使用 Set 避免重複
         
@@ -50,7 +71,7 @@ public class HashtagGenerator {
         hashtagSet.addAll(userKeywords);
         
         // 2. 從網站內容中提取 Top N 關鍵字
-        List<String> contentKeywords = extractTopKeywordsFromContent(content, keywords, topN);
+        List<String> contentKeywords = extractTopKeywordsFromContent(lowerContent, keywords, topN);
         hashtagSet.addAll(contentKeywords);
         
         // 3. 限制最多 5 個 Hashtags
@@ -103,21 +124,20 @@ public class HashtagGenerator {
     
     /**
      * 從網站內容中提取出現次數最多的 Top N 關鍵字
-     * @param content 網站內容
+     * @param lowerContent 網站內容（已轉小寫）
      * @param keywords 所有 domain keywords
      * @param topN 取前 N 個（預設 3）
      * @return Top N 關鍵字列表
      */
-    private List<String> extractTopKeywordsFromContent(String content, 
+    private List<String> extractTopKeywordsFromContent(String lowerContent, 
                                                        ArrayList<Keyword> keywords, 
                                                        int topN) {
-        if (content == null || content.isEmpty()) {
+        if (lowerContent.isEmpty()) {
             return new ArrayList<>();
         }
         
         // 計算每個關鍵字的出現次數
         Map<String, Integer> keywordCounts = new HashMap<>();
-        String lowerContent = content.toLowerCase();
         
         for (Keyword keyword : keywords) {
             String lowerKeyword = keyword.name.toLowerCase();
@@ -0,0 +1,490 @@
+package com.example.GoogleQuery.core;
+
+import java.util.*;
+import com.example.GoogleQuery.model.*;
+
+/**
+ * InvertedIndex - 倒排索引
+ * 在建立時對每個網站的可搜尋內容（Cafe.buildSearchableContent() 的結果）掃描一次，
+ * 存成 TermFrequencyMatrix，並由矩陣整理出「關鍵字 → (網站編號, 出現次數)」的 postings
+ * 查詢時只讀取查詢命中關鍵字的 postings，不再對每個網站重新掃描全文
+ */
+public class InvertedIndex {
+
+    static final double QUERY_BOOST = 1.5;                // 查詢命中關鍵字的權重倍數
+    static final int DENSE_RATIO = 8;                     // postings 涵蓋 1/8 以上網站時改以整段批次累加
+
+    private final List<WebPage> pages;                 // docId -> 網站
+    private final Map<WebPage, Integer> docIds;        // 網站 -> docId（以物件本身比對）
+    private final List<Keyword> keywords;              // 建立索引時的關鍵字字典
+    private final Map<String, PostingList> postings;   // 關鍵字（小寫）-> postings
+    private final TermFrequencyMatrix matrix;          // 文件 × 關鍵字 出現次數
+    private final double[] baseScores;                 // 以原始權重計算的關鍵字分數
+    private final int[] baseOrder;                     // docId 依基礎分數由高到低（同分時 docId 小者優先）
+
+    /**
+     * 建構子：建立索引
+     * @param pages 要建立索引的網站列表
+     * @param keywords 關鍵字字典
+     */
+    public InvertedIndex(List<WebPage> pages, List<Keyword> keywords) {
+        this.pages = pages != null ? new ArrayList<>(pages) : new ArrayList<>();
+        this.keywords = keywords != null ? new ArrayList<>(keywords) : new ArrayList<>();
+        this.docIds = new IdentityHashMap<>();
+        this.postings = new HashMap<>();
+
+        // 整個字典只編譯一次自動機，每個網站只掃描一次內容
+        this.matrix = new TermFrequencyMatrix(this.pages, new KeywordMatcher(keywordNames()));
+        this.baseScores = matrix.weightedSums(termWeights(Collections.emptyList()));
+        this.baseOrder = sortByBaseScore();
+
+        build();
+    }
+
+    /**
+     * 由出現次數矩陣整理出每個關鍵字的 postings
+     */
+    private void build() {
+        for (int docId = 0; docId < pages.size(); docId++) {
+            docIds.put(pages.get(docId), docId);
+        }
+
+        // 同一個詞只記錄一次 posting（字典可能有大小寫重複的詞）
+        List<String> terms = matrix.getMatcher().getTerms();
+        for (int termId = 0; termId < terms.size(); termId++) {
+            List<int[]> entries = matrix.entries(termId);
+            if (!entries.isEmpty()) {
+                postings.put(terms.get(termId), new PostingList(entries));
+            }
+        }
+    }
+
+    /**
+     * 依基礎分數由高到低排列 docId
+     */
+    private int[] sortByBaseScore() {
+        Integer[] order = new Integer[baseScores.length];
+        for (int docId = 0; docId < order.length; docId++) {
+            order[docId] = docId;
+        }
+        Arrays.sort(order, (a, b) -> {
+            int cmp = Double.compare(baseScores[b], baseScores[a]);
+            return cmp != 0 ? cmp : Integer.compare(a, b);
+        });
+
+        int[] result = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            result[i] = order[i];
+        }
+        return result;
+    }
+
+    /**
+     * 將關鍵字權重彙整到 termId 上（字典中重複的詞權重相加）
+     * @param query 使用者查詢，查詢命中的關鍵字權重提高 50%；null 表示使用原始權重
+     * @return 每個 termId 的權重
+     */
+    public double[] termWeights(String query) {
+        return termWeights(getQueryKeywords(query));
+    }
+
+    /**
+     * 將關鍵字權重彙整到 termId 上（建構子使用，不呼叫可覆寫的方法）
+     * @param queryKeywords 查詢命中的關鍵字，權重提高 50%
+     * @return 每個 termId 的權重
+     */
+    private double[] termWeights(Collection<Keyword> queryKeywords) {
+        KeywordMatcher matcher = matrix.getMatcher();
+        double[] weights = new double[matcher.size()];
+
+        Set<Keyword> matched = Collections.newSetFromMap(new IdentityHashMap<>());
+        matched.addAll(queryKeywords);
+
+        for (Keyword keyword : keywords) {
+            int termId = matcher.indexOf(keyword.name);
+            if (termId < 0) continue;
+
+            double weight = keyword.getOriginalWeight();
+            if (matched.contains(keyword)) {
+                weight *= QUERY_BOOST;
+            }
+            weights[termId] += weight;
+        }
+        return weights;
+    }
+
+    /**
+     * 計算不在索引中的內容分數（例如建立索引後才加入的網站）
+     * 以同一個字典掃描一次內容後做加權總和
+     * @param page 網站
+     * @param termWeights 每個 termId 的權重（見 termWeights）
+     * @return 加權分數
+     */
+    public double scoreContent(WebPage page, double[] termWeights) {
+        int[] counts = matrix.getMatcher().countAll(page.getLowerCaseContent());
+
+        double sum = 0.0;
+        for (int termId = 0; termId < counts.length; termId++) {
+            sum += counts[termId] * termWeights[termId];
+        }
+        return sum;
+    }
+
+    /**
+     * 計算查詢的關鍵字分數
+     * 以預先計算的基礎分數為起點，只對查詢命中的關鍵字讀取 postings 加上提升的權重
+     * （大部分網站都有的關鍵字改以 ScoringKernel 對整個欄位批次累加）
+     * @param query 使用者查詢
+     * @return 每個 docId 的分數
+     */
+    public double[] score(String query) {
+        double[] scores = Arrays.copyOf(baseScores, baseScores.length);
+
+        for (Keyword keyword : getQueryKeywords(query)) {
+            PostingList list = postings.get(normalizeTerm(keyword.name));
+            if (list == null) continue;
+
+            double extraWeight = keyword.getOriginalWeight() * QUERY_BOOST - keyword.getOriginalWeight();
+            if ((long) list.size() * DENSE_RATIO >= scores.length) {
+                // 幾乎每個網站都有的詞（例如「咖啡」）直接對整個欄位批次累加；
+                // 沒出現的網站加上 0，分數不變，結果與逐筆累加相同
+                matrix.accumulate(matrix.getMatcher().indexOf(keyword.name), extraWeight, scores);
+            } else {
+                for (int i = 0; i < list.size(); i++) {
+                    scores[list.docIds[i]] += list.frequencies[i] * extraWeight;
+                }
+            }
+        }
+
+        return scores;
+    }
+
+    /**
+     * 建立查詢的計分器（逐一網站計分，並提供分數上界供動態剪枝使用）
+     * @param query 使用者查詢
+     * @return 查詢計分器
+     */
+    public QueryScorer scorer(String query) {
+        return new QueryScorer(query);
+    }
+
+    /**
+     * 取得網站的基礎分數（以原始權重計算，不含查詢加權）
+     * @param docId 網站編號
+     * @return 基礎分數
+     */
+    public double getBaseScore(int docId) {
+        return baseScores[docId];
+    }
+
+    /**
+     * 取得基礎分數第 rank 高的網站
+     * @param rank 名次（0 為最高）
+     * @return docId
+     */
+    public int docIdByBaseRank(int rank) {
+        return baseOrder[rank];
+    }
+
+    /**
+     * 計算基礎分數高於門檻的網站數（即依基礎分數排列時的前段長度，二分搜尋）
+     * @param threshold 門檻
+     * @return 基礎分數 > threshold 的網站數
+     */
+    public int countBaseAbove(double threshold) {
+        int low = 0;
+        int high = baseOrder.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (baseScores[baseOrder[mid]] > threshold) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * 找出查詢字串中包含的字典關鍵字
+     * @param query 使用者查詢
+     * @return 命中的關鍵字列表
+     */
+    public List<Keyword> getQueryKeywords(String query) {
+        List<Keyword> matched = new ArrayList<>();
+        if (query == null || query.trim().isEmpty()) {
+            return matched;
+        }
+
+        String lowerQuery = query.toLowerCase();
+        for (Keyword keyword : keywords) {
+            if (lowerQuery.contains(keyword.name.toLowerCase())) {
+                matched.add(keyword);
+            }
+        }
+        return matched;
+    }
+
+    /**
+     * 取得關鍵字的 postings
+     * @param term 關鍵字
+     * @return postings，不存在則返回 null
+     */
+    public PostingList getPostings(String term) {
+        return postings.get(normalizeTerm(term));
+    }
+
+    /**
+     * 取得關鍵字在指定網站中的出現次數
+     * @param term 關鍵字
+     * @param docId 網站編號
+     * @return 出現次數
+     */
+    public int getTermFrequency(String term, int docId) {
+        int termId = matrix.getMatcher().indexOf(term);
+        return termId >= 0 ? matrix.get(docId, termId) : 0;
+    }
+
+    /**
+     * 取得文件 × 關鍵字 出現次數矩陣
+     * @return 出現次數矩陣
+     */
+    public TermFrequencyMatrix getMatrix() {
+        return matrix;
+    }
+
+    /**
+     * 取得網站的 docId
+     * @param page 網站
+     * @return docId，不在索引中則返回 -1
+     */
+    public int getDocId(WebPage page) {
+        Integer docId = docIds.get(page);
+        return docId != null ? docId : -1;
+    }
+
+    /**
+     * 取得 docId 對應的網站
+     * @param docId 網站編號
+     * @return 網站
+     */
+    public WebPage getPage(int docId) {
+        return pages.get(docId);
+    }
+
+    /**
+     * 檢查網站是否在索引中
+     * @param page 網站
+     * @return true 如果在索引中
+     */
+    public boolean contains(WebPage page) {
+        return docIds.containsKey(page);
+    }
+
+    /**
+     * 取得索引中的網站數量
+     * @return 網站數量
+     */
+    public int getDocCount() {
+        return pages.size();
+    }
+
+    /**
+     * 取得索引中的詞彙數量（至少出現一次的關鍵字）
+     * @return 詞彙數量
+     */
+    public int getTermCount() {
+        return postings.size();
+    }
+
+    /**
+     * 取得建立索引時使用的關鍵字字典
+     * @return 關鍵字列表
+     */
+    public List<Keyword> getKeywords() {
+        return Collections.unmodifiableList(keywords);
+    }
+
+    /**
+     * 取得字典中所有關鍵字的名稱
+     */
+    private List<String> keywordNames() {
+        List<String> names = new ArrayList<>();
+        for (Keyword keyword : keywords) {
+            names.add(keyword.name);
+        }
+        return names;
+    }
+
+    /**
+     * 關鍵字正規化（與 KeywordParser 相同：小寫並去除前後空白）
+     */
+    private static String normalizeTerm(String term) {
+        return term != null ? term.toLowerCase().trim() : "";
+    }
+
+    /**
+     * QueryScorer - 單一查詢的逐筆計分器
+     * 網站分數 = 基礎分數 + Σ 查詢命中關鍵字的出現次數 × 額外權重（與 score(query) 相同的加總順序，結果完全相同）；
+     * 每個關鍵字的貢獻不超過「額外權重 × 該關鍵字在所有網站中的最大出現次數」，
+     * 因此基礎分數加上所有關鍵字的最大貢獻即為網站分數的上界（MaxScore）
+     */
+    public class QueryScorer {
+
+        private final PostingList[] lists;   // 查詢命中關鍵字的 postings
+        private final double[] extras;       // 對應的額外權重
+        private final double[] maxImpacts;   // 對應的最大貢獻
+        private final int[] termIds;         // 對應的 termId（批次累加使用）
+
+        private QueryScorer(String query) {
+            List<PostingList> found = new ArrayList<>();
+            List<Double> weights = new ArrayList<>();
+            List<Integer> ids = new ArrayList<>();
+            for (Keyword keyword : getQueryKeywords(query)) {
+                PostingList list = postings.get(normalizeTerm(keyword.name));
+                if (list == null) continue;
+                found.add(list);
+                weights.add(keyword.getOriginalWeight() * QUERY_BOOST - keyword.getOriginalWeight());
+                ids.add(matrix.getMatcher().indexOf(keyword.name));
+            }
+
+            this.lists = found.toArray(new PostingList[0]);
+            this.extras = new double[lists.length];
+            this.maxImpacts = new double[lists.length];
+            this.termIds = new int[lists.length];
+            for (int t = 0; t < lists.length; t++) {
+                extras[t] = weights.get(t);
+                termIds[t] = ids.get(t);
+                maxImpacts[t] = Math.max(0.0, lists[t].maxFrequency() * extras[t]);
+            }
+        }
+
+        /**
+         * 計算網站的分數（與 score(query)[docId] 相同）
+         * 出現次數直接查矩陣（密集矩陣為 O(1)，稀疏矩陣才二分搜尋）
+         * @param docId 網站編號
+         * @return 分數
+         */
+        public double score(int docId) {
+            double score = baseScores[docId];
+            for (int t = 0; t < lists.length; t++) {
+                int frequency = matrix.get(docId, termIds[t]);
+                if (frequency > 0) {
+                    score += frequency * extras[t];
+                }
+            }
+            return score;
+        }
+
+        /**
+         * 計算一段連續網站的分數（與 score(query) 的 [from, to) 完全相同，可在不同執行緒分段計算）
+         * 與 score(query) 相同：大部分網站都有的關鍵字以 ScoringKernel 對這一段批次累加，其他只讀取 postings
+         * @param from 起始 docId（含）
+         * @param to 結束 docId（不含）
+         * @param scores 這段網站的分數（scores[docId - from]，會被覆寫）
+         */
+        public void score(int from, int to, double[] scores) {
+            System.arraycopy(baseScores, from, scores, 0, to - from);
+            for (int t = 0; t < lists.length; t++) {
+                PostingList list = lists[t];
+                if ((long) list.size() * DENSE_RATIO >= baseScores.length) {
+                    matrix.accumulate(termIds[t], extras[t], from, to, scores);
+                    continue;
+                }
+                int start = Arrays.binarySearch(list.docIds, from);
+                for (int i = (start >= 0) ? start : -start - 1; i < list.size() && list.docIds[i] < to; i++) {
+                    scores[list.docIds[i] - from] += list.frequencies[i] * extras[t];
+                }
+            }
+        }
+
+        /**
+         * 計算網站分數的上界（只讀取基礎分數，不查 postings）
+         * 基礎分數較高的網站上界也較高，依 docIdByBaseRank 的順序走訪時上界遞減
+         * @param docId 網站編號
+         * @return 分數上界
+         */
+        public double upperBound(int docId) {
+            double bound = baseScores[docId];
+            for (double impact : maxImpacts) {
+                bound += impact;
+            }
+            return bound;
+        }
+
+        /**
+         * 取得查詢關鍵字 postings 的總長度
+         * @return postings 總長度
+         */
+        public long postingCount() {
+            long count = 0;
+            for (PostingList list : lists) {
+                count += list.size();
+            }
+            return count;
+        }
+
+        /**
+         * 取得出現任一查詢關鍵字的網站（只有這些網站的分數與基礎分數不同）
+         * @return docId 的 bitset
+         */
+        public BitSet postingDocs() {
+            BitSet docs = new BitSet(baseScores.length);
+            for (PostingList list : lists) {
+                for (int i = 0; i < list.size(); i++) {
+                    docs.set(list.docIdAt(i));
+                }
+            }
+            return docs;
+        }
+    }
+
+    /**
+     * PostingList - 單一關鍵字的 postings
+     * docId 由小到大排列，frequencies 為對應的出現次數
+     */
+    public static class PostingList {
+
+        private final int[] docIds;
+        private final int[] frequencies;
+        private final int maxFrequency;     // 最大出現次數（分數上界使用）
+
+        private PostingList(List<int[]> entries) {
+            this.docIds = new int[entries.size()];
+            this.frequencies = new int[entries.size()];
+            int max = 0;
+            for (int i = 0; i < entries.size(); i++) {
+                docIds[i] = entries.get(i)[0];
+                frequencies[i] = entries.get(i)[1];
+                max = Math.max(max, frequencies[i]);
+            }
+            this.maxFrequency = max;
+        }
+
+        public int size() {
+            return docIds.length;
+        }
+
+        public int docIdAt(int i) {
+            return docIds[i];
+        }
+
+        public int frequencyAt(int i) {
+            return frequencies[i];
+        }
+
+        public int maxFrequency() {
+            return maxFrequency;
+        }
+
+        /**
+         * 取得指定網站的出現次數（二分搜尋）
+         * @param docId 網站編號
+         * @return 出現次數，未出現則返回 0
+         */
+        public int frequencyOf(int docId) {
+            int pos = Arrays.binarySearch(docIds, docId);
+            return pos >= 0 ? frequencies[pos] : 0;
+        }
+    }
+}
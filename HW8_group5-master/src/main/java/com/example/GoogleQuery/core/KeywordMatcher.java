@@ -0,0 +1,291 @@
+package com.example.GoogleQuery.core;
+
+import java.util.*;
+import com.example.GoogleQuery.model.*;
+
+/**
+ * KeywordMatcher - 多關鍵字比對器（Aho-Corasick 自動機）
+ * 將整個關鍵字字典編譯成一個自動機，只需掃描內容一次即可算出所有關鍵字的出現次數
+ *
+ * 計數規則與 KeywordParser.countKeyword 相同：
+ * 1. 純英文關鍵字需符合單字邊界（前後不是 [a-zA-Z0-9_]，同 \b 的判斷）
+ * 2. 其他關鍵字（中文或混合文字）直接比對子字串
+ * 3. 同一個關鍵字的出現次數不重疊計算（由左到右）
+ */
+public class KeywordMatcher {
+
+    private static volatile KeywordMatcher lastMatcher;   // 最近一次使用的字典（字典很少變動）
+
+    private final List<String> terms;          // 關鍵字（小寫），位置即 pattern 編號
+    private final Map<String, Integer> termIndex;
+    private final int[] termLengths;
+    private final boolean[] englishTerms;      // 是否為純英文（需檢查單字邊界）
+
+    // 自動機節點（以陣列儲存，節點 0 為根節點）
+    private char[][] edgeChars;                // 每個節點的轉移字元（已排序）
+    private int[][] edgeTargets;               // 對應的目標節點
+    private int[] failure;                     // 失敗連結
+    private int[] outputPattern;               // 節點結束的 pattern，沒有則為 -1
+    private int[] outputLink;                  // 沿失敗連結下一個有輸出的節點，沒有則為 -1
+
+    /**
+     * 建構子：編譯關鍵字字典
+     * @param rawTerms 關鍵字字串
+     */
+    public KeywordMatcher(Collection<String> rawTerms) {
+        this.terms = new ArrayList<>();
+        this.termIndex = new HashMap<>();
+
+        if (rawTerms != null) {
+            for (String raw : rawTerms) {
+                String term = normalizeTerm(raw);
+                if (!term.isEmpty() && !termIndex.containsKey(term)) {
+                    termIndex.put(term, terms.size());
+                    terms.add(term);
+                }
+            }
+        }
+
+        this.termLengths = new int[terms.size()];
+        this.englishTerms = new boolean[terms.size()];
+        for (int i = 0; i < terms.size(); i++) {
+            termLengths[i] = terms.get(i).length();
+            englishTerms[i] = terms.get(i).matches("^[a-zA-Z]+$");
+        }
+
+        build();
+    }
+
+    /**
+     * 從 Keyword 列表建立比對器
+     * 與上一次使用的字典相同時直接重用，避免每份文件都重新編譯自動機
+     * @param keywords 關鍵字列表
+     * @return 比對器
+     */
+    public static KeywordMatcher forKeywords(List<Keyword> keywords) {
+        List<String> names = new ArrayList<>();
+        if (keywords != null) {
+            for (Keyword keyword : keywords) {
+                if (keyword != null && keyword.name != null) {
+                    names.add(keyword.name);
+                }
+            }
+        }
+
+        KeywordMatcher cached = lastMatcher;
+        if (cached != null && cached.hasSameTerms(names)) {
+            return cached;
+        }
+
+        KeywordMatcher matcher = new KeywordMatcher(names);
+        lastMatcher = matcher;
+        return matcher;
+    }
+
+    /**
+     * 建立 trie、失敗連結與輸出連結
+     */
+    private void build() {
+        List<TreeMap<Character, Integer>> children = new ArrayList<>();
+        List<Integer> patterns = new ArrayList<>();
+        children.add(new TreeMap<>());
+        patterns.add(-1);
+
+        // 1. 建立 trie
+        for (int p = 0; p < terms.size(); p++) {
+            String term = terms.get(p);
+            int node = 0;
+            for (int i = 0; i < term.length(); i++) {
+                char c = term.charAt(i);
+                Integer next = children.get(node).get(c);
+                if (next == null) {
+                    next = children.size();
+                    children.add(new TreeMap<>());
+                    patterns.add(-1);
+                    children.get(node).put(c, next);
+                }
+                node = next;
+            }
+            patterns.set(node, p);
+        }
+
+        int size = children.size();
+        edgeChars = new char[size][];
+        edgeTargets = new int[size][];
+        outputPattern = new int[size];
+        for (int node = 0; node < size; node++) {
+            TreeMap<Character, Integer> map = children.get(node);
+            edgeChars[node] = new char[map.size()];
+            edgeTargets[node] = new int[map.size()];
+            int i = 0;
+            for (Map.Entry<Character, Integer> entry : map.entrySet()) {
+                edgeChars[node][i] = entry.getKey();
+                edgeTargets[node][i] = entry.getValue();
+                i++;
+            }
+            outputPattern[node] = patterns.get(node);
+        }
+
+        // 2. 以 BFS 計算失敗連結與輸出連結
+        failure = new int[size];
+        outputLink = new int[size];
+        Arrays.fill(outputLink, -1);
+
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int child : edgeTargets[0]) {
+            failure[child] = 0;
+            queue.add(child);
+        }
+
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            for (int i = 0; i < edgeChars[node].length; i++) {
+                char c = edgeChars[node][i];
+                int child = edgeTargets[node][i];
+
+                int fallback = failure[node];
+                while (fallback != 0 && transition(fallback, c) < 0) {
+                    fallback = failure[fallback];
+                }
+                int target = transition(fallback, c);
+                failure[child] = target >= 0 ? target : 0;
+
+                int f = failure[child];
+                outputLink[child] = outputPattern[f] >= 0 ? f : outputLink[f];
+
+                queue.add(child);
+            }
+        }
+    }
+
+    /**
+     * 取得節點在字元 c 上的轉移
+     * @return 目標節點，沒有則返回 -1
+     */
+    private int transition(int node, char c) {
+        int pos = Arrays.binarySearch(edgeChars[node], c);
+        return pos >= 0 ? edgeTargets[node][pos] : -1;
+    }
+
+    /**
+     * 掃描內容一次，計算所有關鍵字的出現次數
+     * @param lowerContent 已轉成小寫的內容
+     * @return 每個 pattern 的出現次數（索引同 getTerms()）
+     */
+    public int[] countAll(String lowerContent) {
+        int[] counts = new int[terms.size()];
+        if (lowerContent == null || lowerContent.isEmpty() || terms.isEmpty()) {
+            return counts;
+        }
+
+        int[] lastEnd = new int[terms.size()];   // 每個 pattern 上一次計數的結束位置（不重疊）
+        int node = 0;
+
+        for (int i = 0; i < lowerContent.length(); i++) {
+            char c = lowerContent.charAt(i);
+
+            int next = transition(node, c);
+            while (next < 0 && node != 0) {
+                node = failure[node];
+                next = transition(node, c);
+            }
+            node = next >= 0 ? next : 0;
+
+            int out = outputPattern[node] >= 0 ? node : outputLink[node];
+            while (out >= 0) {
+                int p = outputPattern[out];
+                int start = i - termLengths[p] + 1;
+
+                if (start >= lastEnd[p]
+                        && (!englishTerms[p] || isWordBoundary(lowerContent, start, i + 1))) {
+                    counts[p]++;
+                    lastEnd[p] = i + 1;
+                }
+                out = outputLink[out];
+            }
+        }
+
+        return counts;
+    }
+
+    /**
+     * 計算所有關鍵字的出現次數（以關鍵字為鍵）
+     * @param lowerContent 已轉成小寫的內容
+     * @return Map<關鍵字（小寫）, 出現次數>
+     */
+    public Map<String, Integer> countAllAsMap(String lowerContent) {
+        int[] counts = countAll(lowerContent);
+        Map<String, Integer> result = new HashMap<>();
+        for (int i = 0; i < counts.length; i++) {
+            result.put(terms.get(i), counts[i]);
+        }
+        return result;
+    }
+
+    /**
+     * 檢查 [start, end) 前後是否為單字邊界
+     */
+    private static boolean isWordBoundary(String content, int start, int end) {
+        boolean leftOk = start == 0 || !isWordChar(content.charAt(start - 1));
+        boolean rightOk = end >= content.length() || !isWordChar(content.charAt(end));
+        return leftOk && rightOk;
+    }
+
+    /**
+     * 是否為單字字元（與 Java regex 的 \w 相同：[a-zA-Z0-9_]）
+     */
+    private static boolean isWordChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')
+            || (c >= '0' && c <= '9') || c == '_';
+    }
+
+    /**
+     * 檢查字典是否與給定的關鍵字相同（依序比較正規化後的字串）
+     */
+    private boolean hasSameTerms(List<String> rawTerms) {
+        int i = 0;
+        Set<String> seen = new HashSet<>();
+        for (String raw : rawTerms) {
+            String term = normalizeTerm(raw);
+            if (term.isEmpty() || !seen.add(term)) continue;
+            if (i >= terms.size() || !terms.get(i).equals(term)) {
+                return false;
+            }
+            i++;
+        }
+        return i == terms.size();
+    }
+
+    /**
+     * 關鍵字正規化（與 KeywordParser 相同：小寫並去除前後空白）
+     */
+    static String normalizeTerm(String term) {
+        return term != null ? term.toLowerCase().trim() : "";
+    }
+
+    /**
+     * 取得關鍵字的 pattern 編號
+     * @param term 關鍵字
+     * @return pattern 編號，不在字典中則返回 -1
+     */
+    public int indexOf(String term) {
+        Integer index = termIndex.get(normalizeTerm(term));
+        return index != null ? index : -1;
+    }
+
+    /**
+     * 取得字典中的關鍵字（小寫，唯讀）
+     * @return 關鍵字列表
+     */
+    public List<String> getTerms() {
+        return Collections.unmodifiableList(terms);
+    }
+
+    /**
+     * 取得字典大小
+     * @return 關鍵字數量
+     */
+    public int size() {
+        return terms.size();
+    }
+}
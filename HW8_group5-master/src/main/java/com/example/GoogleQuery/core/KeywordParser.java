@@ -3,6 +3,7 @@ package com.example.GoogleQuery.core;
 import java.util.*;
 import java.util.regex.*;
 import com.example.GoogleQuery.model.*;
+import com.example.GoogleQuery.util.TokenStream;
 
 /**
  * KeywordParser - 負責解析網頁文字並計算關鍵字出現次數
@@ -21,6 +22,15 @@ public class KeywordParser {
         this.content = content != null ? content.toLowerCase() : "";
         this.keywordCountMap = new HashMap<>();
     }
+
+    /**
+     * 建構子（使用已分析的內容，不再重新轉換大小寫）
+     * @param stream 網頁內容的分析結果
+     */
+    public KeywordParser(TokenStream stream) {
+        this.content = stream.getText();
+        this.keywordCountMap = new HashMap<>();
+    }
     
     /**
      * 計算單一關鍵字在文字中出現的次數
@@ -68,6 +78,12 @@ public class KeywordParser {
      */
     public Map<String, Integer> countAllKeywords(ArrayList<Keyword> keywords) {
         Map<String, Integer> result = new HashMap<>();
+        if (keywords == null) {
+            return result;
+        }
+        
+        // 以多關鍵字比對器一次掃描算出所有關鍵字的次數
+        countWithMatcher(KeywordMatcher.forKeywords(keywords));
         
         for (Keyword keyword : keywords) {
             int count = countKeyword(keyword.name);
@@ -84,6 +100,12 @@ public class KeywordParser {
      */
     public double calculateWeightedScore(ArrayList<Keyword> keywords) {
         double totalScore = 0.0;
+        if (keywords == null) {
+            return totalScore;
+        }
+        
+        // 以多關鍵字比對器一次掃描算出所有關鍵字的次數，之後只需查表
+        countWithMatcher(KeywordMatcher.forKeywords(keywords));
         
         for (Keyword keyword : keywords) {
             int count = countKeyword(keyword.name);
@@ -171,6 +193,30 @@ public class KeywordParser {
         return analysis.toString();
     }
     
+    /**
+     * 使用多關鍵字比對器掃描內容一次，將所有關鍵字的次數寫入快取
+     * 已全部計算過時不會重新掃描
+     * @param matcher 多關鍵字比對器
+     */
+    public void countWithMatcher(KeywordMatcher matcher) {
+        boolean allCached = true;
+        for (String term : matcher.getTerms()) {
+            if (!keywordCountMap.containsKey(term)) {
+                allCached = false;
+                break;
+            }
+        }
+        if (allCached) {
+            return;
+        }
+        
+        int[] counts = matcher.countAll(content);
+        List<String> terms = matcher.getTerms();
+        for (int i = 0; i < counts.length; i++) {
+            keywordCountMap.putIfAbsent(terms.get(i), counts[i]);
+        }
+    }
+    
     /**
      * 判斷是否為純英文單字
      * @param word 要判斷的字串
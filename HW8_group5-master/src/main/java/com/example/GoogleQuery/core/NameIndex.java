@@ -0,0 +1,353 @@
+package com.example.GoogleQuery.core;
+
+import java.util.*;
+import java.util.regex.Pattern;
+import com.example.GoogleQuery.model.*;
+
+/**
+ * NameIndex - 網站名稱的 n-gram 索引
+ * 建立時對每個網站的名稱正規化一次，並預先算好去重用的 key；
+ * 名稱中的每個字元（unigram）與相鄰兩個字元（bigram）都記錄 postings
+ * 查詢時以最短的 postings 找出候選網站，再對預先正規化的名稱確認，
+ * 不需要對每個搜尋結果重新執行正規表示式
+ */
+public class NameIndex {
+
+    static final double EXACT_BOOST = 80.0;       // 名稱完全相等
+    static final double SUBSTRING_BOOST = 50.0;   // 名稱包含查詢
+    static final double TOKEN_BOOST = 30.0;       // 名稱包含查詢的所有 token
+
+    private static final Pattern NON_WORD =
+        Pattern.compile("[^\\p{IsHan}\\p{IsHiragana}\\p{IsKatakana}\\p{L}\\p{N}]+");
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+
+    private final String[] names;                 // docId -> 正規化後的名稱
+    private final String[] dedupeKeys;            // docId -> 去重 key
+    private final int[] dedupeGroups;             // docId -> 去重 key 的編號（相同 key 相同編號）
+    private final int groupCount;                 // 不重複的去重 key 數量
+    private final int[] groupStarts;              // 去重 key 編號 -> 在 groupDocs 中的起始位置
+    private final int[] groupDocs;                // docId 依去重 key 編號排列（同 key 的網站相鄰）
+    private final BitSet sharedDocs;              // 與其他網站共用去重 key 的 docId
+    private final int[] sharedGroups;             // 有兩個以上網站的去重 key 編號
+    private final Map<String, int[]> postings;    // n-gram -> docId（由小到大）
+
+    /**
+     * 建構子：建立名稱索引
+     * @param pages 網站列表（順序即 docId，需與 InvertedIndex 相同）
+     */
+    public NameIndex(List<WebPage> pages) {
+        int n = pages != null ? pages.size() : 0;
+        this.names = new String[n];
+        this.dedupeKeys = new String[n];
+        this.dedupeGroups = new int[n];
+        this.postings = new HashMap<>();
+
+        Map<String, List<Integer>> lists = new HashMap<>();
+        Map<String, Integer> groups = new HashMap<>();
+        for (int docId = 0; docId < n; docId++) {
+            WebPage page = pages.get(docId);
+            names[docId] = normalize(page.getName());
+            dedupeKeys[docId] = dedupeKey(page);
+            dedupeGroups[docId] = groups.computeIfAbsent(dedupeKeys[docId], k -> groups.size());
+
+            for (String gram : grams(names[docId])) {
+                lists.computeIfAbsent(gram, g -> new ArrayList<>()).add(docId);
+            }
+        }
+
+        for (Map.Entry<String, List<Integer>> entry : lists.entrySet()) {
+            List<Integer> docIds = entry.getValue();
+            int[] array = new int[docIds.size()];
+            for (int i = 0; i < array.length; i++) {
+                array[i] = docIds.get(i);
+            }
+            postings.put(entry.getKey(), array);
+        }
+        this.groupCount = groups.size();
+
+        // 以去重 key 編號分組排列 docId（計數排序，同組內 docId 由小到大）
+        this.groupStarts = new int[groupCount + 1];
+        for (int group : dedupeGroups) {
+            groupStarts[group + 1]++;
+        }
+        for (int group = 0; group < groupCount; group++) {
+            groupStarts[group + 1] += groupStarts[group];
+        }
+        this.groupDocs = new int[n];
+        int[] next = Arrays.copyOf(groupStarts, groupCount);
+        for (int docId = 0; docId < n; docId++) {
+            groupDocs[next[dedupeGroups[docId]]++] = docId;
+        }
+        this.sharedDocs = new BitSet(n);
+        List<Integer> shared = new ArrayList<>();
+        for (int group = 0; group < groupCount; group++) {
+            if (groupStarts[group + 1] - groupStarts[group] > 1) {
+                shared.add(group);
+                for (int i = groupStarts[group]; i < groupStarts[group + 1]; i++) {
+                    sharedDocs.set(groupDocs[i]);
+                }
+            }
+        }
+        this.sharedGroups = shared.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * 計算查詢對每個網站名稱的加分
+     * 確切匹配 80 > 子字串匹配 50 > 所有 token 命中 30（與逐筆比對的結果相同）
+     * @param q 已正規化的查詢（見 normalize）
+     * @return 每個 docId 的加分
+     */
+    public double[] boosts(String q) {
+        double[] boosts = new double[names.length];
+
+        if (q.isEmpty()) {
+            // 空字串被所有名稱包含；空名稱則只符合「所有 token 命中」
+            for (int docId = 0; docId < names.length; docId++) {
+                boosts[docId] = nameBoost(q, names[docId]);
+            }
+            return boosts;
+        }
+
+        // 1. 子字串（含確切匹配）
+        for (int docId : docsContaining(q)) {
+            boosts[docId] = names[docId].equals(q) ? EXACT_BOOST : SUBSTRING_BOOST;
+        }
+
+        // 2. 所有 token 命中（只有一個 token 時與子字串相同）
+        String[] tokens = q.split(" ");
+        if (tokens.length > 1) {
+            for (int docId : docsContaining(tokens[0])) {
+                if (boosts[docId] == 0 && containsAll(names[docId], tokens)) {
+                    boosts[docId] = TOKEN_BOOST;
+                }
+            }
+        }
+        return boosts;
+    }
+
+    /**
+     * 是否有網站名稱包含整個查詢（此時查詢的 token 順序會影響名稱加分）
+     * @param q 已正規化的查詢（見 normalize）
+     * @return true 如果至少一個名稱包含查詢
+     */
+    public boolean containsPhrase(String q) {
+        return !q.isEmpty() && !docsContaining(q).isEmpty();
+    }
+
+    /**
+     * 找出名稱包含指定字串的網站
+     * 取字串中 postings 最短的 n-gram 作為候選，再以 contains 確認
+     * @param pattern 已正規化的字串（非空）
+     * @return docId 列表（由小到大）
+     */
+    private List<Integer> docsContaining(String pattern) {
+        int[] shortest = null;
+        for (String gram : grams(pattern)) {
+            int[] list = postings.get(gram);
+            if (list == null) {
+                return Collections.emptyList();
+            }
+            if (shortest == null || list.length < shortest.length) {
+                shortest = list;
+            }
+        }
+
+        List<Integer> docIds = new ArrayList<>();
+        if (shortest == null) {
+            return docIds;
+        }
+        for (int docId : shortest) {
+            if (names[docId].contains(pattern)) {
+                docIds.add(docId);
+            }
+        }
+        return docIds;
+    }
+
+    /**
+     * 取得字串的所有 unigram 與 bigram（不重複）
+     */
+    private static Set<String> grams(String s) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i < s.length(); i++) {
+            grams.add(s.substring(i, i + 1));
+            if (i + 1 < s.length()) {
+                grams.add(s.substring(i, i + 2));
+            }
+        }
+        return grams;
+    }
+
+    private static boolean containsAll(String name, String[] tokens) {
+        for (String t : tokens) {
+            if (!name.contains(t)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 取得網站正規化後的名稱
+     * @param docId 網站編號
+     * @return 正規化後的名稱
+     */
+    public String getNormalizedName(int docId) {
+        return names[docId];
+    }
+
+    /**
+     * 取得網站預先計算的去重 key
+     * @param docId 網站編號
+     * @return 去重 key
+     */
+    public String getDedupeKey(int docId) {
+        return dedupeKeys[docId];
+    }
+
+    /**
+     * 取得網站去重 key 的編號（相同 key 的網站編號相同，介於 0 與 getGroupCount() 之間）
+     * @param docId 網站編號
+     * @return 去重 key 的編號
+     */
+    public int getDedupeGroup(int docId) {
+        return dedupeGroups[docId];
+    }
+
+    /**
+     * 取得去重 key 編號的網站在 getGroupDoc 中的起始位置
+     * 編號 group 的網站為 getGroupDoc(groupStart(group)) ~ getGroupDoc(groupStart(group + 1) - 1)
+     * @param group 去重 key 的編號（可為 getGroupCount()，表示結尾）
+     * @return 起始位置
+     */
+    public int groupStart(int group) {
+        return groupStarts[group];
+    }
+
+    /**
+     * 取得依去重 key 編號排列的第 i 個網站
+     * @param i 位置
+     * @return docId
+     */
+    public int getGroupDoc(int i) {
+        return groupDocs[i];
+    }
+
+    /**
+     * 取得不重複的去重 key 數量
+     * @return 數量
+     */
+    public int getGroupCount() {
+        return groupCount;
+    }
+
+    /**
+     * 網站是否與其他網站共用去重 key
+     * @param docId 網站編號
+     * @return true 如果同一個 key 有兩個以上網站
+     */
+    public boolean isShared(int docId) {
+        return sharedDocs.get(docId);
+    }
+
+    /**
+     * 取得有兩個以上網站的去重 key 數量
+     * @return 數量
+     */
+    public int getSharedGroupCount() {
+        return sharedGroups.length;
+    }
+
+    /**
+     * 取得第 i 個有兩個以上網站的去重 key 編號
+     * @param i 位置
+     * @return 去重 key 的編號
+     */
+    public int getSharedGroup(int i) {
+        return sharedGroups[i];
+    }
+
+    /**
+     * 計算一組網站中不重複的去重 key 數量
+     * 以 bitset 的數量為準，只有共用去重 key 的網站才逐一檢查（通常只有少數）
+     * @param docs docId 的 bitset
+     * @return 不重複的去重 key 數量
+     */
+    public int countGroups(BitSet docs) {
+        int count = docs.cardinality();
+        if (sharedDocs.isEmpty()) {
+            return count;
+        }
+        BitSet shared = (BitSet) docs.clone();
+        shared.and(sharedDocs);
+        BitSet seen = new BitSet(groupCount);
+        for (int docId = shared.nextSetBit(0); docId >= 0; docId = shared.nextSetBit(docId + 1)) {
+            if (seen.get(dedupeGroups[docId])) {
+                count--;
+            } else {
+                seen.set(dedupeGroups[docId]);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 取得索引中的網站數量
+     * @return 網站數量
+     */
+    public int size() {
+        return names.length;
+    }
+
+    // ========== 靜態工具（也用於不在索引中的網站） ==========
+
+    /**
+     * 正規化字串以便比對：轉小寫、移除標點、合併空白
+     * @param s 原始字串
+     * @return 正規化後的字串
+     */
+    public static String normalize(String s) {
+        if (s == null) return "";
+        String cleaned = NON_WORD.matcher(s.toLowerCase()).replaceAll(" ");
+        return SPACES.matcher(cleaned.trim()).replaceAll(" ");
+    }
+
+    /**
+     * 計算名稱匹配的加分（逐筆比對）
+     * @param q 已正規化的查詢
+     * @param name 已正規化的網站名稱
+     * @return 加分（完全相等 80、子字串 50、所有 token 命中 30）
+     */
+    public static double nameBoost(String q, String name) {
+        if (!name.isEmpty() && name.equals(q)) {
+            return EXACT_BOOST;
+        } else if (!name.isEmpty() && name.contains(q)) {
+            return SUBSTRING_BOOST;
+        }
+        return containsAll(name, q.split(" ")) ? TOKEN_BOOST : 0.0;
+    }
+
+    /**
+     * 取得去重用的 key：cafeId（優先）> name + address > URL
+     * @param page 網站
+     * @return 去重 key
+     */
+    public static String dedupeKey(WebPage page) {
+        String cafeId = (page instanceof Cafe) ? ((Cafe) page).getId() : null;
+
+        // 優先使用 cafeId（Cafe 物件必有 ID）
+        if (cafeId != null && !cafeId.trim().isEmpty()) {
+            return "id:" + cafeId.trim();
+        }
+
+        // 降級方案：用 name + address 組成 key（以防 cafeId 丟失）
+        String normName = normalize(page.getName() != null ? page.getName().trim() : "");
+        String normAddr = normalize(page.getAddress() != null ? page.getAddress().trim() : "");
+        if (!normName.isEmpty()) {
+            return "na:" + normName + "|" + normAddr;
+        }
+
+        // 最後的防線：用 URL
+        return "url:" + (page.getUrl() != null ? page.getUrl().trim() : "");
+    }
+}
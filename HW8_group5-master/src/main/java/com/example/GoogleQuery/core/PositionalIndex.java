@@ -0,0 +1,293 @@
+package com.example.GoogleQuery.core;
+
+import java.util.*;
+import java.util.function.Function;
+import com.example.GoogleQuery.model.*;
+import com.example.GoogleQuery.util.ProximityQuery;
+import com.example.GoogleQuery.util.TextAnalyzer;
+import com.example.GoogleQuery.util.TokenStream;
+
+/**
+ * PositionalIndex - 位置索引
+ * 記錄每個詞在每個網站中出現的位置（網站內容分析後、過濾停用詞的第幾個 token，見 TokenStream），
+ * 片語與 NEAR/n 條件以交集位置列表判斷，不需要重新掃描網站內容
+ *
+ * 查詢的詞以同一個 TextAnalyzer 分析（同義詞、分詞方式與網站內容相同），
+ * 一個查詢詞分成多個 token 時視為片語
+ */
+public class PositionalIndex {
+
+    private static final int[] NO_POSITIONS = new int[0];
+
+    private final TextAnalyzer analyzer;
+    private final int docCount;
+    private final Map<String, Postings> postings;   // 詞 -> 位置 postings
+
+    /**
+     * 建構子：以各網站已分析的 TokenStream 建立位置索引
+     * @param pages 網站列表（順序即 docId）
+     */
+    public PositionalIndex(List<WebPage> pages) {
+        this.analyzer = TextAnalyzer.DEFAULT;
+        this.docCount = pages.size();
+
+        Map<String, Builder> builders = new HashMap<>();
+        for (int docId = 0; docId < pages.size(); docId++) {
+            TokenStream stream = pages.get(docId).getTokenStream();
+            for (int i = 0; i < stream.size(); i++) {
+                builders.computeIfAbsent(stream.term(i), t -> new Builder()).add(docId, i);
+            }
+        }
+
+        this.postings = new HashMap<>(builders.size() * 2);
+        for (Map.Entry<String, Builder> entry : builders.entrySet()) {
+            postings.put(entry.getKey(), entry.getValue().build());
+        }
+    }
+
+    /**
+     * 找出符合查詢中所有片語與鄰近條件的網站
+     * 先以各條件中所有詞的 docId 列表取交集，只檢查交集中網站的位置
+     * @param query 解析後的查詢
+     * @return 符合的 docId（沒有條件時為全部網站）
+     */
+    public BitSet match(ProximityQuery query) {
+        BitSet result = new BitSet(docCount);
+        result.set(0, docCount);
+        for (ProximityQuery.Clause clause : query.getClauses()) {
+            result.and(match(clause));
+        }
+        return result;
+    }
+
+    /**
+     * 找出符合單一條件的網站
+     */
+    private BitSet match(ProximityQuery.Clause clause) {
+        List<String> left = analyze(clause.left());
+        List<String> right = clause.isPhrase() ? List.of() : analyze(clause.right());
+        BitSet result = new BitSet(docCount);
+
+        // 一邊全部是停用詞時無法比對位置，條件不限制結果
+        if (left.isEmpty() || (!clause.isPhrase() && right.isEmpty())) {
+            result.set(0, docCount);
+            return result;
+        }
+
+        // 從最短的 postings 開始，其他詞以二分搜尋確認（任一個詞沒出現就沒有結果）
+        List<Postings> lists = new ArrayList<>();
+        for (String term : concat(left, right)) {
+            Postings list = postings.get(term);
+            if (list == null) {
+                return result;
+            }
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(Postings::size));
+
+        Postings shortest = lists.get(0);
+        for (int i = 0; i < shortest.size(); i++) {
+            int docId = shortest.docIds[i];
+            boolean all = true;
+            for (int j = 1; j < lists.size() && all; j++) {
+                all = lists.get(j).indexOf(docId) >= 0;
+            }
+            if (all && matches(clause, left, right, term -> positions(term, docId))) {
+                result.set(docId);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 檢查不在索引中的內容是否符合所有條件（例如建立索引後才加入的網站）
+     * @param query 解析後的查詢
+     * @param stream 內容分析結果
+     * @return 是否符合
+     */
+    public boolean matches(ProximityQuery query, TokenStream stream) {
+        Map<String, List<Integer>> found = new HashMap<>();
+        for (int i = 0; i < stream.size(); i++) {
+            found.computeIfAbsent(stream.term(i), t -> new ArrayList<>()).add(i);
+        }
+        Function<String, int[]> positions = term -> {
+            List<Integer> list = found.get(term);
+            return list != null ? list.stream().mapToInt(Integer::intValue).toArray() : NO_POSITIONS;
+        };
+
+        for (ProximityQuery.Clause clause : query.getClauses()) {
+            List<String> left = analyze(clause.left());
+            List<String> right = clause.isPhrase() ? List.of() : analyze(clause.right());
+            if (left.isEmpty() || (!clause.isPhrase() && right.isEmpty())) {
+                continue;
+            }
+            if (!matches(clause, left, right, positions)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 以位置列表判斷一個網站是否符合條件
+     * 片語：left 的詞在連續位置依序出現；
+     * 鄰近：left 片語與 right 片語之間最多相隔 distance 個詞（不分先後）
+     */
+    private static boolean matches(ProximityQuery.Clause clause, List<String> left, List<String> right,
+                                   Function<String, int[]> positions) {
+        int[] leftStarts = phraseStarts(left, positions);
+        if (clause.isPhrase() || leftStarts.length == 0) {
+            return leftStarts.length > 0;
+        }
+
+        int[] rightStarts = phraseStarts(right, positions);
+        int distance = clause.distance();
+        for (int start : leftStarts) {
+            // 兩段之間相隔 distance 個詞以內：right 的起點落在 [start - |right| - distance, start + |left| + distance]，
+            // 且兩段不重疊（同一個詞不能同時當作兩邊）
+            int from = start - right.size() - distance;
+            int to = start + left.size() + distance;
+            for (int k = lowerBound(rightStarts, from); k < rightStarts.length && rightStarts[k] <= to; k++) {
+                if (rightStarts[k] + right.size() <= start || rightStarts[k] >= start + left.size()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 找出片語在網站中的所有起始位置（由小到大）
+     */
+    private static int[] phraseStarts(List<String> terms, Function<String, int[]> positions) {
+        int[] starts = positions.apply(terms.get(0));
+        if (terms.size() == 1) {
+            return starts;
+        }
+
+        int[] result = new int[starts.length];
+        int count = 0;
+        int[][] others = new int[terms.size()][];
+        for (int t = 1; t < terms.size(); t++) {
+            others[t] = positions.apply(terms.get(t));
+        }
+        for (int start : starts) {
+            boolean consecutive = true;
+            for (int t = 1; t < terms.size() && consecutive; t++) {
+                consecutive = Arrays.binarySearch(others[t], start + t) >= 0;
+            }
+            if (consecutive) {
+                result[count++] = start;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private static int lowerBound(int[] values, int key) {
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * 以與網站內容相同的分析方式處理查詢詞（一個詞可能分成多個 token）
+     */
+    private List<String> analyze(List<String> words) {
+        return analyzer.analyze(String.join(" ", words)).terms();
+    }
+
+    private static List<String> concat(List<String> left, List<String> right) {
+        List<String> all = new ArrayList<>(left);
+        all.addAll(right);
+        return all;
+    }
+
+    /**
+     * 取得詞在網站中出現的位置
+     * @param term 詞（需已分析）
+     * @param docId 網站編號
+     * @return 位置（由小到大），未出現時為空陣列
+     */
+    public int[] positions(String term, int docId) {
+        Postings list = postings.get(term);
+        if (list == null) {
+            return NO_POSITIONS;
+        }
+        int i = list.indexOf(docId);
+        return i >= 0 ? Arrays.copyOfRange(list.positions, list.offsets[i], list.offsets[i + 1]) : NO_POSITIONS;
+    }
+
+    /**
+     * 取得索引中的詞彙數量
+     * @return 詞彙數量
+     */
+    public int getTermCount() {
+        return postings.size();
+    }
+
+    /**
+     * Postings - 單一詞的位置 postings
+     * docIds 由小到大，第 i 個網站的位置為 positions[offsets[i] .. offsets[i + 1])
+     */
+    private static class Postings {
+        final int[] docIds;
+        final int[] offsets;
+        final int[] positions;
+
+        Postings(int[] docIds, int[] offsets, int[] positions) {
+            this.docIds = docIds;
+            this.offsets = offsets;
+            this.positions = positions;
+        }
+
+        int size() {
+            return docIds.length;
+        }
+
+        int indexOf(int docId) {
+            int i = Arrays.binarySearch(docIds, docId);
+            return i >= 0 ? i : -1;
+        }
+    }
+
+    /**
+     * Builder - 建立索引時依 docId、位置遞增的順序累積 postings
+     */
+    private static class Builder {
+        private int[] docIds = new int[4];
+        private int[] offsets = new int[5];
+        private int[] positions = new int[4];
+        private int docs;
+        private int count;
+
+        void add(int docId, int position) {
+            if (docs == 0 || docIds[docs - 1] != docId) {
+                if (docs == docIds.length) {
+                    docIds = Arrays.copyOf(docIds, docs * 2);
+                    offsets = Arrays.copyOf(offsets, docs * 2 + 1);
+                }
+                docIds[docs] = docId;
+                offsets[docs] = count;
+                docs++;
+            }
+            if (count == positions.length) {
+                positions = Arrays.copyOf(positions, count * 2);
+            }
+            positions[count++] = position;
+        }
+
+        Postings build() {
+            int[] ends = Arrays.copyOf(offsets, docs + 1);
+            ends[docs] = count;
+            return new Postings(Arrays.copyOf(docIds, docs), ends, Arrays.copyOf(positions, count));
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.GoogleQuery.core;
+
+import java.util.*;
+import com.example.GoogleQuery.model.*;
+
+/**
+ * QueryContext - 單次查詢的計分上下文
+ * 查詢時的關鍵字權重、原始分數、標準化分數都只存在這個物件中，
+ * 不會寫回共用的 Keyword 或 WebPage，因此多個查詢可以同時執行
+ */
+public class QueryContext {
+
+    private final CorpusSnapshot snapshot;     // 查詢使用的語料快照
+    private final String query;                // 使用者查詢
+    private final List<WebPage> candidates;    // 要計分的網站（已篩選）
+    private final double[] scores;             // candidates 對應的分數
+    private final int[] docIds;                // candidates 對應的 docId（不在快照中為 -1）
+    private double maxScore;
+    private double minScore;
+
+    /**
+     * 建構子
+     * @param snapshot 語料快照
+     * @param query 使用者查詢
+     * @param candidates 要計分的網站
+     */
+    public QueryContext(CorpusSnapshot snapshot, String query, List<WebPage> candidates) {
+        this.snapshot = snapshot;
+        this.query = query;
+        this.candidates = candidates != null ? candidates : new ArrayList<>();
+        this.scores = new double[this.candidates.size()];
+        this.docIds = new int[this.candidates.size()];
+        this.maxScore = 0.0;
+        this.minScore = Double.MAX_VALUE;
+    }
+
+    /**
+     * 計算所有候選網站的分數
+     * 在快照中的網站直接使用倒排索引；不在快照中的網站以本次查詢的權重逐頁計算
+     */
+    public void computeScores() {
+        maxScore = 0.0;
+        minScore = Double.MAX_VALUE;
+
+        InvertedIndex index = snapshot.getIndex();
+        double[] indexScores = index.score(query);
+        double[] queryWeights = null;
+
+        for (int i = 0; i < candidates.size(); i++) {
+            WebPage page = candidates.get(i);
+            int docId = index.getDocId(page);
+            docIds[i] = docId;
+
+            double score;
+            if (docId >= 0) {
+                score = indexScores[docId];
+            } else {
+                if (queryWeights == null) {
+                    queryWeights = index.termWeights(query);
+                }
+                score = index.scoreContent(page, queryWeights);
+            }
+
+            scores[i] = score;
+            if (score > maxScore) maxScore = score;
+            if (score < minScore) minScore = score;
+        }
+    }
+
+    /**
+     * 將分數標準化到 0-100 的範圍（與 Ranker.normalizeScores 相同的公式）
+     */
+    public void normalizeScores() {
+        for (int i = 0; i < scores.length; i++) {
+            scores[i] = normalize(scores[i], minScore, maxScore);
+        }
+    }
+
+    /**
+     * 將單一分數標準化到 0-100（最高分與最低分相同時為 50）
+     * @param score 原始分數
+     * @param min 所有候選網站的最低分
+     * @param max 所有候選網站的最高分
+     * @return 標準化分數
+     */
+    static double normalize(double score, double min, double max) {
+        if (max == min) {
+            return 50.0;
+        }
+        return ((score - min) / (max - min)) * 100.0;
+    }
+
+    /**
+     * 取得候選網站的分數
+     * @param i 候選網站的位置
+     * @return 分數
+     */
+    public double getScore(int i) {
+        return scores[i];
+    }
+
+    /**
+     * 取得候選網站在快照中的 docId（computeScores 之後才有值）
+     * @param i 候選網站的位置
+     * @return docId，不在快照中則返回 -1
+     */
+    public int getDocId(int i) {
+        return docIds[i];
+    }
+
+    /**
+     * 取得使用者查詢
+     * @return 查詢字串
+     */
+    public String getQuery() {
+        return query;
+    }
+
+    /**
+     * 取得語料快照
+     * @return 語料快照
+     */
+    public CorpusSnapshot getSnapshot() {
+        return snapshot;
+    }
+}
@@ -123,25 +123,35 @@ public class Ranker {
         
         for (WebPage page : sortedPages) {
             double score = scoreMap.getOrDefault(page, 0.0);
-            SearchResult result = new SearchResult(page, score);
-            
-            // 如果 page 是 Cafe 實例，設定額外的咖啡廳資訊
-            if (page instanceof Cafe) {
-                Cafe cafe = (Cafe) page;
-                result.setCafeId(cafe.getId());
-                result.setPhoneNumber(cafe.getPhone());
-                result.setRating(cafe.getRating());
-                result.setFeatures(cafe.getFeatures());
-                result.setTags(cafe.getTags());
-                result.setDistrict(cafe.getDistrict());
-                result.setAddress(cafe.getAddress());
-            }
-            
-            results.add(result);
+            results.add(toSearchResult(page, score));
         }
         
         return results;
     }
+
+    /**
+     * 將網站與分數包裝成 SearchResult
+     * @param page 網站
+     * @param score 分數
+     * @return SearchResult（包含咖啡廳資訊）
+     */
+    static SearchResult toSearchResult(WebPage page, double score) {
+        SearchResult result = new SearchResult(page, score);
+        
+        // 如果 page 是 Cafe 實例，設定額外的咖啡廳資訊
+        if (page instanceof Cafe) {
+            Cafe cafe = (Cafe) page;
+            result.setCafeId(cafe.getId());
+            result.setPhoneNumber(cafe.getPhone());
+            result.setRating(cafe.getRating());
+            result.setFeatures(cafe.getFeatures());
+            result.setTags(cafe.getTags());
+            result.setDistrict(cafe.getDistrict());
+            result.setAddress(cafe.getAddress());
+        }
+        
+        return result;
+    }
     
     /**
      * 列印前 N 名的搜尋結果
@@ -0,0 +1,37 @@
+package com.example.GoogleQuery.core;
+
+import java.util.Arrays;
+
+/**
+ * ScalarScoringKernel - 純量計分核心（不支援 Vector API 時使用，也是 SIMD 版本的對照）
+ */
+final class ScalarScoringKernel implements ScoringKernel {
+
+    static final ScalarScoringKernel INSTANCE = new ScalarScoringKernel();
+
+    private ScalarScoringKernel() {
+    }
+
+    @Override
+    public void weightedSums(int[] columns, int docCount, double[] termWeights, double[] sums) {
+        Arrays.fill(sums, 0, docCount, 0.0);
+        for (int termId = 0; termId < termWeights.length; termId++) {
+            // 權重為 0 的關鍵字不影響分數（分數不會是 -0.0）
+            if (termWeights[termId] != 0.0) {
+                accumulate(columns, termId * docCount, docCount, termWeights[termId], sums);
+            }
+        }
+    }
+
+    @Override
+    public void accumulate(int[] columns, int offset, int docCount, double weight, double[] sums) {
+        for (int docId = 0; docId < docCount; docId++) {
+            sums[docId] += columns[offset + docId] * weight;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "scalar";
+    }
+}
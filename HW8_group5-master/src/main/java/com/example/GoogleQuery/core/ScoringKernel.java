@@ -0,0 +1,72 @@
+package com.example.GoogleQuery.core;
+
+/**
+ * ScoringKernel - 批次計算「出現次數 × 權重」的加總
+ * 出現次數以關鍵字為主的一維 int 陣列存放（columns[termId * docCount + docId]），
+ * 一次處理一整段連續的網站
+ *
+ * 每個網站都依 termId 由小到大、先乘後加（不使用 FMA）累加，
+ * 因此不論是否使用 SIMD，結果都與逐一網站的純量迴圈完全相同（bit-identical）
+ */
+public interface ScoringKernel {
+
+    /**
+     * 計算所有網站的加權分數：sums[docId] = Σ columns[termId * docCount + docId] × termWeights[termId]
+     * @param columns 以關鍵字為主排列的出現次數
+     * @param docCount 網站數量
+     * @param termWeights 每個 termId 的權重
+     * @param sums 輸出（長度至少 docCount，會被覆寫）
+     */
+    void weightedSums(int[] columns, int docCount, double[] termWeights, double[] sums);
+
+    /**
+     * 將單一關鍵字的貢獻累加到分數上：sums[docId] += columns[offset + docId] × weight
+     * @param columns 以關鍵字為主排列的出現次數
+     * @param offset 該關鍵字在 columns 中的起始位置
+     * @param docCount 網站數量
+     * @param weight 權重
+     * @param sums 要累加的分數
+     */
+    void accumulate(int[] columns, int offset, int docCount, double weight, double[] sums);
+
+    /**
+     * 取得目前環境可用的最快實作
+     * 啟動時加上 --add-modules jdk.incubator.vector 才會使用 Vector API，
+     * 否則（或設定 -Dsearch.vector=false 時）使用純量實作
+     * @return 計分核心
+     */
+    static ScoringKernel best() {
+        return Holder.BEST;
+    }
+
+    /**
+     * 取得純量實作
+     * @return 純量計分核心
+     */
+    static ScoringKernel scalar() {
+        return ScalarScoringKernel.INSTANCE;
+    }
+
+    /**
+     * 延遲載入 Vector API 實作（模組不存在時不會載入 VectorScoringKernel）
+     */
+    final class Holder {
+        static final ScoringKernel BEST = load();
+
+        private Holder() {
+        }
+
+        private static ScoringKernel load() {
+            if (!Boolean.parseBoolean(System.getProperty("search.vector", "true"))
+                    || ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+                return scalar();
+            }
+            try {
+                return (ScoringKernel) Class.forName("com.example.GoogleQuery.core.VectorScoringKernel")
+                    .getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                return scalar();
+            }
+        }
+    }
+}
@@ -1,22 +1,40 @@
 package com.example.GoogleQuery.core;
 
 import com.example.GoogleQuery.model.*;
+import com.example.GoogleQuery.filter.AttributeIndex;
+import com.example.GoogleQuery.util.ParsedQuery;
+import com.example.GoogleQuery.util.ProximityQuery;
+import com.example.GoogleQuery.util.QueryCanonicalizer;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.DoubleAccumulator;
+import java.util.function.Predicate;
 import com.example.GoogleQuery.service.KeywordService;
 import com.example.GoogleQuery.service.RankingService;
 
 /**
  * SearchEngine - 咖啡廳搜尋引擎核心類別
  * 整合關鍵字解析、排名、Hashtag 生成等功能
+ *
+ * 執行緒安全：查詢只讀取不可變的 CorpusSnapshot，查詢時的權重與分數存在各自的 QueryContext；
+ * 新增/移除網站或關鍵字時以 synchronized 修改後重新發布快照，不影響進行中的查詢
  */
 public class SearchEngine {
     
-    private ArrayList<WebPage> allPages;              // 所有咖啡廳網站
-    private ArrayList<Keyword> keywords;               // 搜尋關鍵字清單
-    private Ranker ranker;                             // 排名系統
+    private ArrayList<WebPage> allPages;              // 所有咖啡廳網站（僅在 synchronized 中修改）
+    private ArrayList<Keyword> keywords;               // 搜尋關鍵字清單（僅在 synchronized 中修改）
     private HashtagGenerator hashtagGenerator;         // Hashtag 生成器
     private BaselineScoreCalculator baselineCalculator; // 基準分數計算器
     private Map<String, WebTree> webTrees;            // 網站樹結構
+    private volatile CorpusSnapshot snapshot;          // 查詢用的語料快照（頁面或關鍵字變動時重建）
+    private volatile boolean dynamicPruning = true;    // 分頁搜尋是否以分數上界提前結束（MaxScore）
+    private volatile ParallelScoring parallelScoring;  // 分段平行計分設定（null 表示只在呼叫的執行緒計分）
+
+    private static final AtomicLong GENERATIONS = new AtomicLong();
+    private final long generation = GENERATIONS.incrementAndGet(); // 建立順序（快取 key 用，區分重新載入前後的引擎）
 
     private KeywordService keywordService;         // 關鍵字服務
     private RankingService rankingService;         // 排名服務
@@ -27,8 +45,7 @@ public class SearchEngine {
     public SearchEngine() {
         this.allPages = new ArrayList<>();
         this.keywords = new ArrayList<>();
-        this.webTrees = new HashMap<>();
-        this.ranker = new Ranker(allPages);
+        this.webTrees = new ConcurrentHashMap<>();
         this.hashtagGenerator = new HashtagGenerator();
         this.baselineCalculator = new BaselineScoreCalculator();
     }
@@ -39,10 +56,9 @@ public class SearchEngine {
      * @param keywords 關鍵字列表
      */
     public SearchEngine(ArrayList<WebPage> pages, ArrayList<Keyword> keywords) {
-        this.allPages = pages != null ? pages : new ArrayList<>();
-        this.keywords = keywords != null ? keywords : new ArrayList<>();
-        this.webTrees = new HashMap<>();
-        this.ranker = new Ranker(null);
+        this.allPages = pages != null ? new ArrayList<>(pages) : new ArrayList<>();
+        this.keywords = keywords != null ? new ArrayList<>(keywords) : new ArrayList<>();
+        this.webTrees = new ConcurrentHashMap<>();
         this.hashtagGenerator = new HashtagGenerator();
         this.baselineCalculator = new BaselineScoreCalculator();
     }
@@ -55,8 +71,7 @@ public class SearchEngine {
     public SearchEngine(KeywordService keywordService, RankingService rankingService) {
         this.allPages = new ArrayList<>();
         this.keywords = new ArrayList<>();
-        this.webTrees = new HashMap<>();
-        this.ranker = new Ranker(null);
+        this.webTrees = new ConcurrentHashMap<>();
         this.hashtagGenerator = new HashtagGenerator();
         this.baselineCalculator = new BaselineScoreCalculator();
         
@@ -73,7 +88,7 @@ public class SearchEngine {
     /**
      * 從 KeywordService 載入關鍵字
      */
-    private void loadKeywordsFromService() {
+    private synchronized void loadKeywordsFromService() {
         List<com.example.GoogleQuery.model.Keyword> allKeywords = 
             keywordService.getAllKeywords();
         
@@ -87,9 +102,10 @@ public class SearchEngine {
     /**
      * 設定 KeywordService（如果需要在建立後設定）
      */
-    public void setKeywordService(KeywordService keywordService) {
+    public synchronized void setKeywordService(KeywordService keywordService) {
         this.keywordService = keywordService;
         loadKeywordsFromService();
+        invalidateIndex();
     }
 
     /**
@@ -103,7 +119,7 @@ public class SearchEngine {
      * 初始化搜尋引擎
      * 計算所有咖啡廳的基準分數（baseline score）
      */
-    public void initialize() {
+    public synchronized void initialize() {
         System.out.println("=== 搜尋引擎初始化 ===");
         
         // 計算每個網站的基準分數
@@ -131,17 +147,9 @@ public class SearchEngine {
      * @return 排序後的搜尋結果
      */
     public ArrayList<SearchResult> search(String query, ArrayList<WebPage> pages) {
-        // 暫時設定 allPages 為傳入的 pages
-        ArrayList<WebPage> originalPages = this.allPages;
-        this.allPages = pages;
-        
-        // 呼叫進階搜尋，不帶篩選條件
-        ArrayList<SearchResult> results = search(query, null, null);
-        
-        // 恢復原本的 allPages
-        this.allPages = originalPages;
-        
-        return results;
+        // 直接以傳入的 pages 作為候選網站，不修改引擎本身的網站列表
+        ArrayList<WebPage> candidates = pages != null ? new ArrayList<>(pages) : new ArrayList<>();
+        return rank(getSnapshot(), query, candidates);
     }
     
     /**
@@ -152,211 +160,837 @@ public class SearchEngine {
      * @return 排序後的搜尋結果
      */
     public ArrayList<SearchResult> search(String query, List<String> districts, List<String> features) {
-        // 1. 動態調整關鍵字權重（根據使用者查詢）
-        adjustKeywordWeights(query);
-        
-        // 2. 篩選網站（根據地區和功能）
-        ArrayList<WebPage> filteredPages = filterPages(districts, features);
+        // 1. 取得目前的語料快照並篩選網站（根據地區和功能）
+        CorpusSnapshot current = getSnapshot();
+        ArrayList<WebPage> filteredPages = filterPages(current, districts, features);
         
+        return rank(current, query, filteredPages);
+    }
+
+    /**
+     * 依地區和功能篩選網站（不計分，保持原本順序），只為這一頁的網站建立 SearchResult
+     * @param districts 地區列表（null 表示不篩選）
+     * @param features 功能列表（null 表示不篩選，需全部符合）
+     * @param offset 起始位置
+     * @param limit 每頁數量
+     * @param withFacets 是否同時計算符合網站的地區、功能分面統計
+     * @return 分頁結果（total 為符合條件的總數）
+     */
+    public SearchPage filterPage(List<String> districts, List<String> features,
+                                 int offset, int limit, boolean withFacets) {
+        CorpusSnapshot current = getSnapshot();
+        BitSet matched = current.getAttributes().match(districts, features);
+        List<WebPage> pages = AttributeIndex.select(current.getPages(), matched);
+
+        int from = Math.min(Math.max(0, offset), pages.size());
+        int to = (int) Math.min((long) from + Math.max(0, limit), pages.size());
+        ArrayList<SearchResult> results = new ArrayList<>(to - from);
+        for (WebPage page : pages.subList(from, to)) {
+            results.add(page instanceof Cafe ? new SearchResult((Cafe) page) : new SearchResult(page, 0.0));
+        }
+
+        FacetCounts facets = withFacets ? current.getAttributes().facets(matched) : null;
+        return new SearchPage(results, pages.size(), offset, limit, facets);
+    }
+
+    /**
+     * 分頁搜尋（與 SearchService.advancedSearch 相同的語意）
+     * 先對所有網站計分並標準化，再依地區和功能篩選，最後只選出這一頁需要的前 offset + limit 名
+     * @param query 搜尋字串
+     * @param districts 地區列表（null 表示不篩選）
+     * @param features 功能列表（null 表示不篩選，需全部符合）
+     * @param offset 起始位置
+     * @param limit 每頁數量
+     * @return 分頁結果（total 為符合條件的總數）
+     */
+    public SearchPage searchPage(String query, List<String> districts, List<String> features,
+                                 int offset, int limit) {
+        return searchPage(query, districts, features, offset, limit, false);
+    }
+
+    /**
+     * 分頁搜尋，可同時計算符合結果的分面統計
+     * 分面統計在選出前 K 名的同一次走訪中收集符合結果的 docId，再與各地區、功能的 bitset 交集計數
+     * @param query 搜尋字串
+     * @param districts 地區列表（null 表示不篩選）
+     * @param features 功能列表（null 表示不篩選，需全部符合）
+     * @param offset 起始位置
+     * @param limit 每頁數量
+     * @param withFacets 是否計算地區、功能分面統計
+     * @return 分頁結果（total 為符合條件的總數）
+     */
+    public SearchPage searchPage(String query, List<String> districts, List<String> features,
+                                 int offset, int limit, boolean withFacets) {
+        return searchPage(ParsedQuery.parse(query), districts, features, offset, limit, withFacets);
+    }
+
+    /**
+     * 以已解析的查詢分頁搜尋（服務入口以 prepareQuery 正規化、解析一次後傳入，不再重新解析）
+     * @param query 已解析的查詢
+     * @param districts 地區列表（null 表示不篩選）
+     * @param features 功能列表（null 表示不篩選，需全部符合）
+     * @param offset 起始位置
+     * @param limit 每頁數量
+     * @param withFacets 是否計算地區、功能分面統計
+     * @return 分頁結果（total 為符合條件的總數）
+     */
+    public SearchPage searchPage(ParsedQuery query, List<String> districts, List<String> features,
+                                 int offset, int limit, boolean withFacets) {
+        CorpusSnapshot current = getSnapshot();
+        // 語料較大時分段平行計分
+        ParallelScoring parallel = parallelScoring;
+        if (parallel != null && current.size() < parallel.threshold) {
+            parallel = null;
+        }
+        // 只需要前 offset + limit 名時以分數上界提前結束；分面統計需要所有符合結果，仍逐一計分
+        if (dynamicPruning && !withFacets && (long) Math.max(0, offset) + Math.max(0, limit) < current.size()) {
+            return rankPruned(parallel, current, query, districts, features, offset, limit);
+        }
+        if (parallel != null) {
+            return rankParallel(parallel, current, query, districts, features, offset, limit, withFacets);
+        }
+        return rank(current, query, new ArrayList<>(current.getPages()), districts, features, offset, limit, withFacets);
+    }
+
+    /**
+     * 設定分段平行計分（結果與單執行緒計分相同）
+     * @param pool 計分使用的 ForkJoinPool（null 表示停用，只在呼叫的執行緒計分）
+     * @param threshold 網站數量達到此值才平行計分
+     * @param segmentSize 每個分段的網站數量
+     */
+    public void setParallelScoring(ForkJoinPool pool, int threshold, int segmentSize) {
+        this.parallelScoring = (pool != null) ? new ParallelScoring(pool, threshold, segmentSize) : null;
+    }
+
+    /**
+     * ParallelScoring - 分段平行計分的設定
+     */
+    private static class ParallelScoring {
+        final ForkJoinPool pool;
+        final int threshold;      // 網站數量達到此值才平行計分
+        final int segmentSize;    // 每個分段的網站數量
+
+        ParallelScoring(ForkJoinPool pool, int threshold, int segmentSize) {
+            this.pool = pool;
+            this.threshold = Math.max(0, threshold);
+            this.segmentSize = Math.max(1, segmentSize);
+        }
+    }
+
+    /**
+     * 設定分頁搜尋是否使用動態剪枝（結果與逐一計分相同，預設開啟）
+     * @param dynamicPruning true 表示以分數上界提前結束
+     */
+    public void setDynamicPruning(boolean dynamicPruning) {
+        this.dynamicPruning = dynamicPruning;
+    }
+
+    /**
+     * 對候選網站計分、名稱加權、篩選與去重，並以有界堆積選出前 K 名
+     * 排名過程只處理 (候選位置, 分數) 的輕量資料，最後只為回傳的這一頁建立 SearchResult
+     * @param current 語料快照
+     * @param query 搜尋字串
+     * @param filteredPages 候選網站
+     * @return 排序後的搜尋結果
+     */
+    private ArrayList<SearchResult> rank(CorpusSnapshot current, String query, ArrayList<WebPage> filteredPages) {
+        SearchPage page = rank(current, ParsedQuery.parse(query), filteredPages, null, null, 0, Integer.MAX_VALUE, false);
+        return new ArrayList<>(page.getResults());
+    }
+
+    private SearchPage rank(CorpusSnapshot current, ParsedQuery query, ArrayList<WebPage> filteredPages,
+                            List<String> districts, List<String> features, int offset, int limit,
+                            boolean withFacets) {
+        offset = Math.max(0, offset);
+        limit = Math.max(0, limit);
         if (filteredPages.isEmpty()) {
-            return new ArrayList<>();
+            return withFacets ? new SearchPage(new ArrayList<>(), 0, offset, limit, FacetCounts.empty())
+                              : SearchPage.empty(offset, limit);
         }
         
-        // 3. 建立 Ranker 並計算分數
-        ranker = new Ranker(filteredPages);
-        ranker.computeFinalScores(keywords);
+        // 1. 片語與 NEAR/n 條件只限制結果，其中的詞仍以關鍵字計分
+        ProximityQuery parsed = query.getParsed();
+        String text = query.getScoringText();
+        
+        // 2. 建立本次查詢的 QueryContext 並透過倒排索引計算分數
+        //    查詢命中的關鍵字權重提高 50%，只需讀取這些關鍵字的 postings
+        QueryContext context = new QueryContext(current, text, filteredPages);
+        context.computeScores();
         
         // 4. 標準化分數（0-100）
-        ranker.normalizeScores();
+        context.normalizeScores();
         
         // 5. 生成 Hashtags（使用者輸入 + 網站 Top 3 關鍵字）
         // ❌ 註釋掉：不要動態生成 hashtags，保留咖啡廳原本的 hashtags
-        // generateHashtagsForPages(filteredPages, query);
+        // generateHashtagsForPages(filteredPages, text);
         
-        // 6. 取得排名結果
-        ArrayList<SearchResult> results = ranker.getRankedResults();
-
-        // 6.1 強化名稱匹配策略：確切匹配 > 子字串匹配 > 所有 token 命中
-        if (query != null && !query.trim().isEmpty()) {
-            String qRaw = query.trim();
-            String q = normalizeForMatch(qRaw);
-
-            for (SearchResult res : results) {
-                String nameRaw = res.getName() != null ? res.getName() : "";
-                String name = normalizeForMatch(nameRaw);
-
-                double boost = 0.0;
-                if (!name.isEmpty() && name.equals(q)) {
-                    // 完全相等，極高優先
-                    boost = 80.0;
-                } else if (!name.isEmpty() && name.contains(q)) {
-                    // 子字串包含
-                    boost = 50.0;
-                } else {
-                    // token-based 命中（查詢中的所有 token 都出現在名稱中）
-                    String[] tokens = q.split("\\s+");
-                    boolean allPresent = true;
-                    for (String t : tokens) {
-                        if (t.isEmpty()) continue;
-                        if (!name.contains(t)) { allPresent = false; break; }
-                    }
-                    if (allPresent && tokens.length > 0) {
-                        boost = 30.0;
+        // 6. 逐一處理候選網站（不做全體排序，也不建立 SearchResult）
+        //    查詢只正規化一次，名稱加分由名稱索引一次算出
+        String q = (text != null && !text.trim().isEmpty()) ? NameIndex.normalize(text.trim()) : null;
+        NameIndex names = current.getNameIndex();
+        double[] boosts = (q != null) ? names.boosts(q) : null;
+        BitSet allowed = allowedDocs(current, parsed, districts, features);
+        Map<String, RankedHit> unique = new HashMap<>();
+        
+        for (int i = 0; i < filteredPages.size(); i++) {
+            WebPage page = filteredPages.get(i);
+            
+            // 6.0 地區、功能與位置條件篩選（分數已在全部網站上標準化）
+            //     在快照中的網站直接查 bitset，其他網站才逐筆比對
+            int docId = context.getDocId(i);
+            if (allowed != null
+                    && !(docId >= 0 ? allowed.get(docId)
+                                    : matchesFilters(page, districts, features)
+                                      && current.getPositions().matches(parsed, page.getTokenStream()))) {
+                continue;
+            }
+            
+            // 6.1 強化名稱匹配策略：確切匹配 > 子字串匹配 > 所有 token 命中
+            //     不在快照中的網站（例如直接傳入的 pages）才逐筆正規化
+            double boost = 0.0;
+            if (q != null) {
+                boost = (docId >= 0) ? boosts[docId] : NameIndex.nameBoost(q, NameIndex.normalize(page.getName()));
+            }
+            double baseScore = context.getScore(i);
+            double finalScore = baseScore + boost;
+            
+            // 6.2 去重：依據 cafeId（優先）或 name+address 做去重，保留排名最前的
+            String key = (docId >= 0) ? names.getDedupeKey(docId) : NameIndex.dedupeKey(page);
+            RankedHit hit = new RankedHit(i, baseScore, finalScore);
+            unique.merge(key, hit, (a, b) -> RANK_ORDER.compare(a, b) <= 0 ? a : b);
+        }
+        
+        // 7. 過濾掉分數太低的結果（分數 > 0），以有界堆積只保留前 offset + limit 名
+        //    需要分面統計時，同時記錄所有符合結果的 docId（候選網站皆來自快照）
+        int capacity = (int) Math.min((long) offset + limit, Integer.MAX_VALUE);
+        TopK<RankedHit> topK = new TopK<>(Math.min(capacity, unique.size()), RANK_ORDER);
+        BitSet matched = withFacets ? new BitSet(current.size()) : null;
+        int total = 0;
+        for (RankedHit hit : unique.values()) {
+            if (hit.finalScore > 0) {
+                total++;
+                topK.offer(hit);
+                if (matched != null && context.getDocId(hit.position) >= 0) {
+                    matched.set(context.getDocId(hit.position));
+                }
+            }
+        }
+        
+        // 8. 只為這一頁的結果建立 SearchResult
+        List<RankedHit> top = topK.toSortedList();
+        ArrayList<SearchResult> pageResults = new ArrayList<>(Math.max(0, top.size() - offset));
+        for (int i = offset; i < top.size(); i++) {
+            RankedHit hit = top.get(i);
+            pageResults.add(Ranker.toSearchResult(filteredPages.get(hit.position), hit.finalScore));
+        }
+        
+        FacetCounts facets = withFacets ? current.getAttributes().facets(matched) : null;
+        return new SearchPage(pageResults, total, offset, limit, facets);
+    }
+
+    /**
+     * 以 MaxScore 動態剪枝選出前 offset + limit 名（候選網站為整個快照，結果與 rank 相同）
+     * 網站依基礎分數由高到低走訪，分數上界（基礎分數 + 每個查詢關鍵字的最大貢獻）標準化後
+     * 已低於目前第 K 名時，之後的網站都不可能進入前 K 名，直接停止；
+     * 名稱加分的網站不受上界限制，先全部計分
+     * 平行計分時依基礎分數的名次切成分段，各分段在 ForkJoinPool 上各自剪枝，
+     * 並共用目前已知的第 K 名分數（任一分段已有 K 個不重複網站達到此分數，低於此分數的網站都不可能進入前 K 名）
+     * @param parallel 平行計分設定（null 表示只在呼叫的執行緒計分）
+     * @param current 語料快照
+     * @param query 搜尋字串
+     * @param districts 地區列表（null 表示不篩選）
+     * @param features 功能列表（null 表示不篩選，需全部符合）
+     * @param offset 起始位置
+     * @param limit 每頁數量
+     * @return 分頁結果（total 為符合條件的總數）
+     */
+    private SearchPage rankPruned(ParallelScoring parallel, CorpusSnapshot current, ParsedQuery query,
+                                  List<String> districts, List<String> features, int offset, int limit) {
+        offset = Math.max(0, offset);
+        limit = Math.max(0, limit);
+        ProximityQuery parsed = query.getParsed();
+        String text = query.getScoringText();
+        InvertedIndex index = current.getIndex();
+        InvertedIndex.QueryScorer scorer = index.scorer(text);
+        int n = current.size();
+
+        // 1. 標準化需要全部網站的最高分與最低分（與 QueryContext 相同，最高分至少為 0）
+        //    最高分：依基礎分數由高到低，上界不超過目前最高分時停止
+        //    最低分：依基礎分數由低到高，基礎分數不低於目前最低分時停止
+        double max = 0.0;
+        for (int rank = 0; rank < n; rank++) {
+            int docId = index.docIdByBaseRank(rank);
+            if (scorer.upperBound(docId) <= max) break;
+            max = Math.max(max, scorer.score(docId));
+        }
+        double min = Double.MAX_VALUE;
+        for (int rank = n - 1; rank >= 0; rank--) {
+            int docId = index.docIdByBaseRank(rank);
+            if (index.getBaseScore(docId) >= min) break;
+            min = Math.min(min, scorer.score(docId));
+        }
+
+        String q = (text != null && !text.trim().isEmpty()) ? NameIndex.normalize(text.trim()) : null;
+        NameIndex names = current.getNameIndex();
+        double[] boosts = (q != null) ? names.boosts(q) : null;
+        BitSet allowed = allowedDocs(current, parsed, districts, features);
+        int capacity = (int) Math.min((long) offset + limit, Integer.MAX_VALUE);
+        UniqueTopK topK = new UniqueTopK(capacity);
+
+        // 2. 名稱加分的網站全部計分（名稱常含「咖啡」等詞，可能很多；平行計分時依 docId 分段）
+        final double minScore = min;
+        final double maxScore = max;
+        if (boosts != null && parallel == null) {
+            scoreBoosted(scorer, names, boosts, allowed, minScore, maxScore, 0, n, topK);
+        } else if (boosts != null) {
+            List<ForkJoinTask<UniqueTopK>> tasks = new ArrayList<>();
+            for (int from = 0; from < n; from += parallel.segmentSize) {
+                int fromDoc = from;
+                int toDoc = (int) Math.min((long) from + parallel.segmentSize, n);
+                tasks.add(parallel.pool.submit(() -> {
+                    UniqueTopK segment = new UniqueTopK(capacity);
+                    scoreBoosted(scorer, names, boosts, allowed, minScore, maxScore, fromDoc, toDoc, segment);
+                    return segment;
+                }));
+            }
+            for (ForkJoinTask<UniqueTopK> task : tasks) {
+                for (RankedHit hit : task.join().toSortedList()) {
+                    topK.offer(names.getDedupeGroup(hit.position), hit);
+                }
+            }
+        }
+
+        // 3. 其他網站依基礎分數由高到低計分，上界已低於第 K 名時停止
+        DoubleAccumulator threshold = new DoubleAccumulator(Math::max, Double.NEGATIVE_INFINITY);
+        if (topK.isFull() && !topK.isEmpty()) {
+            threshold.accumulate(topK.last().finalScore);
+        }
+        if (parallel == null) {
+            pruneSegment(index, scorer, names, boosts, allowed, minScore, maxScore, 0, n, topK, threshold);
+        } else {
+            // 各分段各自選出前 K 名，合併時再依去重 key 保留最佳結果
+            List<ForkJoinTask<UniqueTopK>> tasks = new ArrayList<>();
+            for (int from = 0; from < n; from += parallel.segmentSize) {
+                int fromRank = from;
+                int toRank = (int) Math.min((long) from + parallel.segmentSize, n);
+                tasks.add(parallel.pool.submit(() -> {
+                    UniqueTopK segment = new UniqueTopK(capacity);
+                    pruneSegment(index, scorer, names, boosts, allowed, minScore, maxScore,
+                                 fromRank, toRank, segment, threshold);
+                    return segment;
+                }));
+            }
+            for (ForkJoinTask<UniqueTopK> task : tasks) {
+                for (RankedHit hit : task.join().toSortedList()) {
+                    topK.offer(names.getDedupeGroup(hit.position), hit);
+                }
+            }
+        }
+
+        // 4. 總數：符合條件、分數 > 0 的不重複網站數（不逐一計分）
+        //    最高分等於最低分時全部標準化為 50；否則分數 > 0 即原始分數高於最低分或有名稱加分：
+        //    基礎分數高於最低分的網站（依基礎分數排列的前段，二分搜尋）必定符合，
+        //    其餘網站只有出現查詢關鍵字時分數才會改變，逐一檢查這些網站與 postings 中較少的一邊
+        BitSet positive = new BitSet(n);
+        int above = (max == min) ? n : index.countBaseAbove(min);
+        if (n - above <= scorer.postingCount()) {
+            positive.set(0, n);
+            for (int rank = above; rank < n; rank++) {
+                int docId = index.docIdByBaseRank(rank);
+                if ((boosts == null || boosts[docId] <= 0) && scorer.score(docId) <= min) {
+                    positive.clear(docId);
+                }
+            }
+        } else {
+            // 基礎分數不高於最低分的網站很多（例如沒有任何關鍵字的網站）
+            for (int rank = 0; rank < above; rank++) {
+                positive.set(index.docIdByBaseRank(rank));
+            }
+            BitSet hits = scorer.postingDocs();
+            hits.andNot(positive);
+            for (int docId = hits.nextSetBit(0); docId >= 0; docId = hits.nextSetBit(docId + 1)) {
+                if (scorer.score(docId) > min) {
+                    positive.set(docId);
+                }
+            }
+            if (boosts != null) {
+                for (int docId = 0; docId < n; docId++) {
+                    if (boosts[docId] > 0) {
+                        positive.set(docId);
                     }
                 }
+            }
+        }
+        if (allowed != null) {
+            positive.and(allowed);
+        }
 
-                if (boost > 0) {
-                    res.setScore(res.getScore() + boost);
+        // 5. 只為這一頁的結果建立 SearchResult
+        List<RankedHit> top = topK.toSortedList();
+        ArrayList<SearchResult> pageResults = new ArrayList<>(Math.max(0, top.size() - offset));
+        for (int i = offset; i < top.size(); i++) {
+            RankedHit hit = top.get(i);
+            pageResults.add(Ranker.toSearchResult(current.getPages().get(hit.position), hit.finalScore));
+        }
+        return new SearchPage(pageResults, names.countGroups(positive), offset, limit, null);
+    }
+
+    /**
+     * 對 docId [from, to) 中名稱加分的網站計分
+     */
+    private static void scoreBoosted(InvertedIndex.QueryScorer scorer, NameIndex names, double[] boosts,
+                                     BitSet allowed, double min, double max, int from, int to, UniqueTopK topK) {
+        for (int docId = from; docId < to; docId++) {
+            if (boosts[docId] > 0 && (allowed == null || allowed.get(docId))) {
+                double baseScore = QueryContext.normalize(scorer.score(docId), min, max);
+                topK.offer(names.getDedupeGroup(docId), new RankedHit(docId, baseScore, baseScore + boosts[docId]));
+            }
+        }
+    }
+
+    /**
+     * 依基礎分數的名次 [fromRank, toRank) 走訪（名稱加分的網站已另外計分），
+     * 標準化後的上界低於門檻時停止；分段的前 K 名已滿時提高共用的門檻
+     */
+    private static void pruneSegment(InvertedIndex index, InvertedIndex.QueryScorer scorer, NameIndex names,
+                                     double[] boosts, BitSet allowed, double min, double max,
+                                     int fromRank, int toRank, UniqueTopK topK, DoubleAccumulator threshold) {
+        for (int rank = fromRank; rank < toRank; rank++) {
+            int docId = index.docIdByBaseRank(rank);
+            if ((boosts != null && boosts[docId] > 0) || (allowed != null && !allowed.get(docId))) {
+                continue;
+            }
+            if ((topK.isFull() && topK.isEmpty())
+                    || QueryContext.normalize(scorer.upperBound(docId), min, max) < threshold.get()) {
+                break;
+            }
+            double baseScore = QueryContext.normalize(scorer.score(docId), min, max);
+            if (baseScore > 0) {
+                topK.offer(names.getDedupeGroup(docId), new RankedHit(docId, baseScore, baseScore));
+                if (topK.isFull()) {
+                    threshold.accumulate(topK.last().finalScore);
                 }
             }
+        }
+    }
+
+    /**
+     * 分段平行計分（候選網站為整個快照，結果與 rank 相同）
+     * 網站依 docId 切成固定大小的分段（以 64 個網站對齊），分兩階段在 ForkJoinPool 上處理：
+     * 先由各分段以 postings 與 ScoringKernel 計算自己這一段的關鍵字分數與最高、最低分，
+     * 取得全體的最高、最低分後，各分段再各自篩選、名稱加權並選出前 K 名；
+     * 與其他網站共用去重 key 的網站（通常只有少數）留到合併時才去重
+     * @param parallel 平行計分設定
+     * @param current 語料快照
+     * @param query 搜尋字串
+     * @param districts 地區列表（null 表示不篩選）
+     * @param features 功能列表（null 表示不篩選，需全部符合）
+     * @param offset 起始位置
+     * @param limit 每頁數量
+     * @param withFacets 是否計算地區、功能分面統計
+     * @return 分頁結果（total 為符合條件的總數）
+     */
+    private SearchPage rankParallel(ParallelScoring parallel, CorpusSnapshot current, ParsedQuery query,
+                                    List<String> districts, List<String> features,
+                                    int offset, int limit, boolean withFacets) {
+        offset = Math.max(0, offset);
+        limit = Math.max(0, limit);
 
-            // 依新的分數重排序
-            results.sort((a, b) -> Double.compare(b.getScore(), a.getScore()));
+        // 1. 各分段計算關鍵字分數（與 QueryContext 相同）與分段內的最高、最低分，再合併出標準化用的最高、最低分
+        ProximityQuery parsed = query.getParsed();
+        String text = query.getScoringText();
+        InvertedIndex.QueryScorer scorer = current.getIndex().scorer(text);
+        int n = current.size();
+        int segmentSize = (int) Math.min((parallel.segmentSize + 63L) / 64 * 64, Integer.MAX_VALUE - 63);
+        List<ForkJoinTask<SegmentScores>> scoring = new ArrayList<>();
+        for (int from = 0; from < n; from += segmentSize) {
+            int fromDoc = from;
+            int toDoc = (int) Math.min((long) from + segmentSize, n);
+            scoring.add(parallel.pool.submit(() -> new SegmentScores(scorer, fromDoc, toDoc)));
+        }
+        List<SegmentScores> segments = new ArrayList<>(scoring.size());
+        double max = 0.0;
+        double min = Double.MAX_VALUE;
+        for (ForkJoinTask<SegmentScores> task : scoring) {
+            SegmentScores segment = task.join();
+            segments.add(segment);
+            max = Math.max(max, segment.max);
+            min = Math.min(min, segment.min);
         }
 
-        // 6.2 去重：依據 cafeId（優先）或 name+address 做去重，保留分數最高的
-        Map<String, SearchResult> unique = new LinkedHashMap<>();
-        for (SearchResult res : results) {
-            String key = null;
-            String cafeId = res.getCafeId();
-            
-            // 優先使用 cafeId（Cafe 物件必有 ID）
-            if (cafeId != null && !cafeId.trim().isEmpty()) {
-                key = "id:" + cafeId.trim();
-            } else {
-                // 降級方案：用 name + address 組成 key（以防 cafeId 丟失）
-                String name = res.getName() != null ? res.getName().trim() : "";
-                String addr = res.getAddress() != null ? res.getAddress().trim() : "";
-                
-                // 規範化 name 和 address，移除標點和空白差異
-                String normName = normalizeForMatch(name);
-                String normAddr = normalizeForMatch(addr);
-                
-                // 避免空 key
-                if (!normName.isEmpty()) {
-                    key = "na:" + normName + "|" + normAddr;
-                } else {
-                    // 最後的防線：用 URL
-                    String url = res.getUrl() != null ? res.getUrl().trim() : "";
-                    key = "url:" + url;
+        String q = (text != null && !text.trim().isEmpty()) ? NameIndex.normalize(text.trim()) : null;
+        NameIndex names = current.getNameIndex();
+        double[] boosts = (q != null) ? names.boosts(q) : null;
+        BitSet allowed = allowedDocs(current, parsed, districts, features);
+        int capacity = (int) Math.min((long) offset + limit, Integer.MAX_VALUE);
+
+        // 2. 各分段篩選、名稱加權並選出前 K 名（分面統計的 bitset 各分段寫入不同的 long，不需同步）
+        final double minScore = min;
+        final double maxScore = max;
+        long[] words = withFacets ? new long[(n + 63) / 64] : null;
+        List<ForkJoinTask<Segment>> tasks = new ArrayList<>(segments.size());
+        for (SegmentScores segment : segments) {
+            tasks.add(parallel.pool.submit(() -> selectSegment(names, segment, minScore, maxScore, boosts, allowed,
+                                                                capacity, words)));
+        }
+
+        // 3. 合併各分段（只含不與其他網站共用去重 key 的網站，不需再去重）
+        TopK<RankedHit> topK = new TopK<>(Math.min(capacity, n), RANK_ORDER);
+        int total = 0;
+        for (ForkJoinTask<Segment> task : tasks) {
+            Segment segment = task.join();
+            total += segment.total;
+            for (RankedHit hit : segment.top) {
+                topK.offer(hit);
+            }
+        }
+
+        // 4. 共用去重 key 的網站：每個 key 保留排名最前的網站（分數已在各分段算好）
+        BitSet matched = withFacets ? BitSet.valueOf(words) : null;
+        for (int i = 0; i < names.getSharedGroupCount(); i++) {
+            int group = names.getSharedGroup(i);
+            RankedHit best = null;
+            for (int j = names.groupStart(group); j < names.groupStart(group + 1); j++) {
+                int docId = names.getGroupDoc(j);
+                if (allowed != null && !allowed.get(docId)) {
+                    continue;
+                }
+                double score = segments.get(docId / segmentSize).scores[docId % segmentSize];
+                double baseScore = QueryContext.normalize(score, minScore, maxScore);
+                double boost = (boosts != null) ? boosts[docId] : 0.0;
+                RankedHit hit = new RankedHit(docId, baseScore, baseScore + boost);
+                if (best == null || RANK_ORDER.compare(hit, best) < 0) {
+                    best = hit;
                 }
             }
+            if (best != null && best.finalScore > 0) {
+                total++;
+                topK.offer(best);
+                if (matched != null) {
+                    matched.set(best.position);
+                }
+            }
+        }
 
-            if (key != null && !key.isEmpty()) {
-                if (!unique.containsKey(key)) {
-                    unique.put(key, res);
-                    // 調試日誌
-                    System.out.println("[去重] 新增: " + res.getName() + " -> key: " + key);
-                } else {
-                    // 已有相同 key，保留分數較高的
-                    SearchResult existing = unique.get(key);
-                    if (res.getScore() > existing.getScore()) {
-                        unique.put(key, res);
-                        System.out.println("[去重] 更新: " + res.getName() + " (舊分: " + existing.getScore() + " -> 新分: " + res.getScore() + ")");
-                    } else {
-                        System.out.println("[去重] 跳過: " + res.getName() + " (分數: " + res.getScore() + " <= " + existing.getScore() + ")");
-                    }
+        // 5. 只為這一頁的結果建立 SearchResult
+        List<RankedHit> top = topK.toSortedList();
+        ArrayList<SearchResult> pageResults = new ArrayList<>(Math.max(0, top.size() - offset));
+        for (int i = offset; i < top.size(); i++) {
+            RankedHit hit = top.get(i);
+            pageResults.add(Ranker.toSearchResult(current.getPages().get(hit.position), hit.finalScore));
+        }
+
+        FacetCounts facets = withFacets ? current.getAttributes().facets(matched) : null;
+        return new SearchPage(pageResults, total, offset, limit, facets);
+    }
+
+    /**
+     * 處理一個分段：不與其他網站共用去重 key 的網站中，分數 > 0 者計入總數並選出前 K 名
+     */
+    private static Segment selectSegment(NameIndex names, SegmentScores segment, double min, double max,
+                                         double[] boosts, BitSet allowed, int capacity, long[] words) {
+        TopK<RankedHit> topK = new TopK<>(Math.min(capacity, segment.to - segment.from), RANK_ORDER);
+        int total = 0;
+
+        for (int docId = segment.from; docId < segment.to; docId++) {
+            if (names.isShared(docId) || (allowed != null && !allowed.get(docId))) {
+                continue;
+            }
+            double baseScore = QueryContext.normalize(segment.scores[docId - segment.from], min, max);
+            double boost = (boosts != null) ? boosts[docId] : 0.0;
+            if (baseScore + boost > 0) {
+                total++;
+                topK.offer(new RankedHit(docId, baseScore, baseScore + boost));
+                if (words != null) {
+                    words[docId >> 6] |= 1L << docId;
                 }
             }
         }
+        return new Segment(topK.toSortedList(), total);
+    }
 
-        // 7. 過濾掉分數太低的結果（分數 > 0）並回傳
-        ArrayList<SearchResult> filteredResults = new ArrayList<>();
-        for (SearchResult result : unique.values()) {
-            if (result.getScore() > 0) filteredResults.add(result);
+    /**
+     * SegmentScores - 一個分段 [from, to) 的關鍵字分數與分段內的最高、最低分
+     */
+    private static class SegmentScores {
+        final int from;
+        final int to;
+        final double[] scores;        // scores[docId - from]
+        final double max;             // 分段內的最高分（至少為 0，與 QueryContext 相同）
+        final double min;             // 分段內的最低分
+
+        SegmentScores(InvertedIndex.QueryScorer scorer, int from, int to) {
+            this.from = from;
+            this.to = to;
+            this.scores = new double[to - from];
+            scorer.score(from, to, scores);
+            double max = 0.0;
+            double min = Double.MAX_VALUE;
+            for (double score : scores) {
+                if (score > max) max = score;
+                if (score < min) min = score;
+            }
+            this.max = max;
+            this.min = min;
         }
+    }
 
-        // 最後再次以分數排序以保證順序
-        filteredResults.sort((a, b) -> Double.compare(b.getScore(), a.getScore()));
+    /**
+     * Segment - 一個分段的結果
+     */
+    private static class Segment {
+        final List<RankedHit> top;    // 分段內的前 K 名
+        final int total;              // 分段內分數 > 0 的網站數
 
-        return filteredResults;
+        Segment(List<RankedHit> top, int total) {
+            this.top = top;
+            this.total = total;
+        }
     }
 
-    
-    
     /**
-     * 根據查詢字串動態調整關鍵字權重
-     * 如果查詢包含某些關鍵字，提高其權重
-     * @param query 查詢字串
+     * UniqueTopK - 去重後的前 K 名（每個去重 key 只保留排名最前的一筆）
+     * 被擠出前 K 名的 key 仍記錄其最佳結果，之後同 key 較差的結果不會再進入
      */
-    private void adjustKeywordWeights(String query) {
-        if (query == null || query.trim().isEmpty()) {
-            return;
+    private static class UniqueTopK {
+        private final int capacity;
+        private final Map<Integer, RankedHit> best = new HashMap<>();      // 去重 key -> 目前最佳結果
+        private final TreeSet<RankedHit> top = new TreeSet<>(RANK_ORDER);  // 前 K 名（依排名順序）
+
+        UniqueTopK(int capacity) {
+            this.capacity = capacity;
         }
-        
-        String lowerQuery = query.toLowerCase();
-        
-        // 重置所有關鍵字權重（避免累積效應）
-        for (Keyword keyword : keywords) {
-            keyword.resetWeight(); // 需要在 Keyword.java 中實作
+
+        void offer(int group, RankedHit hit) {
+            // 已滿且不比第 K 名好的結果不可能進入前 K 名（第 K 名只會越來越好），不需記錄
+            if (capacity == 0 || (top.size() >= capacity && RANK_ORDER.compare(hit, top.last()) >= 0)) {
+                return;
+            }
+            RankedHit previous = best.get(group);
+            if (previous != null) {
+                if (RANK_ORDER.compare(previous, hit) <= 0) {
+                    return;
+                }
+                top.remove(previous);
+            }
+            best.put(group, hit);
+            top.add(hit);
+            if (top.size() > capacity) {
+                top.pollLast();
+            }
         }
-        
-        // 如果查詢包含關鍵字，提高其權重
-        for (Keyword keyword : keywords) {
-            if (lowerQuery.contains(keyword.name.toLowerCase())) {
-                keyword.weight *= 1.5;  // 提高 50% 權重
+
+        boolean isFull() {
+            return top.size() >= capacity;
+        }
+
+        boolean isEmpty() {
+            return top.isEmpty();
+        }
+
+        RankedHit last() {
+            return top.last();
+        }
+
+        List<RankedHit> toSortedList() {
+            return new ArrayList<>(top);
+        }
+    }
+
+    /**
+     * 排名順序：最終分數高者優先；同分時標準化分數高者優先；再同分則保持候選網站原本的順序
+     * （與原本「依分數排序 → 名稱加權後穩定排序 → 去重保留第一筆」的結果相同）
+     */
+    private static final Comparator<RankedHit> RANK_ORDER = (a, b) -> {
+        int cmp = Double.compare(b.finalScore, a.finalScore);
+        if (cmp != 0) return cmp;
+        cmp = Double.compare(b.baseScore, a.baseScore);
+        if (cmp != 0) return cmp;
+        return Integer.compare(a.position, b.position);
+    };
+
+    /**
+     * RankedHit - 排名中的一筆結果（只記錄候選位置與分數，不複製咖啡廳資訊）
+     */
+    private static class RankedHit {
+        final int position;         // 在候選網站列表中的位置
+        final double baseScore;     // 標準化分數
+        final double finalScore;    // 名稱加權後的分數
+
+        RankedHit(int position, double baseScore, double finalScore) {
+            this.position = position;
+            this.baseScore = baseScore;
+            this.finalScore = finalScore;
+        }
+    }
+
+    /**
+     * 取得符合地區、功能篩選與片語、鄰近條件的 docId（以屬性索引與位置索引取交集）
+     * @param current 語料快照
+     * @param parsed 解析後的查詢
+     * @param districts 地區列表（null 表示不篩選）
+     * @param features 功能列表（null 表示不篩選，需全部符合）
+     * @return 符合的 docId，沒有任何條件時為 null
+     */
+    private static BitSet allowedDocs(CorpusSnapshot current, ProximityQuery parsed,
+                                      List<String> districts, List<String> features) {
+        boolean hasFilters = (districts != null && !districts.isEmpty()) || (features != null && !features.isEmpty());
+        BitSet allowed = hasFilters ? current.getAttributes().match(districts, features) : null;
+        if (parsed.hasClauses()) {
+            BitSet matched = current.getPositions().match(parsed);
+            if (allowed == null) {
+                allowed = matched;
+            } else {
+                allowed.and(matched);
             }
         }
+        return allowed;
+    }
+
+    /**
+     * 檢查網站是否符合地區與功能篩選（與 DistrictFilter、FeatureFilter 相同）
+     * 只用於不在快照中的網站，快照中的網站直接查屬性索引
+     * @param page 網站
+     * @param districts 地區列表
+     * @param features 功能列表（需全部符合）
+     * @return 是否符合
+     */
+    private boolean matchesFilters(WebPage page, List<String> districts, List<String> features) {
+        if (districts != null && !districts.isEmpty()
+                && (page.getDistrict() == null || !districts.contains(page.getDistrict()))) {
+            return false;
+        }
+        return features == null || features.isEmpty() || pageHasFeatures(page, features);
     }
+
     
+    
+    /**
+     * 建立倒排索引並發布新的語料快照
+     * 在資料載入完成後呼叫一次，之後的查詢都直接使用索引
+     */
+    public synchronized void buildIndex() {
+        snapshot = new CorpusSnapshot(allPages, keywords);
+    }
+
+    /**
+     * 取得目前的語料快照（尚未建立或已失效時重新建立）
+     * @return 語料快照
+     */
+    public CorpusSnapshot getSnapshot() {
+        CorpusSnapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                current = snapshot;
+                if (current == null) {
+                    current = new CorpusSnapshot(allPages, keywords);
+                    snapshot = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * 取得查詢的標準形式（搜尋與快取 key 使用）
+     * 先做全形 / 半形、大小寫、空白、停用詞的正規化；若正規化使查詢命中的字典關鍵字改變
+     * （例如含標點的 "wi-fi" 被切成 "wi fi"），改用只做全形 / 半形、大小寫、空白的形式。
+     * 關鍵字以子字串比對整個查詢，多詞關鍵字（例如 "pet friendly"）會受 token 順序影響，
+     * 名稱包含整個查詢時順序也會影響名稱加分，因此只有排序前後命中的關鍵字相同、
+     * 且沒有名稱包含查詢（原順序或排序後）時才將 token 排序，
+     * 讓 "咖啡 不限時" 與 "不限時 咖啡" 得到相同的標準形式與相同的結果
+     * @param query 原始查詢
+     * @return 標準形式（null 或空白時返回空字串）
+     */
+    public String canonicalQuery(String query) {
+        return prepareQuery(query).getText();
+    }
+
     /**
-     * Normalize strings for matching: lower-case, remove punctuation, collapse spaces
+     * 正規化並解析查詢（只解析一次）：標準形式見 canonicalQuery，
+     * 結果可直接傳給 searchPage，快取 key 與請求合併也使用同一個標準形式
+     * @param query 原始查詢
+     * @return 已解析的標準形式
      */
-    private String normalizeForMatch(String s) {
-        if (s == null) return "";
-        String lowered = s.toLowerCase();
-        String cleaned = lowered.replaceAll("[^\\p{IsHan}\\p{IsHiragana}\\p{IsKatakana}\\p{L}\\p{N}]+", " ");
-        return cleaned.trim().replaceAll("\\s+", " ");
+    public ParsedQuery prepareQuery(String query) {
+        ProximityQuery parsed = ProximityQuery.parse(query);
+        String canonical = QueryCanonicalizer.canonicalize(parsed, query);
+        // 片語與 NEAR/n 條件與詞的順序有關，不排序（標準形式解析後與原始查詢的解析結果相同）
+        if (parsed.hasClauses()) {
+            return new ParsedQuery(canonical, parsed);
+        }
+
+        // 沒有位置條件的查詢，標準形式（只有詞）也沒有位置條件，解析結果只用於判斷這一點
+        CorpusSnapshot current = getSnapshot();
+        InvertedIndex index = current.getIndex();
+        Set<Keyword> matched = queryKeywords(index, canonical);
+        String folded = QueryCanonicalizer.foldSpaces(query);
+        if (!matched.equals(queryKeywords(index, folded))) {
+            return new ParsedQuery(folded, parsed);
+        }
+
+        String sorted = QueryCanonicalizer.sortTokens(canonical);
+        if (sorted.equals(canonical) || !matched.equals(queryKeywords(index, sorted))) {
+            return new ParsedQuery(canonical, parsed);
+        }
+
+        NameIndex names = current.getNameIndex();
+        boolean orderMatters = names.containsPhrase(NameIndex.normalize(canonical))
+                            || names.containsPhrase(NameIndex.normalize(sorted));
+        return new ParsedQuery(orderMatters ? canonical : sorted, parsed);
+    }
+
+    /**
+     * 查詢命中的字典關鍵字（以物件身分比較，字典中同名的關鍵字各算一個）
+     */
+    private static Set<Keyword> queryKeywords(InvertedIndex index, String query) {
+        Set<Keyword> matched = Collections.newSetFromMap(new IdentityHashMap<>());
+        matched.addAll(index.getQueryKeywords(query));
+        return matched;
+    }
+
+    /**
+     * 取得引擎的世代（每個引擎不同，越晚建立越大）
+     * 服務層以此區分重新載入前後的快取與請求合併，舊引擎算出的結果不會被新請求讀到
+     * @return 世代編號
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * 取得倒排索引
+     * @return 倒排索引
+     */
+    public InvertedIndex getIndex() {
+        return getSnapshot().getIndex();
+    }
+
+    /**
+     * 使語料快照失效（頁面或關鍵字變動時呼叫，需在 synchronized 中）
+     * 進行中的查詢仍持有舊快照，下一次查詢才會使用新快照
+     */
+    private void invalidateIndex() {
+        snapshot = null;
     }
     
     /**
      * 篩選網站（根據地區和功能）
+     * 以屬性索引的 bitset 做地區 OR、功能 AND 的組合，只取出符合的網站
+     * @param current 語料快照
      * @param districts 地區列表
      * @param features 功能列表
      * @return 篩選後的網站列表
      */
-    private ArrayList<WebPage> filterPages(List<String> districts, List<String> features) {
+    private ArrayList<WebPage> filterPages(CorpusSnapshot current, List<String> districts, List<String> features) {
         // 如果沒有篩選條件，返回所有網站
         if ((districts == null || districts.isEmpty()) && 
             (features == null || features.isEmpty())) {
-            return new ArrayList<>(allPages);
-        }
-        
-        ArrayList<WebPage> filtered = new ArrayList<>();
-        
-        for (WebPage page : allPages) {
-            boolean matchDistrict = true;
-            boolean matchFeature = true;
-            
-            // 檢查地區篩選
-            if (districts != null && !districts.isEmpty()) {
-                matchDistrict = districts.contains(page.getDistrict());
-            }
-            
-            // 檢查功能篩選
-            if (features != null && !features.isEmpty()) {
-                matchFeature = pageHasFeatures(page, features);
-            }
-
-            /*  檢查功能篩選
-            if (features != null && !features.isEmpty()) {
-                matchFeature = false;
-                for (String feature : features) {
-                    if (page.getCategory().contains(feature)) {
-                        matchFeature = true;
-                        break;
-                    }
-                }
-            }
-            */
-
-            // 必須同時符合地區和功能篩選
-            if (matchDistrict && matchFeature) {
-                filtered.add(page);
-            }
+            return new ArrayList<>(current.getPages());
         }
         
-        return filtered;
+        BitSet matched = current.getAttributes().match(districts, features);
+        return new ArrayList<>(AttributeIndex.select(current.getPages(), matched));
     }
 
     /**
@@ -398,7 +1032,7 @@ public class SearchEngine {
         for (WebPage page : pages) {
             // 使用 HashtagGenerator 生成 Hashtags
             String hashtags = hashtagGenerator.generate(
-                page.getContent(),     // 網站內容
+                page.getTokenStream(), // 網站內容（快取的分析結果）
                 keywords,              // 所有關鍵字
                 userQuery,             // 使用者查詢
                 3,                     // 網站取前 3 個關鍵字
@@ -416,7 +1050,7 @@ public class SearchEngine {
      */
     public ArrayList<SearchResult> getRecommendations(int limit) {
         // 根據基準分數排序
-        ArrayList<WebPage> sortedPages = new ArrayList<>(allPages);
+        ArrayList<WebPage> sortedPages = new ArrayList<>(getSnapshot().getPages());
         sortedPages.sort((p1, p2) -> Double.compare(p2.getScore(), p1.getScore()));
         
         // 取前 N 個
@@ -437,7 +1071,7 @@ public class SearchEngine {
      * @return 咖啡廳資訊，找不到返回 null
      */
     public WebPage getCafeById(String cafeId) {
-        for (WebPage page : allPages) {
+        for (WebPage page : getSnapshot().getPages()) {
             if (page.getUrl().contains(cafeId) || page.getName().equals(cafeId)) {
                 return page;
             }
@@ -447,27 +1081,104 @@ public class SearchEngine {
     
     /**
      * 搜尋建議（自動完成）
-     * 根據使用者輸入的部分文字，返回相關的關鍵字建議
+     * 根據使用者輸入的部分文字，返回相關的關鍵字、咖啡廳名稱、Hashtag 建議
      * @param partialQuery 部分查詢字串
-     * @return 建議的關鍵字列表
+     * @return 建議列表（最多 10 個）
      */
     public List<String> getSearchSuggestions(String partialQuery) {
-        if (partialQuery == null || partialQuery.trim().isEmpty()) {
-            return new ArrayList<>();
-        }
-        
-        String lowerQuery = partialQuery.toLowerCase();
+        return getSearchSuggestions(partialQuery, null);
+    }
+
+    /**
+     * 搜尋建議（自動完成，熱門的詞排名較高）
+     * @param partialQuery 部分查詢字串
+     * @param popularity 熱門程度（null 表示不考慮）
+     * @return 建議列表（最多 10 個）
+     */
+    public List<String> getSearchSuggestions(String partialQuery, CompletionPopularity popularity) {
         List<String> suggestions = new ArrayList<>();
-        
-        // 從關鍵字列表中找出匹配的
-        for (Keyword keyword : keywords) {
-            if (keyword.name.toLowerCase().contains(lowerQuery)) {
-                suggestions.add(keyword.name);
+        for (CompletionIndex.Suggestion suggestion : complete(partialQuery, 10, popularity, null)) {
+            suggestions.add(suggestion.getTerm());
+        }
+        return suggestions;
+    }
+
+    /**
+     * 自動完成：以自動完成索引找出包含輸入文字的候選詞
+     * 依關鍵字權重（或 Hashtag 出現次數）、熱門程度與是否以輸入開頭排序
+     * @param partialQuery 部分查詢字串
+     * @param limit 數量
+     * @param popularity 熱門程度（由服務層持有，重新載入資料後仍保留；null 表示不考慮）
+     * @param filter 只保留符合條件的候選詞（null 表示不篩選）
+     * @return 候選詞列表
+     */
+    public List<CompletionIndex.Suggestion> complete(String partialQuery, int limit, CompletionPopularity popularity,
+                                                     Predicate<CompletionIndex.Suggestion> filter) {
+        CompletionIndex completions = getSnapshot().getCompletions();
+        if (popularity == null) {
+            return completions.complete(partialQuery, limit, null, filter);
+        }
+        return completions.complete(partialQuery, limit, popularity::score, popularity.maxScore(), filter);
+    }
+
+    /**
+     * 邊打字邊預覽搜尋結果
+     * 以自動完成索引將輸入展開成包含它的詞，只累加這些詞的 postings 作為第一階段分數，
+     * 不執行完整的 search（不掃描內容、不標準化），每次按鍵都可以呼叫
+     * 同分時基準分數高者優先，並與 search 相同依 cafeId / 名稱 + 地址去重
+     * @param partialQuery 部分查詢字串
+     * @param limit 數量
+     * @return 依預覽分數排序的結果
+     */
+    public ArrayList<SearchResult> preview(String partialQuery, int limit) {
+        CorpusSnapshot current = getSnapshot();
+        double[] scores = current.getCompletions().previewScores(partialQuery);
+        NameIndex names = current.getNameIndex();
+
+        Map<String, RankedHit> unique = new HashMap<>();
+        for (int docId = 0; docId < scores.length; docId++) {
+            if (scores[docId] > 0) {
+                RankedHit hit = new RankedHit(docId, current.getPages().get(docId).getScore(), scores[docId]);
+                unique.merge(names.getDedupeKey(docId), hit, (a, b) -> RANK_ORDER.compare(a, b) <= 0 ? a : b);
+            }
+        }
+
+        TopK<RankedHit> topK = new TopK<>(Math.min(Math.max(0, limit), unique.size()), RANK_ORDER);
+        for (RankedHit hit : unique.values()) {
+            topK.offer(hit);
+        }
+
+        ArrayList<SearchResult> results = new ArrayList<>();
+        for (RankedHit hit : topK.toSortedList()) {
+            results.add(Ranker.toSearchResult(current.getPages().get(hit.position), hit.finalScore));
+        }
+        return results;
+    }
+
+    /**
+     * 記錄一次使用者搜尋，提高該詞在自動完成中的排名
+     * 只記錄自動完成索引中的詞：整個查詢就是索引中的詞（例如含空白的咖啡廳名稱）時記錄整個查詢，
+     * 否則記錄查詢中每個在索引中的詞；記錄的詞數量不會超過索引大小
+     * 使用搜尋時已正規化的計分文字（已 fold，片語與 NEAR/n 條件去掉引號與運算子），不再重新正規化
+     * @param query 已解析的查詢（prepareQuery）
+     * @param popularity 記錄到的熱門程度
+     */
+    public void recordQuery(ParsedQuery query, CompletionPopularity popularity) {
+        String folded = query.getScoringText();
+        if (folded.isEmpty()) {
+            return;
+        }
+
+        CompletionIndex completions = getSnapshot().getCompletions();
+        if (completions.contains(folded)) {
+            popularity.increment(folded);
+            return;
+        }
+        for (String token : new LinkedHashSet<>(Arrays.asList(folded.split("\\s+")))) {
+            if (completions.contains(token)) {
+                popularity.increment(token);
             }
         }
-        
-        // 限制返回數量
-        return suggestions.size() > 10 ? suggestions.subList(0, 10) : suggestions;
     }
     
     /**
@@ -480,7 +1191,7 @@ public class SearchEngine {
         tree.buildTree(tree.getRoot(), 0, maxDepth);
         
         // 計算樹的後序分數（包含深度權重）
-        tree.setPostOrderScore(keywords);
+        tree.setPostOrderScore(getKeywords());
         
         webTrees.put(rootPage.getUrl(), tree);
     }
@@ -490,16 +1201,17 @@ public class SearchEngine {
      * @return 網站列表
      */
     public ArrayList<WebPage> getAllPages() {
-        return new ArrayList<>(allPages);
+        return new ArrayList<>(getSnapshot().getPages());
     }
     
     /**
      * 新增網站
      * @param page 網站
      */
-    public void addPage(WebPage page) {
+    public synchronized void addPage(WebPage page) {
         if (!allPages.contains(page)) {
             allPages.add(page);
+            invalidateIndex();
         }
     }
     
@@ -507,16 +1219,10 @@ public class SearchEngine {
      * 移除網站
      * @param page 網站
      */
-    public void removePage(WebPage page) {
-        allPages.remove(page);
-    }
-    
-    /**
-     * 取得 Ranker
-     * @return Ranker 物件
-     */
-    public Ranker getRanker() {
-        return ranker;
+    public synchronized void removePage(WebPage page) {
+        if (allPages.remove(page)) {
+            invalidateIndex();
+        }
     }
     
     /**
@@ -524,23 +1230,25 @@ public class SearchEngine {
      * @return 關鍵字列表
      */
     public ArrayList<Keyword> getKeywords() {
-        return new ArrayList<>(keywords);
+        return new ArrayList<>(getSnapshot().getKeywords());
     }
     
     /**
      * 新增關鍵字
      * @param keyword 關鍵字
      */
-    public void addKeyword(Keyword keyword) {
+    public synchronized void addKeyword(Keyword keyword) {
         keywords.add(keyword);
+        invalidateIndex();
     }
     
     /**
      * 設定關鍵字列表
      * @param keywords 關鍵字列表
      */
-    public void setKeywords(ArrayList<Keyword> keywords) {
-        this.keywords = keywords;
+    public synchronized void setKeywords(ArrayList<Keyword> keywords) {
+        this.keywords = keywords != null ? new ArrayList<>(keywords) : new ArrayList<>();
+        invalidateIndex();
     }
     
     /**
@@ -590,13 +1298,15 @@ public class SearchEngine {
      * @return 統計資訊
      */
     public Map<String, Object> getStatistics() {
+        CorpusSnapshot current = getSnapshot();
         Map<String, Object> stats = new HashMap<>();
-        stats.put("totalCafes", allPages.size());
-        stats.put("totalKeywords", keywords.size());
+        stats.put("totalCafes", current.size());
+        stats.put("totalKeywords", current.getKeywords().size());
         stats.put("webTreesBuilt", webTrees.size());
+        stats.put("indexedTerms", current.getIndex().getTermCount());
         
         // 計算平均基準分數
-        double avgScore = allPages.stream()
+        double avgScore = current.getPages().stream()
                                   .mapToDouble(WebPage::getScore)
                                   .average()
                                   .orElse(0.0);
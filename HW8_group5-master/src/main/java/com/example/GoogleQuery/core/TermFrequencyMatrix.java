@@ -0,0 +1,273 @@
+package com.example.GoogleQuery.core;
+
+import java.util.*;
+import com.example.GoogleQuery.model.*;
+
+/**
+ * TermFrequencyMatrix - 文件 × 關鍵字 的出現次數矩陣
+ * 在載入資料時對每個網站的內容掃描一次（KeywordMatcher），之後的查詢只讀取這個矩陣，
+ * 查詢延遲與網站描述的長度無關
+ *
+ * 以一維 int 陣列儲存（以關鍵字為主）：counts[termId * docCount + docId]，
+ * 同一個關鍵字在所有網站的次數連續存放，批次計分時由 ScoringKernel 一次處理一段網站
+ *
+ * 網站數 × 關鍵字數超過 DENSE_LIMIT（或超出 int 範圍）時改以稀疏方式儲存：
+ * 每個關鍵字只記錄有出現的 (docId, 次數)，計分結果與密集矩陣相同
+ */
+public class TermFrequencyMatrix {
+
+    static final int DENSE_LIMIT = 1 << 26;   // 密集矩陣最多 64M 格（256 MB）
+
+    private final KeywordMatcher matcher;     // 字典（termId 即 matcher 的 pattern 編號）
+    private final int docCount;
+    private final int termCount;
+    private final int[] counts;               // 密集矩陣（稀疏模式時為 null）
+    private final int[] termStarts;           // 稀疏模式：termId 的 postings 位於 [termStarts[termId], termStarts[termId + 1])
+    private final int[] postingDocs;          // 稀疏模式：docId（同一關鍵字內由小到大）
+    private final int[] postingCounts;        // 稀疏模式：出現次數
+    private final ScoringKernel kernel;       // 批次計分核心
+
+    /**
+     * 建構子：掃描所有網站並建立矩陣
+     * @param pages 網站列表（位置即 docId）
+     * @param matcher 關鍵字比對器
+     */
+    public TermFrequencyMatrix(List<WebPage> pages, KeywordMatcher matcher) {
+        this(pages, matcher, ScoringKernel.best());
+    }
+
+    /**
+     * 建構子：掃描所有網站並建立矩陣（指定計分核心）
+     * @param pages 網站列表（位置即 docId）
+     * @param matcher 關鍵字比對器
+     * @param kernel 批次計分核心
+     */
+    public TermFrequencyMatrix(List<WebPage> pages, KeywordMatcher matcher, ScoringKernel kernel) {
+        this(pages, matcher, kernel, DENSE_LIMIT);
+    }
+
+    /**
+     * 建構子：指定密集矩陣的格數上限（測試用）
+     */
+    TermFrequencyMatrix(List<WebPage> pages, KeywordMatcher matcher, ScoringKernel kernel, int denseLimit) {
+        this.matcher = matcher;
+        this.kernel = kernel;
+        this.docCount = pages != null ? pages.size() : 0;
+        this.termCount = matcher.size();
+
+        if (fitsDense(docCount, termCount, denseLimit)) {
+            this.counts = new int[docCount * termCount];
+            this.termStarts = null;
+            this.postingDocs = null;
+            this.postingCounts = null;
+
+            for (int docId = 0; docId < docCount; docId++) {
+                int[] row = matcher.countAll(pages.get(docId).getLowerCaseContent());
+                for (int termId = 0; termId < termCount; termId++) {
+                    counts[termId * docCount + docId] = row[termId];
+                }
+            }
+        } else {
+            this.counts = null;
+
+            // 第一輪：每個網站只保留有出現的關鍵字，並統計每個關鍵字的 postings 長度
+            int[][] docTerms = new int[docCount][];
+            int[][] docCounts = new int[docCount][];
+            int[] lengths = new int[termCount];
+            for (int docId = 0; docId < docCount; docId++) {
+                int[] row = matcher.countAll(pages.get(docId).getLowerCaseContent());
+                int nonZero = 0;
+                for (int count : row) {
+                    if (count != 0) nonZero++;
+                }
+                docTerms[docId] = new int[nonZero];
+                docCounts[docId] = new int[nonZero];
+                for (int termId = 0, n = 0; termId < termCount; termId++) {
+                    if (row[termId] != 0) {
+                        docTerms[docId][n] = termId;
+                        docCounts[docId][n++] = row[termId];
+                        lengths[termId]++;
+                    }
+                }
+            }
+
+            // 第二輪：依 docId 順序填入各關鍵字的 postings
+            this.termStarts = new int[termCount + 1];
+            for (int termId = 0; termId < termCount; termId++) {
+                termStarts[termId + 1] = Math.addExact(termStarts[termId], lengths[termId]);
+            }
+            this.postingDocs = new int[termStarts[termCount]];
+            this.postingCounts = new int[termStarts[termCount]];
+            int[] next = Arrays.copyOf(termStarts, termCount);
+            for (int docId = 0; docId < docCount; docId++) {
+                for (int i = 0; i < docTerms[docId].length; i++) {
+                    int slot = next[docTerms[docId][i]]++;
+                    postingDocs[slot] = docId;
+                    postingCounts[slot] = docCounts[docId][i];
+                }
+            }
+        }
+    }
+
+    /**
+     * 檢查密集矩陣是否在格數上限內（乘積超出 int 範圍也視為超過）
+     */
+    private static boolean fitsDense(int docCount, int termCount, int denseLimit) {
+        try {
+            return Math.multiplyExact(docCount, termCount) <= denseLimit;
+        } catch (ArithmeticException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 是否以密集矩陣儲存
+     * @return true 如果是密集矩陣
+     */
+    public boolean isDense() {
+        return counts != null;
+    }
+
+    /**
+     * 取得關鍵字在網站中的出現次數
+     * @param docId 網站編號
+     * @param termId 關鍵字編號
+     * @return 出現次數
+     */
+    public int get(int docId, int termId) {
+        if (counts != null) {
+            return counts[termId * docCount + docId];
+        }
+        int from = termStarts[termId];
+        int to = termStarts[termId + 1];
+        int i = Arrays.binarySearch(postingDocs, from, to, docId);
+        return i >= 0 ? postingCounts[i] : 0;
+    }
+
+    /**
+     * 計算單一網站的加權分數（次數 × 權重 的總和）
+     * @param docId 網站編號
+     * @param termWeights 每個 termId 的權重
+     * @return 加權分數
+     */
+    public double weightedSum(int docId, double[] termWeights) {
+        double sum = 0.0;
+        for (int termId = 0; termId < termCount; termId++) {
+            int count = get(docId, termId);
+            if (count != 0) {
+                sum += count * termWeights[termId];
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * 計算所有網站的加權分數（批次計分，結果與逐一呼叫 weightedSum 相同）
+     * @param termWeights 每個 termId 的權重
+     * @return 每個 docId 的加權分數
+     */
+    public double[] weightedSums(double[] termWeights) {
+        double[] sums = new double[docCount];
+        if (counts != null) {
+            kernel.weightedSums(counts, docCount, termWeights, sums);
+        } else {
+            // 依 termId 由小到大累加，沒出現的關鍵字在密集矩陣中只加上 0，結果相同
+            for (int termId = 0; termId < termCount; termId++) {
+                accumulate(termId, termWeights[termId], sums);
+            }
+        }
+        return sums;
+    }
+
+    /**
+     * 將單一關鍵字的貢獻（次數 × 權重）累加到所有網站的分數上
+     * @param termId 關鍵字編號
+     * @param weight 權重
+     * @param sums 每個 docId 的分數
+     */
+    public void accumulate(int termId, double weight, double[] sums) {
+        if (counts != null) {
+            kernel.accumulate(counts, termId * docCount, docCount, weight, sums);
+            return;
+        }
+        for (int i = termStarts[termId]; i < termStarts[termId + 1]; i++) {
+            sums[postingDocs[i]] += postingCounts[i] * weight;
+        }
+    }
+
+    /**
+     * 將單一關鍵字的貢獻累加到一段連續網站的分數上（結果與 accumulate 整個欄位時相同）
+     * @param termId 關鍵字編號
+     * @param weight 權重
+     * @param from 起始 docId（含）
+     * @param to 結束 docId（不含）
+     * @param sums 這段網站的分數（sums[docId - from]）
+     */
+    public void accumulate(int termId, double weight, int from, int to, double[] sums) {
+        if (counts != null) {
+            kernel.accumulate(counts, termId * docCount + from, to - from, weight, sums);
+            return;
+        }
+        int start = Arrays.binarySearch(postingDocs, termStarts[termId], termStarts[termId + 1], from);
+        for (int i = (start >= 0) ? start : -start - 1; i < termStarts[termId + 1] && postingDocs[i] < to; i++) {
+            sums[postingDocs[i] - from] += postingCounts[i] * weight;
+        }
+    }
+
+    /**
+     * 取得關鍵字有出現的所有 (docId, 次數)，依 docId 由小到大
+     * @param termId 關鍵字編號
+     * @return {docId, 次數} 列表
+     */
+    public List<int[]> entries(int termId) {
+        List<int[]> entries = new ArrayList<>();
+        if (counts == null) {
+            for (int i = termStarts[termId]; i < termStarts[termId + 1]; i++) {
+                entries.add(new int[] { postingDocs[i], postingCounts[i] });
+            }
+            return entries;
+        }
+        int offset = termId * docCount;
+        for (int docId = 0; docId < docCount; docId++) {
+            if (counts[offset + docId] > 0) {
+                entries.add(new int[] { docId, counts[offset + docId] });
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * 取得包含該關鍵字的網站數量
+     * @param termId 關鍵字編號
+     * @return 網站數量
+     */
+    public int getDocumentFrequency(int termId) {
+        if (counts == null) {
+            return termStarts[termId + 1] - termStarts[termId];
+        }
+        int df = 0;
+        int offset = termId * docCount;
+        for (int docId = 0; docId < docCount; docId++) {
+            if (counts[offset + docId] > 0) {
+                df++;
+            }
+        }
+        return df;
+    }
+
+    /**
+     * 取得關鍵字比對器（字典）
+     * @return 關鍵字比對器
+     */
+    public KeywordMatcher getMatcher() {
+        return matcher;
+    }
+
+    public int getDocCount() {
+        return docCount;
+    }
+
+    public int getTermCount() {
+        return termCount;
+    }
+}
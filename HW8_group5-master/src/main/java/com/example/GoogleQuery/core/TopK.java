@@ -0,0 +1,76 @@
+package com.example.GoogleQuery.core;
+
+import java.util.*;
+
+/**
+ * TopK - 以有界堆積（bounded heap）選出前 K 名
+ * 只保留目前最好的 K 個元素，時間 O(n log K)、空間 O(K)，不需要排序全部結果
+ * @param <T> 元素型別
+ */
+public class TopK<T> {
+
+    private final int capacity;
+    private final Comparator<? super T> order;   // 排名順序（越前面越好）
+    private final PriorityQueue<T> heap;         // 堆頂為目前保留的元素中最差的一個
+
+    /**
+     * 建構子
+     * @param capacity 要保留的數量 K
+     * @param order 排名順序（compare 結果小於 0 表示排名較前）
+     */
+    public TopK(int capacity, Comparator<? super T> order) {
+        this.capacity = Math.max(0, capacity);
+        this.order = order;
+        this.heap = new PriorityQueue<>(Math.max(1, Math.min(this.capacity, 1024)), order.reversed());
+    }
+
+    /**
+     * 加入一個元素，若已滿且比堆頂差則直接丟棄
+     * @param item 元素
+     */
+    public void offer(T item) {
+        if (capacity == 0) {
+            return;
+        }
+        if (heap.size() < capacity) {
+            heap.add(item);
+        } else if (order.compare(item, heap.peek()) < 0) {
+            heap.poll();
+            heap.add(item);
+        }
+    }
+
+    /**
+     * 取得保留的元素（依排名順序）
+     * @return 排序後的列表
+     */
+    public List<T> toSortedList() {
+        List<T> sorted = new ArrayList<>(heap);
+        sorted.sort(order);
+        return sorted;
+    }
+
+    /**
+     * 是否已保留 K 個元素
+     * @return true 如果已滿
+     */
+    public boolean isFull() {
+        return heap.size() >= capacity;
+    }
+
+    /**
+     * 取得目前保留的元素中排名最後的一個（新元素要排在它前面才會被保留）
+     * @return 排名最後的元素（沒有元素時為 null）
+     */
+    public T last() {
+        return heap.peek();
+    }
+
+    /**
+     * 取得目前保留的數量
+     * @return 數量
+     */
+    public int size() {
+        return heap.size();
+    }
+}
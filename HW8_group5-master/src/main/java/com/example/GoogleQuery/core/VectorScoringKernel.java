@@ -0,0 +1,63 @@
+package com.example.GoogleQuery.core;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.util.Arrays;
+
+/**
+ * VectorScoringKernel - 以 Vector API（jdk.incubator.vector）計算的計分核心
+ * 每個 lane 是一個網站：一次載入一段網站的出現次數，轉成 double 後乘上權重再累加，
+ * 每個網站仍依 termId 順序先乘後加，結果與 ScalarScoringKernel 完全相同
+ *
+ * 只透過 ScoringKernel.best() 以反射載入，執行時沒有 jdk.incubator.vector 模組也不會影響其他類別
+ */
+final class VectorScoringKernel implements ScoringKernel {
+
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+    // 與 DOUBLES 相同 lane 數的 int（位元數為一半）
+    private static final VectorSpecies<Integer> INTS =
+        IntVector.SPECIES_PREFERRED.withShape(VectorShape.forBitSize(DOUBLES.vectorBitSize() / 2));
+
+    @Override
+    public void weightedSums(int[] columns, int docCount, double[] termWeights, double[] sums) {
+        // 逐一關鍵字循序掃描整個欄位（一段網站在暫存器中跨關鍵字累加需要跳躍讀取，實測較慢）
+        Arrays.fill(sums, 0, docCount, 0.0);
+        for (int termId = 0; termId < termWeights.length; termId++) {
+            if (termWeights[termId] != 0.0) {
+                accumulate(columns, termId * docCount, docCount, termWeights[termId], sums);
+            }
+        }
+    }
+
+    @Override
+    public void accumulate(int[] columns, int offset, int docCount, double weight, double[] sums) {
+        int lanes = DOUBLES.length();
+        int upper = docCount - docCount % lanes;
+        int docId = 0;
+        for (; docId < upper; docId += lanes) {
+            DoubleVector.fromArray(DOUBLES, sums, docId)
+                .add(counts(columns, offset + docId).mul(weight))
+                .intoArray(sums, docId);
+        }
+        for (; docId < docCount; docId++) {
+            sums[docId] += columns[offset + docId] * weight;
+        }
+    }
+
+    /**
+     * 載入一段出現次數並轉成 double（int 轉 double 沒有誤差）
+     */
+    private static DoubleVector counts(int[] columns, int offset) {
+        return (DoubleVector) IntVector.fromArray(INTS, columns, offset)
+            .convertShape(VectorOperators.I2D, DOUBLES, 0);
+    }
+
+    @Override
+    public String toString() {
+        return "vector(" + DOUBLES.length() + " lanes)";
+    }
+}
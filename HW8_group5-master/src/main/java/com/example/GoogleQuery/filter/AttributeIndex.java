@@ -0,0 +1,214 @@
+package com.example.GoogleQuery.filter;
+
+import com.example.GoogleQuery.model.FacetCounts;
+import com.example.GoogleQuery.model.WebPage;
+
+import java.util.*;
+
+/**
+ * AttributeIndex - 地區、功能、標籤的 bitset 索引
+ * 建立時對每個網站讀取一次屬性，依屬性值記錄一個 bitset（第 i 個 bit 表示第 i 個網站）
+ * 篩選條件的 AND / OR 組合只需對 bitset 做逐 word 的位元運算，不再逐筆掃描列表
+ *
+ * 建立後不再修改，多個執行緒可以同時讀取；查詢方法都回傳新的 BitSet，呼叫端可以自由修改
+ */
+public class AttributeIndex {
+
+    private final int size;                              // 網站數量
+    private final Map<String, BitSet> districts;         // 地區 -> 網站
+    private final Map<String, BitSet> features;          // 功能 -> 網站
+    private final Map<String, BitSet> tags;              // 標籤 -> 網站
+
+    /**
+     * 建構子：建立索引
+     * @param pages 網站列表（順序即 bit 的位置）
+     */
+    public AttributeIndex(List<? extends WebPage> pages) {
+        this.size = pages != null ? pages.size() : 0;
+        this.districts = new HashMap<>();
+        this.features = new HashMap<>();
+        this.tags = new HashMap<>();
+
+        for (int i = 0; i < size; i++) {
+            WebPage page = pages.get(i);
+            add(districts, page.getDistrict(), i);
+
+            List<String> pageFeatures = page.getFeatures();
+            if (pageFeatures != null) {
+                for (String feature : pageFeatures) {
+                    add(features, feature, i);
+                }
+            }
+
+            List<String> pageTags = page.getTags();
+            if (pageTags != null) {
+                for (String tag : pageTags) {
+                    add(tags, tag, i);
+                }
+            }
+        }
+    }
+
+    private static void add(Map<String, BitSet> postings, String value, int i) {
+        if (value != null) {
+            postings.computeIfAbsent(value, v -> new BitSet()).set(i);
+        }
+    }
+
+    /**
+     * 組合篩選：地區之間為 OR，功能之間為 AND（與 DistrictFilter、FeatureFilter 相同）
+     * @param districtList 地區列表（null 或空表示不篩選）
+     * @param featureList 功能列表（null 或空表示不篩選）
+     * @return 符合條件的網站
+     */
+    public BitSet match(Collection<String> districtList, Collection<String> featureList) {
+        BitSet result = (districtList != null && !districtList.isEmpty()) ? districts(districtList) : all();
+        if (featureList != null && !featureList.isEmpty()) {
+            result.and(features(featureList, true));
+        }
+        return result;
+    }
+
+    /**
+     * 所有網站
+     * @return 全部為 1 的 bitset
+     */
+    public BitSet all() {
+        BitSet bits = new BitSet(size);
+        bits.set(0, size);
+        return bits;
+    }
+
+    /**
+     * 位於任一地區的網站
+     * @param values 地區列表
+     * @return 符合的網站
+     */
+    public BitSet districts(Collection<String> values) {
+        return combine(districts, values, false);
+    }
+
+    /**
+     * 具有指定功能的網站
+     * @param values 功能列表
+     * @param matchAll true: 需符合所有功能, false: 符合任一功能即可
+     * @return 符合的網站
+     */
+    public BitSet features(Collection<String> values, boolean matchAll) {
+        return combine(features, values, matchAll);
+    }
+
+    /**
+     * 具有指定標籤的網站
+     * @param values 標籤列表
+     * @param matchAll true: 需符合所有標籤, false: 符合任一標籤即可
+     * @return 符合的網站
+     */
+    public BitSet tags(Collection<String> values, boolean matchAll) {
+        return combine(tags, values, matchAll);
+    }
+
+    /**
+     * 合併多個屬性值的 bitset
+     * AND 時從全部為 1 開始逐一交集（空列表表示不限制），OR 時從空集合開始逐一聯集
+     */
+    private BitSet combine(Map<String, BitSet> postings, Collection<String> values, boolean matchAll) {
+        if (matchAll) {
+            BitSet result = all();
+            if (values != null) {
+                for (String value : values) {
+                    BitSet bits = postings.get(value);
+                    if (bits == null) {
+                        return new BitSet();
+                    }
+                    result.and(bits);
+                }
+            }
+            return result;
+        }
+
+        BitSet result = new BitSet(size);
+        if (values != null) {
+            for (String value : values) {
+                BitSet bits = postings.get(value);
+                if (bits != null) {
+                    result.or(bits);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 依 bitset 取出列表中對應的元素（保持原本順序）
+     * @param items 建立索引時的列表
+     * @param bits 要取出的位置
+     * @return 被選中的元素
+     */
+    public static <T> List<T> select(List<T> items, BitSet bits) {
+        List<T> selected = new ArrayList<>(bits.cardinality());
+        for (int i = bits.nextSetBit(0); i >= 0 && i < items.size(); i = bits.nextSetBit(i + 1)) {
+            selected.add(items.get(i));
+        }
+        return selected;
+    }
+
+    /**
+     * 計算一組網站的分面統計（每個地區、功能與該組網站交集的數量）
+     * @param docs 要統計的網站
+     * @return 分面統計（依數量由多到少）
+     */
+    public FacetCounts facets(BitSet docs) {
+        return new FacetCounts(counts(districts, docs), counts(features, docs));
+    }
+
+    private static Map<String, Integer> counts(Map<String, BitSet> postings, BitSet docs) {
+        List<Map.Entry<String, Integer>> entries = new ArrayList<>();
+        for (Map.Entry<String, BitSet> entry : postings.entrySet()) {
+            BitSet bits = (BitSet) entry.getValue().clone();
+            bits.and(docs);
+            int count = bits.cardinality();
+            if (count > 0) {
+                entries.add(Map.entry(entry.getKey(), count));
+            }
+        }
+        entries.sort((a, b) -> {
+            int cmp = Integer.compare(b.getValue(), a.getValue());
+            return cmp != 0 ? cmp : a.getKey().compareTo(b.getKey());
+        });
+
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (Map.Entry<String, Integer> entry : entries) {
+            counts.put(entry.getKey(), entry.getValue());
+        }
+        return counts;
+    }
+
+    /**
+     * 取得某地區的網站數量
+     * @param district 地區
+     * @return 數量
+     */
+    public int countDistrict(String district) {
+        BitSet bits = districts.get(district);
+        return bits != null ? bits.cardinality() : 0;
+    }
+
+    /**
+     * 取得具有某功能的網站數量
+     * @param feature 功能
+     * @return 數量
+     */
+    public int countFeature(String feature) {
+        BitSet bits = features.get(feature);
+        return bits != null ? bits.cardinality() : 0;
+    }
+
+    /**
+     * 取得索引中的網站數量
+     * @return 網站數量
+     */
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.GoogleQuery.model;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * FacetCounts - 目前查詢符合結果的分面統計
+ * 記錄每個地區、每個功能在符合結果中出現的咖啡廳數量（數量為 0 的值不列出）
+ */
+public class FacetCounts {
+
+    private final Map<String, Integer> districts;   // 地區 -> 數量
+    private final Map<String, Integer> features;    // 功能 -> 數量
+
+    /**
+     * 建構子
+     * @param districts 地區 -> 數量
+     * @param features 功能 -> 數量
+     */
+    public FacetCounts(Map<String, Integer> districts, Map<String, Integer> features) {
+        this.districts = districts != null ? districts : new LinkedHashMap<>();
+        this.features = features != null ? features : new LinkedHashMap<>();
+    }
+
+    /**
+     * 建立空的分面統計
+     * @return 空的分面統計
+     */
+    public static FacetCounts empty() {
+        return new FacetCounts(new LinkedHashMap<>(), new LinkedHashMap<>());
+    }
+
+    public Map<String, Integer> getDistricts() {
+        return districts;
+    }
+
+    public Map<String, Integer> getFeatures() {
+        return features;
+    }
+}
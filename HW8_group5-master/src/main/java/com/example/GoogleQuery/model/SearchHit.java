@@ -0,0 +1,213 @@
+package com.example.GoogleQuery.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.*;
+
+/**
+ * SearchHit - 搜尋、推薦、收藏 API 回傳用的精簡結果
+ * 只包含前端顯示需要的欄位，不序列化 WebPage 本身（內文、WordCounter 等）
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SearchHit {
+
+    /** 可透過 fields= 選擇的欄位（依回傳順序） */
+    public static final List<String> FIELDS = List.of(
+        "id", "name", "url", "score", "district", "address", "phoneNumber", "openingHours",
+        "rating", "userRatingsTotal", "features", "hashtags", "preview", "latitude", "longitude", "source"
+    );
+
+    private final String id;
+    private final String name;
+    private final String url;
+    private final double score;
+    private final String district;
+    private final String address;
+    private final String phoneNumber;
+    private final String openingHours;
+    private final double rating;
+    private final Integer userRatingsTotal;
+    private final List<String> features;
+    private final List<String> hashtags;
+    private final String preview;
+    private final Double latitude;
+    private final Double longitude;
+    private final String source;
+
+    /**
+     * 從 SearchResult 建立精簡結果
+     * @param result 搜尋結果
+     */
+    public SearchHit(SearchResult result) {
+        this.id = result.getCafeId();
+        this.name = result.getName();
+        this.url = result.getUrl();
+        this.score = result.getScore();
+        this.district = result.getDistrict();
+        this.address = result.getAddress();
+        this.phoneNumber = result.getPhoneNumber();
+        this.openingHours = result.getOpeningHours();
+        this.rating = result.getRating();
+        this.userRatingsTotal = result.getUserRatingsTotal();
+        this.features = result.getFeatures();
+        this.hashtags = result.getHashtagList();
+        this.preview = result.getPreview();
+        this.latitude = result.getLatitude();
+        this.longitude = result.getLongitude();
+        this.source = result.getSource();
+    }
+
+    /**
+     * 將搜尋結果轉為 API 回傳格式
+     * 未指定 fields 時回傳完整的 SearchHit；指定時只回傳選擇的欄位
+     * @param results 搜尋結果
+     * @param fields 欄位選擇（逗號分隔，例如 "id,name,score"，可為 null）
+     * @return 回傳用的結果列表
+     */
+    public static List<Object> toResponse(List<SearchResult> results, String fields) {
+        Set<String> selected = parseFields(fields);
+        List<Object> response = new ArrayList<>(results.size());
+        for (SearchResult result : results) {
+            SearchHit hit = new SearchHit(result);
+            response.add(selected == null ? hit : hit.toMap(selected));
+        }
+        return response;
+    }
+
+    /**
+     * 將單一搜尋結果轉為 API 回傳格式
+     * @param result 搜尋結果
+     * @param fields 欄位選擇（可為 null）
+     * @return 回傳用的結果
+     */
+    public static Object toResponse(SearchResult result, String fields) {
+        Set<String> selected = parseFields(fields);
+        SearchHit hit = new SearchHit(result);
+        return selected == null ? hit : hit.toMap(selected);
+    }
+
+    /**
+     * 解析 fields 參數（忽略不認得的欄位）
+     * @param fields 欄位選擇字串
+     * @return 選擇的欄位，未指定或沒有可用欄位時返回 null
+     */
+    static Set<String> parseFields(String fields) {
+        if (fields == null || fields.trim().isEmpty()) {
+            return null;
+        }
+        Set<String> selected = new HashSet<>();
+        for (String field : fields.split(",")) {
+            String f = field.trim();
+            if (FIELDS.contains(f)) {
+                selected.add(f);
+            }
+        }
+        return selected.isEmpty() ? null : selected;
+    }
+
+    /**
+     * 只保留選擇的欄位（順序與 FIELDS 相同，null 值不輸出）
+     * @param selected 選擇的欄位
+     * @return 欄位名稱 → 值
+     */
+    public Map<String, Object> toMap(Set<String> selected) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (String field : FIELDS) {
+            if (selected.contains(field)) {
+                Object value = get(field);
+                if (value != null) {
+                    map.put(field, value);
+                }
+            }
+        }
+        return map;
+    }
+
+    private Object get(String field) {
+        switch (field) {
+            case "id": return id;
+            case "name": return name;
+            case "url": return url;
+            case "score": return score;
+            case "district": return district;
+            case "address": return address;
+            case "phoneNumber": return phoneNumber;
+            case "openingHours": return openingHours;
+            case "rating": return rating;
+            case "userRatingsTotal": return userRatingsTotal;
+            case "features": return features;
+            case "hashtags": return hashtags;
+            case "preview": return preview;
+            case "latitude": return latitude;
+            case "longitude": return longitude;
+            case "source": return source;
+            default: return null;
+        }
+    }
+
+    // ========== Getters ==========
+
+    public String getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    public String getDistrict() {
+        return district;
+    }
+
+    public String getAddress() {
+        return address;
+    }
+
+    public String getPhoneNumber() {
+        return phoneNumber;
+    }
+
+    public String getOpeningHours() {
+        return openingHours;
+    }
+
+    public double getRating() {
+        return rating;
+    }
+
+    public Integer getUserRatingsTotal() {
+        return userRatingsTotal;
+    }
+
+    public List<String> getFeatures() {
+        return features;
+    }
+
+    public List<String> getHashtags() {
+        return hashtags;
+    }
+
+    public String getPreview() {
+        return preview;
+    }
+
+    public Double getLatitude() {
+        return latitude;
+    }
+
+    public Double getLongitude() {
+        return longitude;
+    }
+
+    public String getSource() {
+        return source;
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.GoogleQuery.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SearchPage - 分頁搜尋結果
+ * 包含目前這一頁的結果與符合條件的總數，需要時附帶分面統計
+ */
+public class SearchPage {
+
+    private final List<SearchResult> results;   // 這一頁的結果
+    private final int total;                    // 符合條件的總數
+    private final int offset;                   // 起始位置
+    private final int limit;                    // 每頁數量
+    private final FacetCounts facets;           // 分面統計（未要求時為 null）
+
+    /**
+     * 建構子
+     * @param results 這一頁的結果
+     * @param total 符合條件的總數
+     * @param offset 起始位置
+     * @param limit 每頁數量
+     */
+    public SearchPage(List<SearchResult> results, int total, int offset, int limit) {
+        this(results, total, offset, limit, null);
+    }
+
+    /**
+     * 建構子（含分面統計）
+     * @param results 這一頁的結果
+     * @param total 符合條件的總數
+     * @param offset 起始位置
+     * @param limit 每頁數量
+     * @param facets 分面統計（可為 null）
+     */
+    public SearchPage(List<SearchResult> results, int total, int offset, int limit, FacetCounts facets) {
+        this.results = results != null ? results : new ArrayList<>();
+        this.total = total;
+        this.offset = offset;
+        this.limit = limit;
+        this.facets = facets;
+    }
+
+    /**
+     * 建立空的分頁結果
+     * @param offset 起始位置
+     * @param limit 每頁數量
+     * @return 空的分頁結果
+     */
+    public static SearchPage empty(int offset, int limit) {
+        return new SearchPage(new ArrayList<>(), 0, offset, limit);
+    }
+
+    /**
+     * 從完整結果列表切出一頁
+     * @param all 完整結果列表（已排序）
+     * @param offset 起始位置
+     * @param limit 每頁數量
+     * @return 分頁結果
+     */
+    public static SearchPage slice(List<SearchResult> all, int offset, int limit) {
+        int from = Math.min(offset, all.size());
+        int to = (int) Math.min((long) from + limit, all.size());
+        return new SearchPage(new ArrayList<>(all.subList(from, to)), all.size(), offset, limit);
+    }
+
+    public List<SearchResult> getResults() {
+        return results;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * 取得分面統計
+     * @return 分面統計，未要求時返回 null
+     */
+    public FacetCounts getFacets() {
+        return facets;
+    }
+
+    /**
+     * 是否還有下一頁
+     * @return true 如果還有更多結果
+     */
+    public boolean hasMore() {
+        return (long) offset + results.size() < total;
+    }
+}
@@ -81,13 +81,36 @@ public class SearchResult implements Comparable<SearchResult> {
         this.page = new WebPage(url, name);
         this.score = score;
     }
-    
+
+    /**
+     * 複製建構子（快取中的結果由多個請求共用，要修改分數或來源時先複製）
+     * @param other 要複製的搜尋結果
+     */
+    public SearchResult(SearchResult other) {
+        this.page = other.page;
+        this.score = other.score;
+        this.cafeId = other.cafeId;
+        this.phoneNumber = other.phoneNumber;
+        this.openingHours = other.openingHours;
+        this.rating = other.rating;
+        this.features = other.features;
+        this.tags = other.tags;
+        this.userRatingsTotal = other.userRatingsTotal;
+        this.latitude = other.latitude;
+        this.longitude = other.longitude;
+        this.source = other.source;
+        this.isGoogleResult = other.isGoogleResult;
+        this.district = other.district;
+        this.address = other.address;
+    }
+
     // ========== 基本 Getters and Setters ==========
 
     /**
      * 取得網站
      * @return WebPage 物件
      */
+    @JsonIgnore
     public WebPage getPage() {
         return page;
     }
@@ -1,5 +1,6 @@
 package com.example.GoogleQuery.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
@@ -9,6 +10,7 @@ import org.jsoup.nodes.Element;
 import org.jsoup.select.Elements;
 
 import com.example.GoogleQuery.core.KeywordParser;
+import com.example.GoogleQuery.util.TokenStream;
 
 /**
  * WebPage - 代表一個網站
@@ -90,9 +92,8 @@ public class WebPage {
      * @param keywords 關鍵字列表
      */
     public void setScore(ArrayList<Keyword> keywords) {
-        // 使用 KeywordParser 計算分數
-        String content = counter.getContent();
-        KeywordParser parser = new KeywordParser(content);
+        // 使用 KeywordParser 計算分數（讀取快取的分析結果）
+        KeywordParser parser = new KeywordParser(getTokenStream());
         this.score = parser.calculateWeightedScore(keywords);
     }
     
@@ -152,6 +153,24 @@ public class WebPage {
         return counter.getContent();
     }
 
+    /**
+     * 取得小寫的網站內容（由 WordCounter 快取）
+     * @return 小寫內容
+     */
+    @JsonIgnore
+    public String getLowerCaseContent() {
+        return counter != null ? counter.getLowerCaseContent() : "";
+    }
+
+    /**
+     * 取得網站內容的分析結果（由 WordCounter 快取）
+     * @return 分析結果
+     */
+    @JsonIgnore
+    public TokenStream getTokenStream() {
+        return counter != null ? counter.getTokenStream() : TokenStream.EMPTY;
+    }
+
     /**
      * 設定網頁內容（測試/手動注入使用）
      * @param content 網頁文字內容
@@ -211,8 +230,7 @@ public class WebPage {
      * @param topN 取前幾名（通常 2-3）
      */
     public void generateHashtags(ArrayList<Keyword> keywords, int topN) {
-        String content = counter.getContent();
-        KeywordParser parser = new KeywordParser(content);
+        KeywordParser parser = new KeywordParser(getTokenStream());
         this.hashtags = parser.generateHashtags(keywords, topN);
     }
     
@@ -1,5 +1,8 @@
 package com.example.GoogleQuery.model;
 
+import com.example.GoogleQuery.util.TextAnalyzer;
+import com.example.GoogleQuery.util.TokenStream;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
@@ -16,6 +19,7 @@ public class WordCounter {
     
     private String urlStr;           // 網頁 URL
     private String content;          // 網頁內容（純文字）
+    private TokenStream tokenStream; // 分析結果（第一次使用時建立，內容變動時清除）
     private Map<String, Integer> wordCountCache;  // 關鍵字計數快取
     
     // HTTP 請求設定
@@ -144,8 +148,32 @@ public class WordCounter {
      */
     public void setContent(String content) {
         this.content = content != null ? content : "";
+        this.tokenStream = null;
         this.wordCountCache.clear(); // 清除快取
     }
+
+    /**
+     * 取得內容的分析結果（TextAnalyzer.DEFAULT，快取，內容不變時只分析一次）
+     * @return 分析結果
+     */
+    @JsonIgnore
+    public TokenStream getTokenStream() {
+        TokenStream stream = tokenStream;
+        if (stream == null) {
+            stream = TextAnalyzer.DEFAULT.analyze(content);
+            tokenStream = stream;
+        }
+        return stream;
+    }
+
+    /**
+     * 取得小寫的網頁內容（來自快取的分析結果，避免每次計數都重新轉換）
+     * @return 小寫內容
+     */
+    @JsonIgnore
+    public String getLowerCaseContent() {
+        return getTokenStream().getText();
+    }
     
     /**
      * 計算關鍵字出現次數
@@ -166,7 +194,7 @@ public class WordCounter {
         
         // 計算出現次數
         int count = 0;
-        String lowerContent = content.toLowerCase();
+        String lowerContent = getLowerCaseContent();
         
         // 使用簡單的字串搜尋
         int index = 0;
@@ -208,7 +236,7 @@ public class WordCounter {
     }
     
     /**
-     * 取得內容字數（以空白分隔）
+     * 取得內容字數（以空白分隔的字數）
      * @return 字數
      */
     public int getWordCount() {
@@ -220,6 +248,14 @@ public class WordCounter {
         return words.length;
     }
     
+    /**
+     * 取得分詞後的 token 數量（中文以詞計算，含停用詞）
+     * @return token 數量
+     */
+    public int getTokenCount() {
+        return getTokenStream().getTokenCount();
+    }
+    
     /**
      * 檢查內容是否包含關鍵字
      * @param keyword 關鍵字
@@ -259,6 +295,7 @@ public class WordCounter {
     public boolean refresh() {
         try {
             this.content = fetchContent();
+            this.tokenStream = null;
             this.wordCountCache.clear();
             return true;
         } catch (IOException e) {
@@ -1,5 +1,6 @@
 package com.example.GoogleQuery.repository;
 
+import com.example.GoogleQuery.filter.AttributeIndex;
 import com.example.GoogleQuery.model.Cafe;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -21,6 +22,7 @@ public class CafeRepository {
 
     private Map<String, Cafe> cafeMap; // 以 ID 為 key 的快速查詢 Map
     private List<Cafe> allCafes; // 所有咖啡廳列表
+    private AttributeIndex attributes; // 地區、功能、標籤的 bitset 索引（bit 位置即 allCafes 的位置）
     
     private static final String DATA_FILE_PATH = "data/cafes.json";
 
@@ -37,6 +39,7 @@ public class CafeRepository {
             // 使用空資料初始化
             allCafes = new ArrayList<>();
             cafeMap = new HashMap<>();
+            attributes = new AttributeIndex(allCafes);
         }
     }
 
@@ -56,6 +59,9 @@ public class CafeRepository {
         // 建立 ID 索引
         cafeMap = allCafes.stream()
                 .collect(Collectors.toMap(Cafe::getId, cafe -> cafe));
+        
+        // 建立地區、功能、標籤的 bitset 索引
+        attributes = new AttributeIndex(allCafes);
     }
 
     /**
@@ -81,9 +87,7 @@ public class CafeRepository {
      * @return 該地區的咖啡廳列表
      */
     public List<Cafe> findByDistrict(String district) {
-        return allCafes.stream()
-                .filter(cafe -> cafe.getDistrict().equals(district))
-                .collect(Collectors.toList());
+        return AttributeIndex.select(allCafes, attributes.districts(Collections.singletonList(district)));
     }
 
     /**
@@ -92,10 +96,7 @@ public class CafeRepository {
      * @return 具有該功能的咖啡廳列表
      */
     public List<Cafe> findByFeature(String feature) {
-        return allCafes.stream()
-                .filter(cafe -> cafe.getFeatures() != null && 
-                               cafe.getFeatures().contains(feature))
-                .collect(Collectors.toList());
+        return AttributeIndex.select(allCafes, attributes.features(Collections.singletonList(feature), true));
     }
 
     /**
@@ -109,20 +110,7 @@ public class CafeRepository {
             return new ArrayList<>();
         }
 
-        return allCafes.stream()
-                .filter(cafe -> {
-                    if (cafe.getFeatures() == null) {
-                        return false;
-                    }
-                    
-                    if (matchAll) {
-                        return cafe.getFeatures().containsAll(features);
-                    } else {
-                        return features.stream()
-                                .anyMatch(feature -> cafe.getFeatures().contains(feature));
-                    }
-                })
-                .collect(Collectors.toList());
+        return AttributeIndex.select(allCafes, attributes.features(features, matchAll));
     }
 
     /**
@@ -190,10 +178,39 @@ public class CafeRepository {
      * @return 具有該標籤的咖啡廳列表
      */
     public List<Cafe> findByTag(String tag) {
-        return allCafes.stream()
-                .filter(cafe -> cafe.getTags() != null && 
-                               cafe.getTags().contains(tag))
-                .collect(Collectors.toList());
+        return AttributeIndex.select(allCafes, attributes.tags(Collections.singletonList(tag), true));
+    }
+
+    /**
+     * 根據多個標籤查詢咖啡廳
+     * @param tags 標籤列表
+     * @param matchAll true: 需符合所有標籤, false: 符合任一標籤即可
+     * @return 符合條件的咖啡廳列表
+     */
+    public List<Cafe> findByTags(List<String> tags, boolean matchAll) {
+        if (tags == null || tags.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        return AttributeIndex.select(allCafes, attributes.tags(tags, matchAll));
+    }
+
+    /**
+     * 統計某地區的咖啡廳數量（直接讀取 bitset，不建立列表）
+     * @param district 地區名稱
+     * @return 數量
+     */
+    public int countDistrict(String district) {
+        return attributes.countDistrict(district);
+    }
+
+    /**
+     * 統計具有某功能的咖啡廳數量（直接讀取 bitset，不建立列表）
+     * @param feature 功能特性
+     * @return 數量
+     */
+    public int countFeature(String feature) {
+        return attributes.countFeature(feature);
     }
 
     /**
@@ -345,23 +362,20 @@ public class CafeRepository {
      * @return 符合條件的咖啡廳列表
      */
     public List<Cafe> advancedSearch(Map<String, Object> criteria) {
-        List<Cafe> results = new ArrayList<>(allCafes);
+        // 地區、功能條件先以 bitset 交集，只取出符合的咖啡廳
+        BitSet matched = attributes.all();
         
         // 地區篩選
         if (criteria.containsKey("district")) {
             String district = (String) criteria.get("district");
-            results = results.stream()
-                    .filter(cafe -> cafe.getDistrict().equals(district))
-                    .collect(Collectors.toList());
+            matched.and(attributes.districts(Collections.singletonList(district)));
         }
         
         // 地區列表篩選
         if (criteria.containsKey("districts")) {
             @SuppressWarnings("unchecked")
             List<String> districts = (List<String>) criteria.get("districts");
-            results = results.stream()
-                    .filter(cafe -> districts.contains(cafe.getDistrict()))
-                    .collect(Collectors.toList());
+            matched.and(attributes.districts(districts));
         }
         
         // 功能篩選
@@ -372,19 +386,11 @@ public class CafeRepository {
                 ? (Boolean) criteria.get("matchAllFeatures") 
                 : true;
             
-            results = results.stream()
-                    .filter(cafe -> {
-                        if (cafe.getFeatures() == null) return false;
-                        if (matchAll) {
-                            return cafe.getFeatures().containsAll(features);
-                        } else {
-                            return features.stream()
-                                    .anyMatch(f -> cafe.getFeatures().contains(f));
-                        }
-                    })
-                    .collect(Collectors.toList());
+            matched.and(attributes.features(features, matchAll));
         }
         
+        List<Cafe> results = AttributeIndex.select(allCafes, matched);
+        
         // 最低評分篩選
         if (criteria.containsKey("minRating")) {
             double minRating = ((Number) criteria.get("minRating")).doubleValue();
@@ -0,0 +1,22 @@
+package com.example.GoogleQuery.service;
+
+/**
+ * CafeDataReloadedEvent - 咖啡廳資料重新載入完成事件
+ * SearchService.reloadData 替換資料並清除快取後發布，用於重新預熱熱門查詢
+ */
+public class CafeDataReloadedEvent {
+
+    private final int cafeCount;   // 重新載入後的咖啡廳數量
+
+    /**
+     * 建構子
+     * @param cafeCount 重新載入後的咖啡廳數量
+     */
+    public CafeDataReloadedEvent(int cafeCount) {
+        this.cafeCount = cafeCount;
+    }
+
+    public int getCafeCount() {
+        return cafeCount;
+    }
+}
@@ -1,7 +1,9 @@
 package com.example.GoogleQuery.service;
 
+import com.example.GoogleQuery.config.CacheConfig;
 import com.example.GoogleQuery.model.ComparisonResult;
 import com.example.GoogleQuery.model.SearchResult;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
@@ -68,6 +70,7 @@ public class ComparisonService {
         return results;
     }
 
+    @Cacheable(CacheConfig.COMPARISONS)
     public ComparisonResult compareCafesByIds(List<String> cafeIds) {
         return compareCafesByResults(fetchSearchResultsFromIds(cafeIds));
     }
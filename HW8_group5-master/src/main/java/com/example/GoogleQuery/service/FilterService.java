@@ -74,12 +74,12 @@ public class FilterService {
 
     public int getCafeCountByDistrict(String district) {
         if (cafeRepository == null) return 0;
-        return cafeRepository.findByDistrict(district).size();
+        return cafeRepository.countDistrict(district);
     }
 
     public int getCafeCountByFeature(String feature) {
         if (cafeRepository == null) return 0;
-        return cafeRepository.findByFeature(feature).size();
+        return cafeRepository.countFeature(feature);
     }
 
     public boolean validateFilters(Map<String, Object> filterData) {
@@ -269,6 +269,16 @@ public class GoogleService {
         return words.length;
     }
     
+    /**
+     * 統計網頁分詞後的 token 數量（中文以詞計算）
+     * @param webPage WebPage 物件
+     * @return token 數量
+     */
+    public int countTokens(WebPage webPage) {
+        // 讀取網頁快取的分析結果
+        return webPage.getTokenStream().getTokenCount();
+    }
+    
     /**
      * 批次統計字數
      * @param webPages WebPage 列表
@@ -291,13 +301,13 @@ public class GoogleService {
      * @return 是否包含
      */
     public boolean containsKeyword(WebPage webPage, String keyword) {
-        String content = webPage.getContent();
+        String lowerContent = webPage.getLowerCaseContent();
         
-        if (content == null || content.isEmpty()) {
+        if (lowerContent.isEmpty()) {
             return false;
         }
         
-        return content.toLowerCase().contains(keyword.toLowerCase());
+        return lowerContent.contains(keyword.toLowerCase());
     }
     
     /**
@@ -307,13 +317,12 @@ public class GoogleService {
      * @return 出現次數
      */
     public int countKeywordOccurrences(WebPage webPage, String keyword) {
-        String content = webPage.getContent();
+        String lowerContent = webPage.getLowerCaseContent();
         
-        if (content == null || content.isEmpty()) {
+        if (lowerContent.isEmpty()) {
             return 0;
         }
         
-        String lowerContent = content.toLowerCase();
         String lowerKeyword = keyword.toLowerCase();
         
         int count = 0;
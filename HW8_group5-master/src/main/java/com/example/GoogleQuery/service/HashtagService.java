@@ -1,5 +1,6 @@
 package com.example.GoogleQuery.service;
 
+import com.example.GoogleQuery.core.CompletionIndex;
 import com.example.GoogleQuery.model.WebPage;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -25,6 +26,9 @@ public class HashtagService {
     @Autowired
     private RankingService rankingService;
 
+    @Autowired
+    private SearchService searchService;
+
     private static final int MAX_HASHTAGS = 5;
     private static final int MAX_USER_KEYWORDS = 2;
     private static final int MAX_CONTENT_KEYWORDS = 3;
@@ -315,6 +319,7 @@ public class HashtagService {
 
     /**
      * 生成 hashtag 建議（基於部分輸入）
+     * 以自動完成索引找出包含輸入文字的關鍵字與咖啡廳既有的 Hashtag
      * @param partialInput 部分輸入
      * @param limit 返回數量
      * @return 建議的 Hashtag 列表
@@ -324,13 +329,10 @@ public class HashtagService {
             return new ArrayList<>();
         }
         
-        String input = partialInput.toLowerCase();
-        
-        // 從所有關鍵字中找出匹配的
-        return keywordService.getAllKeywordsName().stream()
-                .filter(keyword -> keyword.toLowerCase().contains(input))
-                .filter(keyword -> isValidHashtag(keyword))
-                .limit(limit)
+        return searchService.complete(partialInput, limit,
+                    s -> !CompletionIndex.CAFE.equals(s.getType()) && isValidHashtag(s.getTerm()))
+                .stream()
+                .map(CompletionIndex.Suggestion::getTerm)
                 .collect(Collectors.toList());
     }
 
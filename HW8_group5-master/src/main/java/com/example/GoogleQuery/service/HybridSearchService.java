@@ -1,11 +1,19 @@
 package com.example.GoogleQuery.service;
 
-import com.example.GoogleQuery.model.Cafe;
+import com.example.GoogleQuery.config.CacheConfig;
+import com.example.GoogleQuery.model.SearchPage;
 import com.example.GoogleQuery.model.SearchResult;
 import com.example.GoogleQuery.model.WebPage;
+import com.example.GoogleQuery.util.ParsedQuery;
+import com.example.GoogleQuery.util.QueryCanonicalizer;
+import com.example.GoogleQuery.util.SingleFlight;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -16,6 +24,16 @@ import java.util.stream.Collectors;
  * - 本地咖啡廳搜尋（SearchService）
  * - Google 搜尋結果整合（GoogleService）
  * - 結果去重和排序
+ *
+ * 以分階段（cascade）方式執行：
+ * 1. retrieve：以索引分頁搜尋取回本地候選（含篩選、名稱加分與去重，使用搜尋快取），
+ *    數量為「這一頁的結尾」與 retrieval-depth 中較大者；可能出現在這一頁的候選複製後加權
+ * 2. google：Google 結果與固定的前 retrieval-depth 名本地候選去重後，只為前 google-depth 筆建立結果
+ *    （會抓取網頁內容）；結果依查詢與篩選條件快取，翻頁時不重新搜尋
+ * 3. merge：合併排序後取出 [offset, offset + limit)
+ * 每一頁合併的本地候選與 Google 結果都相同，各頁的順序一致，不會重複或遺漏；
+ * 未指定分頁時回傳全部本地結果與 Google 結果（與原本的結果數量相同）；
+ * 各階段耗時記錄在 CascadeResult 中
  */
 @Service
 public class HybridSearchService {
@@ -25,69 +43,206 @@ public class HybridSearchService {
     
     @Autowired
     private GoogleService googleService;
+
+    @Autowired
+    private CacheManager cacheManager;
+    
+    @Value("${search.cascade.retrieval-depth:200}")
+    private int retrievalDepth;     // 第一階段最少取回的本地候選數量（也是 Google 去重的固定範圍）
+    
+    @Value("${search.cascade.google-depth:5}")
+    private int googleDepth;        // 第三階段合併的 Google 結果數量
     
-    private static final int GOOGLE_RESULTS_LIMIT = 5;
     private static final double LOCAL_CAFE_SCORE_BOOST = 2.0;  // 本地咖啡廳加權
     
+    // 相同的查詢（標準形式 + 篩選條件 + 是否包含 Google）同時只執行一次，避免重複計分與重複呼叫 Google
+    private static final long HYBRID_WAIT_MILLIS = 15000;
+    private final SingleFlight<List<Object>, CascadeResult> inFlight =
+        new SingleFlight<>(HYBRID_WAIT_MILLIS);
+    
+    /**
+     * GoogleStage - 快取中的 Google 階段結果（已去重，由多個請求共用，呼叫端不應修改）
+     * @param results Google 結果（依 Google 的順序）
+     */
+    private record GoogleStage(List<SearchResult> results) {}
+
+    /**
+     * CascadeResult - 分階段混合搜尋的結果（一頁）
+     * @param results 這一頁的結果（已排序，結果由多個請求共用，呼叫端不應修改）
+     * @param total 合併後的結果總數（本地咖啡廳總數 + Google 結果數）
+     * @param localTotal 符合查詢與篩選的本地咖啡廳總數
+     * @param offset 起始位置
+     * @param stageMillis 各階段耗時（毫秒，依執行順序）
+     */
+    public record CascadeResult(List<SearchResult> results, int total, int localTotal, int offset,
+                                Map<String, Double> stageMillis) {
+        static final CascadeResult EMPTY = new CascadeResult(List.of(), 0, 0, 0, Map.of());
+
+        /**
+         * 是否還有下一頁
+         * @return true 如果後面還有結果
+         */
+        public boolean hasMore() {
+            return (long) offset + results.size() < total;
+        }
+    }
+    
     /**
      * 執行混合搜尋：先搜尋本地咖啡廳，再補充 Google 搜尋結果
+     * 同時進行的相同查詢共用同一次搜尋（包含 Google 請求）的結果
      * 
      * @param keyword 搜尋關鍵字
      * @param includeGoogleResults 是否包含 Google 搜尋結果
-     * @return 混合搜尋結果列表（已排序）
+     * @return 混合搜尋結果列表（已排序，結果中的 SearchResult 由多個請求共用，呼叫端不應修改）
+     * @throws IllegalStateException 等待相同查詢的結果逾時
      */
     public ArrayList<SearchResult> hybridSearch(String keyword, boolean includeGoogleResults) {
+        return new ArrayList<>(cascadeSearch(keyword, null, null, includeGoogleResults).results());
+    }
+    
+    /**
+     * 分階段執行混合搜尋，並回傳各階段耗時（全部結果）
+     * 
+     * @param keyword 搜尋關鍵字
+     * @param districts 地區列表（null 表示不篩選）
+     * @param features 功能列表（null 表示不篩選，需全部符合）
+     * @param includeGoogleResults 是否包含 Google 搜尋結果
+     * @return 分階段搜尋結果（關鍵字為空時返回空結果）
+     * @throws IllegalStateException 等待相同查詢的結果逾時
+     */
+    public CascadeResult cascadeSearch(
+            String keyword,
+            List<String> districts,
+            List<String> features,
+            boolean includeGoogleResults) {
+        
+        return cascadeSearch(keyword, districts, features, includeGoogleResults, 0, Integer.MAX_VALUE);
+    }
+    
+    /**
+     * 分階段執行混合搜尋，並回傳各階段耗時（分頁）
+     * 同時進行的相同查詢（篩選條件不論順序、相同分頁）共用同一次搜尋的結果
+     * 
+     * @param keyword 搜尋關鍵字
+     * @param districts 地區列表（null 表示不篩選）
+     * @param features 功能列表（null 表示不篩選，需全部符合）
+     * @param includeGoogleResults 是否包含 Google 搜尋結果
+     * @param offset 起始位置（從 0 開始）
+     * @param limit 每頁數量
+     * @return 分階段搜尋結果（關鍵字為空時返回空結果）
+     * @throws IllegalStateException 等待相同查詢的結果逾時
+     */
+    public CascadeResult cascadeSearch(
+            String keyword,
+            List<String> districts,
+            List<String> features,
+            boolean includeGoogleResults,
+            int offset,
+            int limit) {
+        
         if (keyword == null || keyword.trim().isEmpty()) {
-            return new ArrayList<>();
+            return CascadeResult.EMPTY;
         }
         
+        int from = Math.max(0, offset);
+        int size = Math.max(0, limit);
+        ParsedQuery query = searchService.prepareQuery(keyword);
+        long generation = searchService.getGeneration();
+        List<Object> key = List.of(generation, query.getText(),
+                                   QueryCanonicalizer.canonicalFilters(districts),
+                                   QueryCanonicalizer.canonicalFilters(features),
+                                   includeGoogleResults, from, size);
+        return inFlight.execute(key,
+                () -> doCascadeSearch(keyword, query, generation, districts, features, includeGoogleResults, from, size));
+    }
+    
+    /**
+     * 實際執行分階段混合搜尋（不經過請求合併）
+     * 本地搜尋使用已解析的查詢，Google 搜尋使用原始關鍵字；
+     * generation 需在取回本地候選之前讀取（Google 結果快取的 key，見 SearchService.getGeneration）
+     */
+    private CascadeResult doCascadeSearch(
+            String keyword,
+            ParsedQuery query,
+            long generation,
+            List<String> districts,
+            List<String> features,
+            boolean includeGoogleResults,
+            int offset,
+            int limit) {
+        
         ArrayList<SearchResult> results = new ArrayList<>();
+        Map<String, Double> stageMillis = new LinkedHashMap<>();
+        int localTotal = 0;
+        int googleCount = 0;
+        int pageEnd = (int) Math.min((long) offset + limit, Integer.MAX_VALUE);
+        long start = System.nanoTime();
         
         try {
-            // Stage 1: 搜尋本地咖啡廳
-            ArrayList<SearchResult> localResults = searchService.search(keyword);
-            
-            // 對本地結果進行加權（提高優先級）
-            for (SearchResult result : localResults) {
+            // Stage 1: 取回本地候選（只選出前幾名，不排序全部咖啡廳）
+            //          加權不改變本地結果的順序，這一頁的本地結果一定在前 pageEnd 名之中；
+            //          只複製可能出現在這一頁的候選後加權（快取中的結果由多個請求共用）
+            int window = Math.max(0, retrievalDepth);
+            SearchPage candidates = searchService.advancedSearch(
+                    query, districts, features, 0, Math.max(pageEnd, window), false);
+            List<SearchResult> localResults = candidates.getResults();
+            localTotal = candidates.getTotal();
+            int depth = Math.min(pageEnd, localResults.size());
+            for (SearchResult candidate : localResults.subList(0, depth)) {
+                SearchResult result = new SearchResult(candidate);
                 result.setScore(result.getScore() * LOCAL_CAFE_SCORE_BOOST);
                 result.setSource("local");  // 標記來源
                 results.add(result);
             }
+            start = lap(stageMillis, "retrieve", start);
             
-            System.out.println("[HybridSearch] 本地搜尋完成: 找到 " + localResults.size() + " 家咖啡廳");
+            System.out.println("[HybridSearch] 本地搜尋完成: 找到 " + localTotal + " 家咖啡廳，取回 "
+                    + localResults.size() + " 筆候選，保留 " + depth + " 筆");
             
             // Stage 2: 如果需要，補充 Google 搜尋結果
+            //          只與固定的前 retrieval-depth 名去重（與分頁無關），每一頁合併的 Google 結果相同
             if (includeGoogleResults) {
-                ArrayList<SearchResult> googleResults = searchGoogleAndCreateResults(keyword);
-                
-                // 去重：避免本地結果重複出現
-                googleResults = deduplicateResults(googleResults, localResults);
-                
-                // 限制 Google 結果數量
-                if (googleResults.size() > GOOGLE_RESULTS_LIMIT) {
-                    googleResults = new ArrayList<>(googleResults.subList(0, GOOGLE_RESULTS_LIMIT));
-                }
-                
+                List<Object> key = List.of(generation, query.getText(),
+                                           QueryCanonicalizer.canonicalFilters(districts),
+                                           QueryCanonicalizer.canonicalFilters(features));
+                List<SearchResult> googleResults = googleStage(key, keyword,
+                        localResults.subList(0, Math.min(window, localResults.size())));
                 results.addAll(googleResults);
+                googleCount = googleResults.size();
+                start = lap(stageMillis, "google", start);
                 
                 System.out.println("[HybridSearch] Google 搜尋完成: 找到 " + googleResults.size() + " 個網頁結果");
             }
             
-            // Stage 3: 按分數排序
+            // Stage 3: 按分數排序後取出這一頁
             results.sort((a, b) -> Double.compare(b.getScore(), a.getScore()));
+            results = new ArrayList<>(results.subList(Math.min(offset, results.size()),
+                                                      Math.min(pageEnd, results.size())));
+            lap(stageMillis, "merge", start);
             
-            System.out.println("[HybridSearch] 最終結果數: " + results.size());
+            System.out.println("[HybridSearch] 最終結果數: " + results.size() + "，各階段耗時(ms): " + stageMillis);
             
         } catch (Exception e) {
             System.err.println("[HybridSearch] 混合搜尋出錯: " + e.getMessage());
             e.printStackTrace();
         }
         
-        return results;
+        return new CascadeResult(results, localTotal + googleCount, localTotal, offset, stageMillis);
+    }
+    
+    /**
+     * 記錄一個階段的耗時（毫秒，保留兩位小數）
+     * @return 目前時間，作為下一階段的起點
+     */
+    private static long lap(Map<String, Double> stageMillis, String stage, long start) {
+        long now = System.nanoTime();
+        stageMillis.put(stage, Math.round((now - start) / 10_000.0) / 100.0);
+        return now;
     }
     
     /**
      * 執行高級混合搜尋（含篩選條件）
+     * 篩選在第一階段以屬性索引進行（與進階搜尋相同，功能需全部符合），Google 結果不篩選
      * 
      * @param keyword 搜尋關鍵字
      * @param districts 地區列表
@@ -101,116 +256,95 @@ public class HybridSearchService {
             List<String> features,
             boolean includeGoogleResults) {
         
-        // 執行混合搜尋
-        ArrayList<SearchResult> results = hybridSearch(keyword, includeGoogleResults);
-        
-        // 對本地結果應用篩選（Google 結果不篩選）
-        ArrayList<SearchResult> filteredResults = new ArrayList<>();
-        
-        for (SearchResult result : results) {
-            // Google 結果直接加入
-            if ("google".equals(result.getSource())) {
-                filteredResults.add(result);
-                continue;
-            }
-            
-            // 本地結果應用篩選
-            boolean passDistrict = districts == null || districts.isEmpty() || 
-                    (result.getDistrict() != null && districts.contains(result.getDistrict()));
-            
-            boolean passFeatures = true;
-            if (features != null && !features.isEmpty()) {
-                List<String> resultFeatures = result.getFeatures();
-                if (resultFeatures != null) {
-                    passFeatures = features.stream().anyMatch(f -> resultFeatures.stream()
-                            .map(String::toLowerCase)
-                            .collect(Collectors.toList())
-                            .contains(f.toLowerCase()));
-                }
-            }
-            
-            if (passDistrict && passFeatures) {
-                filteredResults.add(result);
-            }
-        }
-        
-        return filteredResults;
+        return new ArrayList<>(cascadeSearch(keyword, districts, features, includeGoogleResults).results());
     }
     
     /**
-     * 從 Google 搜尋結果建立 SearchResult 列表
+     * 取得 Google 階段的結果（依查詢與篩選條件快取，翻頁時不重新搜尋、不重新抓取網頁）
+     * Google 搜尋失敗時返回空結果且不快取，下一次請求會重試
      * 
+     * @param key 快取 key（引擎世代、查詢的標準形式與排序後的篩選條件）
      * @param keyword 搜尋關鍵字
+     * @param window 用於去重的前 retrieval-depth 名本地候選
      * @return Google 搜尋結果列表
      */
-    private ArrayList<SearchResult> searchGoogleAndCreateResults(String keyword) {
-        ArrayList<SearchResult> results = new ArrayList<>();
+    private List<SearchResult> googleStage(List<Object> key, String keyword, List<SearchResult> window) {
+        Cache cache = cacheManager.getCache(CacheConfig.GOOGLE_RESULTS);
+        GoogleStage stage = (cache != null) ? cache.get(key, GoogleStage.class) : null;
+        if (stage != null) {
+            return stage.results();
+        }
         
         try {
-            // 執行 Google 搜尋
-            HashMap<String, String> googleResults = googleService.search(keyword);
-            
-            if (googleResults == null || googleResults.isEmpty()) {
-                System.out.println("[HybridSearch] Google 搜尋無結果");
-                return results;
-            }
-            
-            // 轉換為 SearchResult
-            int score = 100;  // Google 結果初始分數
-            for (Map.Entry<String, String> entry : googleResults.entrySet()) {
-                String title = entry.getKey();
-                String url = entry.getValue();
-                
-                // 建立 WebPage
-                WebPage page = new WebPage(url, title, "");
-                
-                // 建立 SearchResult
-                SearchResult result = new SearchResult(page, score);
-                result.setSource("google");
-                result.setGoogleResult(true);
-                
-                results.add(result);
-                score--;  // 按順序遞減分數
-            }
-            
+            stage = new GoogleStage(searchGoogleAndCreateResults(keyword, window));
         } catch (Exception e) {
             System.err.println("[HybridSearch] Google 搜尋失敗: " + e.getMessage());
+            return List.of();
         }
-        
-        return results;
+        if (cache != null) {
+            cache.put(key, stage);
+        }
+        return stage.results();
     }
     
     /**
-     * 去重：移除與本地結果重複的 Google 結果
+     * 從 Google 搜尋結果建立 SearchResult 列表
+     * 先以標題與 URL 和本地候選去重，只為保留的前 googleDepth 筆建立 WebPage（會抓取網頁內容）
      * 
-     * @param googleResults Google 搜尋結果
-     * @param localResults 本地搜尋結果
-     * @return 去重後的 Google 結果
+     * @param keyword 搜尋關鍵字
+     * @param localResults 本地候選（用於去重）
+     * @return Google 搜尋結果列表
+     * @throws IOException Google 搜尋失敗
      */
-    private ArrayList<SearchResult> deduplicateResults(
-            ArrayList<SearchResult> googleResults,
-            ArrayList<SearchResult> localResults) {
+    private List<SearchResult> searchGoogleAndCreateResults(String keyword, List<SearchResult> localResults)
+            throws IOException {
+        List<SearchResult> results = new ArrayList<>();
+        int limit = Math.max(0, googleDepth);
+        if (limit == 0) {
+            return results;
+        }
+        
+        // 執行 Google 搜尋
+        HashMap<String, String> googleResults = googleService.search(keyword);
+        
+        if (googleResults == null || googleResults.isEmpty()) {
+            System.out.println("[HybridSearch] Google 搜尋無結果");
+            return results;
+        }
         
-        // 建立本地 URL 集合
+        // 建立本地 URL 集合與名稱集合（用於模糊匹配）
         Set<String> localUrls = localResults.stream()
                 .map(r -> normalizeUrl(r.getUrl()))
                 .collect(Collectors.toSet());
-        
-        // 建立本地名稱集合（用於模糊匹配）
         Set<String> localNames = localResults.stream()
                 .map(r -> r.getName().toLowerCase().trim())
                 .collect(Collectors.toSet());
         
-        // 過濾重複的 Google 結果
-        return googleResults.stream()
-                .filter(googleResult -> {
-                    String googleUrl = normalizeUrl(googleResult.getUrl());
-                    String googleName = googleResult.getName().toLowerCase().trim();
-                    
-                    // 不匹配本地 URL 也不匹配本地名稱
-                    return !localUrls.contains(googleUrl) && !localNames.contains(googleName);
-                })
-                .collect(Collectors.toCollection(ArrayList::new));
+        // 轉換為 SearchResult
+        int score = 100;  // Google 結果初始分數
+        for (Map.Entry<String, String> entry : googleResults.entrySet()) {
+            String title = entry.getKey();
+            String url = entry.getValue();
+            
+            // 去重：不匹配本地 URL 也不匹配本地名稱
+            if (!localUrls.contains(normalizeUrl(url)) && !localNames.contains(title.toLowerCase().trim())) {
+                // 建立 WebPage
+                WebPage page = new WebPage(url, title, "");
+                
+                // 建立 SearchResult
+                SearchResult result = new SearchResult(page, score);
+                result.setSource("google");
+                result.setGoogleResult(true);
+                
+                results.add(result);
+                if (results.size() >= limit) {
+                    break;
+                }
+            }
+            score--;  // 按順序遞減分數
+        }
+        
+        return results;
     }
     
     /**
@@ -239,7 +373,8 @@ public class HybridSearchService {
     public Map<String, Object> getSearchStatistics(String keyword) {
         Map<String, Object> stats = new HashMap<>();
         
-        ArrayList<SearchResult> results = hybridSearch(keyword, true);
+        CascadeResult cascade = cascadeSearch(keyword, null, null, true);
+        List<SearchResult> results = cascade.results();
         
         long localCount = results.stream()
                 .filter(r -> "local".equals(r.getSource()))
@@ -250,9 +385,11 @@ public class HybridSearchService {
                 .count();
         
         stats.put("keyword", keyword);
-        stats.put("totalResults", results.size());
+        stats.put("totalResults", cascade.total());
         stats.put("localCafes", localCount);
         stats.put("googleResults", googleCount);
+        stats.put("localMatches", cascade.localTotal());
+        stats.put("stageMillis", cascade.stageMillis());
         stats.put("timestamp", new Date());
         
         return stats;
@@ -0,0 +1,22 @@
+package com.example.GoogleQuery.service;
+
+/**
+ * KeywordAddedEvent - 關鍵字新增事件
+ * KeywordService.addKeyword 新增關鍵字後發布，用於重建依關鍵字字典建立的索引
+ */
+public class KeywordAddedEvent {
+
+    private final String keyword;   // 新增的關鍵字
+
+    /**
+     * 建構子
+     * @param keyword 新增的關鍵字
+     */
+    public KeywordAddedEvent(String keyword) {
+        this.keyword = keyword;
+    }
+
+    public String getKeyword() {
+        return keyword;
+    }
+}
@@ -4,7 +4,9 @@ import com.example.GoogleQuery.model.Keyword;
 import com.example.GoogleQuery.model.KeywordTier;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Service;
 
@@ -40,6 +42,9 @@ public class KeywordService {
     
     // 注入從 DataLoaderConfig 載入的關鍵字列表
     private final ArrayList<Keyword> keywordList;
+
+    @Autowired(required = false)
+    private ApplicationEventPublisher eventPublisher;
     
     public KeywordService(@Qualifier("keywordList") ArrayList<Keyword> keywordList) {
         this.keywordList = keywordList;
@@ -425,7 +430,7 @@ public class KeywordService {
     }
 
     /**
-     * 新增關鍵字（動態擴充）
+     * 新增關鍵字（動態擴充），成功時發布 KeywordAddedEvent
      * @param keyword 關鍵字
      * @param weight 權重
      * @param tier 層級
@@ -445,6 +450,11 @@ public class KeywordService {
         
         // 加入對應的層級列表
         tierMap.computeIfAbsent(tier, k -> new ArrayList<>()).add(kw);
+
+        // 通知依關鍵字字典建立的索引（例如類似詞建議）重建
+        if (eventPublisher != null) {
+            eventPublisher.publishEvent(new KeywordAddedEvent(keyword));
+        }
         
         return true;
     }
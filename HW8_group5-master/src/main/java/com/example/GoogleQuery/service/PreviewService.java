@@ -186,8 +186,10 @@ public class PreviewService {
         int firstKeywordPos = -1;
         String foundKeyword = null;
         
+        // 快取的小寫內容與原文長度相同，位置可以直接對應回原文
+        String lowerContent = webPage.getLowerCaseContent();
         for (String keyword : keywords) {
-            int pos = content.toLowerCase().indexOf(keyword.toLowerCase());
+            int pos = lowerContent.indexOf(keyword.toLowerCase());
             if (pos != -1 && (firstKeywordPos == -1 || pos < firstKeywordPos)) {
                 firstKeywordPos = pos;
                 foundKeyword = keyword;
@@ -0,0 +1,196 @@
+package com.example.GoogleQuery.service;
+
+import com.example.GoogleQuery.util.ParsedQuery;
+import com.example.GoogleQuery.util.QueryCanonicalizer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * QueryWarmingService - 熱門查詢預熱服務
+ * 記錄每個搜尋請求（以標準形式計數），定期在背景重新計算最熱門的查詢並寫回快取，
+ * 讓熱門查詢在快取過期前就已更新；重新載入資料後也會立即重新預熱
+ *
+ * 預熱在單一低優先權執行緒上執行（最多一個等待中的預熱工作），
+ * 正在計算的搜尋過多時先退避等待，仍然忙碌則放棄本次預熱
+ */
+@Service
+public class QueryWarmingService {
+
+    static final int TOP_N = 20;                          // 每次預熱的查詢數量
+    static final int MAX_TRACKED = 1000;                  // 最多記錄的不同查詢數量
+    static final long REFRESH_INTERVAL_MILLIS = 300000;   // 每 5 分鐘預熱一次（搜尋快取 10 分鐘過期）
+    static final long BACKOFF_MILLIS = 100;               // 第一次退避等待時間（之後加倍）
+    static final int MAX_BACKOFF_ATTEMPTS = 4;            // 最多退避次數
+
+    @Autowired
+    private SearchService searchService;
+
+    private final ConcurrentHashMap<HotQuery, AtomicLong> counts = new ConcurrentHashMap<>();
+
+    private final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+        1, 1, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(1),
+        runnable -> {
+            Thread thread = new Thread(runnable, "query-warmer");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        },
+        new ThreadPoolExecutor.DiscardPolicy());
+
+    /**
+     * HotQuery - 一個可以重新計算的查詢（與搜尋快取的 key 對應）
+     * districts、features 為 null 表示基本搜尋
+     */
+    record HotQuery(String keyword, List<String> districts, List<String> features,
+                    int offset, int limit, boolean withFacets) {
+
+        boolean isAdvanced() {
+            return districts != null;
+        }
+    }
+
+    /**
+     * 記錄一次基本搜尋
+     * @param query 搜尋時已解析的標準形式（SearchService.prepareQuery，不再重新正規化）
+     * @param offset 起始位置
+     * @param limit 每頁數量
+     */
+    public void recordSearch(ParsedQuery query, int offset, int limit) {
+        if (!query.isEmpty()) {
+            record(new HotQuery(query.getText(), null, null, offset, limit, false));
+        }
+    }
+
+    /**
+     * 記錄一次進階搜尋
+     * @param query 搜尋時已解析的標準形式（SearchService.prepareQuery，不再重新正規化）
+     * @param districts 地區列表
+     * @param features 功能列表
+     * @param offset 起始位置
+     * @param limit 每頁數量
+     * @param withFacets 是否計算分面統計
+     */
+    public void recordAdvancedSearch(ParsedQuery query, List<String> districts, List<String> features,
+                                     int offset, int limit, boolean withFacets) {
+        record(new HotQuery(query.getText(),
+                            QueryCanonicalizer.canonicalFilters(districts),
+                            QueryCanonicalizer.canonicalFilters(features),
+                            offset, limit, withFacets));
+    }
+
+    private void record(HotQuery query) {
+        AtomicLong count = counts.get(query);
+        if (count == null) {
+            // 已記錄的查詢過多時不再加入新的查詢（下次預熱衰減後會釋出空間）
+            if (counts.size() >= MAX_TRACKED) {
+                return;
+            }
+            count = counts.computeIfAbsent(query, q -> new AtomicLong());
+        }
+        count.incrementAndGet();
+    }
+
+    /**
+     * 取得目前最熱門的查詢
+     * @param n 數量
+     * @return 依次數由多到少的查詢
+     */
+    List<HotQuery> hotQueries(int n) {
+        List<Map.Entry<HotQuery, Long>> entries = new ArrayList<>();
+        for (Map.Entry<HotQuery, AtomicLong> entry : counts.entrySet()) {
+            entries.add(Map.entry(entry.getKey(), entry.getValue().get()));
+        }
+        entries.sort((a, b) -> Long.compare(b.getValue(), a.getValue()));
+
+        List<HotQuery> hot = new ArrayList<>();
+        for (int i = 0; i < entries.size() && i < n; i++) {
+            hot.add(entries.get(i).getKey());
+        }
+        return hot;
+    }
+
+    /**
+     * 定期預熱（在背景執行緒排入一次預熱）
+     */
+    @Scheduled(initialDelay = REFRESH_INTERVAL_MILLIS, fixedDelay = REFRESH_INTERVAL_MILLIS)
+    public void scheduledRefresh() {
+        executor.execute(this::refreshHotQueries);
+    }
+
+    /**
+     * 資料重新載入後立即重新預熱
+     * @param event 重新載入事件
+     */
+    @EventListener
+    public void onCafeDataReloaded(CafeDataReloadedEvent event) {
+        executor.execute(this::refreshHotQueries);
+    }
+
+    /**
+     * 重新計算最熱門的查詢並寫回快取，完成後將所有計數減半（較久以前的熱門查詢逐漸淘汰）
+     * @return 實際預熱的查詢數量
+     */
+    int refreshHotQueries() {
+        int refreshed = 0;
+        try {
+            for (HotQuery query : hotQueries(TOP_N)) {
+                if (!waitForCapacity()) {
+                    System.out.println("[QueryWarming] 搜尋負載過高，略過本次預熱");
+                    break;
+                }
+                refresh(query);
+                refreshed++;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            System.err.println("[QueryWarming] 預熱失敗: " + e.getMessage());
+        } finally {
+            decay();
+        }
+        return refreshed;
+    }
+
+    private void refresh(HotQuery query) {
+        if (query.isAdvanced()) {
+            searchService.refreshAdvancedSearch(query.keyword(), query.districts(), query.features(),
+                                                query.offset(), query.limit(), query.withFacets());
+        } else {
+            searchService.refreshSearch(query.keyword(), query.offset(), query.limit());
+        }
+    }
+
+    /**
+     * 正在計算的搜尋過多時以指數退避等待
+     * @return true 如果可以繼續預熱
+     */
+    private boolean waitForCapacity() throws InterruptedException {
+        int busyThreshold = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        long wait = BACKOFF_MILLIS;
+        for (int attempt = 0; searchService.getActiveSearchCount() >= busyThreshold; attempt++) {
+            if (attempt >= MAX_BACKOFF_ATTEMPTS) {
+                return false;
+            }
+            Thread.sleep(wait);
+            wait *= 2;
+        }
+        return true;
+    }
+
+    private void decay() {
+        counts.entrySet().removeIf(entry -> entry.getValue().updateAndGet(c -> c / 2) == 0);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
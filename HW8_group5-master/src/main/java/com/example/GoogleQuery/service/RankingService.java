@@ -1,10 +1,12 @@
 package com.example.GoogleQuery.service;
 
+import com.example.GoogleQuery.config.CacheConfig;
 import com.example.GoogleQuery.model.SearchResult;
 import com.example.GoogleQuery.model.WebPage;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Service;
 
@@ -432,18 +434,20 @@ public class RankingService {
     }
 
     /**
-     * 設定或更新 baseline score
+     * 設定或更新 baseline score（會清除推薦快取）
      * @param cafeId 咖啡廳 ID
      * @param score 分數
      */
+    @CacheEvict(cacheNames = CacheConfig.RECOMMENDATIONS, allEntries = true)
     public void setBaselineScore(String cafeId, double score) {
         baselineScores.put(cafeId, score);
     }
 
     /**
-     * 批次設定 baseline scores
+     * 批次設定 baseline scores（會清除推薦快取）
      * @param scores Map（咖啡廳 ID -> 分數）
      */
+    @CacheEvict(cacheNames = CacheConfig.RECOMMENDATIONS, allEntries = true)
     public void setBaselineScores(Map<String, Double> scores) {
         baselineScores.putAll(scores);
     }
@@ -1,8 +1,10 @@
 package com.example.GoogleQuery.service;
 
+import com.example.GoogleQuery.config.CacheConfig;
 import com.example.GoogleQuery.model.Cafe;
 import com.example.GoogleQuery.model.SearchResult;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
@@ -26,6 +28,7 @@ public class RecommendationService {
      * @param limit 返回數量
      * @return 熱門推薦列表
      */
+    @Cacheable(cacheNames = CacheConfig.RECOMMENDATIONS, key = "'top:' + #limit")
     public ArrayList<SearchResult> getTopRecommendations(int limit) {
         // 獲取所有咖啡廳
         List<Cafe> allCafes = searchService.getAllCafes();
@@ -56,6 +59,7 @@ public class RecommendationService {
      * @param limit 返回數量
      * @return 該地區的推薦列表
      */
+    @Cacheable(cacheNames = CacheConfig.RECOMMENDATIONS, key = "{'district', #district, #limit}")
     public ArrayList<SearchResult> getRecommendationsByDistrict(String district, int limit) {
         // 先搜尋該地區的咖啡廳
         ArrayList<SearchResult> districtCafes = searchService.searchByDistrict(district);
@@ -80,6 +84,7 @@ public class RecommendationService {
      * @param limit 返回數量
      * @return 符合該特性的推薦列表
      */
+    @Cacheable(cacheNames = CacheConfig.RECOMMENDATIONS, key = "{'feature', #feature, #limit}")
     public ArrayList<SearchResult> getRecommendationsByFeature(String feature, int limit) {
         // 搜尋有該功能的咖啡廳
         ArrayList<SearchResult> featureCafes = searchService.searchByFeature(feature);
@@ -105,6 +110,7 @@ public class RecommendationService {
      * @param limit 返回數量
      * @return 綜合推薦列表
      */
+    @Cacheable(cacheNames = CacheConfig.RECOMMENDATIONS, key = "{'combined', #districts, #features, #limit}")
     public ArrayList<SearchResult> getCombinedRecommendations(
             List<String> districts,
             List<String> features,
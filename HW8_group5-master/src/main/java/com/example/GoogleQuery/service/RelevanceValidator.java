@@ -1,7 +1,11 @@
 package com.example.GoogleQuery.service;
 
+import com.example.GoogleQuery.model.Cafe;
 import com.example.GoogleQuery.model.Keyword;
+import com.example.GoogleQuery.repository.CafeRepository;
+import com.example.GoogleQuery.util.SpellIndex;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
@@ -10,6 +14,9 @@ import java.util.stream.Collectors;
 /**
  * RelevanceValidator - 搜尋詞相關性檢查服務
  * 判斷搜尋關鍵字是否與咖啡廳、讀書、工作相關
+ *
+ * 類似詞建議使用 SpellIndex（關鍵字字典、咖啡廳領域詞彙、咖啡廳名稱），
+ * 關鍵字新增或咖啡廳資料重新載入時重建
  */
 @Service
 public class RelevanceValidator {
@@ -17,6 +24,14 @@ public class RelevanceValidator {
     @Autowired
     private KeywordService keywordService;
 
+    @Autowired
+    private CafeRepository cafeRepository;
+
+    private static final int MAX_EDIT_DISTANCE = 2;   // 類似詞的最大編輯距離
+    private static final int MAX_SUGGESTIONS = 5;     // 最多建議詞數量
+
+    private volatile SpellIndex spellIndex;           // 類似詞索引（字典變動時設為 null，下次使用時重建）
+
     // 咖啡廳相關領域的核心詞彙
     private static final Set<String> COFFEE_DOMAIN_KEYWORDS = new HashSet<>(Arrays.asList(
             "咖啡", "咖啡廳", "咖啡館", "咖啡店", "cafe", "coffee",
@@ -106,29 +121,65 @@ public class RelevanceValidator {
     }
 
     /**
-     * 尋找類似的關鍵字（使用編輯距離）
+     * 尋找類似的關鍵字（編輯距離不超過 2，距離近的優先）
      */
     private List<String> findSimilarKeywords(String term) {
-        List<String> similar = new ArrayList<>();
+        return getSpellIndex().lookup(term, MAX_SUGGESTIONS);
+    }
 
-        // 從 KeywordService 的所有關鍵字中尋找相似詞
-        List<Keyword> allKeywords = keywordService.getAllKeywords();
-        
-        for (Keyword kw : allKeywords) {
-            String kwTerm = kw.getName().toLowerCase();
-            if (calculateLevenshteinDistance(term, kwTerm) <= 2) {
-                similar.add(kw.getName());
+    /**
+     * 取得類似詞索引（尚未建立或已失效時重新建立）
+     * 字典順序：KeywordService 的關鍵字、預定義的咖啡廳詞彙、咖啡廳名稱
+     */
+    private SpellIndex getSpellIndex() {
+        SpellIndex current = spellIndex;
+        if (current == null) {
+            synchronized (this) {
+                current = spellIndex;
+                if (current == null) {
+                    List<String> words = new ArrayList<>();
+                    for (Keyword kw : keywordService.getAllKeywords()) {
+                        words.add(kw.getName());
+                    }
+                    words.addAll(COFFEE_DOMAIN_KEYWORDS);
+                    for (Cafe cafe : cafeRepository.findAll()) {
+                        words.add(cafe.getName());
+                    }
+                    current = new SpellIndex(words, MAX_EDIT_DISTANCE);
+                    spellIndex = current;
+                }
             }
         }
+        return current;
+    }
 
-        // 也檢查預定義的咖啡廳詞彙
-        for (String keyword : COFFEE_DOMAIN_KEYWORDS) {
-            if (calculateLevenshteinDistance(term, keyword) <= 2) {
-                similar.add(keyword);
-            }
-        }
+    /**
+     * 關鍵字字典變動時使類似詞索引失效
+     * @param event 關鍵字新增事件
+     */
+    @EventListener
+    public void onKeywordAdded(KeywordAddedEvent event) {
+        invalidateSpellIndex();
+    }
+
+    /**
+     * 咖啡廳資料重新載入時使類似詞索引失效（咖啡廳名稱可能改變）
+     * @param event 重新載入事件
+     */
+    @EventListener
+    public void onCafeDataReloaded(CafeDataReloadedEvent event) {
+        invalidateSpellIndex();
+    }
 
-        return similar.stream().distinct().limit(5).collect(Collectors.toList());
+    /**
+     * 使類似詞索引失效
+     * 與 getSpellIndex 的建立使用同一把鎖：正在建立的（舊字典）索引會先寫入，
+     * 再由這裡清除，不會在失效之後才被寫回
+     */
+    private void invalidateSpellIndex() {
+        synchronized (this) {
+            spellIndex = null;
+        }
     }
 
     /**
@@ -153,35 +204,6 @@ public class RelevanceValidator {
             .collect(Collectors.toList());
     }
 
-    /**
-     * 計算 Levenshtein 距離（編輯距離）
-     */
-    private int calculateLevenshteinDistance(String s1, String s2) {
-        int len1 = s1.length();
-        int len2 = s2.length();
-        int[][] dp = new int[len1 + 1][len2 + 1];
-
-        for (int i = 0; i <= len1; i++) {
-            dp[i][0] = i;
-        }
-        for (int j = 0; j <= len2; j++) {
-            dp[0][j] = j;
-        }
-
-        for (int i = 1; i <= len1; i++) {
-            for (int j = 1; j <= len2; j++) {
-                if (s1.charAt(i - 1) == s2.charAt(j - 1)) {
-                    dp[i][j] = dp[i - 1][j - 1];
-                } else {
-                    dp[i][j] = 1 + Math.min(dp[i - 1][j], 
-                                      Math.min(dp[i][j - 1], dp[i - 1][j - 1]));
-                }
-            }
-        }
-
-        return dp[len1][len2];
-    }
-
     /**
      * 相關性檢查結果物件
      */
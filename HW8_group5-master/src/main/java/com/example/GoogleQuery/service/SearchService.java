@@ -1,21 +1,36 @@
 package com.example.GoogleQuery.service;
 
+import com.example.GoogleQuery.config.CacheConfig;
+import com.example.GoogleQuery.core.CompletionIndex;
+import com.example.GoogleQuery.core.CompletionPopularity;
 import com.example.GoogleQuery.core.SearchEngine;
 import com.example.GoogleQuery.model.Cafe;
+import com.example.GoogleQuery.model.FacetCounts;
+import com.example.GoogleQuery.model.SearchPage;
 import com.example.GoogleQuery.model.SearchResult;
 import com.example.GoogleQuery.model.WebPage;
-import com.example.GoogleQuery.filter.DistrictFilter;
-import com.example.GoogleQuery.filter.FeatureFilter;
+import com.example.GoogleQuery.util.ParsedQuery;
+import com.example.GoogleQuery.util.QueryCanonicalizer;
+import com.example.GoogleQuery.util.SingleFlight;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -34,9 +49,37 @@ public class SearchService {
     @Autowired
     private GoogleService googleService;
 
-    private SearchEngine searchEngine;
-    private List<Cafe> allCafes;
-    private Map<String, Cafe> cafeMap; // 以 cafeId 為鍵的咖啡廳映射
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // 重新載入資料時整組替換，進行中的查詢仍使用舊的資料
+    private volatile SearchEngine searchEngine;
+    private volatile List<Cafe> allCafes;
+    private volatile Map<String, Cafe> cafeMap; // 以 cafeId 為鍵的咖啡廳映射
+
+    // 單一查詢的分段平行計分（search.parallelism 為 0 時使用 CPU 核心數，1 表示停用）
+    @Value("${search.parallelism:0}")
+    private int parallelism;
+
+    @Value("${search.parallel-threshold:20000}")
+    private int parallelThreshold;      // 咖啡廳數量達到此值才平行計分
+
+    @Value("${search.segment-size:4096}")
+    private int segmentSize;            // 每個分段的咖啡廳數量
+
+    private ForkJoinPool scoringPool;   // 計分專用的執行緒池（不與 common pool 共用）
+
+    static final long POPULARITY_DECAY_MILLIS = 3600000;  // 每小時將自動完成的熱門程度減半
+
+    // 自動完成的熱門程度（不放在 SearchEngine 中，重新載入資料替換引擎後仍保留）
+    private final CompletionPopularity popularity = new CompletionPopularity();
+
+    // 快取未命中時，相同的查詢（標準形式 + 篩選條件 + 分頁）同時只計算一次
+    private static final long SEARCH_WAIT_MILLIS = 5000;
+    private final SingleFlight<List<Object>, SearchPage> inFlight = new SingleFlight<>(SEARCH_WAIT_MILLIS);
 
     /**
      * 初始化：載入咖啡廳資料和建立 WebPage
@@ -45,19 +88,15 @@ public class SearchService {
     public void init() {
         try {
             // 載入咖啡廳資料
-            loadCafesData();
+            List<Cafe> cafes = loadCafesData();
             
             // 建立 WebPage 物件
             // createWebPages();
             
-            // 初始化搜尋引擎
-            searchEngine = new SearchEngine(keywordService, rankingService);
-            
-            // ✅ 直接將 Cafe 當作 WebPage 使用（因為 Cafe extends WebPage）
-            ArrayList<WebPage> webPages = new ArrayList<>(allCafes);
-            for (WebPage page : webPages) {
-                searchEngine.addPage(page);
-            }
+            // 初始化搜尋引擎（同時建立關鍵字出現次數矩陣與倒排索引）
+            searchEngine = createSearchEngine(cafes);
+            cafeMap = toCafeMap(cafes);
+            allCafes = cafes;
 
             System.out.println("SearchService 初始化完成：已載入 " + allCafes.size() + " 家咖啡廳");
             
@@ -69,27 +108,108 @@ public class SearchService {
 
     /**
      * 從 JSON 載入咖啡廳資料
+     * @return 咖啡廳列表
      */
-    private void loadCafesData() throws IOException {
+    private List<Cafe> loadCafesData() throws IOException {
         ObjectMapper mapper = new ObjectMapper();
-        InputStream inputStream = new ClassPathResource("data/cafes.json").getInputStream();
-        
-        allCafes = mapper.readValue(inputStream, new TypeReference<List<Cafe>>() {});
+        List<Cafe> cafes;
+        try (InputStream inputStream = new ClassPathResource("data/cafes.json").getInputStream()) {
+            cafes = mapper.readValue(inputStream, new TypeReference<List<Cafe>>() {});
+        }
         
-        if (allCafes == null) {
-            allCafes = new ArrayList<>();
+        if (cafes == null) {
+            cafes = new ArrayList<>();
         }
         
         // ✨ 解析 keywords 並設定功能布林值
-        for (Cafe cafe : allCafes) {
+        for (Cafe cafe : cafes) {
             parseKeywordsToFeatures(cafe);
             // 構建可搜尋內容（重要！讓分數計算能正確運作）
             cafe.buildSearchableContent();
         }
 
-        cafeMap = allCafes.stream()
+        return cafes;
+    }
+
+    /**
+     * 建立搜尋引擎並預先計算所有咖啡廳的關鍵字出現次數
+     * @param cafes 咖啡廳列表
+     * @return 已建立索引的搜尋引擎
+     */
+    private SearchEngine createSearchEngine(List<Cafe> cafes) {
+        SearchEngine engine = new SearchEngine(keywordService, rankingService);
+        engine.setParallelScoring(getScoringPool(), parallelThreshold, segmentSize);
+        
+        // ✅ 直接將 Cafe 當作 WebPage 使用（因為 Cafe extends WebPage）
+        for (WebPage page : cafes) {
+            engine.addPage(page);
+        }
+
+        // 資料載入完成後一次建立出現次數矩陣與倒排索引，查詢時不再讀取咖啡廳文字
+        engine.buildIndex();
+        return engine;
+    }
+
+    /**
+     * 取得計分專用的執行緒池（第一次使用時建立，停用平行計分時返回 null）
+     */
+    private synchronized ForkJoinPool getScoringPool() {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        if (scoringPool == null && threads > 1) {
+            scoringPool = new ForkJoinPool(threads);
+        }
+        return scoringPool;
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (scoringPool != null) {
+            scoringPool.shutdownNow();
+        }
+    }
+
+    /**
+     * 建立以 cafeId 為鍵的咖啡廳映射
+     */
+    private Map<String, Cafe> toCafeMap(List<Cafe> cafes) {
+        return cafes.stream()
                 .collect(Collectors.toMap(Cafe::getId, cafe -> cafe));
     }
+
+    /**
+     * 重新載入資料
+     * 先在背景建立新的咖啡廳資料與索引，完成後才替換，查詢不會看到載入到一半的狀態
+     * 完成後清除搜尋、比較、推薦快取，避免回傳舊資料的結果，再發布事件讓熱門查詢重新預熱
+     * （清除必須在預熱之前，因此不使用 @CacheEvict）；搜尋快取的 key 包含引擎的世代，
+     * 清除後才完成的舊查詢寫入的結果不會被新的請求讀到
+     * @return true 如果重新載入成功
+     */
+    public boolean reloadData() {
+        try {
+            List<Cafe> cafes = loadCafesData();
+            SearchEngine engine = createSearchEngine(cafes);
+            Map<String, Cafe> map = toCafeMap(cafes);
+
+            searchEngine = engine;
+            cafeMap = map;
+            allCafes = cafes;
+
+            for (String name : new String[]{ CacheConfig.SEARCH_RESULTS, CacheConfig.COMPARISONS,
+                                             CacheConfig.RECOMMENDATIONS, CacheConfig.GOOGLE_RESULTS }) {
+                Cache cache = cacheManager.getCache(name);
+                if (cache != null) {
+                    cache.clear();
+                }
+            }
+            eventPublisher.publishEvent(new CafeDataReloadedEvent(cafes.size()));
+
+            System.out.println("資料重新載入完成：已載入 " + cafes.size() + " 家咖啡廳");
+            return true;
+        } catch (IOException e) {
+            System.err.println("資料重新載入失敗: " + e.getMessage());
+            return false;
+        }
+    }
     
     /**
      * 解析 keywords 字符串並設定對應的功能布林值
@@ -194,29 +314,165 @@ public class SearchService {
     }
     */
 
+    /**
+     * 取得查詢的標準形式（見 SearchEngine.canonicalQuery）
+     * 意思相同的查詢會得到相同的標準形式，共用同一筆快取
+     * @param keyword 搜尋關鍵字
+     * @return 標準形式（null 或空白時返回空字串）
+     */
+    public String canonicalQuery(String keyword) {
+        return prepareQuery(keyword).getText();
+    }
+
+    /**
+     * 正規化並解析查詢（見 SearchEngine.prepareQuery）
+     * 每個請求只在入口呼叫一次，快取 key、請求合併與搜尋引擎都使用同一個結果
+     * @param keyword 搜尋關鍵字
+     * @return 已解析的標準形式
+     */
+    public ParsedQuery prepareQuery(String keyword) {
+        return prepareQuery(searchEngine, keyword);
+    }
+
+    /**
+     * 以指定的引擎正規化並解析查詢（同一個請求的標準形式與計算使用同一個引擎）
+     */
+    private static ParsedQuery prepareQuery(SearchEngine engine, String keyword) {
+        return engine != null ? engine.prepareQuery(keyword) : ParsedQuery.parse(QueryCanonicalizer.canonicalize(keyword));
+    }
+
+    /**
+     * 取得目前搜尋引擎的世代（依本地資料計算的其他快取也以此區分重新載入前後，例如混合搜尋的 Google 結果）
+     * 應在取得本地結果之前讀取：之後取得的結果一定來自相同或更新的引擎
+     * @return 世代編號（尚未初始化時為 0）
+     */
+    public long getGeneration() {
+        return generation(searchEngine);
+    }
+
+    /**
+     * 引擎的世代（快取與請求合併的 key 使用，重新載入後舊引擎算出的結果不會被讀到）
+     */
+    private static long generation(SearchEngine engine) {
+        return engine != null ? engine.getGeneration() : 0;
+    }
+
     /**
      * 基本搜尋
+     * 呼叫端可能修改結果（例如混合搜尋的加權），因此不與其他請求共用結果
      * @param keyword 搜尋關鍵字
      * @return 搜尋結果列表
      */
     public ArrayList<SearchResult> search(String keyword) {
-        if (keyword == null || keyword.trim().isEmpty()) {
-            return new ArrayList<>();
+        SearchEngine engine = searchEngine;
+        return new ArrayList<>(searchPage(engine, prepareQuery(engine, keyword), 0, Integer.MAX_VALUE).getResults());
+    }
+
+    /**
+     * 分頁搜尋
+     * 只選出這一頁需要的結果，不排序全部咖啡廳；標準形式相同的查詢與相同的分頁參數會使用快取，
+     * 快取未命中時同時進行的相同查詢只計算一次；key 包含引擎的世代，
+     * 重新載入前開始的查詢即使在清除快取後才完成，也不會被之後的請求讀到或合併
+     * @param keyword 搜尋關鍵字
+     * @param offset 起始位置
+     * @param limit 每頁數量
+     * @return 分頁結果（結果由多個請求共用，呼叫端不應修改）
+     * @throws IllegalStateException 等待相同查詢的結果逾時
+     */
+    public SearchPage search(String keyword, int offset, int limit) {
+        SearchEngine engine = searchEngine;
+        return search(engine, prepareQuery(engine, keyword), offset, limit);
+    }
+
+    /**
+     * 以已解析的查詢分頁搜尋（呼叫端已用 prepareQuery 正規化、解析，並將同一個結果交給熱門查詢記錄）
+     * @param query 已解析的標準形式
+     * @param offset 起始位置
+     * @param limit 每頁數量
+     * @return 分頁結果（結果由多個請求共用，呼叫端不應修改）
+     * @throws IllegalStateException 等待相同查詢的結果逾時
+     */
+    public SearchPage search(ParsedQuery query, int offset, int limit) {
+        return search(searchEngine, query, offset, limit);
+    }
+
+    /**
+     * 以指定的引擎分頁搜尋（經過快取與請求合併，key 包含引擎的世代）
+     */
+    private SearchPage search(SearchEngine engine, ParsedQuery query, int offset, int limit) {
+        if (query.isEmpty()) {
+            return SearchPage.empty(offset, limit);
+        }
+        List<Object> key = List.of("search", generation(engine), query.getText(), offset, limit);
+        return cached(key, () -> inFlight.execute(key, () -> searchPage(engine, query, offset, limit)));
+    }
+
+    /**
+     * 重新計算分頁搜尋並寫回快取（熱門查詢預熱使用，key 與 search 相同）
+     * @param keyword 搜尋關鍵字
+     * @param offset 起始位置
+     * @param limit 每頁數量
+     * @return 分頁結果
+     */
+    public SearchPage refreshSearch(String keyword, int offset, int limit) {
+        SearchEngine engine = searchEngine;
+        ParsedQuery query = prepareQuery(engine, keyword);
+        return put(List.of("search", generation(engine), query.getText(), offset, limit),
+                   searchPage(engine, query, offset, limit));
+    }
+
+    /**
+     * 取得目前正在計算（快取未命中）的搜尋數量，用於判斷搜尋負載
+     * @return 正在計算的搜尋數量
+     */
+    public int getActiveSearchCount() {
+        return inFlight.inFlightCount();
+    }
+
+    /**
+     * 讀取搜尋結果快取，未命中時計算並寫入（key 由呼叫端以標準形式組成，不需再正規化查詢）
+     * @param key 快取 key
+     * @param loader 快取未命中時計算結果
+     * @return 分頁結果
+     */
+    private SearchPage cached(List<Object> key, Supplier<SearchPage> loader) {
+        Cache cache = cacheManager.getCache(CacheConfig.SEARCH_RESULTS);
+        SearchPage page = (cache != null) ? cache.get(key, SearchPage.class) : null;
+        if (page == null) {
+            page = put(key, loader.get());
+        }
+        return page;
+    }
+
+    /**
+     * 將結果寫入搜尋結果快取
+     * @param key 快取 key
+     * @param page 分頁結果
+     * @return 同一個分頁結果
+     */
+    private SearchPage put(List<Object> key, SearchPage page) {
+        Cache cache = cacheManager.getCache(CacheConfig.SEARCH_RESULTS);
+        if (cache != null) {
+            cache.put(key, page);
+        }
+        return page;
+    }
+
+    /**
+     * 以標準形式的查詢執行分頁搜尋（不經過快取與請求合併）
+     */
+    private SearchPage searchPage(SearchEngine engine, ParsedQuery query, int offset, int limit) {
+        if (query.isEmpty()) {
+            return SearchPage.empty(offset, limit);
         }
 
         try {
-            // 使用搜尋引擎進行搜尋
-            ArrayList<WebPage> webPages = new ArrayList<>(allCafes);
-            ArrayList<SearchResult> results = searchEngine.search(keyword, webPages);
-            
-            // 補充咖啡廳詳細資訊
-            // enrichSearchResults(results);
-            
-            return results;
+            // 使用搜尋引擎進行搜尋（引擎內已包含所有咖啡廳與預先計算的索引）
+            return engine.searchPage(query, null, null, offset, limit, false);
             
         } catch (Exception e) {
             System.err.println("搜尋錯誤: " + e.getMessage());
-            return new ArrayList<>();
+            return SearchPage.empty(offset, limit);
         }
     }
 
@@ -232,36 +488,169 @@ public class SearchService {
             List<String> districts,
             List<String> features) {
 
-        ArrayList<SearchResult> results;
-        
-        // 如果關鍵字為空且有篩選條件，則先取得所有咖啡廳
-        if ((keyword == null || keyword.trim().isEmpty()) && 
-            ((districts != null && !districts.isEmpty()) || 
-             (features != null && !features.isEmpty()))) {
-            // 將所有咖啡廳轉換為 SearchResult
-            results = new ArrayList<>();
-            for (Cafe cafe : allCafes) {
-                SearchResult result = new SearchResult(cafe);
-                results.add(result);
-            }
-        } else {
-            // 有關鍵字時使用正常搜尋
-            results = search(keyword);
+        // 呼叫端可能修改結果（例如推薦服務設定分數），因此不與其他請求共用結果
+        SearchEngine engine = searchEngine;
+        return new ArrayList<>(advancedPage(engine, prepareQuery(engine, keyword), districts, features,
+                                            0, Integer.MAX_VALUE, false).getResults());
+    }
+
+    /**
+     * 分頁進階搜尋（支援地區和功能篩選）
+     * @param keyword 搜尋關鍵字（空字串時搜尋全部）
+     * @param districts 地區列表
+     * @param features 功能列表
+     * @param offset 起始位置
+     * @param limit 每頁數量
+     * @return 分頁結果
+     */
+    public SearchPage advancedSearch(
+            String keyword,
+            List<String> districts,
+            List<String> features,
+            int offset,
+            int limit) {
+
+        return advancedSearch(keyword, districts, features, offset, limit, false);
+    }
+
+    /**
+     * 分頁進階搜尋，可同時回傳符合結果的地區、功能分面統計
+     * 標準形式相同的查詢、相同的篩選條件（不論順序）與分頁參數會使用快取，
+     * 快取未命中時同時進行的相同查詢只計算一次
+     * @param keyword 搜尋關鍵字（空字串時搜尋全部）
+     * @param districts 地區列表
+     * @param features 功能列表
+     * @param offset 起始位置
+     * @param limit 每頁數量
+     * @param withFacets 是否計算分面統計
+     * @return 分頁結果（結果由多個請求共用，呼叫端不應修改）
+     * @throws IllegalStateException 等待相同查詢的結果逾時
+     */
+    public SearchPage advancedSearch(
+            String keyword,
+            List<String> districts,
+            List<String> features,
+            int offset,
+            int limit,
+            boolean withFacets) {
+
+        SearchEngine engine = searchEngine;
+        return advancedSearch(engine, prepareQuery(engine, keyword), districts, features, offset, limit, withFacets);
+    }
+
+    /**
+     * 以已解析的查詢分頁進階搜尋（呼叫端已用 prepareQuery 正規化、解析，例如混合搜尋）
+     * @param query 已解析的標準形式
+     * @param districts 地區列表
+     * @param features 功能列表
+     * @param offset 起始位置
+     * @param limit 每頁數量
+     * @param withFacets 是否計算分面統計
+     * @return 分頁結果（結果由多個請求共用，呼叫端不應修改）
+     * @throws IllegalStateException 等待相同查詢的結果逾時
+     */
+    public SearchPage advancedSearch(
+            ParsedQuery query,
+            List<String> districts,
+            List<String> features,
+            int offset,
+            int limit,
+            boolean withFacets) {
+
+        return advancedSearch(searchEngine, query, districts, features, offset, limit, withFacets);
+    }
+
+    /**
+     * 以指定的引擎分頁進階搜尋（經過快取與請求合併，key 包含引擎的世代）
+     */
+    private SearchPage advancedSearch(
+            SearchEngine engine,
+            ParsedQuery query,
+            List<String> districts,
+            List<String> features,
+            int offset,
+            int limit,
+            boolean withFacets) {
+
+        List<Object> key = advancedKey(generation(engine), query, districts, features, offset, limit, withFacets);
+        return cached(key, () -> inFlight.execute(
+            key, () -> advancedPage(engine, query, districts, features, offset, limit, withFacets)));
+    }
+
+    /**
+     * 重新計算分頁進階搜尋並寫回快取（熱門查詢預熱使用，key 與 advancedSearch 相同）
+     * @param keyword 搜尋關鍵字
+     * @param districts 地區列表
+     * @param features 功能列表
+     * @param offset 起始位置
+     * @param limit 每頁數量
+     * @param withFacets 是否計算分面統計
+     * @return 分頁結果
+     */
+    public SearchPage refreshAdvancedSearch(
+            String keyword,
+            List<String> districts,
+            List<String> features,
+            int offset,
+            int limit,
+            boolean withFacets) {
+
+        SearchEngine engine = searchEngine;
+        ParsedQuery query = prepareQuery(engine, keyword);
+        return put(advancedKey(generation(engine), query, districts, features, offset, limit, withFacets),
+                   advancedPage(engine, query, districts, features, offset, limit, withFacets));
+    }
+
+    /**
+     * 分頁進階搜尋的快取 key（引擎的世代、標準形式的查詢、排序後的篩選條件與分頁參數）
+     */
+    private static List<Object> advancedKey(long generation, ParsedQuery query, List<String> districts,
+                                            List<String> features, int offset, int limit, boolean withFacets) {
+        return List.of("advanced", generation, query.getText(),
+                       QueryCanonicalizer.canonicalFilters(districts),
+                       QueryCanonicalizer.canonicalFilters(features),
+                       offset, limit, withFacets);
+    }
+
+    /**
+     * 以標準形式的查詢執行分頁進階搜尋（不經過快取與請求合併）
+     */
+    private SearchPage advancedPage(
+            SearchEngine engine,
+            ParsedQuery query,
+            List<String> districts,
+            List<String> features,
+            int offset,
+            int limit,
+            boolean withFacets) {
+
+        boolean hasFilters = (districts != null && !districts.isEmpty()) ||
+                             (features != null && !features.isEmpty());
+
+        // 如果關鍵字為空且有篩選條件，直接以屬性索引篩選咖啡廳
+        if (query.isEmpty() && hasFilters) {
+            return engine.filterPage(districts, features, offset, limit, withFacets);
         }
 
-        // 應用地區篩選
-        if (districts != null && !districts.isEmpty()) {
-            DistrictFilter districtFilter = new DistrictFilter(districts);
-            results = districtFilter.filter(results);
+        if (query.isEmpty()) {
+            return emptyPage(offset, limit, withFacets);
         }
 
-        // 應用功能篩選
-        if (features != null && !features.isEmpty()) {
-            FeatureFilter featureFilter = new FeatureFilter(features);
-            results = featureFilter.filter(results);
+        // 有關鍵字時：在全部咖啡廳上計分後篩選，並只選出這一頁的結果
+        try {
+            return engine.searchPage(query, districts, features, offset, limit, withFacets);
+        } catch (Exception e) {
+            System.err.println("搜尋錯誤: " + e.getMessage());
+            return emptyPage(offset, limit, withFacets);
         }
+    }
 
-        return results;
+    /**
+     * 建立空的分頁結果（有要求分面統計時附帶空的統計）
+     */
+    private SearchPage emptyPage(int offset, int limit, boolean withFacets) {
+        return withFacets ? new SearchPage(new ArrayList<>(), 0, offset, limit, FacetCounts.empty())
+                          : SearchPage.empty(offset, limit);
     }
 
     /**
@@ -434,13 +823,58 @@ public class SearchService {
         return new ArrayList<>(featuresSet);
     }
 
+    /**
+     * 獲取搜尋建議（自動完成）
+     * 從關鍵字、咖啡廳名稱與 Hashtag 中找出包含輸入文字的詞（見 CompletionIndex）
+     * @param query 查詢字串
+     * @return 建議列表（最多 10 個）
+     */
     public List<String> getSearchSuggestions(String query) {
-        if (query == null || query.length() < 2) return new ArrayList<>();
-        List<String> allKeywords = keywordService.getAllKeywordsName();
-        return allKeywords.stream()
-                .filter(k -> k.contains(query))
-                .limit(10)
-                .collect(Collectors.toList());
+        if (query == null || query.trim().isEmpty()) return new ArrayList<>();
+        return searchEngine.getSearchSuggestions(query, popularity);
+    }
+
+    /**
+     * 邊打字邊預覽搜尋結果（不經過快取，每次按鍵呼叫）
+     * @param query 部分查詢字串
+     * @param limit 數量
+     * @return 預覽結果
+     */
+    public List<SearchResult> preview(String query, int limit) {
+        if (query == null || query.trim().isEmpty()) return new ArrayList<>();
+        return searchEngine.preview(query, limit);
+    }
+
+    /**
+     * 自動完成（可指定數量與篩選條件）
+     * @param query 查詢字串
+     * @param limit 數量
+     * @param filter 只保留符合條件的候選詞（null 表示不篩選）
+     * @return 候選詞列表
+     */
+    public List<CompletionIndex.Suggestion> complete(String query, int limit,
+                                                     Predicate<CompletionIndex.Suggestion> filter) {
+        if (query == null || query.trim().isEmpty()) return new ArrayList<>();
+        return searchEngine.complete(query, limit, popularity, filter);
+    }
+
+    /**
+     * 記錄一次使用者搜尋（提高該詞在自動完成中的排名）
+     * @param query 搜尋時已解析的標準形式（prepareQuery）
+     */
+    public void recordQuery(ParsedQuery query) {
+        SearchEngine engine = searchEngine;
+        if (engine != null) {
+            engine.recordQuery(query, popularity);
+        }
+    }
+
+    /**
+     * 定期將自動完成的熱門程度減半（最近的搜尋影響較大）
+     */
+    @Scheduled(initialDelay = POPULARITY_DECAY_MILLIS, fixedDelay = POPULARITY_DECAY_MILLIS)
+    public void decayPopularity() {
+        popularity.decay();
     }
 
     /**
@@ -600,19 +1034,6 @@ public class SearchService {
         return stats;
     }
 
-    /**
-     * 重新載入資料
-    
-    public void reloadData() {
-        try {
-            loadCafesData();
-            createWebPages();
-            System.out.println("資料重新載入完成");
-        } catch (IOException e) {
-            System.err.println("資料重新載入失敗: " + e.getMessage());
-        }
-    }
-
     /**
      * 檢查服務狀態
     
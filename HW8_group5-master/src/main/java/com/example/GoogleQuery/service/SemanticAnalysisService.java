@@ -1,5 +1,6 @@
 package com.example.GoogleQuery.service;
 
+import com.example.GoogleQuery.util.SpellIndex;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -226,49 +227,12 @@ public class SemanticAnalysisService {
         }
         
         // 檢查字符串相似度（Levenshtein）
-        double levenshteinSim = 1.0 - ((double) levenshteinDistance(word1, word2) / 
+        double levenshteinSim = 1.0 - ((double) SpellIndex.distance(word1, word2) / 
                                        Math.max(word1.length(), word2.length()));
         
         return Math.max(levenshteinSim, 0.0);
     }
     
-    /**
-     * 計算 Levenshtein 距離
-     * 
-     * @param s1 字串 1
-     * @param s2 字串 2
-     * @return 距離值
-     */
-    private int levenshteinDistance(String s1, String s2) {
-        if (s1 == null) s1 = "";
-        if (s2 == null) s2 = "";
-        
-        int len1 = s1.length();
-        int len2 = s2.length();
-        
-        int[][] dp = new int[len1 + 1][len2 + 1];
-        
-        for (int i = 0; i <= len1; i++) {
-            dp[i][0] = i;
-        }
-        
-        for (int j = 0; j <= len2; j++) {
-            dp[0][j] = j;
-        }
-        
-        for (int i = 1; i <= len1; i++) {
-            for (int j = 1; j <= len2; j++) {
-                if (s1.charAt(i - 1) == s2.charAt(j - 1)) {
-                    dp[i][j] = dp[i - 1][j - 1];
-                } else {
-                    dp[i][j] = 1 + Math.min(Math.min(dp[i - 1][j], dp[i][j - 1]), dp[i - 1][j - 1]);
-                }
-            }
-        }
-        
-        return dp[len1][len2];
-    }
-    
     /**
      * 取得關鍵字的詳細語義資訊
      * 
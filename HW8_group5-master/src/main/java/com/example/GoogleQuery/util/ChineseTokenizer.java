@@ -1,18 +1,28 @@
 package com.example.GoogleQuery.util;
 
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * ChineseTokenizer - 中文分詞器
  * 簡易版的中文分詞工具（基於規則）
  * 注意：實際專案建議使用 HanLP 或 jieba 等專業分詞工具
+ *
+ * 字典編譯成不可變的雙陣列字典樹，分詞時逐字走訪、不建立 substring；
+ * 修改字典時建立新的字典樹並整個替換，進行中的分詞仍使用舊的字典樹
  */
 public class ChineseTokenizer {
+
+    /** 字典中的中文詞 */
+    public static final byte TYPE_WORD = 0;
+    /** 不在字典中的單一中文字 */
+    public static final byte TYPE_CHAR = 1;
+    /** 英文字母 */
+    public static final byte TYPE_ENGLISH = 2;
+    /** 數字 */
+    public static final byte TYPE_NUMBER = 3;
     
     // 常見中文詞彙字典（簡化版）
-    private static final Set<String> DICTIONARY = new HashSet<>(Arrays.asList(
+    private static final List<String> DEFAULT_WORDS = Arrays.asList(
         // 咖啡廳相關
         "咖啡", "咖啡廳", "咖啡店", "不限時", "插座", "wifi", "無線網路",
         "舒芙蕾", "拿鐵", "義式", "手沖", "甜點", "早午餐", "輕食",
@@ -28,13 +38,17 @@ public class ChineseTokenizer {
         // 讀書工作相關
         "讀書", "工作", "自習", "辦公", "會議", "討論", "創作",
         "書桌", "獨立", "隔間", "包廂", "團體"
-    ));
-    
-    // 最大詞長度
-    private static final int MAX_WORD_LENGTH = 5;
+    );
+
+    // 目前的字典樹（只在 synchronized 中替換）
+    private static volatile DoubleArrayTrie dictionary = new DoubleArrayTrie(DEFAULT_WORDS);
+
+    // tokenize(String) 使用的緩衝區（每個執行緒一個）
+    private static final ThreadLocal<TokenBuffer> BUFFERS = ThreadLocal.withInitial(TokenBuffer::new);
     
     /**
      * 分詞（主要方法）
+     * 中文以最大匹配切分，英文轉小寫，數字不輸出
      * @param text 要分詞的文字
      * @return 分詞結果列表
      */
@@ -43,118 +57,119 @@ public class ChineseTokenizer {
             return new ArrayList<>();
         }
         
-        List<String> tokens = new ArrayList<>();
-        
-        // 預處理：分離中英文
-        List<String> segments = splitChineseAndEnglish(text);
+        TokenBuffer buffer = BUFFERS.get();
+        tokenize(text, buffer);
         
-        for (String segment : segments) {
-            if (isChinese(segment)) {
-                // 中文分詞
-                tokens.addAll(tokenizeChinese(segment));
-            } else if (isEnglish(segment)) {
-                // 英文按空白分割
-                String[] words = segment.toLowerCase().split("\\s+");
-                tokens.addAll(Arrays.asList(words));
+        List<String> tokens = new ArrayList<>(buffer.size());
+        for (int i = 0; i < buffer.size(); i++) {
+            String token = text.substring(buffer.start(i), buffer.end(i));
+            switch (buffer.type(i)) {
+                case TYPE_ENGLISH -> tokens.add(token.toLowerCase());
+                case TYPE_NUMBER -> { }
+                default -> tokens.add(token);
             }
         }
         
         return tokens;
     }
-    
+
     /**
-     * 中文分詞（使用最大匹配算法）
-     * @param text 中文文字
-     * @return 分詞結果
+     * 分詞，只輸出每個 token 的位置與類型（不配置物件）
+     * 中文連續字元以正向最大匹配切分（字典詞 TYPE_WORD，其餘單字 TYPE_CHAR），
+     * 連續英文字母為一個 TYPE_ENGLISH，連續數字為一個 TYPE_NUMBER，其他字元略過
+     * @param text 要分詞的文字
+     * @param buffer 結果緩衝區（會先清空）
      */
-    private static List<String> tokenizeChinese(String text) {
-        List<String> result = new ArrayList<>();
+    public static void tokenize(CharSequence text, TokenBuffer buffer) {
+        buffer.clear();
+        if (text == null) {
+            return;
+        }
         
+        DoubleArrayTrie trie = dictionary;
+        int length = text.length();
         int i = 0;
-        while (i < text.length()) {
-            boolean matched = false;
-            
-            // 從最長詞開始匹配
-            for (int len = Math.min(MAX_WORD_LENGTH, text.length() - i); len >= 1; len--) {
-                String word = text.substring(i, i + len);
-                
-                if (DICTIONARY.contains(word)) {
-                    result.add(word);
-                    i += len;
-                    matched = true;
-                    break;
-                }
-            }
-            
-            // 如果沒有匹配到，以單字處理
-            if (!matched) {
-                result.add(String.valueOf(text.charAt(i)));
-                i++;
+        while (i < length) {
+            char c = text.charAt(i);
+            int j = i + 1;
+            if (isChinese(c)) {
+                while (j < length && isChinese(text.charAt(j))) j++;
+                tokenizeChinese(trie, text, i, j, buffer);
+            } else if (isEnglish(c)) {
+                while (j < length && isEnglish(text.charAt(j))) j++;
+                buffer.add(i, j, TYPE_ENGLISH);
+            } else if (isDigit(c)) {
+                while (j < length && isDigit(text.charAt(j))) j++;
+                buffer.add(i, j, TYPE_NUMBER);
             }
+            i = j;
         }
-        
-        return result;
     }
     
     /**
-     * 分離中英文（預處理）
-     * @param text 混合文字
-     * @return 分段列表
-     */
-    private static List<String> splitChineseAndEnglish(String text) {
-        List<String> segments = new ArrayList<>();
-        
-        Pattern pattern = Pattern.compile("([\\u4e00-\\u9fa5]+)|([a-zA-Z]+)|([0-9]+)");
-        Matcher matcher = pattern.matcher(text);
-        
-        while (matcher.find()) {
-            segments.add(matcher.group());
-        }
-        
-        return segments;
-    }
-    
-    /**
-     * 判斷是否為中文
+     * 中文分詞（使用正向最大匹配算法）
+     * @param trie 字典樹
      * @param text 文字
-     * @return true 如果是中文
+     * @param start 中文片段起始位置
+     * @param end 中文片段結束位置（不包含）
+     * @param buffer 結果緩衝區
      */
-    private static boolean isChinese(String text) {
-        if (text == null || text.isEmpty()) {
-            return false;
+    private static void tokenizeChinese(DoubleArrayTrie trie, CharSequence text, int start, int end,
+                                        TokenBuffer buffer) {
+        int i = start;
+        while (i < end) {
+            int len = trie.longestMatch(text, i, end);
+            if (len > 0) {
+                buffer.add(i, i + len, TYPE_WORD);
+                i += len;
+            } else {
+                // 如果沒有匹配到，以單字處理
+                buffer.add(i, i + 1, TYPE_CHAR);
+                i++;
+            }
         }
-        return text.matches("[\\u4e00-\\u9fa5]+");
     }
-    
+
+    private static boolean isChinese(char c) {
+        return c >= '\u4e00' && c <= '\u9fa5';
+    }
+
+    private static boolean isEnglish(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
     /**
-     * 判斷是否為英文
-     * @param text 文字
-     * @return true 如果是英文
+     * 以新的詞彙集合重建字典樹並替換
      */
-    private static boolean isEnglish(String text) {
-        if (text == null || text.isEmpty()) {
-            return false;
-        }
-        return text.matches("[a-zA-Z\\s]+");
+    private static void publish(Collection<String> words) {
+        dictionary = new DoubleArrayTrie(words);
     }
     
     /**
      * 新增自訂詞彙到字典
      * @param word 詞彙
      */
-    public static void addWord(String word) {
-        if (word != null && !word.isEmpty()) {
-            DICTIONARY.add(word);
+    public static synchronized void addWord(String word) {
+        if (word != null && !word.isEmpty() && !dictionary.contains(word)) {
+            List<String> words = new ArrayList<>(dictionary.words());
+            words.add(word);
+            publish(words);
         }
     }
     
     /**
-     * 批次新增詞彙
+     * 批次新增詞彙（只重建一次字典樹）
      * @param words 詞彙列表
      */
-    public static void addWords(List<String> words) {
-        if (words != null) {
-            DICTIONARY.addAll(words);
+    public static synchronized void addWords(List<String> words) {
+        if (words != null && !words.isEmpty()) {
+            List<String> merged = new ArrayList<>(dictionary.words());
+            merged.addAll(words);
+            publish(merged);
         }
     }
     
@@ -162,8 +177,12 @@ public class ChineseTokenizer {
      * 移除詞彙
      * @param word 詞彙
      */
-    public static void removeWord(String word) {
-        DICTIONARY.remove(word);
+    public static synchronized void removeWord(String word) {
+        if (dictionary.contains(word)) {
+            List<String> words = new ArrayList<>(dictionary.words());
+            words.remove(word);
+            publish(words);
+        }
     }
     
     /**
@@ -172,7 +191,7 @@ public class ChineseTokenizer {
      * @return true 如果在字典中
      */
     public static boolean containsWord(String word) {
-        return DICTIONARY.contains(word);
+        return dictionary.contains(word);
     }
     
     /**
@@ -180,14 +199,14 @@ public class ChineseTokenizer {
      * @return 詞彙數量
      */
     public static int getDictionarySize() {
-        return DICTIONARY.size();
+        return dictionary.size();
     }
     
     /**
      * 清空字典
      */
-    public static void clearDictionary() {
-        DICTIONARY.clear();
+    public static synchronized void clearDictionary() {
+        publish(Collections.emptyList());
     }
     
     /**
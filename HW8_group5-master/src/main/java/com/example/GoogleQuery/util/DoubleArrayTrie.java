@@ -0,0 +1,180 @@
+package com.example.GoogleQuery.util;
+
+import java.util.*;
+
+/**
+ * DoubleArrayTrie - 雙陣列字典樹（不可變）
+ * 以 base / check 兩個 int 陣列表示字典樹：節點 s 經由字元代碼 c 轉移到 t = base[s] + c，
+ * 且 check[t] == s 時轉移成立；代碼 0 表示「到此節點為止是一個完整的詞」
+ * 字元代碼為字典中出現過的字元排序後的位置 + 1（以二分搜尋取得），
+ * 比對時直接走訪字元，不建立 substring，也不配置任何物件
+ *
+ * 建立後不再修改，多個執行緒可以同時查詢；字典變動時建立新的字典樹
+ */
+public final class DoubleArrayTrie {
+
+    private static final int ROOT = 0;
+
+    private final char[] alphabet;     // 字典中出現過的字元（由小到大），代碼 = 位置 + 1
+    private final String[] words;      // 字典（由小到大、不重複）
+    private int[] base;
+    private int[] check;
+    private int nextFree = 1;          // 尋找空位的起點（之前的位置大多已被使用）
+
+    /**
+     * 建構子：以字典建立字典樹（忽略 null 與空字串）
+     * @param dictionary 字典
+     */
+    public DoubleArrayTrie(Collection<String> dictionary) {
+        TreeSet<String> sorted = new TreeSet<>();
+        TreeSet<Character> chars = new TreeSet<>();
+        for (String word : dictionary) {
+            if (word == null || word.isEmpty()) continue;
+            sorted.add(word);
+            for (int i = 0; i < word.length(); i++) {
+                chars.add(word.charAt(i));
+            }
+        }
+
+        this.words = sorted.toArray(new String[0]);
+        this.alphabet = new char[chars.size()];
+        int k = 0;
+        for (char c : chars) {
+            alphabet[k++] = c;
+        }
+
+        int capacity = Math.max(64, words.length * 4);
+        this.base = new int[capacity];
+        this.check = new int[capacity];
+        Arrays.fill(check, -1);
+        check[ROOT] = ROOT;
+
+        if (words.length > 0) {
+            insert(ROOT, 0, words.length, 0);
+        }
+        this.base = Arrays.copyOf(base, lastUsed() + 1);
+        this.check = Arrays.copyOf(check, base.length);
+    }
+
+    /**
+     * 為節點 node 的所有子節點找出位置並遞迴建立
+     * words[from, to) 都以同一個長度為 depth 的前綴開頭（即 node 代表的前綴）
+     */
+    private void insert(int node, int from, int to, int depth) {
+        // 1. 收集子節點的代碼與對應的詞範圍（詞已排序，代碼 0 的詞必定排在最前面）
+        List<int[]> children = new ArrayList<>();   // { 代碼, from, to }
+        for (int i = from; i < to; ) {
+            int code = words[i].length() == depth ? 0 : code(words[i].charAt(depth));
+            int j = i + 1;
+            while (j < to && (words[j].length() == depth ? 0 : code(words[j].charAt(depth))) == code) {
+                j++;
+            }
+            children.add(new int[]{ code, i, j });
+            i = j;
+        }
+
+        // 2. 找出所有子節點位置都未被使用的 base
+        int begin = Math.max(1, nextFree - children.get(0)[0]);
+        while (true) {
+            ensureCapacity(begin + children.get(children.size() - 1)[0] + 1);
+            boolean free = true;
+            for (int[] child : children) {
+                if (check[begin + child[0]] != -1) {
+                    free = false;
+                    break;
+                }
+            }
+            if (free) break;
+            begin++;
+        }
+
+        base[node] = begin;
+        for (int[] child : children) {
+            check[begin + child[0]] = node;
+        }
+        while (nextFree < check.length && check[nextFree] != -1) {
+            nextFree++;
+        }
+
+        // 3. 遞迴建立非結尾的子節點
+        for (int[] child : children) {
+            if (child[0] != 0) {
+                insert(begin + child[0], child[1], child[2], depth + 1);
+            }
+        }
+    }
+
+    private void ensureCapacity(int size) {
+        if (size <= check.length) return;
+        int capacity = Math.max(size, check.length * 2);
+        int old = check.length;
+        base = Arrays.copyOf(base, capacity);
+        check = Arrays.copyOf(check, capacity);
+        Arrays.fill(check, old, capacity, -1);
+    }
+
+    private int lastUsed() {
+        for (int i = check.length - 1; i >= 0; i--) {
+            if (check[i] != -1) return i;
+        }
+        return 0;
+    }
+
+    /**
+     * 取得字元的代碼（不在字典中的字元返回 -1）
+     */
+    private int code(char c) {
+        int pos = Arrays.binarySearch(alphabet, c);
+        return pos >= 0 ? pos + 1 : -1;
+    }
+
+    /**
+     * 從 start 開始找出最長的字典詞（不超過 end）
+     * @param text 文字
+     * @param start 起始位置
+     * @param end 結束位置（不包含）
+     * @return 最長詞的長度，沒有任何詞時返回 0
+     */
+    public int longestMatch(CharSequence text, int start, int end) {
+        int node = ROOT;
+        int longest = 0;
+        for (int i = start; i < end; i++) {
+            int c = code(text.charAt(i));
+            if (c < 0) break;
+            int next = base[node] + c;
+            if (next >= check.length || check[next] != node) break;
+            node = next;
+
+            int terminal = base[node];
+            if (terminal < check.length && check[terminal] == node) {
+                longest = i - start + 1;
+            }
+        }
+        return longest;
+    }
+
+    /**
+     * 檢查詞是否在字典中
+     * @param word 詞
+     * @return true 如果在字典中
+     */
+    public boolean contains(String word) {
+        return word != null && !word.isEmpty() && longestMatch(word, 0, word.length()) == word.length();
+    }
+
+    /**
+     * 取得字典（由小到大）
+     * @return 字典中的詞
+     */
+    public List<String> words() {
+        return Collections.unmodifiableList(Arrays.asList(words));
+    }
+
+    /**
+     * 取得字典大小
+     * @return 詞數量
+     */
+    public int size() {
+        return words.length;
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.GoogleQuery.util;
+
+/**
+ * ParsedQuery - 已解析的查詢
+ * 查詢字串與 ProximityQuery 的解析結果放在一起，在服務入口解析一次後一路傳給快取 key、
+ * 請求合併與 SearchEngine，不需要在每一層重新正規化、解析
+ */
+public final class ParsedQuery {
+
+    private final String text;               // 查詢字串（經 SearchEngine.prepareQuery 時為標準形式）
+    private final ProximityQuery parsed;     // 片語與鄰近條件
+
+    /**
+     * 建構子
+     * @param text 查詢字串
+     * @param parsed 解析結果（需與 text 的解析結果相同）
+     */
+    public ParsedQuery(String text, ProximityQuery parsed) {
+        this.text = text != null ? text : "";
+        this.parsed = parsed;
+    }
+
+    /**
+     * 解析查詢字串（不做正規化）
+     * @param query 查詢字串
+     * @return 解析後的查詢
+     */
+    public static ParsedQuery parse(String query) {
+        return new ParsedQuery(query, ProximityQuery.parse(query));
+    }
+
+    /**
+     * 取得查詢字串（快取 key 與請求合併使用）
+     * @return 查詢字串
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * 取得片語與鄰近條件的解析結果
+     * @return 解析結果
+     */
+    public ProximityQuery getParsed() {
+        return parsed;
+    }
+
+    /**
+     * 取得計分與名稱加分使用的查詢文字（片語與 NEAR/n 條件去掉引號與運算子，其他查詢不變）
+     * @return 計分用的查詢文字
+     */
+    public String getScoringText() {
+        return parsed.hasClauses() ? parsed.getText() : text;
+    }
+
+    /**
+     * 是否為空查詢
+     * @return true 如果查詢字串為空
+     */
+    public boolean isEmpty() {
+        return text.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+}
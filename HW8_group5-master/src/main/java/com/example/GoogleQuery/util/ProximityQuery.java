@@ -0,0 +1,192 @@
+package com.example.GoogleQuery.util;
+
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * ProximityQuery - 含片語與鄰近條件的查詢
+ * 語法：
+ * - "不限時 插座"：片語，詞必須相鄰且依序出現（也接受 “ ” 與 「 」）
+ * - 不限時 NEAR/3 插座：兩邊之間最多相隔 3 個詞（不分先後），兩邊都可以是片語
+ * - 其他詞照舊以關鍵字計分，不限制位置
+ *
+ * 所有詞（包含片語與鄰近條件中的詞）仍以關鍵字計分（getText），
+ * 片語與鄰近條件只用來限制結果（見 core.PositionalIndex），不需要掃描網站內容
+ */
+public final class ProximityQuery {
+
+    // 片語（NFKC 後的半形引號、中文引號、引號括號）
+    private static final Pattern PHRASE = Pattern.compile("\"([^\"]*)\"|“([^”]*)”|「([^」]*)」");
+    // 鄰近運算子（NEAR/n，不分大小寫）
+    private static final Pattern NEAR = Pattern.compile("near/(\\d+)");
+    // 空白與標點都視為詞的分隔（與 QueryCanonicalizer 相同）
+    private static final Pattern SEPARATORS = Pattern.compile("[\\s\\p{Punct}\\p{IsPunctuation}]+");
+
+    /** 鄰近距離上限（避免過大的數字讓條件失去意義） */
+    public static final int MAX_DISTANCE = 100;
+
+    private final List<String> units;        // 標準形式的各個單元（詞、片語、運算子），依原本順序
+    private final List<String> words;        // 所有詞（計分用，依原本順序）
+    private final List<Clause> clauses;      // 片語與鄰近條件
+
+    /**
+     * Clause - 一個位置條件
+     * right 為 null 時表示 left 必須以片語出現；否則 left 與 right 之間最多相隔 distance 個詞
+     * @param left 左邊的詞（依序）
+     * @param right 右邊的詞（依序，片語條件為 null）
+     * @param distance 最多相隔的詞數（片語條件為 0）
+     */
+    public record Clause(List<String> left, List<String> right, int distance) {
+
+        /**
+         * 是否為片語條件
+         * @return true 如果是片語條件
+         */
+        public boolean isPhrase() {
+            return right == null;
+        }
+    }
+
+    private ProximityQuery(List<String> units, List<String> words, List<Clause> clauses) {
+        this.units = units;
+        this.words = words;
+        this.clauses = clauses;
+    }
+
+    /**
+     * 解析查詢（原始查詢或標準形式皆可，標準形式解析後得到相同的結果）
+     * 只有一個詞的片語視為一般詞；缺少一邊的 NEAR 運算子會被忽略
+     * @param query 查詢
+     * @return 解析結果（null 時為空查詢）
+     */
+    public static ProximityQuery parse(String query) {
+        String text = QueryCanonicalizer.fold(query);
+
+        // 1. 切成單元：片語為詞列表，一般文字逐詞切開，NEAR/n 記為運算子
+        List<Object> tokens = new ArrayList<>();
+        Matcher phrase = PHRASE.matcher(text);
+        int last = 0;
+        while (phrase.find()) {
+            addPlain(text.substring(last, phrase.start()), tokens);
+            String inside = phrase.group(1) != null ? phrase.group(1)
+                          : phrase.group(2) != null ? phrase.group(2) : phrase.group(3);
+            List<String> terms = split(inside);
+            if (!terms.isEmpty()) {
+                tokens.add(terms);
+            }
+            last = phrase.end();
+        }
+        addPlain(text.substring(last), tokens);
+
+        // 2. 組合條件：運算子連接前後兩個單元，多詞片語本身也是條件
+        List<String> units = new ArrayList<>();
+        List<String> words = new ArrayList<>();
+        List<Clause> clauses = new ArrayList<>();
+        for (int i = 0; i < tokens.size(); i++) {
+            Object token = tokens.get(i);
+            if (token instanceof Integer) {
+                Object left = i > 0 ? tokens.get(i - 1) : null;
+                Object right = i + 1 < tokens.size() ? tokens.get(i + 1) : null;
+                if (left instanceof List && right instanceof List) {
+                    int distance = (Integer) token;
+                    clauses.add(new Clause(terms(left), terms(right), distance));
+                    units.add("near/" + distance);
+                }
+                continue;
+            }
+
+            List<String> terms = terms(token);
+            boolean operand = (i > 0 && tokens.get(i - 1) instanceof Integer)
+                           || (i + 1 < tokens.size() && tokens.get(i + 1) instanceof Integer);
+            if (terms.size() > 1) {
+                // 鄰近條件的一邊已依片語比對，不需要另外的片語條件
+                if (!operand) {
+                    clauses.add(new Clause(terms, null, 0));
+                }
+                units.add("\"" + String.join(" ", terms) + "\"");
+            } else if (operand || !StopWordsFilter.isStopWord(terms.get(0))) {
+                // 一般詞與 QueryCanonicalizer 相同移除停用詞；鄰近條件的兩邊保留
+                units.add(terms.get(0));
+            } else {
+                continue;
+            }
+            words.addAll(terms);
+        }
+
+        return new ProximityQuery(Collections.unmodifiableList(units), Collections.unmodifiableList(words),
+                                  Collections.unmodifiableList(clauses));
+    }
+
+    /**
+     * 切開片語以外的文字：NEAR/n 為運算子（Integer），其餘每個詞為單詞片語
+     */
+    private static void addPlain(String text, List<Object> tokens) {
+        for (String chunk : text.trim().split("\\s+")) {
+            Matcher near = NEAR.matcher(chunk);
+            if (near.matches()) {
+                tokens.add(Math.min(MAX_DISTANCE, parseDistance(near.group(1))));
+                continue;
+            }
+            for (String term : split(chunk)) {
+                tokens.add(List.of(term));
+            }
+        }
+    }
+
+    private static int parseDistance(String digits) {
+        try {
+            return Integer.parseInt(digits);
+        } catch (NumberFormatException e) {
+            return MAX_DISTANCE;
+        }
+    }
+
+    private static List<String> split(String text) {
+        List<String> terms = new ArrayList<>();
+        for (String term : SEPARATORS.split(text)) {
+            if (!term.isEmpty()) {
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> terms(Object token) {
+        return (List<String>) token;
+    }
+
+    /**
+     * 是否包含片語或鄰近條件
+     * @return true 如果有位置條件
+     */
+    public boolean hasClauses() {
+        return !clauses.isEmpty();
+    }
+
+    /**
+     * 取得片語與鄰近條件
+     * @return 條件列表
+     */
+    public List<Clause> getClauses() {
+        return clauses;
+    }
+
+    /**
+     * 取得計分用的查詢文字（所有詞以空白連接，不含引號與運算子）
+     * @return 查詢文字
+     */
+    public String getText() {
+        return String.join(" ", words);
+    }
+
+    /**
+     * 取得標準形式（意思相同的查詢得到相同的字串，可再以 parse 解析）
+     * @return 標準形式
+     */
+    @Override
+    public String toString() {
+        return String.join(" ", units);
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.GoogleQuery.util;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * QueryCanonicalizer - 查詢正規化
+ * 將意思相同但寫法不同的查詢（全形 / 半形、大小寫、多餘空白、標點、停用詞）
+ * 轉成同一個字串，作為搜尋、快取 key 的共同依據
+ *
+ * 例如："ＷＩＦＩ　不限時！" 與 "wifi   不限時" 都會變成 "wifi 不限時"
+ */
+public class QueryCanonicalizer {
+
+    // 空白與標點都視為 token 的分隔
+    private static final Pattern SEPARATORS = Pattern.compile("[\\s\\p{Punct}\\p{IsPunctuation}]+");
+
+    /**
+     * 正規化查詢
+     * 1. Unicode NFKC（全形英數、全形空白轉為半形，半形片假名轉為全形）
+     * 2. 轉小寫
+     * 3. 以空白與標點切分 token，以單一空白連接
+     * 4. 移除停用詞（全部都是停用詞時保留原本的 token，避免變成空查詢）
+     * 含片語或 NEAR/n 條件的查詢保留引號與運算子（見 ProximityQuery）
+     * @param query 原始查詢
+     * @return 正規化後的查詢（null 或空白時返回空字串）
+     */
+    public static String canonicalize(String query) {
+        return canonicalize(ProximityQuery.parse(query), query);
+    }
+
+    /**
+     * 正規化已解析的查詢（與 canonicalize(query) 相同，不再重新解析）
+     * @param parsed ProximityQuery.parse(query) 的結果
+     * @param query 原始查詢
+     * @return 正規化後的查詢（null 或空白時返回空字串）
+     */
+    public static String canonicalize(ProximityQuery parsed, String query) {
+        if (parsed.hasClauses()) {
+            return parsed.toString();
+        }
+
+        List<String> tokens = tokenize(query);
+        List<String> filtered = StopWordsFilter.filter(tokens);
+        return String.join(" ", filtered.isEmpty() ? tokens : filtered);
+    }
+
+    /**
+     * 將 token 依字典順序排列（用於與順序無關的查詢）
+     * @param canonical 已正規化的查詢
+     * @return 排序後的查詢
+     */
+    public static String sortTokens(String canonical) {
+        List<String> tokens = tokenize(canonical);
+        Collections.sort(tokens);
+        return String.join(" ", tokens);
+    }
+
+    /**
+     * 正規化篩選條件：去除重複並排序（地區為 OR、功能為 AND，順序與重複不影響結果）
+     * @param values 篩選條件（null 與空列表視為相同）
+     * @return 排序後的條件列表
+     */
+    public static List<String> canonicalFilters(Collection<String> values) {
+        if (values == null || values.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        TreeSet<String> sorted = new TreeSet<>(Comparator.nullsFirst(Comparator.naturalOrder()));
+        sorted.addAll(values);
+        return new ArrayList<>(sorted);
+    }
+
+    /**
+     * 只做 NFKC 與轉小寫（保留空白與標點，用於前綴比對）
+     * @param text 原始字串
+     * @return 轉換後的字串（null 時返回空字串）
+     */
+    public static String fold(String text) {
+        if (text == null) {
+            return "";
+        }
+        return Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 只做 NFKC、轉小寫與空白正規化（保留標點與停用詞，用於正規化會改變查詢意思的情況）
+     * @param text 原始字串
+     * @return 轉換後的字串（null 或空白時返回空字串）
+     */
+    public static String foldSpaces(String text) {
+        return String.join(" ", fold(text).trim().split("\\s+"));
+    }
+
+    private static List<String> tokenize(String query) {
+        List<String> tokens = new ArrayList<>();
+        if (query == null) {
+            return tokens;
+        }
+
+        for (String token : SEPARATORS.split(fold(query))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.GoogleQuery.util;
+
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * SingleFlight - 相同 key 的並行請求合併
+ * 同一個 key 同時只有一個執行緒（leader）真正執行計算，其他執行緒等待並共用同一個結果；
+ * 計算完成後立即移除，之後的請求會重新計算（結果的保存交給快取）
+ *
+ * 計算拋出的例外會傳給所有等待中的執行緒；等待超過逾時時間則拋出 IllegalStateException
+ * @param <K> key 型別（需正確實作 equals / hashCode）
+ * @param <V> 結果型別
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> calls = new ConcurrentHashMap<>();
+    private final long timeoutMillis;   // 等待其他執行緒計算的最長時間
+
+    /**
+     * 建構子
+     * @param timeoutMillis 等待其他執行緒計算的最長時間（毫秒）
+     */
+    public SingleFlight(long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * 執行計算；相同 key 已有計算進行中時等待其結果
+     * @param key 請求 key
+     * @param supplier 計算
+     * @return 計算結果
+     */
+    public V execute(K key, Supplier<V> supplier) {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> existing = calls.putIfAbsent(key, call);
+        if (existing != null) {
+            return await(existing);
+        }
+
+        try {
+            V value = supplier.get();
+            call.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            calls.remove(key, call);
+        }
+    }
+
+    private V await(CompletableFuture<V> call) {
+        try {
+            return call.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("等待相同請求的結果逾時（" + timeoutMillis + " ms）", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("等待相同請求的結果時被中斷", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * 取得目前進行中的計算數量
+     * @return 進行中的計算數量
+     */
+    public int inFlightCount() {
+        return calls.size();
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.GoogleQuery.util;
+
+import java.util.*;
+
+/**
+ * SpellIndex - 拼字建議索引（SymSpell：預先計算刪除變形）
+ * 建立時對每個詞（前 PREFIX_LENGTH 個字元）產生最多刪除 maxDistance 個字元的所有變形，
+ * 記錄「變形 → 詞」；查詢時只產生輸入的刪除變形並查表，
+ * 兩個詞的編輯距離不超過 maxDistance 時必定有共同的刪除變形，
+ * 候選詞再以有上限的 Levenshtein 距離確認，不需要對字典中每個詞計算完整的距離矩陣
+ *
+ * 建立後不再修改，多個執行緒可以同時查詢；字典變動時建立新的索引
+ */
+public class SpellIndex {
+
+    static final int PREFIX_LENGTH = 7;     // 只對前幾個字元產生刪除變形（長詞的變形數量不會爆增）
+
+    private final int maxDistance;                      // 最大編輯距離
+    private final List<String> terms = new ArrayList<>();   // termId -> 原本的詞
+    private final List<String> folded = new ArrayList<>();  // termId -> 轉小寫後的詞
+    private final Map<String, List<Integer>> deletes = new HashMap<>(); // 刪除變形 -> termId
+
+    /**
+     * 建構子：建立索引（重複的詞只保留第一次出現的寫法）
+     * @param words 字典
+     * @param maxDistance 最大編輯距離
+     */
+    public SpellIndex(Collection<String> words, int maxDistance) {
+        this.maxDistance = Math.max(0, maxDistance);
+
+        Set<String> seen = new HashSet<>();
+        for (String word : words) {
+            if (word == null || word.trim().isEmpty()) continue;
+            String key = word.trim().toLowerCase();
+            if (!seen.add(key)) continue;
+
+            int termId = terms.size();
+            terms.add(word.trim());
+            folded.add(key);
+            for (String variant : variants(prefix(key))) {
+                deletes.computeIfAbsent(variant, v -> new ArrayList<>()).add(termId);
+            }
+        }
+    }
+
+    /**
+     * 找出編輯距離不超過 maxDistance 的詞
+     * @param input 輸入
+     * @param limit 最多回傳數量
+     * @return 依距離由小到大（同距離依字典順序）的詞
+     */
+    public List<String> lookup(String input, int limit) {
+        List<String> results = new ArrayList<>();
+        if (input == null || input.trim().isEmpty() || limit <= 0) {
+            return results;
+        }
+        String key = input.trim().toLowerCase();
+
+        Map<Integer, Integer> distances = new HashMap<>();
+        for (String variant : variants(prefix(key))) {
+            List<Integer> ids = deletes.get(variant);
+            if (ids == null) continue;
+            for (int termId : ids) {
+                if (distances.containsKey(termId)
+                        || Math.abs(folded.get(termId).length() - key.length()) > maxDistance) {
+                    continue;
+                }
+                distances.put(termId, distance(key, folded.get(termId), maxDistance));
+            }
+        }
+
+        List<Integer> matched = new ArrayList<>();
+        for (Map.Entry<Integer, Integer> entry : distances.entrySet()) {
+            if (entry.getValue() <= maxDistance) {
+                matched.add(entry.getKey());
+            }
+        }
+        matched.sort(Comparator.comparingInt((Integer id) -> distances.get(id)).thenComparingInt(id -> id));
+        for (int i = 0; i < matched.size() && i < limit; i++) {
+            results.add(terms.get(matched.get(i)));
+        }
+        return results;
+    }
+
+    /**
+     * 取得索引中的詞數量
+     * @return 詞數量
+     */
+    public int size() {
+        return terms.size();
+    }
+
+    private static String prefix(String s) {
+        return s.length() > PREFIX_LENGTH ? s.substring(0, PREFIX_LENGTH) : s;
+    }
+
+    /**
+     * 產生刪除最多 maxDistance 個字元的所有變形（包含原字串）
+     */
+    private Set<String> variants(String s) {
+        Set<String> variants = new HashSet<>();
+        variants.add(s);
+        List<String> frontier = List.of(s);
+        for (int d = 0; d < maxDistance; d++) {
+            List<String> next = new ArrayList<>();
+            for (String word : frontier) {
+                for (int i = 0; i < word.length(); i++) {
+                    String deleted = word.substring(0, i) + word.substring(i + 1);
+                    if (variants.add(deleted)) {
+                        next.add(deleted);
+                    }
+                }
+            }
+            frontier = next;
+        }
+        return variants;
+    }
+
+    /**
+     * 計算 Levenshtein 距離（編輯距離）
+     * @param s1 字串 1（null 視為空字串）
+     * @param s2 字串 2（null 視為空字串）
+     * @return 距離值
+     */
+    public static int distance(String s1, String s2) {
+        if (s1 == null) s1 = "";
+        if (s2 == null) s2 = "";
+        return distance(s1, s2, Math.max(s1.length(), s2.length()));
+    }
+
+    /**
+     * 計算有上限的 Levenshtein 距離：只保留兩列，整列都超過上限時提前結束
+     * @param s1 字串 1
+     * @param s2 字串 2
+     * @param max 距離上限
+     * @return 距離值；超過上限時返回 max + 1
+     */
+    static int distance(String s1, String s2, int max) {
+        int len1 = s1.length();
+        int len2 = s2.length();
+        if (Math.abs(len1 - len2) > max) {
+            return max + 1;
+        }
+
+        int[] previous = new int[len2 + 1];
+        int[] current = new int[len2 + 1];
+        for (int j = 0; j <= len2; j++) {
+            previous[j] = j;
+        }
+
+        for (int i = 1; i <= len1; i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= len2; j++) {
+                if (s1.charAt(i - 1) == s2.charAt(j - 1)) {
+                    current[j] = previous[j - 1];
+                } else {
+                    current[j] = 1 + Math.min(previous[j], Math.min(current[j - 1], previous[j - 1]));
+                }
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+
+        return Math.min(previous[len2], max + 1);
+    }
+}
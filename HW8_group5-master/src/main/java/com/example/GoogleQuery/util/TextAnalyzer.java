@@ -0,0 +1,106 @@
+package com.example.GoogleQuery.util;
+
+import com.github.benmanes.caffeine.cache.Interner;
+
+import java.util.*;
+
+/**
+ * TextAnalyzer - 文字分析流程
+ * 正規化（轉小寫）→ 分詞（ChineseTokenizer）→ 停用詞過濾（StopWordsFilter）→ 同義詞正規化，
+ * 結果為一個 TokenStream；每份文件在載入時分析一次，之後的計數、字數、Hashtag、預覽都讀取同一個結果
+ *
+ * 詞經過共用的 weak interner，所有文件中相同的詞共用同一個 String，
+ * 不再被任何 TokenStream 參照的詞（例如 Google 網頁中的詞）可被回收
+ */
+public class TextAnalyzer {
+
+    // 預設同義詞（同一概念的不同寫法 → 標準詞；key 需為分詞後的單一 token）
+    private static final Map<String, String> DEFAULT_SYNONYMS = Map.of(
+        "無線網路", "wifi",
+        "咖啡店", "咖啡廳",
+        "訂位", "預約",
+        "自習", "讀書"
+    );
+
+    /** 預設的分析流程 */
+    public static final TextAnalyzer DEFAULT = new TextAnalyzer(DEFAULT_SYNONYMS);
+
+    private final Map<String, String> synonyms;
+
+    // 所有 TokenStream 共用的詞
+    private static final Interner<String> TERMS = Interner.newWeakInterner();
+
+    // 分詞緩衝區（每個執行緒一個）
+    private static final ThreadLocal<TokenBuffer> BUFFERS = ThreadLocal.withInitial(TokenBuffer::new);
+
+    /**
+     * 建構子
+     * @param synonyms 同義詞對照（詞 → 標準詞，會轉為小寫）
+     */
+    public TextAnalyzer(Map<String, String> synonyms) {
+        Map<String, String> map = new HashMap<>();
+        if (synonyms != null) {
+            for (Map.Entry<String, String> entry : synonyms.entrySet()) {
+                map.put(normalize(entry.getKey()), normalize(entry.getValue()));
+            }
+        }
+        this.synonyms = Collections.unmodifiableMap(map);
+    }
+
+    /**
+     * 正規化文字（只轉小寫，長度與原文相同，位置可以對應回原文）
+     * @param text 原始文字
+     * @return 正規化後的文字（null 時返回空字串）
+     */
+    public static String normalize(String text) {
+        return text != null ? text.toLowerCase() : "";
+    }
+
+    /**
+     * 分析文字
+     * @param text 原始文字
+     * @return 分析結果
+     */
+    public TokenStream analyze(String text) {
+        String normalized = normalize(text);
+        if (normalized.isEmpty()) {
+            return TokenStream.EMPTY;
+        }
+
+        TokenBuffer buffer = BUFFERS.get();
+        ChineseTokenizer.tokenize(normalized, buffer);
+
+        int total = buffer.size();
+        int[] starts = new int[total];
+        int[] ends = new int[total];
+        byte[] types = new byte[total];
+        String[] terms = new String[total];
+        int size = 0;
+
+        for (int i = 0; i < total; i++) {
+            String token = normalized.substring(buffer.start(i), buffer.end(i));
+            if (StopWordsFilter.isStopWord(token)) {
+                continue;
+            }
+            starts[size] = buffer.start(i);
+            ends[size] = buffer.end(i);
+            types[size] = buffer.type(i);
+            terms[size] = TERMS.intern(synonym(token));
+            size++;
+        }
+
+        return new TokenStream(normalized,
+                               Arrays.copyOf(starts, size), Arrays.copyOf(ends, size),
+                               Arrays.copyOf(types, size), Arrays.copyOf(terms, size),
+                               total);
+    }
+
+    /**
+     * 取得詞的標準詞（不是同義詞時返回原詞）
+     * @param term 已正規化的詞
+     * @return 標準詞
+     */
+    public String synonym(String term) {
+        return synonyms.getOrDefault(term, term);
+    }
+}
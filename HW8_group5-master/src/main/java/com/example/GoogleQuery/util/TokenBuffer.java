@@ -0,0 +1,59 @@
+package com.example.GoogleQuery.util;
+
+import java.util.Arrays;
+
+/**
+ * TokenBuffer - 可重複使用的分詞結果緩衝區
+ * 只記錄每個 token 在原文中的 (start, end, type)，不建立 substring；
+ * 同一個緩衝區可以反覆傳給 ChineseTokenizer.tokenize，容量不足時才擴充
+ * 不是執行緒安全的，每個執行緒使用自己的緩衝區
+ */
+public final class TokenBuffer {
+
+    private int[] starts = new int[32];
+    private int[] ends = new int[32];
+    private byte[] types = new byte[32];
+    private int size;
+
+    /**
+     * 清空緩衝區（保留已配置的容量）
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * 加入一個 token
+     * @param start 起始位置
+     * @param end 結束位置（不包含）
+     * @param type token 類型（見 ChineseTokenizer 的 TYPE_* 常數）
+     */
+    public void add(int start, int end, byte type) {
+        if (size == starts.length) {
+            int capacity = size * 2;
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            types = Arrays.copyOf(types, capacity);
+        }
+        starts[size] = start;
+        ends[size] = end;
+        types[size] = type;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int start(int i) {
+        return starts[i];
+    }
+
+    public int end(int i) {
+        return ends[i];
+    }
+
+    public byte type(int i) {
+        return types[i];
+    }
+}
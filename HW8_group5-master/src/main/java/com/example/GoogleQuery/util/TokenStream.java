@@ -0,0 +1,116 @@
+package com.example.GoogleQuery.util;
+
+import java.util.*;
+
+/**
+ * TokenStream - 一份文件分析後的結果（由 TextAnalyzer 建立，不可變）
+ * 保存正規化後的文字，以及過濾停用詞後每個 token 的位置、類型與同義詞正規化後的詞
+ *
+ * 正規化只轉小寫、長度與原文相同，token 位置可以直接對應回原始內容
+ */
+public final class TokenStream {
+
+    /** 空內容 */
+    public static final TokenStream EMPTY = new TokenStream("", new int[0], new int[0], new byte[0], new String[0], 0);
+
+    private final String text;          // 正規化後的文字
+    private final int[] starts;         // token 起始位置
+    private final int[] ends;           // token 結束位置（不包含）
+    private final byte[] types;         // token 類型（ChineseTokenizer.TYPE_*）
+    private final String[] terms;       // 同義詞正規化後的詞
+    private final int tokenCount;       // 分詞後的 token 總數（含停用詞）
+    private volatile Map<String, Integer> frequencies;  // 詞頻（第一次使用時建立）
+
+    TokenStream(String text, int[] starts, int[] ends, byte[] types, String[] terms, int tokenCount) {
+        this.text = text;
+        this.starts = starts;
+        this.ends = ends;
+        this.types = types;
+        this.terms = terms;
+        this.tokenCount = tokenCount;
+    }
+
+    /**
+     * 取得正規化（小寫）後的文字
+     * @return 正規化後的文字
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * 取得過濾停用詞後的 token 數量
+     * @return token 數量
+     */
+    public int size() {
+        return terms.length;
+    }
+
+    /**
+     * 取得分詞後的 token 總數（含停用詞，作為文件字數）
+     * @return token 總數
+     */
+    public int getTokenCount() {
+        return tokenCount;
+    }
+
+    public int start(int i) {
+        return starts[i];
+    }
+
+    public int end(int i) {
+        return ends[i];
+    }
+
+    public byte type(int i) {
+        return types[i];
+    }
+
+    /**
+     * 取得第 i 個 token 的詞（已套用同義詞正規化）
+     * @param i token 索引
+     * @return 詞
+     */
+    public String term(int i) {
+        return terms[i];
+    }
+
+    /**
+     * 取得所有詞（依出現順序）
+     * @return 詞列表
+     */
+    public List<String> terms() {
+        return Collections.unmodifiableList(Arrays.asList(terms));
+    }
+
+    /**
+     * 取得詞頻
+     * @return Map<詞, 出現次數>（不可修改）
+     */
+    public Map<String, Integer> getFrequencies() {
+        Map<String, Integer> result = frequencies;
+        if (result == null) {
+            Map<String, Integer> counts = new HashMap<>();
+            for (String term : terms) {
+                counts.merge(term, 1, Integer::sum);
+            }
+            result = Collections.unmodifiableMap(counts);
+            frequencies = result;
+        }
+        return result;
+    }
+
+    /**
+     * 取得詞的出現次數
+     * @param term 詞（需已正規化）
+     * @return 出現次數
+     */
+    public int frequency(String term) {
+        return getFrequencies().getOrDefault(term, 0);
+    }
+
+    @Override
+    public String toString() {
+        return "TokenStream" + terms();
+    }
+}
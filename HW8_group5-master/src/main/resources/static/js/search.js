@@ -431,6 +431,65 @@ function clearSearch() {
     loadRecommendations();
 }
 
+// 邊打字邊搜尋（WebSocket，保持一條連線）
+// 伺服器只回傳有變動的 suggestions / results，舊的輸入會被新的輸入取代
+class LiveSearchClient {
+    constructor(onUpdate) {
+        this.onUpdate = onUpdate;
+        this.seq = 0;
+        this.pendingQuery = null;
+        this.socket = null;
+    }
+
+    connect() {
+        const url = window.utils.API_BASE_URL.replace(/^http/, 'ws').replace(/\/api$/, '/ws/search');
+        this.socket = new WebSocket(url);
+        this.socket.onopen = () => {
+            if (this.pendingQuery !== null) {
+                this.send(this.pendingQuery);
+            }
+        };
+        this.socket.onmessage = (event) => {
+            const data = JSON.parse(event.data);
+            // 忽略比目前輸入舊的回應
+            if (data.error || data.seq !== this.seq) {
+                return;
+            }
+            this.onUpdate(data);
+        };
+        this.socket.onclose = () => {
+            this.socket = null;
+        };
+    }
+
+    send(query) {
+        this.pendingQuery = query;
+        if (!this.socket) {
+            this.connect();
+            return;
+        }
+        if (this.socket.readyState !== WebSocket.OPEN) {
+            return;
+        }
+        this.seq++;
+        this.pendingQuery = null;
+        this.socket.send(JSON.stringify({ seq: this.seq, query: query, limit: 5, fields: 'id,name,district' }));
+    }
+}
+
+// 將建議詞放入搜尋框的 datalist
+function renderLiveSuggestions(suggestions) {
+    const list = document.getElementById('searchSuggestions');
+    if (!list) {
+        return;
+    }
+    list.replaceChildren(...suggestions.map(s => {
+        const option = document.createElement('option');
+        option.value = s;
+        return option;
+    }));
+}
+
 // 初始化搜尋功能
 function initSearch() {
     const searchInput = document.getElementById('searchInput');
@@ -450,11 +509,17 @@ function initSearch() {
             }
         });
 
-        // 輸入時顯示/隱藏清除按鈕
+        // 輸入時顯示/隱藏清除按鈕，並更新建議詞
+        const liveSearch = new LiveSearchClient((data) => {
+            if (data.suggestions) {
+                renderLiveSuggestions(data.suggestions);
+            }
+        });
         searchInput.addEventListener('input', (e) => {
             if (clearBtn) {
                 clearBtn.style.display = e.target.value ? 'block' : 'none';
             }
+            liveSearch.send(e.target.value);
         });
     }
 
@@ -0,0 +1,57 @@
+package com.example.GoogleQuery.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.junit.jupiter.api.*;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.SimpleCacheManager;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+
+/**
+ * CacheConfigTest - CacheConfig 單元測試
+ */
+@DisplayName("CacheConfig 測試")
+class CacheConfigTest {
+
+    @Test
+    @DisplayName("測試快取區域皆為 Caffeine 快取")
+    void testCacheNames() {
+        CacheManager cacheManager = new CacheConfig().cacheManager();
+        ((SimpleCacheManager) cacheManager).afterPropertiesSet();
+
+        for (String name : new String[]{ CacheConfig.SEARCH_RESULTS, CacheConfig.COMPARISONS,
+                                         CacheConfig.RECOMMENDATIONS, CacheConfig.GOOGLE_RESULTS }) {
+            assertInstanceOf(CaffeineCache.class, cacheManager.getCache(name), name + " 應為 Caffeine 快取");
+        }
+    }
+
+    @Test
+    @DisplayName("測試命中 / 未命中統計")
+    void testStats() {
+        CaffeineCache cache = CacheConfig.buildCache("test", 10, Duration.ofMinutes(1));
+        assertNull(cache.get("a"));
+        cache.put("a", 1);
+        assertEquals(1, cache.get("a").get());
+
+        CacheStats stats = cache.getNativeCache().stats();
+        assertEquals(1, stats.hitCount());
+        assertEquals(1, stats.missCount());
+    }
+
+    @Test
+    @DisplayName("測試超過上限時淘汰")
+    void testBounded() {
+        CaffeineCache cache = CacheConfig.buildCache("test", 5, Duration.ofMinutes(1));
+        for (int i = 0; i < 50; i++) {
+            cache.put(i, i);
+        }
+
+        Cache<Object, Object> nativeCache = cache.getNativeCache();
+        nativeCache.cleanUp();
+        assertTrue(nativeCache.estimatedSize() <= 5);
+        assertTrue(nativeCache.stats().evictionCount() >= 45);
+    }
+}
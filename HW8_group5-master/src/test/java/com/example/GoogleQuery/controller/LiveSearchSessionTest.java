@@ -0,0 +1,82 @@
+package com.example.GoogleQuery.controller;
+
+import com.example.GoogleQuery.model.SearchResult;
+import com.example.GoogleQuery.service.SearchService;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * LiveSearchSessionTest - LiveSearchSession 單元測試
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("LiveSearchSession 測試")
+class LiveSearchSessionTest {
+
+    @Mock
+    private SearchService searchService;
+
+    private LiveSearchSession session;
+
+    @BeforeEach
+    void setUp() {
+        session = new LiveSearchSession();
+        lenient().when(searchService.getSearchSuggestions(anyString()))
+                 .thenAnswer(i -> List.of(i.getArgument(0) + "時"));
+        lenient().when(searchService.preview(anyString(), anyInt()))
+                 .thenAnswer(i -> new ArrayList<>(List.of(new SearchResult("https://example.com/cafe1", "咖啡廳", 10.0))));
+    }
+
+    @Test
+    @DisplayName("測試被新輸入取代的請求不計算")
+    void testStaleRequestSkipped() {
+        long first = session.begin();
+        long second = session.begin();
+
+        assertTrue(session.isStale(first));
+        assertNull(session.update(first, searchService, 1, "不", 5, null));
+        verifyNoInteractions(searchService);
+
+        Map<String, Object> message = session.update(second, searchService, 2, "不限", 5, null);
+        assertEquals(2, message.get("seq"));
+        assertEquals(List.of("不限時"), message.get("suggestions"));
+        assertEquals(1, ((List<?>) message.get("results")).size());
+    }
+
+    @Test
+    @DisplayName("測試只回傳有變動的部分")
+    void testDelta() {
+        assertTrue(session.update(session.begin(), searchService, 1, "不限", 5, null).containsKey("results"));
+
+        // 建議詞改變、結果相同
+        Map<String, Object> message = session.update(session.begin(), searchService, 2, "不限時", 5, "id,name");
+        assertEquals(List.of("不限時時"), message.get("suggestions"));
+        assertFalse(message.containsKey("results"));
+
+        message = session.update(session.begin(), searchService, 3, "不限時", 5, null);
+        assertEquals(Set.of("seq", "query"), message.keySet());
+    }
+
+    @Test
+    @DisplayName("測試新的工作取消排隊中的舊工作")
+    void testReplacePending() {
+        CompletableFuture<Void> first = new CompletableFuture<>();
+        CompletableFuture<Void> second = new CompletableFuture<>();
+        session.replacePending(first);
+        session.replacePending(second);
+        assertTrue(first.isCancelled());
+        assertFalse(second.isCancelled());
+
+        long version = session.begin();
+        session.close();
+        assertTrue(second.isCancelled());
+        assertTrue(session.isStale(version));
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.GoogleQuery.core;
+
+import com.example.GoogleQuery.model.*;
+import com.example.GoogleQuery.util.QueryCanonicalizer;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+
+/**
+ * CompletionIndexTest - CompletionIndex 單元測試
+ */
+@DisplayName("CompletionIndex 測試")
+class CompletionIndexTest {
+
+    private CompletionIndex index;
+    private ArrayList<WebPage> testPages;
+    private ArrayList<Keyword> testKeywords;
+
+    @BeforeEach
+    void setUp() {
+        testPages = new ArrayList<>();
+        WebPage page1 = new WebPage("https://example.com/cafe1", "不限時咖啡", "大安區", "不限時", "地址1");
+        page1.addTag("甜點");
+        testPages.add(page1);
+        WebPage page2 = new WebPage("https://example.com/cafe2", "Louisa Coffee", "中山區", "有插座", "地址2");
+        page2.setHashtags("#甜點 #插座");
+        testPages.add(page2);
+
+        testKeywords = new ArrayList<>();
+        testKeywords.add(new Keyword("不限時", 3.0));
+        testKeywords.add(new Keyword("插座", 2.8));
+        testKeywords.add(new Keyword("WIFI", 2.8));
+        testKeywords.add(new Keyword("限時優惠", 1.0));
+
+        index = new CompletionIndex(testPages, testKeywords);
+    }
+
+    private List<String> terms(List<CompletionIndex.Suggestion> suggestions) {
+        List<String> terms = new ArrayList<>();
+        for (CompletionIndex.Suggestion suggestion : suggestions) {
+            terms.add(suggestion.getTerm());
+        }
+        return terms;
+    }
+
+    @Test
+    @DisplayName("測試結果與逐筆 contains 比對相同")
+    void testMatchesContainsScan() {
+        List<String> all = List.of("不限時", "插座", "WIFI", "限時優惠", "甜點", "不限時咖啡", "Louisa Coffee");
+        assertEquals(all.size(), index.size(), "重複的詞只保留一筆");
+
+        for (String input : new String[]{ "限", "限時", "不", "wi", "ＷＩ", "coffee", "o", "點", "x" }) {
+            Set<String> expected = new HashSet<>();
+            for (String term : all) {
+                if (term.toLowerCase().contains(QueryCanonicalizer.fold(input))) {
+                    expected.add(term);
+                }
+            }
+            assertEquals(expected, new HashSet<>(terms(index.complete(input, 100, null, null))),
+                "輸入 \"" + input + "\" 的候選詞不一致");
+        }
+    }
+
+    @Test
+    @DisplayName("測試排序：開頭符合優先，再依權重與額外分數")
+    void testRanking() {
+        // "限時優惠" 以輸入開頭，優先於權重較高但只在中間出現的 "不限時"
+        assertEquals(List.of("限時優惠", "不限時", "不限時咖啡"), terms(index.complete("限時", 10, null, null)));
+        assertEquals(List.of("不限時", "不限時咖啡"), terms(index.complete("不限", 10, null, null)));
+
+        // 熱門程度可以改變順序
+        assertEquals(List.of("不限時咖啡", "不限時"),
+            terms(index.complete("不限", 10, s -> s.getTerm().equals("不限時咖啡") ? 10.0 : 0.0, null)));
+        assertEquals(List.of("不限時"), terms(index.complete("不限", 1, null, null)));
+    }
+
+    @Test
+    @DisplayName("測試額外分數有上界時提前結束的結果與讀取全部候選詞相同")
+    void testBoundedExtraScoreMatchesUnbounded() {
+        Random random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            Map<String, Double> extras = new HashMap<>();
+            for (String term : List.of("不限時", "插座", "WIFI", "限時優惠", "甜點", "不限時咖啡", "Louisa Coffee")) {
+                extras.put(term, random.nextInt(4) * 2.5);
+            }
+            String input = new String[]{ "限", "o", "不", "點", "時" }[round % 5];
+            int k = 1 + round % 3;
+
+            assertEquals(terms(index.complete(input, k, s -> extras.get(s.getTerm()), null)),
+                terms(index.complete(input, k, s -> extras.get(s.getTerm()), 7.5, null)));
+        }
+    }
+
+    @Test
+    @DisplayName("測試完全相同的詞查詢與 fold 後的 key")
+    void testContainsAndKey() {
+        assertTrue(index.contains("ｗｉｆｉ"));
+        assertTrue(index.contains("louisa coffee"));
+        assertFalse(index.contains("wi"));
+        assertEquals("wifi", index.complete("wi", 1, null, null).get(0).getKey());
+    }
+
+    @Test
+    @DisplayName("測試多輸入一個字時重用上一個前綴的範圍")
+    void testIncrementalRange() {
+        int[] parent = index.range("不");
+        int[] child = index.range("不限");
+        assertTrue(child[0] >= parent[0] && child[1] <= parent[1]);
+
+        CompletionIndex fresh = new CompletionIndex(testPages, testKeywords);
+        assertArrayEquals(fresh.range("不限"), child);
+        assertEquals(0, index.range("不限x")[1] - index.range("不限x")[0]);
+    }
+
+    @Test
+    @DisplayName("測試篩選與來源類型")
+    void testFilter() {
+        List<CompletionIndex.Suggestion> tags = index.complete("點", 10, null,
+            s -> !CompletionIndex.CAFE.equals(s.getType()));
+        assertEquals(1, tags.size());
+        assertEquals(CompletionIndex.HASHTAG, tags.get(0).getType());
+        assertTrue(index.complete("", 10, null, null).isEmpty());
+    }
+
+    @Test
+    @DisplayName("測試預覽分數：展開詞的 postings 累加")
+    void testPreviewScores() {
+        // "甜點" 是 page1 的標籤、page2 的 Hashtag
+        double[] scores = index.previewScores("甜");
+        assertTrue(scores[0] > 0 && scores[0] == scores[1]);
+
+        // "louisa" 只命中咖啡廳名稱
+        scores = index.previewScores("louisa");
+        assertEquals(0.0, scores[0]);
+        assertEquals(CompletionIndex.CAFE_WEIGHT + CompletionIndex.PREFIX_BONUS, scores[1], 1e-9);
+
+        // "限時" 同時命中關鍵字（內容）與名稱，page1 分數較高
+        scores = index.previewScores("限時");
+        assertTrue(scores[0] > 0);
+        assertEquals(0.0, scores[1]);
+        assertArrayEquals(new double[2], index.previewScores("x"));
+    }
+
+    @Test
+    @DisplayName("測試多個詞的預覽：最後一個詞以前綴比對，只保留符合所有詞的網站")
+    void testPreviewScoresMultipleTokens() {
+        // page1 名稱含 "不限時"、標籤 "甜點"；page2 只有 "甜點"
+        double[] scores = index.previewScores("不限時 甜");
+        assertEquals(index.previewScores("不限時")[0] + index.previewScores("甜")[0], scores[0], 1e-9);
+        assertEquals(0.0, scores[1]);
+
+        // 名稱中的空白不影響：兩個詞都命中 "Louisa Coffee"
+        scores = index.previewScores("louisa co");
+        assertEquals(0.0, scores[0]);
+        assertTrue(scores[1] > 0);
+
+        // 索引中沒有的詞不參與篩選
+        assertArrayEquals(index.previewScores("不限時"), index.previewScores("不限時 zzz"));
+        assertArrayEquals(index.previewScores("甜"), index.previewScores("  甜  "));
+    }
+}
@@ -0,0 +1,200 @@
+package com.example.GoogleQuery.core;
+
+import com.example.GoogleQuery.model.*;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * InvertedIndexTest - InvertedIndex 單元測試
+ */
+@DisplayName("InvertedIndex 測試")
+class InvertedIndexTest {
+
+    private InvertedIndex index;
+    private ArrayList<WebPage> testPages;
+    private ArrayList<Keyword> testKeywords;
+
+    @BeforeEach
+    void setUp() {
+        testPages = new ArrayList<>();
+
+        WebPage page1 = new WebPage("https://example.com/cafe1", "讀書咖啡廳", "大安區", "不限時", "地址1");
+        page1.setContent("不限時 安靜 咖啡 插座 wifi 不限時");
+        testPages.add(page1);
+
+        WebPage page2 = new WebPage("https://example.com/cafe2", "插座咖啡廳", "中山區", "有插座", "地址2");
+        page2.setContent("咖啡 插座 WiFi 咖啡");
+        testPages.add(page2);
+
+        WebPage page3 = new WebPage("https://example.com/cafe3", "甜點店", "信義區", "甜點", "地址3");
+        page3.setContent("甜點 蛋糕");
+        testPages.add(page3);
+
+        testKeywords = new ArrayList<>();
+        testKeywords.add(new Keyword("不限時", 3.0));
+        testKeywords.add(new Keyword("安靜", 2.8));
+        testKeywords.add(new Keyword("插座", 2.7));
+        testKeywords.add(new Keyword("wifi", 2.6));
+        testKeywords.add(new Keyword("咖啡", 1.5));
+
+        index = new InvertedIndex(testPages, testKeywords);
+    }
+
+    @Test
+    @DisplayName("測試 postings 與出現次數")
+    void testPostings() {
+        InvertedIndex.PostingList coffee = index.getPostings("咖啡");
+        assertNotNull(coffee);
+        assertEquals(2, coffee.size());
+        assertEquals(0, coffee.docIdAt(0));
+        assertEquals(1, coffee.docIdAt(1));
+
+        assertEquals(2, index.getTermFrequency("不限時", 0));
+        assertEquals(2, index.getTermFrequency("咖啡", 1));
+        assertEquals(1, index.getTermFrequency("WIFI", 1), "關鍵字比對應不分大小寫");
+        assertEquals(0, index.getTermFrequency("咖啡", 2));
+        assertNull(index.getPostings("甜點"), "字典外的詞不應建立 postings");
+    }
+
+    @Test
+    @DisplayName("測試 docId 對應")
+    void testDocIds() {
+        assertEquals(3, index.getDocCount());
+        for (int i = 0; i < testPages.size(); i++) {
+            assertEquals(i, index.getDocId(testPages.get(i)));
+            assertSame(testPages.get(i), index.getPage(i));
+        }
+
+        WebPage outsider = new WebPage("https://example.com/cafe4", "新咖啡廳", "咖啡");
+        assertEquals(-1, index.getDocId(outsider));
+        assertFalse(index.contains(outsider));
+    }
+
+    @Test
+    @DisplayName("測試查詢分數與逐頁計算一致")
+    void testScoreMatchesKeywordParser() {
+        String query = "不限時 插座";
+        double[] scores = index.score(query);
+
+        // 逐頁計算：查詢命中的關鍵字權重提高 50%
+        ArrayList<Keyword> boosted = new ArrayList<>();
+        for (Keyword keyword : testKeywords) {
+            double weight = keyword.getOriginalWeight();
+            if (query.toLowerCase().contains(keyword.name.toLowerCase())) {
+                weight *= 1.5;
+            }
+            boosted.add(new Keyword(keyword.name, weight));
+        }
+
+        for (int i = 0; i < testPages.size(); i++) {
+            double expected = new KeywordParser(testPages.get(i).getContent()).calculateWeightedScore(boosted);
+            assertEquals(expected, scores[i], 1e-9);
+        }
+    }
+
+    @Test
+    @DisplayName("測試查詢不會改變關鍵字權重")
+    void testScoreDoesNotMutateKeywords() {
+        index.score("安靜 wifi");
+
+        for (Keyword keyword : testKeywords) {
+            assertEquals(keyword.getOriginalWeight(), keyword.getWeight(), 1e-9);
+        }
+    }
+
+    @Test
+    @DisplayName("測試出現次數矩陣")
+    void testTermFrequencyMatrix() {
+        TermFrequencyMatrix matrix = index.getMatrix();
+        KeywordMatcher matcher = matrix.getMatcher();
+
+        assertEquals(3, matrix.getDocCount());
+        assertEquals(5, matrix.getTermCount());
+        assertEquals(2, matrix.get(0, matcher.indexOf("不限時")));
+        assertEquals(2, matrix.getDocumentFrequency(matcher.indexOf("插座")));
+
+        double[] weights = index.termWeights(null);
+        assertEquals(index.score("")[1], matrix.weightedSum(1, weights), 1e-9);
+    }
+
+    @Test
+    @DisplayName("測試超過格數上限時改用稀疏矩陣")
+    void testSparseTermFrequencyMatrix() {
+        KeywordMatcher matcher = index.getMatrix().getMatcher();
+        TermFrequencyMatrix dense = index.getMatrix();
+        TermFrequencyMatrix sparse = new TermFrequencyMatrix(
+            new ArrayList<>(testPages), matcher, ScoringKernel.scalar(), 4);
+
+        assertTrue(dense.isDense());
+        assertFalse(sparse.isDense());
+
+        double[] weights = index.termWeights("插座");
+        assertArrayEquals(dense.weightedSums(weights), sparse.weightedSums(weights));
+        for (int termId = 0; termId < matcher.size(); termId++) {
+            assertEquals(dense.getDocumentFrequency(termId), sparse.getDocumentFrequency(termId));
+            for (int docId = 0; docId < testPages.size(); docId++) {
+                assertEquals(dense.get(docId, termId), sparse.get(docId, termId));
+            }
+        }
+
+        double[] denseRange = new double[2];
+        double[] sparseRange = new double[2];
+        for (int termId = 0; termId < matcher.size(); termId++) {
+            dense.accumulate(termId, weights[termId], 1, 3, denseRange);
+            sparse.accumulate(termId, weights[termId], 1, 3, sparseRange);
+        }
+        assertArrayEquals(denseRange, sparseRange);
+        assertArrayEquals(Arrays.copyOfRange(dense.weightedSums(weights), 1, 3), denseRange);
+    }
+
+    @Test
+    @DisplayName("測試不在索引中的網站計分")
+    void testScoreContentForNewPage() {
+        WebPage outsider = new WebPage("https://example.com/cafe4", "新咖啡廳", "大安區", "", "地址4");
+        outsider.setContent("插座 插座 安靜");
+
+        double[] weights = index.termWeights("插座");
+        assertEquals(2.7 * 1.5 * 2 + 2.8, index.scoreContent(outsider, weights), 1e-9);
+    }
+
+    @Test
+    @DisplayName("測試空查詢回傳基礎分數")
+    void testEmptyQuery() {
+        double[] scores = index.score("");
+
+        assertEquals(0.0, scores[2], 1e-9);
+        assertEquals(3.0 * 2 + 2.8 + 2.7 + 2.6 + 1.5, scores[0], 1e-9);
+        assertTrue(index.getQueryKeywords(null).isEmpty());
+    }
+
+    @Test
+    @DisplayName("測試逐筆計分與分數上界")
+    void testQueryScorer() {
+        double[] scores = index.score("咖啡 插座");
+        InvertedIndex.QueryScorer scorer = index.scorer("咖啡 插座");
+
+        double previous = Double.MAX_VALUE;
+        for (int rank = 0; rank < index.getDocCount(); rank++) {
+            int docId = index.docIdByBaseRank(rank);
+            assertEquals(scores[docId], scorer.score(docId), "逐筆計分應與整批計分完全相同");
+            assertTrue(scorer.upperBound(docId) >= scorer.score(docId));
+            assertTrue(index.getBaseScore(docId) <= previous, "應依基礎分數由高到低排列");
+            previous = index.getBaseScore(docId);
+        }
+        assertEquals(2, index.getPostings("咖啡").maxFrequency());
+
+        assertEquals(2, index.countBaseAbove(0.0));
+        assertEquals(3, index.countBaseAbove(-1.0));
+        assertEquals(0, index.countBaseAbove(scores[0] + 1));
+        assertEquals(BitSet.valueOf(new long[] {0b011}), scorer.postingDocs());
+
+        double[] range = new double[2];
+        scorer.score(1, 3, range);
+        assertEquals(scores[1], range[0], "分段計分應與整批計分完全相同");
+        assertEquals(scores[2], range[1]);
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.GoogleQuery.core;
+
+import com.example.GoogleQuery.model.*;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.InputStream;
+import java.util.*;
+
+/**
+ * KeywordMatcherBenchmark - 關鍵字比對速度比較
+ * 比較「每個關鍵字各自掃描一次」（KeywordParser.countKeyword）與
+ * 「整個字典一次掃描」（KeywordMatcher.countAll）的速度，
+ * 並逐步放大字典，觀察每份文件的計分成本是否隨字典大小成長
+ *
+ * 不是單元測試（surefire 不會執行），需要時手動執行：
+ *   mvn -q test-compile
+ *   java -cp "target/classes:target/test-classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)" \
+ *        com.example.GoogleQuery.core.KeywordMatcherBenchmark
+ */
+public class KeywordMatcherBenchmark {
+
+    private static final int WARMUP_ROUNDS = 200;
+    private static final int MEASURE_ROUNDS = 1000;
+
+    public static void main(String[] args) throws Exception {
+        List<String> contents = loadContents();
+        List<String> dictionary = loadDictionary();
+
+        System.out.println("文件數: " + contents.size() + "，平均長度: "
+            + contents.stream().mapToInt(String::length).average().orElse(0) + " 字元");
+        System.out.println();
+        System.out.println(String.format("%-10s %-18s %-18s %-8s", "字典大小", "逐字掃描 (µs/文件)", "自動機 (µs/文件)", "倍數"));
+        System.out.println("=".repeat(60));
+
+        for (int factor : new int[] { 1, 4, 16, 64 }) {
+            List<String> terms = expandDictionary(dictionary, factor);
+            KeywordMatcher matcher = new KeywordMatcher(terms);
+
+            double loop = measure(() -> runPerKeywordLoop(contents, terms), contents.size());
+            double automaton = measure(() -> runMatcher(contents, matcher), contents.size());
+
+            System.out.println(String.format("%-10d %-18.2f %-18.2f %-8.1f",
+                matcher.size(), loop, automaton, loop / automaton));
+        }
+    }
+
+    /**
+     * 舊做法：每份文件建立 KeywordParser，每個關鍵字各自掃描一次
+     */
+    private static long runPerKeywordLoop(List<String> contents, List<String> terms) {
+        long total = 0;
+        for (String content : contents) {
+            KeywordParser parser = new KeywordParser(content);
+            for (String term : terms) {
+                total += parser.countKeyword(term);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * 新做法：整個字典一次掃描
+     */
+    private static long runMatcher(List<String> contents, KeywordMatcher matcher) {
+        long total = 0;
+        for (String content : contents) {
+            for (int count : matcher.countAll(content.toLowerCase())) {
+                total += count;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * 量測平均每份文件花費的時間（微秒）
+     */
+    private static double measure(java.util.function.LongSupplier task, int docCount) {
+        long sink = 0;
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            sink += task.getAsLong();
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURE_ROUNDS; i++) {
+            sink += task.getAsLong();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        if (sink == Long.MIN_VALUE) {
+            System.out.println(sink); // 避免 JIT 消除計算
+        }
+        return elapsed / 1000.0 / MEASURE_ROUNDS / docCount;
+    }
+
+    /**
+     * 將字典放大（加入不會出現在內容中的合成關鍵字），模擬字典成長
+     */
+    private static List<String> expandDictionary(List<String> dictionary, int factor) {
+        List<String> terms = new ArrayList<>(dictionary);
+        for (int copy = 1; copy < factor; copy++) {
+            for (String term : dictionary) {
+                terms.add(term + "_" + copy);
+            }
+        }
+        return terms;
+    }
+
+    private static List<String> loadContents() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        try (InputStream in = KeywordMatcherBenchmark.class.getResourceAsStream("/data/cafes.json")) {
+            List<Cafe> cafes = mapper.readValue(in, new TypeReference<List<Cafe>>() {});
+            List<String> contents = new ArrayList<>();
+            for (Cafe cafe : cafes) {
+                cafe.buildSearchableContent();
+                contents.add(cafe.getContent());
+            }
+            return contents;
+        }
+    }
+
+    private static List<String> loadDictionary() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        try (InputStream in = KeywordMatcherBenchmark.class.getResourceAsStream("/data/keywords.json")) {
+            JsonNode root = mapper.readTree(in);
+            List<String> terms = new ArrayList<>();
+            for (JsonNode node : root.get("keywords")) {
+                terms.add(node.get("term").asText());
+            }
+            return terms;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.GoogleQuery.core;
+
+import com.example.GoogleQuery.model.*;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+
+/**
+ * KeywordMatcherTest - KeywordMatcher 單元測試
+ */
+@DisplayName("KeywordMatcher 測試")
+class KeywordMatcherTest {
+
+    private static final List<String> TERMS = List.of(
+        "不限時", "限時", "插座", "安靜", "wifi", "cp值高", "cafe", "哈哈", "咖啡", "咖啡廳");
+
+    private KeywordMatcher matcher;
+
+    @BeforeEach
+    void setUp() {
+        matcher = new KeywordMatcher(TERMS);
+    }
+
+    private int count(String content, String term) {
+        return matcher.countAll(content.toLowerCase())[matcher.indexOf(term)];
+    }
+
+    @Test
+    @DisplayName("測試中文關鍵字計數")
+    void testChineseKeywords() {
+        String content = "不限時的咖啡廳，有插座也有插座，咖啡好喝";
+
+        assertEquals(1, count(content, "不限時"));
+        assertEquals(1, count(content, "限時"), "重疊的不同關鍵字應各自計數");
+        assertEquals(2, count(content, "插座"));
+        assertEquals(2, count(content, "咖啡"));
+        assertEquals(1, count(content, "咖啡廳"));
+        assertEquals(0, count(content, "安靜"));
+    }
+
+    @Test
+    @DisplayName("測試英文關鍵字需符合單字邊界")
+    void testEnglishWordBoundary() {
+        assertEquals(2, count("WiFi 很快 wifi", "wifi"));
+        assertEquals(0, count("wifis", "wifi"));
+        assertEquals(0, count("my_wifi", "wifi"));
+        assertEquals(0, count("wifi2", "wifi"));
+        assertEquals(1, count("免費wifi供應", "wifi"), "中文字不是單字字元");
+        assertEquals(0, count("cafeteria", "cafe"));
+    }
+
+    @Test
+    @DisplayName("測試同一關鍵字不重疊計數")
+    void testNonOverlapping() {
+        assertEquals(1, count("哈哈哈", "哈哈"));
+        assertEquals(2, count("哈哈哈哈", "哈哈"));
+    }
+
+    @Test
+    @DisplayName("測試與 KeywordParser.countKeyword 結果一致")
+    void testMatchesKeywordParser() {
+        String[] contents = {
+            "不限時 安靜 咖啡 插座 wifi 適合讀書",
+            "CP值高！wifi、wifi_5G、WIFI。cafe café cafe's",
+            "限時兩小時 不限時 不限時不限時 哈哈哈哈哈 aaaaa",
+            "咖啡咖啡廳咖啡 安靜安靜",
+            ""
+        };
+
+        for (String content : contents) {
+            KeywordParser parser = new KeywordParser(content);
+            int[] counts = matcher.countAll(content.toLowerCase());
+            for (String term : TERMS) {
+                assertEquals(parser.countKeyword(term), counts[matcher.indexOf(term)],
+                    "內容「" + content + "」中「" + term + "」的次數應一致");
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("測試相同字典重用比對器")
+    void testForKeywordsReuse() {
+        ArrayList<Keyword> keywords = new ArrayList<>();
+        keywords.add(new Keyword("不限時", 3.0));
+        keywords.add(new Keyword("WIFI", 2.6));
+
+        KeywordMatcher first = KeywordMatcher.forKeywords(keywords);
+        KeywordMatcher second = KeywordMatcher.forKeywords(new ArrayList<>(keywords));
+
+        assertSame(first, second);
+        assertEquals(2, first.size());
+        assertEquals(1, first.indexOf("wifi"));
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.GoogleQuery.core;
+
+import com.example.GoogleQuery.model.*;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+
+/**
+ * NameIndexTest - NameIndex 單元測試
+ */
+@DisplayName("NameIndex 測試")
+class NameIndexTest {
+
+    private NameIndex index;
+    private ArrayList<WebPage> testPages;
+
+    @BeforeEach
+    void setUp() {
+        testPages = new ArrayList<>();
+        testPages.add(new WebPage("https://example.com/cafe1", "Louisa Coffee", "大安區", "不限時", "地址1"));
+        testPages.add(new WebPage("https://example.com/cafe2", "路易莎咖啡 (大安店)", "大安區", "有插座", "地址2"));
+        testPages.add(new WebPage("https://example.com/cafe3", "Coffee Louisa Lab", "中山區", "甜點", "地址3"));
+        testPages.add(new WebPage("https://example.com/cafe4", "", "信義區", "甜點", "地址4"));
+
+        index = new NameIndex(testPages);
+    }
+
+    @Test
+    @DisplayName("測試名稱正規化")
+    void testNormalize() {
+        assertEquals("路易莎咖啡 大安店", index.getNormalizedName(1));
+        assertEquals("louisa coffee", NameIndex.normalize("  Louisa,  COFFEE!! "));
+        assertEquals("", NameIndex.normalize(null));
+    }
+
+    @Test
+    @DisplayName("測試確切、子字串與 token 命中的加分")
+    void testBoosts() {
+        double[] boosts = index.boosts(NameIndex.normalize("louisa coffee"));
+        assertEquals(NameIndex.EXACT_BOOST, boosts[0]);
+        assertEquals(0.0, boosts[1]);
+        assertEquals(NameIndex.TOKEN_BOOST, boosts[2]);
+        assertEquals(0.0, boosts[3]);
+
+        boosts = index.boosts(NameIndex.normalize("咖啡"));
+        assertEquals(NameIndex.SUBSTRING_BOOST, boosts[1]);
+        assertEquals(0.0, boosts[0]);
+    }
+
+    @Test
+    @DisplayName("測試索引結果與逐筆比對相同")
+    void testMatchesScan() {
+        String[] queries = { "louisa", "coffee lab", "大安", "易莎", "x", "", "lab louisa", "coffee louisa lab" };
+        for (String query : queries) {
+            String q = NameIndex.normalize(query);
+            double[] boosts = index.boosts(q);
+            for (int docId = 0; docId < testPages.size(); docId++) {
+                assertEquals(NameIndex.nameBoost(q, index.getNormalizedName(docId)), boosts[docId],
+                    "查詢 \"" + query + "\" 在 docId " + docId + " 的加分不一致");
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("測試預先計算的去重 key")
+    void testDedupeKeys() {
+        assertEquals("na:louisa coffee|地址1", index.getDedupeKey(0));
+        assertEquals("url:https://example.com/cafe4", index.getDedupeKey(3));
+        for (int docId = 0; docId < testPages.size(); docId++) {
+            assertEquals(NameIndex.dedupeKey(testPages.get(docId)), index.getDedupeKey(docId));
+        }
+    }
+
+    @Test
+    @DisplayName("測試計算不重複的去重 key 數量")
+    void testCountGroups() {
+        testPages.add(new WebPage("https://example.com/cafe5", "Louisa Coffee", "大安區", "不限時", "地址1"));
+        testPages.add(new WebPage("https://example.com/cafe6", "Louisa Coffee", "大安區", "不限時", "地址1"));
+        NameIndex duplicated = new NameIndex(testPages);
+
+        BitSet docs = new BitSet();
+        docs.set(0, testPages.size());
+        assertEquals(duplicated.getGroupCount(), duplicated.countGroups(docs));
+        assertEquals(4, duplicated.countGroups(docs));
+
+        docs.clear(0);
+        assertEquals(4, duplicated.countGroups(docs), "同 key 的其他網站仍計入");
+        docs.clear(4, 6);
+        assertEquals(3, duplicated.countGroups(docs));
+        assertEquals(0, duplicated.countGroups(new BitSet()));
+        assertEquals(2, index.countGroups(BitSet.valueOf(new long[] {0b1010})));
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.GoogleQuery.core;
+
+import com.example.GoogleQuery.model.*;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * ParallelSearchBenchmark - 分頁搜尋在多核心上的速度比較
+ * 以合成的大型語料比較逐一計分、動態剪枝、分段平行計分、動態剪枝 + 分段平行計分
+ * 四種做法在不同執行緒數下的單次查詢延遲（分面統計的查詢不能剪枝，另外列出平行計分的結果）
+ *
+ * 不是單元測試（surefire 不會執行），需要時手動執行（參數為網站數與最多執行緒數，預設 200000 與 CPU 核心數）：
+ *   mvn -q test-compile
+ *   java -cp "target/classes:target/test-classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)" \
+ *        com.example.GoogleQuery.core.ParallelSearchBenchmark 200000 8
+ */
+public class ParallelSearchBenchmark {
+
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int MEASURE_ROUNDS = 50;
+    private static final int SEGMENT_SIZE = 8192;
+    private static final String[] WORDS = {
+        "不限時", "安靜", "插座", "wifi", "咖啡", "甜點", "蛋糕", "手沖", "景觀", "寵物", "早午餐", "深夜"
+    };
+    private static final String[] DISTRICTS = {"大安區", "中山區", "信義區", "松山區", "萬華區"};
+    private static final String[] QUERIES = {"咖啡", "安靜 插座", "不限時 wifi 深夜", "手沖咖啡 123"};
+
+    public static void main(String[] args) {
+        int docCount = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+        SearchEngine engine = new SearchEngine(corpus(docCount), keywords());
+        engine.buildIndex();
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : cores;
+        System.out.println("網站數: " + docCount + "，CPU 核心數: " + cores);
+        System.out.println(String.format("%-8s %-16s %-16s %-16s %-18s %-16s",
+            "執行緒", "逐一 (ms)", "剪枝 (ms)", "平行 (ms)", "剪枝+平行 (ms)", "分面+平行 (ms)"));
+        System.out.println("=".repeat(96));
+
+        engine.setParallelScoring(null, 0, 0);
+        engine.setDynamicPruning(false);
+        double exhaustive = measure(engine, false);
+        double facets = measure(engine, true);
+        engine.setDynamicPruning(true);
+        double pruned = measure(engine, false);
+        System.out.println(String.format("%-8d %-16.3f %-16.3f %-16s %-18s %-16.3f",
+            1, exhaustive, pruned, "-", "-", facets));
+
+        for (int threads = 2; threads <= maxThreads; threads *= 2) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                engine.setParallelScoring(pool, 0, SEGMENT_SIZE);
+                engine.setDynamicPruning(false);
+                double parallel = measure(engine, false);
+                double parallelFacets = measure(engine, true);
+                engine.setDynamicPruning(true);
+                double prunedParallel = measure(engine, false);
+                System.out.println(String.format("%-8d %-16s %-16s %-16.3f %-18.3f %-16.3f",
+                    threads, "-", "-", parallel, prunedParallel, parallelFacets));
+            } finally {
+                pool.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * 合成語料：每個網站 5~40 個關鍵字，約 1/20 的網站名稱與地址重複（會被去重）
+     */
+    private static ArrayList<WebPage> corpus(int docCount) {
+        Random random = new Random(docCount);
+        ArrayList<WebPage> pages = new ArrayList<>(docCount);
+        for (int i = 0; i < docCount; i++) {
+            StringBuilder content = new StringBuilder();
+            for (int j = 5 + random.nextInt(36); j > 0; j--) {
+                content.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+            }
+            int n = (i % 20 == 0) ? i / 2 : i;
+            WebPage page = new WebPage("https://example.com/cafe" + i, (n % 97 == 0 ? "手沖咖啡 " : "咖啡廳 ") + n,
+                                       DISTRICTS[random.nextInt(DISTRICTS.length)], "", "地址" + n);
+            page.setContent(content.toString());
+            pages.add(page);
+        }
+        return pages;
+    }
+
+    private static ArrayList<Keyword> keywords() {
+        ArrayList<Keyword> keywords = new ArrayList<>();
+        for (int i = 0; i < WORDS.length; i++) {
+            keywords.add(new Keyword(WORDS[i], 0.5 + (i % 6) * 0.5));
+        }
+        return keywords;
+    }
+
+    /**
+     * 量測每個查詢（第一頁與第十頁、不篩選與篩選一個地區）平均花費的時間（毫秒）
+     */
+    private static double measure(SearchEngine engine, boolean withFacets) {
+        List<String> district = List.of(DISTRICTS[0]);
+        long sink = 0;
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            for (String query : QUERIES) {
+                sink += engine.searchPage(query, null, null, 0, 10, withFacets).getTotal();
+            }
+        }
+
+        int queries = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURE_ROUNDS; i++) {
+            for (String query : QUERIES) {
+                sink += engine.searchPage(query, null, null, 0, 10, withFacets).getTotal();
+                sink += engine.searchPage(query, district, null, 90, 10, withFacets).getTotal();
+                queries += 2;
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+
+        if (sink == Long.MIN_VALUE) {
+            System.out.println(sink); // 避免 JIT 消除計算
+        }
+        return elapsed / 1e6 / queries;
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.GoogleQuery.core;
+
+import com.example.GoogleQuery.model.*;
+import com.example.GoogleQuery.util.ProximityQuery;
+import com.example.GoogleQuery.util.TextAnalyzer;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+
+/**
+ * PositionalIndexTest - PositionalIndex 單元測試
+ */
+@DisplayName("PositionalIndex 測試")
+class PositionalIndexTest {
+
+    private PositionalIndex index;
+
+    @BeforeEach
+    void setUp() {
+        List<WebPage> pages = new ArrayList<>();
+        pages.add(page("cafe0", "不限時 安靜 插座 不限時 咖啡"));
+        pages.add(page("cafe1", "插座 插座 wifi 咖啡"));
+        pages.add(page("cafe2", "安靜 安靜 安靜 甜點"));
+        pages.add(page("cafe3", "wifi wifi 插座 咖啡 咖啡"));
+        pages.add(page("cafe4", "咖啡店 很安靜，有插座"));
+        index = new PositionalIndex(pages);
+    }
+
+    private static WebPage page(String name, String content) {
+        // 網址為空字串時不會抓取網頁內容
+        WebPage page = new WebPage("", name);
+        page.setContent(content);
+        return page;
+    }
+
+    private List<Integer> match(String query) {
+        BitSet matched = index.match(ProximityQuery.parse(query));
+        List<Integer> docIds = new ArrayList<>();
+        matched.stream().forEach(docIds::add);
+        return docIds;
+    }
+
+    @Test
+    @DisplayName("測試位置列表")
+    void testPositions() {
+        assertArrayEquals(new int[] {0, 3}, index.positions("不限時", 0));
+        assertArrayEquals(new int[] {0, 1}, index.positions("插座", 1));
+        assertArrayEquals(new int[0], index.positions("插座", 2));
+        assertArrayEquals(new int[0], index.positions("不存在", 0));
+    }
+
+    @Test
+    @DisplayName("測試片語：詞必須相鄰且依序出現")
+    void testPhrase() {
+        assertEquals(List.of(3), match("\"插座 咖啡\""));
+        assertEquals(List.of(0, 4), match("\"安靜 插座\""), "停用詞與標點不佔位置");
+        assertEquals(List.of(), match("\"咖啡 插座\""));
+        assertEquals(List.of(3), match("\"wifi wifi 插座\""));
+        assertEquals(List.of(), match("\"甜點 不存在\""));
+    }
+
+    @Test
+    @DisplayName("測試 NEAR/n：相隔 n 個詞以內，不分先後")
+    void testNear() {
+        assertEquals(List.of(3), match("插座 NEAR/0 咖啡"), "相鄰");
+        assertEquals(List.of(0, 1, 3), match("插座 NEAR/1 咖啡"));
+        assertEquals(List.of(0, 1, 3), match("咖啡 NEAR/1 插座"));
+        assertEquals(List.of(1), match("插座 NEAR/0 插座"), "同一個位置不能同時當作兩邊");
+        assertEquals(List.of(3), match("\"wifi 插座\" NEAR/0 咖啡"));
+        assertEquals(List.of(0), match("\"安靜 插座\" 不限時 NEAR/2 咖啡"), "多個條件需全部符合");
+    }
+
+    @Test
+    @DisplayName("測試查詢詞與內容使用相同的分析（同義詞、停用詞）")
+    void testAnalyzedTerms() {
+        assertEquals(List.of(4), match("\"咖啡廳 安靜\""), "咖啡店 以同義詞正規化為 咖啡廳，很 是停用詞");
+        assertEquals(List.of(4), match("\"咖啡店 很 安靜\""));
+    }
+
+    @Test
+    @DisplayName("測試不在索引中的內容")
+    void testMatchesStream() {
+        ProximityQuery query = ProximityQuery.parse("\"插座 咖啡\" wifi NEAR/3 咖啡");
+        assertTrue(index.matches(query, TextAnalyzer.DEFAULT.analyze("wifi 插座 咖啡")));
+        assertFalse(index.matches(query, TextAnalyzer.DEFAULT.analyze("插座 wifi 咖啡")));
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.GoogleQuery.core;
+
+import java.util.*;
+
+/**
+ * ScoringKernelBenchmark - 批次計分速度比較
+ * 比較「每個網站以 Map 查次數與權重」（KeywordService.calculateWeightedScore 的做法）、
+ * 純量 ScoringKernel 與 Vector API ScoringKernel 計算所有網站加權分數的速度
+ *
+ * 不是單元測試（surefire 不會執行），需要時手動執行（-XX:UseAVX=2 可停用 AVX-512 比較）：
+ *   mvn -q test-compile
+ *   java --add-modules jdk.incubator.vector \
+ *        -cp "target/classes:target/test-classes" com.example.GoogleQuery.core.ScoringKernelBenchmark
+ */
+public class ScoringKernelBenchmark {
+
+    private static final int WARMUP_ROUNDS = 200;
+    private static final int MEASURE_ROUNDS = 1000;
+    private static final int TERM_COUNT = 64;
+
+    public static void main(String[] args) {
+        System.out.println("計分核心: " + ScoringKernel.best());
+        System.out.println(String.format("%-10s %-16s %-16s %-16s %-8s",
+            "網站數", "Map (ns/網站)", "純量 (ns/網站)", "SIMD (ns/網站)", "倍數"));
+        System.out.println("=".repeat(72));
+
+        for (int docCount : new int[] { 1000, 10000, 100000 }) {
+            Random random = new Random(docCount);
+            int[] columns = new int[docCount * TERM_COUNT];
+            List<Map<String, Integer>> maps = new ArrayList<>();
+            for (int docId = 0; docId < docCount; docId++) {
+                maps.add(new HashMap<>());
+            }
+            double[] weights = new double[TERM_COUNT];
+            Map<String, Double> weightMap = new HashMap<>();
+            for (int termId = 0; termId < TERM_COUNT; termId++) {
+                weights[termId] = 0.5 + random.nextDouble() * 2.5;
+                weightMap.put("term" + termId, weights[termId]);
+                for (int docId = 0; docId < docCount; docId++) {
+                    int count = random.nextInt(3) == 0 ? 1 + random.nextInt(5) : 0;
+                    columns[termId * docCount + docId] = count;
+                    if (count > 0) {
+                        maps.get(docId).put("term" + termId, count);
+                    }
+                }
+            }
+
+            double[] sums = new double[docCount];
+            double map = measure(() -> runMaps(maps, weightMap, sums), docCount);
+            double scalar = measure(() -> run(ScoringKernel.scalar(), columns, docCount, weights, sums), docCount);
+            double vector = measure(() -> run(ScoringKernel.best(), columns, docCount, weights, sums), docCount);
+
+            System.out.println(String.format("%-10d %-16.2f %-16.2f %-16.2f %-8.1f",
+                docCount, map, scalar, vector, map / vector));
+        }
+    }
+
+    /**
+     * 舊做法：每個網站逐一以 Map 查次數與權重
+     */
+    private static double runMaps(List<Map<String, Integer>> maps, Map<String, Double> weights, double[] sums) {
+        for (int docId = 0; docId < maps.size(); docId++) {
+            double total = 0.0;
+            for (Map.Entry<String, Double> weight : weights.entrySet()) {
+                total += weight.getValue() * maps.get(docId).getOrDefault(weight.getKey(), 0);
+            }
+            sums[docId] = total;
+        }
+        return sums[sums.length - 1];
+    }
+
+    private static double run(ScoringKernel kernel, int[] columns, int docCount, double[] weights, double[] sums) {
+        kernel.weightedSums(columns, docCount, weights, sums);
+        return sums[docCount - 1];
+    }
+
+    /**
+     * 量測平均每個網站花費的時間（奈秒）
+     */
+    private static double measure(java.util.function.DoubleSupplier task, int docCount) {
+        int rounds = Math.max(10, MEASURE_ROUNDS * 1000 / docCount);
+        double sink = 0;
+        for (int i = 0; i < Math.max(10, WARMUP_ROUNDS * 1000 / docCount); i++) {
+            sink += task.getAsDouble();
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            sink += task.getAsDouble();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        if (sink == Double.MIN_VALUE) {
+            System.out.println(sink); // 避免 JIT 消除計算
+        }
+        return (double) elapsed / rounds / docCount;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.GoogleQuery.core;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+
+/**
+ * ScoringKernelTest - ScoringKernel 單元測試
+ */
+@DisplayName("ScoringKernel 測試")
+class ScoringKernelTest {
+
+    @Test
+    @DisplayName("測試測試環境載入 Vector API 實作")
+    void testBestUsesVectorApi() {
+        Assumptions.assumeTrue(ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent());
+        assertNotSame(ScoringKernel.scalar(), ScoringKernel.best());
+    }
+
+    @Test
+    @DisplayName("測試 SIMD 與純量結果完全相同（bit-identical）")
+    void testBitIdenticalToScalar() {
+        Random random = new Random(3);
+        for (int docCount : new int[] {0, 1, 7, 8, 13, 64, 1000}) {
+            int termCount = 1 + random.nextInt(40);
+            int[] columns = new int[docCount * termCount];
+            for (int i = 0; i < columns.length; i++) {
+                columns[i] = random.nextInt(4) == 0 ? random.nextInt(20) : 0;
+            }
+            double[] weights = new double[termCount];
+            for (int t = 0; t < termCount; t++) {
+                weights[t] = random.nextInt(5) == 0 ? 0.0 : random.nextDouble() * 3.0;
+            }
+
+            double[] expected = reference(columns, docCount, weights);
+            double[] scalar = new double[docCount];
+            double[] best = new double[docCount];
+            ScoringKernel.scalar().weightedSums(columns, docCount, weights, scalar);
+            ScoringKernel.best().weightedSums(columns, docCount, weights, best);
+            assertArrayEquals(expected, scalar, 0.0);
+            assertArrayEquals(expected, best, 0.0);
+
+            ScoringKernel.scalar().accumulate(columns, 0, docCount, 0.7, scalar);
+            ScoringKernel.best().accumulate(columns, 0, docCount, 0.7, best);
+            assertArrayEquals(scalar, best, 0.0);
+        }
+    }
+
+    /**
+     * 原本的逐一網站計分（依 termId 順序累加，略過次數為 0 的關鍵字）
+     */
+    private static double[] reference(int[] columns, int docCount, double[] weights) {
+        double[] sums = new double[docCount];
+        for (int docId = 0; docId < docCount; docId++) {
+            double sum = 0.0;
+            for (int termId = 0; termId < weights.length; termId++) {
+                int count = columns[termId * docCount + docId];
+                if (count != 0) {
+                    sum += count * weights[termId];
+                }
+            }
+            sums[docId] = sum;
+        }
+        return sums;
+    }
+}
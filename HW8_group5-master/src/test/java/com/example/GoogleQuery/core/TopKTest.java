@@ -0,0 +1,54 @@
+package com.example.GoogleQuery.core;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+
+/**
+ * TopKTest - TopK 單元測試
+ */
+@DisplayName("TopK 測試")
+class TopKTest {
+
+    @Test
+    @DisplayName("測試只保留前 K 名並依順序輸出")
+    void testKeepsBestK() {
+        TopK<Integer> topK = new TopK<>(3, Comparator.reverseOrder());
+        for (int value : new int[]{5, 1, 9, 3, 7, 2, 8}) {
+            topK.offer(value);
+        }
+
+        assertEquals(3, topK.size());
+        assertEquals(List.of(9, 8, 7), topK.toSortedList());
+    }
+
+    @Test
+    @DisplayName("測試數量不足 K 與 K 為 0")
+    void testSmallInputs() {
+        TopK<Integer> topK = new TopK<>(5, Comparator.reverseOrder());
+        topK.offer(2);
+        topK.offer(4);
+        assertEquals(List.of(4, 2), topK.toSortedList());
+
+        TopK<Integer> none = new TopK<>(0, Comparator.reverseOrder());
+        none.offer(1);
+        assertTrue(none.toSortedList().isEmpty());
+    }
+
+    @Test
+    @DisplayName("測試與完整排序結果一致")
+    void testMatchesFullSort() {
+        Random random = new Random(42);
+        List<Integer> values = new ArrayList<>();
+        TopK<Integer> topK = new TopK<>(10, Comparator.reverseOrder());
+        for (int i = 0; i < 500; i++) {
+            int value = random.nextInt(1000);
+            values.add(value);
+            topK.offer(value);
+        }
+
+        values.sort(Comparator.reverseOrder());
+        assertEquals(values.subList(0, 10), topK.toSortedList());
+    }
+}
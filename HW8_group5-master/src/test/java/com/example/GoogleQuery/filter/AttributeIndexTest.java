@@ -0,0 +1,106 @@
+package com.example.GoogleQuery.filter;
+
+import com.example.GoogleQuery.model.*;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+
+/**
+ * AttributeIndexTest - AttributeIndex 單元測試
+ */
+@DisplayName("AttributeIndex 測試")
+class AttributeIndexTest {
+
+    private AttributeIndex index;
+    private List<Cafe> testCafes;
+
+    @BeforeEach
+    void setUp() {
+        testCafes = new ArrayList<>();
+
+        Cafe cafe1 = new Cafe("cafe_001", "咖啡廳A", "https://example.com/a", "大安區", "地址A");
+        cafe1.setNoTimeLimit(true);
+        cafe1.setHasSocket(true);
+        cafe1.addTag("甜點");
+        testCafes.add(cafe1);
+
+        Cafe cafe2 = new Cafe("cafe_002", "咖啡廳B", "https://example.com/b", "中山區", "地址B");
+        cafe2.setHasSocket(true);
+        cafe2.setHasWifi(true);
+        testCafes.add(cafe2);
+
+        Cafe cafe3 = new Cafe("cafe_003", "咖啡廳C", "https://example.com/c", "大安區", "地址C");
+        cafe3.setHasWifi(true);
+        cafe3.addTag("甜點");
+        cafe3.addTag("寵物");
+        testCafes.add(cafe3);
+
+        index = new AttributeIndex(testCafes);
+    }
+
+    @Test
+    @DisplayName("測試地區 OR 與功能 AND 的組合")
+    void testMatch() {
+        assertEquals(List.of(testCafes.get(0), testCafes.get(2)),
+            AttributeIndex.select(testCafes, index.match(List.of("大安區"), null)));
+        assertEquals(List.of(testCafes.get(0)),
+            AttributeIndex.select(testCafes, index.match(List.of("大安區", "中山區"), List.of("有插座", "不限時"))));
+        assertEquals(List.of(testCafes.get(1)),
+            AttributeIndex.select(testCafes, index.match(null, List.of("有插座", "有wifi"))));
+        assertEquals(3, index.match(null, null).cardinality(), "沒有條件時應返回全部");
+        assertTrue(index.match(List.of("信義區"), null).isEmpty());
+    }
+
+    @Test
+    @DisplayName("測試任一 / 全部符合")
+    void testMatchAllAndAny() {
+        assertEquals(3, index.features(List.of("有插座", "有wifi"), false).cardinality());
+        assertTrue(index.features(List.of("有插座", "不存在"), true).isEmpty());
+        assertEquals(2, index.tags(List.of("甜點"), true).cardinality());
+        assertEquals(List.of(testCafes.get(2)),
+            AttributeIndex.select(testCafes, index.tags(List.of("甜點", "寵物"), true)));
+    }
+
+    @Test
+    @DisplayName("測試結果與 DistrictFilter、FeatureFilter 相同")
+    void testMatchesFilters() {
+        List<String> districts = List.of("大安區", "中山區");
+        List<String> features = List.of("有wifi");
+
+        ArrayList<SearchResult> results = new ArrayList<>();
+        for (Cafe cafe : testCafes) {
+            results.add(new SearchResult(cafe));
+        }
+        results = new DistrictFilter(districts).filter(results);
+        results = new FeatureFilter(features).filter(results);
+
+        List<Cafe> expected = new ArrayList<>();
+        for (SearchResult result : results) {
+            expected.add((Cafe) result.getPage());
+        }
+        assertEquals(expected, AttributeIndex.select(testCafes, index.match(districts, features)));
+    }
+
+    @Test
+    @DisplayName("測試分面統計")
+    void testFacets() {
+        BitSet docs = new BitSet();
+        docs.set(0);
+        docs.set(2);
+
+        FacetCounts facets = index.facets(docs);
+        assertEquals(Map.of("大安區", 2), facets.getDistricts());
+        assertEquals(Map.of("不限時", 1, "有插座", 1, "有wifi", 1), facets.getFeatures());
+        assertTrue(index.facets(new BitSet()).getDistricts().isEmpty());
+    }
+
+    @Test
+    @DisplayName("測試數量統計")
+    void testCounts() {
+        assertEquals(2, index.countDistrict("大安區"));
+        assertEquals(0, index.countDistrict("信義區"));
+        assertEquals(2, index.countFeature("有插座"));
+        assertEquals(3, index.size());
+    }
+}
@@ -1,5 +1,413 @@
 package com.example.GoogleQuery.integration;
 
+import com.example.GoogleQuery.core.CompletionPopularity;
+import com.example.GoogleQuery.core.SearchEngine;
+import com.example.GoogleQuery.model.*;
+import com.example.GoogleQuery.util.ParsedQuery;
+import com.example.GoogleQuery.util.QueryCanonicalizer;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * SearchEngineIntegrationTest - SearchEngine 整合測試
+ * 驗證多個查詢同時執行時不會互相影響排名
+ */
+@DisplayName("SearchEngine 整合測試")
 public class SearchEngineIntegrationTest {
-    
+
+    private SearchEngine searchEngine;
+    private ArrayList<WebPage> testPages;
+    private ArrayList<Keyword> testKeywords;
+
+    @BeforeEach
+    void setUp() {
+        testPages = new ArrayList<>();
+        testPages.add(createPage("cafe1", "讀書咖啡廳", "大安區", "不限時 安靜 插座 不限時 咖啡"));
+        testPages.add(createPage("cafe2", "插座咖啡廳", "中山區", "插座 插座 wifi 咖啡"));
+        testPages.add(createPage("cafe3", "安靜咖啡廳", "信義區", "安靜 安靜 安靜 甜點"));
+        testPages.add(createPage("cafe4", "網路咖啡廳", "大安區", "wifi wifi 插座 咖啡 咖啡"));
+
+        testKeywords = new ArrayList<>();
+        testKeywords.add(new Keyword("不限時", 3.0));
+        testKeywords.add(new Keyword("安靜", 2.8));
+        testKeywords.add(new Keyword("插座", 2.7));
+        testKeywords.add(new Keyword("wifi", 2.6));
+        testKeywords.add(new Keyword("咖啡", 1.5));
+
+        searchEngine = new SearchEngine(testPages, testKeywords);
+        searchEngine.buildIndex();
+    }
+
+    private WebPage createPage(String id, String name, String district, String content) {
+        WebPage page = new WebPage("https://example.com/" + id, name, district, "", "地址");
+        page.setContent(content);
+        return page;
+    }
+
+    @Test
+    @DisplayName("測試同時執行的查詢結果與單獨執行相同")
+    void testConcurrentSearchesAreIsolated() throws Exception {
+        String[] queries = {"不限時", "插座", "安靜", "wifi", "咖啡 安靜"};
+
+        Map<String, List<String>> expected = new HashMap<>();
+        for (String query : queries) {
+            expected.put(query, urls(searchEngine.search(query), true));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> futures = new ArrayList<>();
+            for (int i = 0; i < 400; i++) {
+                String query = queries[i % queries.length];
+                futures.add(executor.submit(() ->
+                    expected.get(query).equals(urls(searchEngine.search(query), true))));
+            }
+
+            for (Future<Boolean> future : futures) {
+                assertTrue(future.get(10, TimeUnit.SECONDS), "並行查詢的排名不應受到其他查詢影響");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("測試查詢不會修改共用的網站分數與關鍵字權重")
+    void testSearchDoesNotMutateSharedState() {
+        Map<WebPage, Double> scoresBefore = new IdentityHashMap<>();
+        for (WebPage page : testPages) {
+            scoresBefore.put(page, page.getScore());
+        }
+
+        searchEngine.search("安靜 插座");
+        searchEngine.search("wifi", List.of("大安區"), null);
+
+        for (WebPage page : testPages) {
+            assertEquals(scoresBefore.get(page), page.getScore(), 1e-9);
+        }
+        for (Keyword keyword : testKeywords) {
+            assertEquals(keyword.getOriginalWeight(), keyword.getWeight(), 1e-9);
+        }
+    }
+
+    @Test
+    @DisplayName("測試指定網站列表搜尋不會改變引擎的網站列表")
+    void testSearchWithPagesKeepsCorpus() {
+        ArrayList<WebPage> subset = new ArrayList<>(testPages.subList(0, 2));
+
+        ArrayList<SearchResult> results = searchEngine.search("插座", subset);
+
+        assertEquals(2, results.size());
+        assertEquals(4, searchEngine.getAllPages().size());
+    }
+
+    @Test
+    @DisplayName("測試新增網站後查詢使用新的快照")
+    void testAddPagePublishesNewSnapshot() {
+        int before = searchEngine.search("不限時").size();
+
+        searchEngine.addPage(createPage("cafe5", "不限時咖啡廳", "中正區", "不限時 不限時 不限時 不限時 不限時"));
+
+        ArrayList<SearchResult> results = searchEngine.search("不限時");
+        assertEquals(before + 1, results.size());
+        assertEquals("https://example.com/cafe5", results.get(0).getUrl());
+    }
+
+    @Test
+    @DisplayName("測試分頁結果與完整排序一致")
+    void testSearchPageMatchesFullRanking() {
+        List<String> full = urls(searchEngine.search("插座"), true);
+
+        List<String> paged = new ArrayList<>();
+        int offset = 0;
+        SearchPage page;
+        do {
+            page = searchEngine.searchPage("插座", null, null, offset, 1);
+            assertEquals(full.size(), page.getTotal());
+            paged.addAll(urls(page.getResults(), true));
+            offset += 1;
+        } while (page.hasMore());
+
+        assertEquals(full, paged);
+        assertTrue(searchEngine.searchPage("插座", null, null, full.size(), 10).getResults().isEmpty());
+    }
+
+    @Test
+    @DisplayName("測試動態剪枝的分頁結果與逐一計分相同")
+    void testDynamicPruningMatchesExhaustive() {
+        Random random = new Random(42);
+        String[] words = {"不限時", "安靜", "插座", "wifi", "咖啡", "甜點", "蛋糕"};
+        String[] districts = {"大安區", "中山區", "信義區"};
+        ArrayList<WebPage> pages = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            StringBuilder content = new StringBuilder();
+            for (int j = random.nextInt(12); j >= 0; j--) {
+                content.append(words[random.nextInt(words.length)]).append(' ');
+            }
+            // 名稱與地址重複的網站會被去重；部分名稱包含關鍵字（名稱加分）
+            int n = i % 240;
+            String name = (n % 17 == 0 ? "插座咖啡 " : "咖啡廳 ") + n;
+            WebPage page = new WebPage("", name, districts[i % districts.length], "", "地址" + n);
+            page.setContent(content.toString());
+            pages.add(page);
+        }
+
+        SearchEngine engine = new SearchEngine(pages, testKeywords);
+        String[] queries = {"咖啡", "插座", "安靜 wifi", "不限時 咖啡 插座", "甜點", "", "插座咖啡",
+                            "\"安靜 插座\"", "咖啡 NEAR/1 不限時"};
+        for (String query : queries) {
+            for (List<String> filter : Arrays.asList(null, List.of("大安區"), List.of("中山區", "信義區"))) {
+                for (int[] range : new int[][] {{0, 1}, {0, 10}, {5, 10}, {30, 20}, {250, 10}}) {
+                    engine.setDynamicPruning(true);
+                    SearchPage pruned = engine.searchPage(query, filter, null, range[0], range[1]);
+                    engine.setDynamicPruning(false);
+                    SearchPage exhaustive = engine.searchPage(query, filter, null, range[0], range[1]);
+
+                    String message = query + " " + filter + " " + Arrays.toString(range);
+                    assertEquals(exhaustive.getTotal(), pruned.getTotal(), message);
+                    assertEquals(urls(exhaustive.getResults(), true), urls(pruned.getResults(), true), message);
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("測試分段平行計分的結果與單執行緒計分相同")
+    void testParallelScoringMatchesSequential() {
+        Random random = new Random(7);
+        String[] words = {"不限時", "安靜", "插座", "wifi", "咖啡", "甜點"};
+        String[] districts = {"大安區", "中山區", "信義區"};
+        ArrayList<WebPage> pages = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            StringBuilder content = new StringBuilder();
+            for (int j = random.nextInt(10); j >= 0; j--) {
+                content.append(words[random.nextInt(words.length)]).append(' ');
+            }
+            int n = i % 400;
+            WebPage page = new WebPage("", (n % 13 == 0 ? "安靜咖啡 " : "咖啡廳 ") + n,
+                                       districts[i % districts.length], "", "地址" + n);
+            page.setContent(content.toString());
+            pages.add(page);
+        }
+
+        SearchEngine engine = new SearchEngine(pages, testKeywords);
+        engine.setDynamicPruning(false);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (String query : new String[] {"咖啡", "安靜 插座", "安靜咖啡", "", "\"安靜 插座\""}) {
+                for (List<String> filter : Arrays.asList(null, List.of("大安區", "信義區"))) {
+                    for (int[] range : new int[][] {{0, 10}, {20, 30}, {0, Integer.MAX_VALUE}}) {
+                        engine.setParallelScoring(null, 0, 0);
+                        SearchPage sequential = engine.searchPage(query, filter, null, range[0], range[1], true);
+                        engine.setParallelScoring(pool, 0, 37);
+                        SearchPage parallel = engine.searchPage(query, filter, null, range[0], range[1], true);
+
+                        String message = query + " " + filter + " " + Arrays.toString(range);
+                        assertEquals(sequential.getTotal(), parallel.getTotal(), message);
+                        assertEquals(urls(sequential.getResults(), true), urls(parallel.getResults(), true), message);
+                        assertEquals(sequential.getFacets().getDistricts(), parallel.getFacets().getDistricts(), message);
+                        assertEquals(sequential.getFacets().getFeatures(), parallel.getFacets().getFeatures(), message);
+                    }
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("測試動態剪枝與分段平行計分同時使用的結果與逐一計分相同")
+    void testPrunedParallelScoringMatchesExhaustive() {
+        Random random = new Random(11);
+        String[] words = {"不限時", "安靜", "插座", "wifi", "咖啡", "甜點"};
+        String[] districts = {"大安區", "中山區", "信義區"};
+        ArrayList<WebPage> pages = new ArrayList<>();
+        for (int i = 0; i < 600; i++) {
+            StringBuilder content = new StringBuilder();
+            for (int j = random.nextInt(10); j >= 0; j--) {
+                content.append(words[random.nextInt(words.length)]).append(' ');
+            }
+            int n = i % 450;
+            WebPage page = new WebPage("", (n % 11 == 0 ? "插座咖啡 " : "咖啡廳 ") + n,
+                                       districts[i % districts.length], "", "地址" + n);
+            page.setContent(content.toString());
+            pages.add(page);
+        }
+
+        SearchEngine engine = new SearchEngine(pages, testKeywords);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (String query : new String[] {"咖啡", "安靜 插座", "插座咖啡", "", "咖啡 NEAR/1 不限時"}) {
+                for (List<String> filter : Arrays.asList(null, List.of("中山區"))) {
+                    for (int[] range : new int[][] {{0, 1}, {0, 10}, {40, 20}, {300, 50}}) {
+                        engine.setParallelScoring(null, 0, 0);
+                        engine.setDynamicPruning(false);
+                        SearchPage exhaustive = engine.searchPage(query, filter, null, range[0], range[1]);
+                        engine.setParallelScoring(pool, 0, 53);
+                        engine.setDynamicPruning(true);
+                        SearchPage parallel = engine.searchPage(query, filter, null, range[0], range[1]);
+
+                        String message = query + " " + filter + " " + Arrays.toString(range);
+                        assertEquals(exhaustive.getTotal(), parallel.getTotal(), message);
+                        assertEquals(urls(exhaustive.getResults(), true), urls(parallel.getResults(), true), message);
+                    }
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("測試分面統計與符合結果的地區分布一致")
+    void testSearchPageFacets() {
+        ArrayList<SearchResult> all = searchEngine.search("插座");
+        Map<String, Integer> expected = new HashMap<>();
+        for (SearchResult result : all) {
+            expected.merge(result.getDistrict(), 1, Integer::sum);
+        }
+
+        SearchPage page = searchEngine.searchPage("插座", null, null, 0, 1, true);
+        assertEquals(1, page.getResults().size(), "分面統計不應影響分頁");
+        assertNotNull(page.getFacets());
+        assertEquals(expected, page.getFacets().getDistricts());
+
+        SearchPage filtered = searchEngine.searchPage("插座", List.of("大安區"), null, 0, 10, true);
+        assertEquals(Map.of("大安區", filtered.getTotal()), filtered.getFacets().getDistricts());
+
+        assertNull(searchEngine.searchPage("插座", null, null, 0, 10).getFacets());
+    }
+
+    @Test
+    @DisplayName("測試意思相同的查詢得到相同的標準形式與結果")
+    void testCanonicalQuery() {
+        String canonical = searchEngine.canonicalQuery("安靜 不限時");
+        assertEquals(canonical, searchEngine.canonicalQuery("不限時　安靜"));
+        assertEquals(canonical, searchEngine.canonicalQuery("  不限時 的 安靜！"));
+        assertEquals(urls(searchEngine.search("安靜 不限時"), true), urls(searchEngine.search(canonical), true));
+
+        // 名稱包含整個查詢時保留原本的順序（順序會影響名稱加分）
+        assertEquals("咖啡廳 插座", searchEngine.canonicalQuery("插座 咖啡廳"));
+        searchEngine.addPage(createPage("cafe5", "Socket 插座 咖啡廳", "中正區", "插座"));
+        assertEquals("插座 咖啡廳", searchEngine.canonicalQuery("插座 咖啡廳"));
+    }
+
+    @Test
+    @DisplayName("測試正規化與排序不會讓查詢失去命中的多詞關鍵字")
+    void testCanonicalQueryKeepsMultiWordKeywords() {
+        testKeywords.add(new Keyword("pet friendly", 2.0));
+        testKeywords.add(new Keyword("wi-fi", 2.0));
+        testPages.add(createPage("cafe5", "寵物咖啡廳", "中正區", "pet friendly wi-fi 咖啡"));
+        SearchEngine engine = new SearchEngine(testPages, testKeywords);
+        engine.buildIndex();
+
+        // 排序後 "friendly pet" 不再包含 "pet friendly"，保留原本的順序
+        assertEquals("pet friendly", engine.canonicalQuery("Pet  Friendly"));
+        assertEquals("咖啡 pet friendly", engine.canonicalQuery("咖啡 pet friendly"));
+        assertEquals("不限時 咖啡", engine.canonicalQuery("咖啡 不限時"), "沒有多詞關鍵字時照常排序");
+
+        // 切分標點會讓 "wi-fi" 變成 "wi fi"，改用只正規化大小寫與空白的形式
+        assertEquals("wi-fi 咖啡", engine.canonicalQuery("Ｗｉ-Ｆｉ　咖啡"));
+        for (String query : List.of("Pet  Friendly", "friendly pet 咖啡", "Ｗｉ-Ｆｉ　咖啡")) {
+            List<String> before = keywordNames(engine, QueryCanonicalizer.foldSpaces(query));
+            assertEquals(before, keywordNames(engine, engine.canonicalQuery(query)), query);
+        }
+    }
+
+    @Test
+    @DisplayName("測試片語與 NEAR/n 條件只限制結果，分數與一般查詢相同")
+    void testPhraseAndProximity() {
+        Map<String, Double> bag = new HashMap<>();
+        for (SearchResult result : searchEngine.search("插座 咖啡")) {
+            bag.put(result.getUrl(), result.getScore());
+        }
+
+        // cafe4 的「插座 咖啡」相鄰；cafe1、cafe2 中間相隔一個詞
+        ArrayList<SearchResult> phrase = searchEngine.search("\"插座 咖啡\"");
+        assertEquals(List.of("https://example.com/cafe4"), urls(phrase, false));
+        assertEquals(bag.get("https://example.com/cafe4"), phrase.get(0).getScore(), 1e-9);
+
+        List<String> near = urls(searchEngine.search("插座 NEAR/1 咖啡"), false);
+        assertEquals(Set.of("https://example.com/cafe1", "https://example.com/cafe2", "https://example.com/cafe4"),
+                     new HashSet<>(near));
+        assertEquals(near, urls(searchEngine.searchPage("插座 NEAR/1 咖啡", null, null, 0, 10).getResults(), false));
+        assertEquals(1, searchEngine.searchPage("插座 NEAR/1 咖啡", List.of("中山區"), null, 0, 10).getTotal());
+
+        // 標準形式保留片語（不排序）
+        assertEquals("\"插座 咖啡\"", searchEngine.canonicalQuery("“插座　咖啡”"));
+        assertEquals("插座 near/1 咖啡", searchEngine.canonicalQuery("插座 NEAR/1 咖啡"));
+
+        // 解析一次後傳入的查詢與直接傳入字串的結果相同
+        ParsedQuery prepared = searchEngine.prepareQuery("插座 NEAR/1 咖啡");
+        assertEquals("插座 near/1 咖啡", prepared.getText());
+        assertEquals(near, urls(searchEngine.searchPage(prepared, null, null, 0, 10, false).getResults(), false));
+    }
+
+    @Test
+    @DisplayName("測試邊打字邊預覽：由包含輸入的詞的 postings 估分")
+    void testPreview() {
+        // "插" 展開為關鍵字 "插座"（cafe1、cafe2×2、cafe4）與名稱 "插座咖啡廳"
+        assertEquals(List.of("https://example.com/cafe2", "https://example.com/cafe1", "https://example.com/cafe4"),
+            urls(searchEngine.preview("插", 5), false));
+        assertEquals(List.of("https://example.com/cafe2"), urls(searchEngine.preview("插", 1), false));
+        assertEquals(List.of("https://example.com/cafe4", "https://example.com/cafe2"),
+            urls(searchEngine.preview("ＷＩ", 5), false));
+        assertTrue(searchEngine.preview("不存在", 5).isEmpty());
+        assertTrue(searchEngine.preview("", 5).isEmpty());
+    }
+
+    @Test
+    @DisplayName("測試自動完成熱門程度：只記錄索引中的詞，並定期減半")
+    void testRecordQueryPopularity() {
+        CompletionPopularity popularity = new CompletionPopularity();
+        searchEngine.recordQuery(searchEngine.prepareQuery("ＷＩＦＩ"), popularity);
+        searchEngine.recordQuery(searchEngine.prepareQuery("wifi 插座 插座"), popularity);
+        searchEngine.recordQuery(searchEngine.prepareQuery("wifi 不在索引的詞"), popularity);
+        searchEngine.recordQuery(searchEngine.prepareQuery("讀書咖啡廳"), popularity);
+
+        assertEquals(3, popularity.get("wifi"));
+        assertEquals(1, popularity.get("插座"));
+        assertEquals(1, popularity.get("讀書咖啡廳"));
+        assertEquals(0, popularity.get("不在索引的詞"));
+        assertEquals(0, popularity.get("wifi 插座 插座"));
+
+        // 咖啡廳名稱權重相同，熱門的 "網路咖啡廳" 排在最前面
+        for (int i = 0; i < 200; i++) {
+            searchEngine.recordQuery(searchEngine.prepareQuery("網路咖啡廳"), popularity);
+        }
+        assertEquals("網路咖啡廳", searchEngine.getSearchSuggestions("咖啡廳", popularity).get(0));
+
+        // 熱門程度不屬於引擎：重新建立引擎（重新載入資料）後仍然有效
+        SearchEngine reloaded = new SearchEngine(testPages, testKeywords);
+        reloaded.buildIndex();
+        assertEquals("網路咖啡廳", reloaded.getSearchSuggestions("咖啡廳", popularity).get(0));
+
+        popularity.decay();
+        assertEquals(1, popularity.get("wifi"));
+        assertEquals(0, popularity.get("插座"));
+        assertEquals(100, popularity.get("網路咖啡廳"));
+    }
+
+    /**
+     * 依排名列出結果的網址
+     * @param withScores 是否附上分數（比較兩種做法的排名與分數完全相同）
+     */
+    private List<String> keywordNames(SearchEngine engine, String query) {
+        List<String> names = new ArrayList<>();
+        for (Keyword keyword : engine.getIndex().getQueryKeywords(query)) {
+            names.add(keyword.name);
+        }
+        return names;
+    }
+
+    private List<String> urls(List<SearchResult> results, boolean withScores) {
+        List<String> urls = new ArrayList<>();
+        for (SearchResult result : results) {
+            urls.add(withScores ? result.getUrl() + "@" + result.getScore() : result.getUrl());
+        }
+        return urls;
+    }
 }
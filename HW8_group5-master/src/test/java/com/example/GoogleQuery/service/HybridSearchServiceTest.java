@@ -0,0 +1,154 @@
+package com.example.GoogleQuery.service;
+
+import com.example.GoogleQuery.config.CacheConfig;
+import com.example.GoogleQuery.model.SearchPage;
+import com.example.GoogleQuery.model.SearchResult;
+import com.example.GoogleQuery.model.WebPage;
+import com.example.GoogleQuery.util.ParsedQuery;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.*;
+
+/**
+ * HybridSearchServiceTest - HybridSearchService 分階段搜尋單元測試
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("HybridSearchService 測試")
+class HybridSearchServiceTest {
+
+    @Mock
+    private SearchService searchService;
+
+    @Mock
+    private GoogleService googleService;
+
+    @InjectMocks
+    private HybridSearchService hybridSearchService;
+
+    private List<SearchResult> candidates;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(hybridSearchService, "retrievalDepth", 4);
+        ReflectionTestUtils.setField(hybridSearchService, "googleDepth", 2);
+        ReflectionTestUtils.setField(hybridSearchService, "cacheManager",
+                                     new ConcurrentMapCacheManager(CacheConfig.GOOGLE_RESULTS));
+
+        // 網址為空字串時不會抓取網頁內容
+        candidates = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            candidates.add(new SearchResult(new WebPage("", "咖啡廳" + i), 90 - i * 10));
+        }
+        lenient().when(searchService.prepareQuery(anyString())).thenAnswer(i -> ParsedQuery.parse(i.getArgument(0)));
+        lenient().when(searchService.advancedSearch(any(ParsedQuery.class), any(), any(), eq(0), eq(4), eq(false)))
+            .thenReturn(new SearchPage(candidates, 37, 0, 4));
+        lenient().when(searchService.advancedSearch(any(ParsedQuery.class), any(), any(), eq(0), eq(Integer.MAX_VALUE), eq(false)))
+            .thenReturn(new SearchPage(candidates, 4, 0, Integer.MAX_VALUE));
+    }
+
+    @Test
+    @DisplayName("測試分頁：取回到這一頁結尾的候選（至少 retrieval-depth 筆），只對這些候選加權")
+    void testPagedStages() {
+        HybridSearchService.CascadeResult result =
+            hybridSearchService.cascadeSearch("咖啡", null, null, false, 1, 2);
+
+        verify(searchService).advancedSearch(argThat((ParsedQuery q) -> q.getText().equals("咖啡")), isNull(), isNull(), eq(0), eq(4), eq(false));
+        assertEquals(37, result.localTotal());
+        assertEquals(37, result.total());
+        assertEquals(List.of("咖啡廳1", "咖啡廳2"), names(result.results()));
+        assertEquals(160.0, result.results().get(0).getScore(), 1e-9);
+        assertEquals("local", result.results().get(1).getSource());
+        assertTrue(result.hasMore());
+        assertEquals(90.0, candidates.get(0).getScore(), 1e-9, "快取中的候選不應被修改");
+        assertEquals(List.of("retrieve", "merge"), new ArrayList<>(result.stageMillis().keySet()));
+        verifyNoInteractions(googleService);
+    }
+
+    @Test
+    @DisplayName("測試未指定分頁時回傳全部本地結果")
+    void testAllResultsByDefault() {
+        HybridSearchService.CascadeResult result = hybridSearchService.cascadeSearch("咖啡", null, null, false);
+
+        verify(searchService).advancedSearch(argThat((ParsedQuery q) -> q.getText().equals("咖啡")), isNull(), isNull(), eq(0), eq(Integer.MAX_VALUE), eq(false));
+        assertEquals(List.of("咖啡廳0", "咖啡廳1", "咖啡廳2", "咖啡廳3"), names(result.results()));
+        assertEquals(4, result.total());
+        assertFalse(result.hasMore());
+    }
+
+    private List<String> names(List<SearchResult> results) {
+        List<String> names = new ArrayList<>();
+        for (SearchResult r : results) {
+            names.add(r.getName());
+        }
+        return names;
+    }
+
+    @Test
+    @DisplayName("測試 Google 結果與全部候選去重後只保留前幾筆")
+    void testGoogleStage() throws Exception {
+        LinkedHashMap<String, String> google = new LinkedHashMap<>();
+        google.put("咖啡廳3", "google-1");   // 與本地候選同名
+        google.put("網誌 A", "google-2");
+        google.put("網誌 B", "google-3");
+        google.put("網誌 C", "google-4");
+        when(googleService.search("咖啡")).thenReturn(google);
+
+        HybridSearchService.CascadeResult result = hybridSearchService.cascadeSearch("咖啡", null, null, true);
+
+        List<String> googleNames = new ArrayList<>();
+        for (SearchResult r : result.results()) {
+            if ("google".equals(r.getSource())) {
+                googleNames.add(r.getName());
+            }
+        }
+        assertEquals(List.of("網誌 A", "網誌 B"), googleNames);
+        assertEquals(6, result.results().size());
+        assertEquals(6, result.total());
+        assertEquals(List.of("retrieve", "google", "merge"), new ArrayList<>(result.stageMillis().keySet()));
+    }
+
+    @Test
+    @DisplayName("測試翻頁超過 retrieval-depth 時 Google 結果不變，且只搜尋一次 Google")
+    void testGoogleStageStableAcrossPages() throws Exception {
+        // 第 5 名的本地候選與 Google 結果同名，但不在固定的去重範圍（前 4 名）內
+        List<SearchResult> deeper = new ArrayList<>(candidates);
+        deeper.add(new SearchResult(new WebPage("", "網誌 A"), 40));
+        deeper.add(new SearchResult(new WebPage("", "咖啡廳5"), 30));
+        when(searchService.advancedSearch(any(ParsedQuery.class), any(), any(), eq(0), eq(6), eq(false)))
+            .thenReturn(new SearchPage(deeper, 37, 0, 6));
+
+        LinkedHashMap<String, String> google = new LinkedHashMap<>();
+        google.put("咖啡廳3", "google-1");
+        google.put("網誌 A", "google-2");
+        google.put("網誌 B", "google-3");
+        google.put("網誌 C", "google-4");
+        when(googleService.search("咖啡")).thenReturn(google);
+
+        HybridSearchService.CascadeResult first = hybridSearchService.cascadeSearch("咖啡", null, null, true, 0, 2);
+        HybridSearchService.CascadeResult second = hybridSearchService.cascadeSearch("咖啡", null, null, true, 4, 2);
+
+        // 合併後：本地 180、160、140、120，Google 99、98，本地 80、60
+        assertEquals(List.of("咖啡廳0", "咖啡廳1"), names(first.results()));
+        assertEquals(List.of("網誌 A", "網誌 B"), names(second.results()));
+        assertEquals(39, first.total());
+        assertEquals(first.total(), second.total(), "每一頁合併的 Google 結果應相同");
+        verify(googleService, times(1)).search("咖啡");
+    }
+
+    @Test
+    @DisplayName("測試空關鍵字不執行搜尋")
+    void testEmptyKeyword() {
+        assertTrue(hybridSearchService.hybridSearch("  ", true).isEmpty());
+        verifyNoInteractions(googleService);
+        verify(searchService, never()).advancedSearch(any(ParsedQuery.class), any(), any(), anyInt(), anyInt(), anyBoolean());
+    }
+}
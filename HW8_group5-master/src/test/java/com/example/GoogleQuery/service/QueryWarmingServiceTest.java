@@ -0,0 +1,76 @@
+package com.example.GoogleQuery.service;
+
+import com.example.GoogleQuery.util.ParsedQuery;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+
+/**
+ * QueryWarmingServiceTest - QueryWarmingService 單元測試
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("QueryWarmingService 測試")
+class QueryWarmingServiceTest {
+
+    @Mock
+    private SearchService searchService;
+
+    @InjectMocks
+    private QueryWarmingService queryWarmingService;
+
+    @AfterEach
+    void tearDown() {
+        queryWarmingService.shutdown();
+    }
+
+    @Test
+    @DisplayName("測試依次數選出熱門查詢")
+    void testHotQueries() {
+        for (int i = 0; i < 3; i++) {
+            queryWarmingService.recordSearch(ParsedQuery.parse("不限時"), 0, 10);
+        }
+        queryWarmingService.recordSearch(ParsedQuery.parse("插座"), 0, 10);
+        queryWarmingService.recordAdvancedSearch(ParsedQuery.parse("安靜"), List.of("大安區"), null, 0, 10, false);
+        queryWarmingService.recordAdvancedSearch(ParsedQuery.parse("安靜"), List.of("大安區"), List.of(), 0, 10, false);
+        queryWarmingService.recordSearch(ParsedQuery.parse(""), 0, 10);
+
+        List<QueryWarmingService.HotQuery> hot = queryWarmingService.hotQueries(2);
+        assertEquals(2, hot.size());
+        assertEquals("不限時", hot.get(0).keyword());
+        assertEquals("安靜", hot.get(1).keyword());
+        assertTrue(hot.get(1).isAdvanced());
+        assertEquals(3, queryWarmingService.hotQueries(10).size(), "空查詢不應記錄");
+    }
+
+    @Test
+    @DisplayName("測試預熱寫回快取並衰減計數")
+    void testRefresh() {
+        queryWarmingService.recordSearch(ParsedQuery.parse("不限時"), 0, 10);
+        queryWarmingService.recordSearch(ParsedQuery.parse("不限時"), 0, 10);
+        queryWarmingService.recordAdvancedSearch(ParsedQuery.parse(""), List.of("大安區"), null, 0, 5, true);
+
+        assertEquals(2, queryWarmingService.refreshHotQueries());
+        verify(searchService).refreshSearch("不限時", 0, 10);
+        verify(searchService).refreshAdvancedSearch("", List.of("大安區"), List.of(), 0, 5, true);
+
+        // 只出現一次的查詢減半後移除
+        assertEquals(1, queryWarmingService.hotQueries(10).size());
+    }
+
+    @Test
+    @DisplayName("測試搜尋負載過高時略過預熱")
+    void testBackoff() {
+        when(searchService.getActiveSearchCount()).thenReturn(Integer.MAX_VALUE);
+        queryWarmingService.recordSearch(ParsedQuery.parse("不限時"), 0, 10);
+
+        assertEquals(0, queryWarmingService.refreshHotQueries());
+        verify(searchService, never()).refreshSearch(anyString(), anyInt(), anyInt());
+    }
+}
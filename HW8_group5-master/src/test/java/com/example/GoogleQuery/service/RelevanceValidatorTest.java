@@ -3,6 +3,7 @@ package com.example.GoogleQuery.service;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -15,6 +16,9 @@ public class RelevanceValidatorTest {
     @Autowired
     private RelevanceValidator relevanceValidator;
 
+    @Autowired
+    private KeywordService keywordService;
+
     /**
      * 測試不相關詞彙（應返回 false）
      */
@@ -93,4 +97,21 @@ public class RelevanceValidatorTest {
         assertTrue(result.isRelevant() || result.getSuggestions().contains("咖啡"), 
                   "類似詞彙應該被視為相關或返回相關建議");
     }
+
+    /**
+     * 測試新增關鍵字後類似詞建議立即更新
+     * （會修改共用的關鍵字字典，測試後重建 Spring context）
+     */
+    @Test
+    @DirtiesContext
+    public void testSuggestionsAfterAddKeyword() {
+        RelevanceValidator.RelevanceResult before = relevanceValidator.validateRelevance("qzxwv");
+        assertFalse(before.getSuggestions().contains("qzxwy"));
+
+        keywordService.addKeyword("qzxwy", 1.0, 3);
+        RelevanceValidator.RelevanceResult after = relevanceValidator.validateRelevance("qzxwv");
+        assertTrue(after.isRelevant());
+        assertEquals("qzxwy", after.getSuggestions().get(0));
+    }
 }
+
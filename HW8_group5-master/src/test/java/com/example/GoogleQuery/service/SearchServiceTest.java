@@ -3,9 +3,14 @@ package com.example.GoogleQuery.service;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -14,6 +19,9 @@ import static org.mockito.Mockito.when;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -24,11 +32,17 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import com.example.GoogleQuery.config.CacheConfig;
 import com.example.GoogleQuery.core.SearchEngine;
 import com.example.GoogleQuery.model.Keyword;
+import com.example.GoogleQuery.model.SearchPage;
 import com.example.GoogleQuery.model.SearchResult;
 import com.example.GoogleQuery.model.WebPage;
+import com.example.GoogleQuery.util.ParsedQuery;
 
 /**
  * SearchServiceTest - SearchService 單元測試
@@ -40,6 +54,9 @@ class SearchServiceTest {
     
     @Mock
     private SearchEngine searchEngine;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
     
     @InjectMocks
     private SearchService searchService;
@@ -295,6 +312,39 @@ class SearchServiceTest {
         assertEquals(15, stats.get("totalKeywords"));
     }
     
+    @Test
+    @DisplayName("測試重新載入前開始的搜尋不會把舊資料的結果留在快取")
+    void testReloadDuringSearch() throws Exception {
+        ReflectionTestUtils.setField(searchService, "cacheManager", new ConcurrentMapCacheManager(CacheConfig.SEARCH_RESULTS));
+        ReflectionTestUtils.setField(searchService, "parallelism", 1);
+
+        // 舊引擎的搜尋在重新載入完成後才結束
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        SearchPage stale = new SearchPage(mockResults, 3, 0, 10);
+        when(searchEngine.prepareQuery("咖啡")).thenReturn(ParsedQuery.parse("咖啡"));
+        when(searchEngine.searchPage(any(ParsedQuery.class), isNull(), isNull(), eq(0), eq(10), eq(false)))
+            .thenAnswer(invocation -> {
+                started.countDown();
+                release.await(5, TimeUnit.SECONDS);
+                return stale;
+            });
+
+        CompletableFuture<SearchPage> inFlight = CompletableFuture.supplyAsync(() -> searchService.search("咖啡", 0, 10));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertTrue(searchService.reloadData());
+
+        // 重新載入後的請求使用新引擎，不等待、不合併舊引擎進行中的查詢
+        SearchPage fresh = searchService.search("咖啡", 0, 10);
+        assertNotSame(stale, fresh);
+        assertEquals(1, searchService.getActiveSearchCount());
+
+        release.countDown();
+        assertSame(stale, inFlight.get(5, TimeUnit.SECONDS));
+        assertSame(fresh, searchService.search("咖啡", 0, 10), "舊引擎的結果不應覆蓋新資料的快取");
+        searchService.shutdown();
+    }
+
     @Nested
     @DisplayName("效能相關測試")
     class PerformanceTests {
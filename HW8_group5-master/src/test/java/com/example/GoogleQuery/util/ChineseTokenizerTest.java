@@ -0,0 +1,117 @@
+package com.example.GoogleQuery.util;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+
+/**
+ * ChineseTokenizerTest - ChineseTokenizer 與 DoubleArrayTrie 單元測試
+ */
+@DisplayName("ChineseTokenizer 測試")
+class ChineseTokenizerTest {
+
+    @Test
+    @DisplayName("測試雙陣列字典樹的最長匹配")
+    void testLongestMatch() {
+        DoubleArrayTrie trie = new DoubleArrayTrie(List.of("咖啡", "咖啡廳", "不限時", "限時", "a", "ab", "abcd"));
+        assertEquals(7, trie.size());
+        assertEquals(3, trie.longestMatch("咖啡廳很安靜", 0, 6));
+        assertEquals(2, trie.longestMatch("咖啡廳", 0, 2), "不超過結束位置");
+        assertEquals(2, trie.longestMatch("不限時", 1, 3));
+        assertEquals(0, trie.longestMatch("咖", 0, 1), "詞的前綴不算匹配");
+        assertEquals(2, trie.longestMatch("abc", 0, 3), "走到不存在的轉移時返回最後一個完整的詞");
+        assertTrue(trie.contains("abcd"));
+        assertFalse(trie.contains("abc"));
+        assertFalse(trie.contains(""));
+        assertEquals(0, new DoubleArrayTrie(List.of()).longestMatch("咖啡", 0, 2));
+    }
+
+    @Test
+    @DisplayName("測試分詞結果與逐一比對字典的最大匹配相同")
+    void testMatchesReference() {
+        Set<String> dictionary = new HashSet<>();
+        Random random = new Random(7);
+        String alphabet = "咖啡廳不限時插座安靜讀書工作";
+        for (int i = 0; i < 200; i++) {
+            dictionary.add(randomText(random, alphabet, 1 + random.nextInt(5)));
+        }
+        DoubleArrayTrie trie = new DoubleArrayTrie(dictionary);
+
+        for (String word : dictionary) {
+            assertTrue(trie.contains(word), word);
+        }
+        for (int q = 0; q < 500; q++) {
+            String text = randomText(random, alphabet, 1 + random.nextInt(30));
+            int i = 0;
+            while (i < text.length()) {
+                int expected = 0;
+                for (int len = text.length() - i; len >= 1; len--) {
+                    if (dictionary.contains(text.substring(i, i + len))) {
+                        expected = len;
+                        break;
+                    }
+                }
+                assertEquals(expected, trie.longestMatch(text, i, text.length()), text + " @" + i);
+                i += Math.max(1, expected);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("測試分詞位置與類型")
+    void testTokenOffsets() {
+        TokenBuffer buffer = new TokenBuffer();
+        ChineseTokenizer.tokenize("不限時咖啡廳 WiFi 24小時", buffer);
+
+        assertEquals(6, buffer.size());
+        assertEquals(List.of("不限時", "咖啡廳", "WiFi", "24", "小", "時"), texts("不限時咖啡廳 WiFi 24小時", buffer));
+        assertEquals(ChineseTokenizer.TYPE_WORD, buffer.type(0));
+        assertEquals(ChineseTokenizer.TYPE_ENGLISH, buffer.type(2));
+        assertEquals(ChineseTokenizer.TYPE_NUMBER, buffer.type(3));
+        assertEquals(ChineseTokenizer.TYPE_CHAR, buffer.type(4));
+
+        // 緩衝區可以重複使用
+        ChineseTokenizer.tokenize("安靜", buffer);
+        assertEquals(1, buffer.size());
+
+        assertEquals(List.of("不限時", "咖啡廳", "wifi", "小", "時"), ChineseTokenizer.tokenize("不限時咖啡廳 WiFi 24小時"));
+        assertTrue(ChineseTokenizer.tokenize("").isEmpty());
+    }
+
+    @Test
+    @DisplayName("測試修改字典後立即生效")
+    void testDictionaryUpdates() {
+        int size = ChineseTokenizer.getDictionarySize();
+        try {
+            assertEquals(List.of("秘", "密", "基", "地"), ChineseTokenizer.tokenize("秘密基地"));
+            ChineseTokenizer.addWords(List.of("秘密基地", "基地"));
+            assertEquals(size + 2, ChineseTokenizer.getDictionarySize());
+            assertEquals(List.of("秘密基地"), ChineseTokenizer.tokenize("秘密基地"));
+
+            ChineseTokenizer.removeWord("秘密基地");
+            assertFalse(ChineseTokenizer.containsWord("秘密基地"));
+            assertEquals(List.of("秘", "密", "基地"), ChineseTokenizer.tokenize("秘密基地"));
+        } finally {
+            ChineseTokenizer.removeWord("秘密基地");
+            ChineseTokenizer.removeWord("基地");
+        }
+        assertEquals(size, ChineseTokenizer.getDictionarySize());
+    }
+
+    private static List<String> texts(String text, TokenBuffer buffer) {
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < buffer.size(); i++) {
+            tokens.add(text.substring(buffer.start(i), buffer.end(i)));
+        }
+        return tokens;
+    }
+
+    private static String randomText(Random random, String alphabet, int length) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return sb.toString();
+    }
+}
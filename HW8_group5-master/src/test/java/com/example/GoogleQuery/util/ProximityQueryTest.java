@@ -0,0 +1,60 @@
+package com.example.GoogleQuery.util;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+
+/**
+ * ProximityQueryTest - ProximityQuery 單元測試
+ */
+@DisplayName("ProximityQuery 測試")
+class ProximityQueryTest {
+
+    @Test
+    @DisplayName("測試片語解析")
+    void testPhrase() {
+        ProximityQuery query = ProximityQuery.parse("安靜 “不限時  插座”");
+
+        assertTrue(query.hasClauses());
+        assertEquals(1, query.getClauses().size());
+        assertTrue(query.getClauses().get(0).isPhrase());
+        assertEquals(List.of("不限時", "插座"), query.getClauses().get(0).left());
+        assertEquals("安靜 不限時 插座", query.getText());
+        assertEquals("安靜 \"不限時 插座\"", query.toString());
+    }
+
+    @Test
+    @DisplayName("測試 NEAR/n 解析（不分大小寫、可連續使用、兩邊可以是片語）")
+    void testNear() {
+        ProximityQuery query = ProximityQuery.parse("「不限時 插座」 ＮＥＡＲ／３ wifi near/1 咖啡");
+
+        List<ProximityQuery.Clause> clauses = query.getClauses();
+        assertEquals(2, clauses.size());
+        assertEquals(new ProximityQuery.Clause(List.of("不限時", "插座"), List.of("wifi"), 3), clauses.get(0));
+        assertEquals(new ProximityQuery.Clause(List.of("wifi"), List.of("咖啡"), 1), clauses.get(1));
+        assertEquals("\"不限時 插座\" near/3 wifi near/1 咖啡", query.toString());
+    }
+
+    @Test
+    @DisplayName("測試沒有位置條件的查詢")
+    void testNoClauses() {
+        assertFalse(ProximityQuery.parse("不限時 插座").hasClauses());
+        assertFalse(ProximityQuery.parse("\"插座\"").hasClauses(), "只有一個詞的片語視為一般詞");
+        assertFalse(ProximityQuery.parse("near/3 插座").hasClauses(), "缺少一邊的 NEAR 被忽略");
+        assertFalse(ProximityQuery.parse("cafe near mrt").hasClauses());
+        assertFalse(ProximityQuery.parse(null).hasClauses());
+    }
+
+    @Test
+    @DisplayName("測試標準形式解析後不變，並由 QueryCanonicalizer 保留")
+    void testCanonicalRoundTrip() {
+        for (String raw : new String[] {"的 安靜 \"不限時 插座\"", "插座 NEAR/2 咖啡", "\"A B\" near/500 c"}) {
+            String canonical = QueryCanonicalizer.canonicalize(raw);
+            assertEquals(canonical, ProximityQuery.parse(canonical).toString(), raw);
+            assertEquals(canonical, QueryCanonicalizer.canonicalize(canonical), raw);
+        }
+        assertEquals("安靜 \"不限時 插座\"", QueryCanonicalizer.canonicalize("的 安靜 \"不限時 插座\""));
+        assertEquals("\"a b\" near/" + ProximityQuery.MAX_DISTANCE + " c", QueryCanonicalizer.canonicalize("\"A B\" near/500 c"));
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.GoogleQuery.util;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+
+/**
+ * QueryCanonicalizerTest - QueryCanonicalizer 單元測試
+ */
+@DisplayName("QueryCanonicalizer 測試")
+class QueryCanonicalizerTest {
+
+    @Test
+    @DisplayName("測試全形 / 半形、大小寫、空白與標點")
+    void testCanonicalize() {
+        assertEquals("wifi 不限時", QueryCanonicalizer.canonicalize("ＷＩＦＩ　不限時！"));
+        assertEquals("wifi 不限時", QueryCanonicalizer.canonicalize("  WiFi,   不限時 "));
+        assertEquals("louisa coffee", QueryCanonicalizer.canonicalize("Louisa-Coffee"));
+        assertEquals("", QueryCanonicalizer.canonicalize(null));
+        assertEquals("", QueryCanonicalizer.canonicalize("   "));
+
+        assertEquals("wi-fi 的 不限時!", QueryCanonicalizer.foldSpaces("  Ｗｉ-Ｆｉ　的  不限時！ "));
+        assertEquals("", QueryCanonicalizer.foldSpaces(null));
+    }
+
+    @Test
+    @DisplayName("測試移除停用詞")
+    void testStopWords() {
+        assertEquals("安靜 咖啡廳", QueryCanonicalizer.canonicalize("安靜 的 咖啡廳"));
+        assertEquals("quiet cafe", QueryCanonicalizer.canonicalize("The quiet cafe"));
+        assertEquals("的", QueryCanonicalizer.canonicalize("的"), "全部都是停用詞時應保留");
+    }
+
+    @Test
+    @DisplayName("測試 token 排序與篩選條件正規化")
+    void testSortAndFilters() {
+        assertEquals("不限時 咖啡", QueryCanonicalizer.sortTokens("咖啡 不限時"));
+        assertEquals(List.of("中山區", "大安區"),
+            QueryCanonicalizer.canonicalFilters(List.of("大安區", "中山區", "大安區")));
+        assertEquals(QueryCanonicalizer.canonicalFilters(null),
+            QueryCanonicalizer.canonicalFilters(new ArrayList<>()));
+    }
+}
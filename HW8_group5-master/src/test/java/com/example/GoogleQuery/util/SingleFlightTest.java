@@ -0,0 +1,119 @@
+package com.example.GoogleQuery.util;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * SingleFlightTest - SingleFlight 單元測試
+ */
+@DisplayName("SingleFlight 測試")
+class SingleFlightTest {
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("測試同時進行的相同請求只計算一次")
+    void testCoalesces() throws Exception {
+        SingleFlight<String, Integer> flight = new SingleFlight<>(5000);
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<Integer> leader = executor.submit(() -> flight.execute("q", () -> {
+            calls.incrementAndGet();
+            started.countDown();
+            await(release);
+            return 42;
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        List<Future<Integer>> followers = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            followers.add(executor.submit(() -> flight.execute("q", calls::incrementAndGet)));
+        }
+        waitUntilBlocked(4);
+        release.countDown();
+
+        assertEquals(42, leader.get(5, TimeUnit.SECONDS));
+        for (Future<Integer> follower : followers) {
+            assertEquals(42, follower.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, calls.get());
+        assertEquals(0, flight.inFlightCount(), "完成後應移除");
+        assertEquals(2, flight.execute("q", calls::incrementAndGet), "完成後的請求應重新計算");
+    }
+
+    @Test
+    @DisplayName("測試例外傳給等待中的請求")
+    void testErrorPropagation() throws Exception {
+        SingleFlight<String, Integer> flight = new SingleFlight<>(5000);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<Integer> leader = executor.submit(() -> flight.execute("q", () -> {
+            started.countDown();
+            await(release);
+            throw new IllegalArgumentException("失敗");
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        Future<Integer> follower = executor.submit(() -> flight.execute("q", () -> 1));
+        waitUntilBlocked(2);
+        release.countDown();
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalArgumentException.class, e.getCause());
+        e = assertThrows(ExecutionException.class, () -> follower.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalArgumentException.class, e.getCause());
+    }
+
+    @Test
+    @DisplayName("測試等待逾時")
+    void testTimeout() throws Exception {
+        SingleFlight<String, Integer> flight = new SingleFlight<>(50);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        executor.submit(() -> flight.execute("q", () -> {
+            started.countDown();
+            await(release);
+            return 1;
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        assertThrows(IllegalStateException.class, () -> flight.execute("q", () -> 2));
+        assertEquals(3, flight.execute("other", () -> 3), "不同 key 不受影響");
+        release.countDown();
+    }
+
+    /**
+     * 等到指定數量的工作開始執行，再多等一段時間讓等待的請求進入 execute
+     */
+    private void waitUntilBlocked(int active) throws InterruptedException {
+        while (((ThreadPoolExecutor) executor).getActiveCount() < active) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(100);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
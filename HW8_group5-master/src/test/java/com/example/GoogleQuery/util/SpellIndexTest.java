@@ -0,0 +1,69 @@
+package com.example.GoogleQuery.util;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+
+/**
+ * SpellIndexTest - SpellIndex 單元測試
+ */
+@DisplayName("SpellIndex 測試")
+class SpellIndexTest {
+
+    @Test
+    @DisplayName("測試編輯距離")
+    void testDistance() {
+        assertEquals(0, SpellIndex.distance("咖啡", "咖啡"));
+        assertEquals(1, SpellIndex.distance("咖啡", "咖啡廳"));
+        assertEquals(2, SpellIndex.distance("不限時", "限"));
+        assertEquals(3, SpellIndex.distance("kitten", "sitting"));
+        assertEquals(2, SpellIndex.distance(null, "ab"));
+        assertEquals(3, SpellIndex.distance("kitten", "sitting", 2), "超過上限時返回上限 + 1");
+    }
+
+    @Test
+    @DisplayName("測試依距離排序、忽略大小寫")
+    void testLookup() {
+        SpellIndex index = new SpellIndex(List.of("WIFI", "插座", "不限時", "咖啡廳", "咖啡", "wifi"), 2);
+        assertEquals(5, index.size(), "大小寫不同的詞只保留一筆");
+
+        assertEquals(List.of("WIFI"), index.lookup("wifl", 5));
+        assertEquals(List.of("咖啡", "咖啡廳"), index.lookup("咖啡館", 2).subList(0, 2).stream().sorted().toList());
+        assertEquals("咖啡廳", index.lookup("咖啡廳", 5).get(0), "完全相同的詞排在最前面");
+        assertEquals(List.of("不限時"), index.lookup("不限时", 1));
+        assertTrue(index.lookup("", 5).isEmpty());
+        assertTrue(index.lookup("莫名其妙的字", 5).isEmpty());
+    }
+
+    @Test
+    @DisplayName("測試結果與逐一計算編輯距離相同（包含長詞）")
+    void testMatchesBruteForce() {
+        Random random = new Random(42);
+        String alphabet = "abcd咖啡";
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            words.add(randomWord(random, alphabet, 1 + random.nextInt(12)));
+        }
+        SpellIndex index = new SpellIndex(words, 2);
+
+        for (int q = 0; q < 300; q++) {
+            String input = randomWord(random, alphabet, 1 + random.nextInt(12));
+            Set<String> expected = new HashSet<>();
+            for (String word : words) {
+                if (SpellIndex.distance(input, word) <= 2) {
+                    expected.add(word);
+                }
+            }
+            assertEquals(expected, new HashSet<>(index.lookup(input, Integer.MAX_VALUE)), "輸入: " + input);
+        }
+    }
+
+    private static String randomWord(Random random, String alphabet, int length) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return sb.toString();
+    }
+}
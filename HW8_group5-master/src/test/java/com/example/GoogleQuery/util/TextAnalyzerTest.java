@@ -0,0 +1,85 @@
+package com.example.GoogleQuery.util;
+
+import com.example.GoogleQuery.model.WebPage;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+
+/**
+ * TextAnalyzerTest - TextAnalyzer 與 TokenStream 單元測試
+ */
+@DisplayName("TextAnalyzer 測試")
+class TextAnalyzerTest {
+
+    @Test
+    @DisplayName("測試正規化、停用詞過濾與同義詞")
+    void testAnalyze() {
+        TokenStream stream = TextAnalyzer.DEFAULT.analyze("The 咖啡店很安靜，有WiFi和無線網路");
+
+        assertEquals("the 咖啡店很安靜，有wifi和無線網路", stream.getText());
+        assertEquals(List.of("咖啡廳", "安靜", "wifi", "wifi"), stream.terms());
+        assertEquals(8, stream.getTokenCount(), "字數包含停用詞");
+        assertEquals(2, stream.frequency("wifi"));
+        assertEquals(0, stream.frequency("很"));
+        assertEquals(ChineseTokenizer.TYPE_ENGLISH, stream.type(2));
+    }
+
+    @Test
+    @DisplayName("測試 token 位置對應回原文")
+    void testOffsets() {
+        String content = "Cafe 不限時 Socket 插座 24小時";
+        TokenStream stream = new TextAnalyzer(Map.of()).analyze(content);
+
+        assertEquals(content.length(), stream.getText().length());
+        for (int i = 0; i < stream.size(); i++) {
+            assertEquals(stream.term(i), content.substring(stream.start(i), stream.end(i)).toLowerCase());
+        }
+        assertTrue(stream.terms().contains("24"), "數字保留在分析結果中");
+    }
+
+    @Test
+    @DisplayName("測試空內容")
+    void testEmpty() {
+        assertSame(TokenStream.EMPTY, TextAnalyzer.DEFAULT.analyze(null));
+        assertSame(TokenStream.EMPTY, TextAnalyzer.DEFAULT.analyze(""));
+        assertEquals(0, TokenStream.EMPTY.getTokenCount());
+        assertTrue(TokenStream.EMPTY.getFrequencies().isEmpty());
+    }
+
+    @Test
+    @DisplayName("測試網頁只分析一次，內容變動後重新分析")
+    void testCachedPerPage() {
+        WebPage page = new WebPage("", "測試");
+        page.setContent("安靜的咖啡廳");
+
+        TokenStream stream = page.getTokenStream();
+        assertSame(stream, page.getTokenStream());
+        assertSame(stream.getText(), page.getLowerCaseContent());
+
+        page.setContent("有插座");
+        assertNotSame(stream, page.getTokenStream());
+        assertEquals(List.of("插座"), page.getTokenStream().terms());
+    }
+
+    @Test
+    @DisplayName("測試不同文件中相同的詞共用同一個字串")
+    void testInternedTerms() {
+        TokenStream first = TextAnalyzer.DEFAULT.analyze("安靜 插座");
+        TokenStream second = TextAnalyzer.DEFAULT.analyze("有插座很安靜");
+
+        assertSame(first.term(0), second.term(second.terms().indexOf("安靜")));
+        assertSame(first.term(1), second.term(second.terms().indexOf("插座")));
+    }
+
+    @Test
+    @DisplayName("測試字數（空白分隔）與 token 數量")
+    void testWordAndTokenCount() {
+        WebPage page = new WebPage("", "測試");
+        page.setContent("安靜的咖啡廳 有插座");
+
+        assertEquals(2, page.getCounter().getWordCount());
+        assertEquals(page.getTokenStream().getTokenCount(), page.getCounter().getTokenCount());
+        assertTrue(page.getCounter().getTokenCount() > page.getCounter().getWordCount());
+    }
+}